@@ -1629,4 +1629,16 @@ default CatalogCapabilities getCatalogCapabilities() {
         // return catalog default capabilities
         return new CatalogCapabilities();
     }
+
+    /**
+     * Returns a read only snapshot of the catalog contents, for consumers that need to walk large
+     * portions of the catalog without modifying it. The objects in the snapshot are subject to the
+     * same filtering and security wrapping as the ones returned by {@link #list(Class, Filter)},
+     * but implementations are free to avoid wrapping them in modification proxies.
+     *
+     * @return a catalog snapshot
+     */
+    default CatalogSnapshot snapshot() {
+        return CatalogSnapshot.of(this);
+    }
 }
@@ -6,11 +6,15 @@
 package org.geoserver.catalog;
 
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.geoserver.catalog.event.CatalogModifyEvent;
 import org.geoserver.catalog.impl.DefaultCatalogFacade;
+import org.geoserver.catalog.impl.ModificationProxy;
 import org.geoserver.catalog.util.CloseableIterator;
 import org.opengis.filter.Filter;
 import org.opengis.filter.sort.SortBy;
@@ -710,6 +714,60 @@ default CatalogCapabilities getCatalogCapabilities() {
         return new CatalogCapabilities();
     }
 
+    /**
+     * Adds a batch of objects to persistent storage, in the given order. Meant for bulk loads
+     * (e.g., at startup), implementations are encouraged to amortize locking and bookkeeping over
+     * the whole batch. The default implementation adds the objects one at a time.
+     *
+     * @param infos The objects to add
+     * @return The added objects, in the same order
+     */
+    default List<CatalogInfo> addAll(List<? extends CatalogInfo> infos) {
+        List<CatalogInfo> result = new ArrayList<>(infos.size());
+        for (CatalogInfo info : infos) {
+            if (info instanceof WorkspaceInfo) {
+                result.add(add((WorkspaceInfo) info));
+            } else if (info instanceof NamespaceInfo) {
+                result.add(add((NamespaceInfo) info));
+            } else if (info instanceof StoreInfo) {
+                result.add(add((StoreInfo) info));
+            } else if (info instanceof ResourceInfo) {
+                result.add(add((ResourceInfo) info));
+            } else if (info instanceof LayerInfo) {
+                result.add(add((LayerInfo) info));
+            } else if (info instanceof LayerGroupInfo) {
+                result.add(add((LayerGroupInfo) info));
+            } else if (info instanceof StyleInfo) {
+                result.add(add((StyleInfo) info));
+            } else if (info instanceof MapInfo) {
+                result.add(add((MapInfo) info));
+            } else {
+                throw new IllegalArgumentException("Unsupported catalog object: " + info);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a read only snapshot of the facade contents, with objects not wrapped in modification
+     * proxies. The default implementation is unversioned and unwraps the results of the various
+     * getters, implementations are encouraged to provide a more efficient and versioned one.
+     *
+     * @return a catalog snapshot
+     */
+    default CatalogSnapshot snapshot() {
+        Map<Class<? extends CatalogInfo>, List<? extends CatalogInfo>> contents = new HashMap<>();
+        contents.put(WorkspaceInfo.class, ModificationProxy.unwrap(getWorkspaces()));
+        contents.put(NamespaceInfo.class, ModificationProxy.unwrap(getNamespaces()));
+        contents.put(StoreInfo.class, ModificationProxy.unwrap(getStores(StoreInfo.class)));
+        contents.put(
+                ResourceInfo.class, ModificationProxy.unwrap(getResources(ResourceInfo.class)));
+        contents.put(StyleInfo.class, ModificationProxy.unwrap(getStyles()));
+        contents.put(LayerInfo.class, ModificationProxy.unwrap(getLayers()));
+        contents.put(LayerGroupInfo.class, ModificationProxy.unwrap(getLayerGroups()));
+        return new CatalogSnapshot(CatalogSnapshot.UNVERSIONED, contents);
+    }
+
     /**
      * Creates a proxy instance of the provided class.
      *
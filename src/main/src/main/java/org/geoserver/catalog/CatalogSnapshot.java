@@ -0,0 +1,170 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.catalog;
+
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.geoserver.catalog.impl.ModificationProxy;
+import org.geoserver.catalog.util.CloseableIterator;
+import org.opengis.filter.Filter;
+
+/**
+ * A read only view of the catalog contents, meant for consumers that need to walk large portions of
+ * the catalog without modifying it (e.g., capabilities documents).
+ *
+ * <p>The objects returned by a snapshot are not wrapped in a {@link ModificationProxy}, and thus
+ * must not be modified. Use {@link #edit(CatalogInfo, Class)} to get a modifiable copy of an object
+ * that can then be saved back into the catalog. The lists of objects are fixed at the time the
+ * snapshot is taken, and cannot be modified either.
+ *
+ * <p>Snapshots taken from the same catalog have a version number that changes every time the
+ * catalog is modified, allowing consumers to check if a derived structure is still up to date. A
+ * version of {@link #UNVERSIONED} means the implementation does not track changes.
+ */
+public class CatalogSnapshot {
+
+    /** Version used by snapshots whose source does not track changes */
+    public static final long UNVERSIONED = -1;
+
+    /** The types of catalog objects contained in a snapshot */
+    public static final List<Class<? extends CatalogInfo>> TYPES =
+            Collections.unmodifiableList(
+                    Arrays.asList(
+                            WorkspaceInfo.class,
+                            NamespaceInfo.class,
+                            StoreInfo.class,
+                            ResourceInfo.class,
+                            StyleInfo.class,
+                            LayerInfo.class,
+                            LayerGroupInfo.class));
+
+    private final long version;
+
+    private final Map<Class<? extends CatalogInfo>, List<CatalogInfo>> contents;
+
+    /**
+     * Builds a new snapshot. The lists are not copied, the caller should not modify them after
+     * calling this constructor
+     *
+     * @param version The snapshot version
+     * @param contents The catalog contents, keyed by one of the {@link #TYPES}
+     */
+    @SuppressWarnings("unchecked")
+    public CatalogSnapshot(
+            long version,
+            Map<Class<? extends CatalogInfo>, ? extends List<? extends CatalogInfo>> contents) {
+        this.version = version;
+        this.contents = new HashMap<>();
+        for (Class<? extends CatalogInfo> type : TYPES) {
+            List<? extends CatalogInfo> list = contents.get(type);
+            this.contents.put(
+                    type,
+                    list == null
+                            ? Collections.emptyList()
+                            : Collections.unmodifiableList((List<CatalogInfo>) list));
+        }
+    }
+
+    /**
+     * Builds an unversioned snapshot using {@link Catalog#list(Class, Filter)}, suitable for
+     * catalogs that cannot provide a more efficient implementation
+     */
+    public static CatalogSnapshot of(Catalog catalog) {
+        Map<Class<? extends CatalogInfo>, List<? extends CatalogInfo>> contents = new HashMap<>();
+        for (Class<? extends CatalogInfo> type : TYPES) {
+            try (CloseableIterator<? extends CatalogInfo> it = catalog.list(type, Filter.INCLUDE)) {
+                contents.put(type, Lists.newArrayList(it));
+            }
+        }
+        return new CatalogSnapshot(UNVERSIONED, contents);
+    }
+
+    /**
+     * Returns a modifiable version of an object obtained from a snapshot, to be saved back in the
+     * catalog once modified
+     */
+    public static <T extends CatalogInfo> T edit(T info, Class<T> type) {
+        if (info == null || ModificationProxy.handler(info) != null) {
+            return info;
+        }
+        return ModificationProxy.create(info, type);
+    }
+
+    /** The snapshot version, or {@link #UNVERSIONED} */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Returns all objects of the given type */
+    @SuppressWarnings("unchecked")
+    public <T extends CatalogInfo> List<T> list(Class<T> of) {
+        List<CatalogInfo> direct = contents.get(of);
+        if (direct != null) {
+            return (List<T>) direct;
+        }
+
+        List<T> result = new ArrayList<>();
+        for (Class<? extends CatalogInfo> type : TYPES) {
+            if (of.isAssignableFrom(type) || type.isAssignableFrom(of)) {
+                for (CatalogInfo info : contents.get(type)) {
+                    if (of.isInstance(info)) {
+                        result.add((T) info);
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /** Returns the objects of the given type matching the filter */
+    public <T extends CatalogInfo> List<T> list(Class<T> of, Filter filter) {
+        List<T> all = list(of);
+        if (filter == null || filter == Filter.INCLUDE) {
+            return all;
+        }
+        List<T> result = new ArrayList<>();
+        for (T info : all) {
+            if (filter.evaluate(info)) {
+                result.add(info);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /** Counts the objects of the given type matching the filter */
+    public <T extends CatalogInfo> int count(Class<T> of, Filter filter) {
+        return list(of, filter).size();
+    }
+
+    /**
+     * Returns a new snapshot, with the same version, where each object has been replaced by the
+     * result of the given function, or removed if the function returns null. Used by catalog
+     * decorators to apply their filtering and wrapping.
+     *
+     * @param transformer receives one of the {@link #TYPES} and an object of that type
+     */
+    public CatalogSnapshot transform(
+            BiFunction<Class<? extends CatalogInfo>, CatalogInfo, CatalogInfo> transformer) {
+        Map<Class<? extends CatalogInfo>, List<CatalogInfo>> transformed = new HashMap<>();
+        for (Class<? extends CatalogInfo> type : TYPES) {
+            List<CatalogInfo> source = contents.get(type);
+            List<CatalogInfo> target = new ArrayList<>(source.size());
+            for (CatalogInfo info : source) {
+                CatalogInfo result = transformer.apply(type, info);
+                if (result != null) {
+                    target.add(result);
+                }
+            }
+            transformed.put(type, target);
+        }
+        return new CatalogSnapshot(version, transformed);
+    }
+}
@@ -19,21 +19,32 @@
 import java.io.Serializable;
 import java.lang.reflect.Proxy;
 import java.net.URL;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.measure.Unit;
@@ -55,6 +66,7 @@
 import org.geoserver.catalog.impl.ModificationProxy;
 import org.geoserver.catalog.impl.StoreInfoImpl;
 import org.geoserver.config.GeoServerDataDirectory;
+import org.geoserver.config.GeoServerInfo.ResourceCachePolicy;
 import org.geoserver.data.util.CoverageStoreUtils;
 import org.geoserver.data.util.CoverageUtils;
 import org.geoserver.feature.retype.RetypingFeatureSource;
@@ -160,6 +172,9 @@
  *   <li>{@link #sldCache}
  *   <li>{@link #styleCache}
  *
+ * <p>Hits, misses, evictions and load times of each cache are tracked, see {@link
+ * #getCacheStatistics()}.
+ *
  * @author Justin Deoliveira, Boundless
  */
 public class ResourcePool {
@@ -186,6 +201,35 @@ public class ResourcePool {
     /** Default number of hard references */
     static int FEATURETYPE_CACHE_SIZE_DEFAULT = 100;
 
+    /** Eviction policy of the feature type caches */
+    ResourceCachePolicy featureTypeCachePolicy = ResourceCachePolicy.SOFT;
+
+    /**
+     * Maximum time, in seconds, a request waits for a store being initialized by another thread
+     * before giving up. Zero or negative values mean waiting indefinitely.
+     */
+    static final long STORE_INIT_TIMEOUT;
+
+    static {
+        String name = "org.geoserver.catalog.storeInitTimeout";
+        String value = GeoServerExtensions.getProperty(name);
+        long timeout = 0;
+        if (value != null) {
+            try {
+                timeout = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + name + ": " + value);
+            }
+        }
+        STORE_INIT_TIMEOUT = timeout;
+    }
+
+    /** Data stores being initialized, by store id */
+    final Map<Object, CompletableFuture<Object>> dataStoreLoads = new ConcurrentHashMap<>();
+
+    /** Coverage readers being initialized, by {@link CoverageHintReaderKey} */
+    final Map<Object, CompletableFuture<Object>> coverageReaderLoads = new ConcurrentHashMap<>();
+
     Catalog catalog;
     Map<String, CoordinateReferenceSystem> crsCache;
     DataStoreCache dataStoreCache;
@@ -286,7 +330,7 @@ public Map<String, CoordinateReferenceSystem> getCrsCache() {
     }
 
     protected Map<String, CoordinateReferenceSystem> createCrsCache() {
-        return new ConcurrentHashMap<>();
+        return new UnboundedCache<>();
     }
 
     /**
@@ -324,7 +368,7 @@ public Map<String, FeatureType> getFeatureTypeCache() {
     protected Map<String, FeatureType> createFeatureTypeCache(int size) {
         // for each feature type we cache two versions, one with the projection policy applied, one
         // without it
-        return new FeatureTypeCache(size * 2);
+        return new FeatureTypeCache(size * 2, featureTypeCachePolicy);
     }
 
     /**
@@ -342,7 +386,7 @@ public Map<String, List<AttributeTypeInfo>> getFeatureTypeAttributeCache() {
     protected Map<String, List<AttributeTypeInfo>> createFeatureTypeAttributeCache(int size) {
         // for each feature type we cache two versions, one with the projection policy applied, one
         // without it
-        return new FeatureTypeAttributeCache(size * 2);
+        return new FeatureTypeAttributeCache(size * 2, featureTypeCachePolicy);
     }
 
     /**
@@ -368,7 +412,7 @@ public Map<String, StyledLayerDescriptor> getSldCache() {
     }
 
     protected Map<String, StyledLayerDescriptor> createSldCache() {
-        return new ConcurrentHashMap<>();
+        return new UnboundedCache<>();
     }
 
     /**
@@ -381,7 +425,7 @@ public Map<String, Style> getStyleCache() {
     }
 
     protected Map<String, Style> createStyleCache() {
-        return new ConcurrentHashMap<>();
+        return new UnboundedCache<>();
     }
 
     /**
@@ -412,7 +456,17 @@ protected Map<String, WebMapTileServer> createWmtsCache() {
      * <p>A warning that calling this method will blow away the existing cache.
      */
     public void setFeatureTypeCacheSize(int featureTypeCacheSize) {
+        setFeatureTypeCacheSize(featureTypeCacheSize, featureTypeCachePolicy);
+    }
+
+    /**
+     * Sets the size and the eviction policy of the feature type cache.
+     *
+     * <p>A warning that calling this method will blow away the existing cache.
+     */
+    public void setFeatureTypeCacheSize(int featureTypeCacheSize, ResourceCachePolicy policy) {
         synchronized (this) {
+            featureTypeCachePolicy = policy;
             featureTypeCache.clear();
             featureTypeCache = createFeatureTypeCache(featureTypeCacheSize);
             featureTypeAttributeCache.clear();
@@ -433,6 +487,32 @@ public synchronized ThreadPoolExecutor getCoverageExecutor() {
         return this.coverageExecutor;
     }
 
+    /**
+     * Returns the statistics of the resource caches, keyed by cache name. Caches replaced by
+     * subclasses with custom implementations are not reported.
+     */
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        Map<String, Map<?, ?>> caches = new LinkedHashMap<>();
+        caches.put("crs", crsCache);
+        caches.put("dataStores", dataStoreCache);
+        caches.put("featureTypes", featureTypeCache);
+        caches.put("featureTypeAttributes", featureTypeAttributeCache);
+        caches.put("coverageReaders", hintCoverageReaderCache);
+        caches.put("wms", wmsCache);
+        caches.put("wmts", wmtsCache);
+        caches.put("slds", sldCache);
+        caches.put("styles", styleCache);
+
+        Map<String, CacheStatistics> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<?, ?>> entry : caches.entrySet()) {
+            if (entry.getValue() instanceof CatalogResourceCache) {
+                CatalogResourceCache<?, ?> cache = (CatalogResourceCache<?, ?>) entry.getValue();
+                result.put(entry.getKey(), cache.getStatistics());
+            }
+        }
+        return result;
+    }
+
     /** Adds a pool listener. */
     public void addListener(Listener l) {
         listeners.add(l);
@@ -483,13 +563,16 @@ public CoordinateReferenceSystem getCRS(String srsName) throws IOException {
         CoordinateReferenceSystem crs = crsCache.get(srsName);
         if (crs == null) {
             synchronized (srsName) {
-                crs = crsCache.get(srsName);
+                crs = peek(crsCache, srsName);
                 if (crs == null) {
+                    long start = System.nanoTime();
                     try {
                         crs = CRS.decode(srsName);
                         crsCache.put(srsName, crs);
                     } catch (Exception e) {
                         throw (IOException) new IOException().initCause(e);
+                    } finally {
+                        recordLoad(crsCache, start);
                     }
                 }
             }
@@ -543,7 +626,6 @@ public DataAccessFactory getDataStoreFactory(DataStoreInfo info) throws IOExcept
 
         DataStoreInfo expandedStore = clone(info, true);
 
-        DataAccess<? extends FeatureType, ? extends Feature> dataStore = null;
         try {
 
             String storeId = info.getId();
@@ -553,27 +635,16 @@ public DataAccessFactory getDataStoreFactory(DataStoreInfo info) throws IOExcept
             if (storeId == null) return createDataAccess(info, expandedStore);
 
             String key = cacheKeys.unique(storeId);
-            dataStore = dataStoreCache.get(key);
-            if (dataStore == null) {
-                synchronized (key) {
-                    dataStore = dataStoreCache.get(key);
-                    if (dataStore == null) {
-                        dataStore = createDataAccess(info, expandedStore);
-                        dataStoreCache.put(key, dataStore);
-                    }
-                }
-            }
-
-            return dataStore;
+            return loadSingleFlight(
+                    dataStoreCache,
+                    dataStoreLoads,
+                    key,
+                    () -> createDataAccess(info, expandedStore),
+                    info.getName());
+        } catch (StoreInitTimeoutException e) {
+            // the store is still being initialized by another thread, not broken
+            throw e;
         } catch (Exception e) {
-            // if anything goes wrong we have to clean up the store anyways
-            if (dataStore != null) {
-                try {
-                    dataStore.dispose();
-                } catch (Exception ex) {
-                    // fine, we had to try
-                }
-            }
             disableStoreInfoIfNeeded(info, DataStoreInfo.class, e);
 
             if (e instanceof IOException) {
@@ -584,6 +655,126 @@ public DataAccessFactory getDataStoreFactory(DataStoreInfo info) throws IOExcept
         }
     }
 
+    /**
+     * Looks up a value in the cache, or loads it if missing. Only one thread at a time loads the
+     * value for a given key, the others wait for it to complete (up to {@link
+     * #STORE_INIT_TIMEOUT}) and share its result or failure, while loads of other keys proceed
+     * independently.
+     *
+     * @param cache The cache holding the loaded values
+     * @param loads The loads in progress for the cache
+     * @param key The cache key
+     * @param loader Creates the value
+     * @param name The name of the resource being loaded, used for error reporting
+     * @throws StoreInitTimeoutException If the wait for the load of another thread timed out
+     */
+    @SuppressWarnings("unchecked")
+    <K, V> V loadSingleFlight(
+            Map<K, V> cache,
+            Map<Object, CompletableFuture<Object>> loads,
+            K key,
+            Callable<? extends V> loader,
+            String name)
+            throws IOException {
+        V value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> pending = loads.putIfAbsent(key, future);
+        if (pending != null) {
+            return (V) awaitLoad(pending, name);
+        }
+        try {
+            // the previous load might have completed in the meantime
+            value = peek(cache, key);
+            if (value == null) {
+                long start = System.nanoTime();
+                try {
+                    value = loader.call();
+                    cache.put(key, value);
+                } finally {
+                    recordLoad(cache, start);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            throw new IOException(e);
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private Object awaitLoad(CompletableFuture<Object> pending, String name) throws IOException {
+        try {
+            if (STORE_INIT_TIMEOUT > 0) {
+                return pending.get(STORE_INIT_TIMEOUT, TimeUnit.SECONDS);
+            }
+            return pending.get();
+        } catch (TimeoutException e) {
+            throw new StoreInitTimeoutException(
+                    "Timed out after "
+                            + STORE_INIT_TIMEOUT
+                            + " seconds waiting for store '"
+                            + name
+                            + "' to be initialized",
+                    e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for store '" + name + "'", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Initializes in background the data stores and coverage readers of all the enabled stores,
+     * so that the first requests hitting them do not have to wait. Requests arriving while a store
+     * is being initialized wait for the background load instead of starting another one.
+     *
+     * @param executor The executor running the initialization
+     * @return A future completing once all the stores have been initialized, failures are logged
+     *     and do not cause the future to fail
+     */
+    public CompletableFuture<Void> prewarmStores(Executor executor) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (DataStoreInfo ds : catalog.getDataStores()) {
+            if (ds.isEnabled()) {
+                futures.add(
+                        CompletableFuture.runAsync(
+                                () -> prewarm(ds, () -> getDataStore(ds)), executor));
+            }
+        }
+        for (CoverageStoreInfo cs : catalog.getCoverageStores()) {
+            if (cs.isEnabled()) {
+                futures.add(
+                        CompletableFuture.runAsync(
+                                () -> prewarm(cs, () -> getGridCoverageReader(cs, null)),
+                                executor));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
+    }
+
+    private void prewarm(StoreInfo store, Callable<?> initializer) {
+        try {
+            initializer.call();
+            LOGGER.fine("Initialized store '" + store.getName() + "'");
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to initialize store '" + store.getName() + "'", e);
+        }
+    }
+
     private void disableStoreInfoIfNeeded(
             StoreInfo storeInfo, Class<? extends StoreInfo> clazz, Exception e) {
         if (storeInfo.isEnabled() && storeInfo.isDisableOnConnFailure()) {
@@ -810,10 +1001,15 @@ public List<AttributeTypeInfo> getAttributes(FeatureTypeInfo info) throws IOExce
         List<AttributeTypeInfo> atts = featureTypeAttributeCache.get(key);
         if (atts == null) {
             synchronized (key) {
-                atts = featureTypeAttributeCache.get(key);
+                atts = peek(featureTypeAttributeCache, key);
                 if (atts == null) {
-                    atts = attributeTypeInfos(info);
-                    featureTypeAttributeCache.put(key, atts);
+                    long start = System.nanoTime();
+                    try {
+                        atts = attributeTypeInfos(info);
+                        featureTypeAttributeCache.put(key, atts);
+                    } finally {
+                        recordLoad(featureTypeAttributeCache, start);
+                    }
                 }
             }
         }
@@ -989,10 +1185,15 @@ FeatureType getCacheableFeatureType(FeatureTypeInfo info, boolean handleProjecti
         FeatureType ft = featureTypeCache.get(key);
         if (ft == null) {
             synchronized (key) {
-                ft = featureTypeCache.get(key);
+                ft = peek(featureTypeCache, key);
                 if (ft == null) {
-                    ft = acquireFeatureType(info, handleProjectionPolicy);
-                    featureTypeCache.put(key, ft);
+                    long start = System.nanoTime();
+                    try {
+                        ft = acquireFeatureType(info, handleProjectionPolicy);
+                        featureTypeCache.put(key, ft);
+                    } finally {
+                        recordLoad(featureTypeCache, start);
+                    }
                 }
             }
         }
@@ -1568,43 +1769,50 @@ private GridCoverageReader getGridCoverageReader(
         // look into the cache
         CoverageHintReaderKey key = new CoverageHintReaderKey(info.getId(), hints);
         key = coverageCacheKeys.unique(key);
-        GridCoverageReader reader = hintCoverageReaderCache.get(key);
-
-        // if not found in cache, create it
-        if (reader == null) {
-            synchronized (key) {
-                if (key != null) {
-                    reader = hintCoverageReaderCache.get(key);
-                }
-                if (reader == null) {
-                    try {
-                        /////////////////////////////////////////////////////////
-                        //
-                        // Getting coverage reader using the format and the real path.
-                        //
-                        // /////////////////////////////////////////////////////////
-                        final String urlString = expandedStore.getURL();
-                        Object readObject =
-                                getObjectToRead(urlString, coverageInfo, expandedStore, hints);
-
-                        // readers might change the provided hints, pass down a defensive copy
-                        reader = gridFormat.getReader(readObject, hints);
-                        if (reader == null) {
-                            throw new IOException(
-                                    "Failed to create reader from "
-                                            + urlString
-                                            + " and hints "
-                                            + hints);
-                        }
-                        if (key != null) {
-                            hintCoverageReaderCache.put(key, reader);
-                        }
-                    } catch (Exception e) {
-                        disableStoreInfoIfNeeded(info, CoverageStoreInfo.class, e);
-                        throw e;
-                    }
-                }
-            }
+        GridCoverageReader reader;
+        try {
+            // if not found in cache, create it
+            final Hints readerHints = hints;
+            final CoverageInfo readerCoverage = coverageInfo;
+            reader =
+                    loadSingleFlight(
+                            hintCoverageReaderCache,
+                            coverageReaderLoads,
+                            key,
+                            () -> {
+                                /////////////////////////////////////////////////////////
+                                //
+                                // Getting coverage reader using the format and the real path.
+                                //
+                                // /////////////////////////////////////////////////////////
+                                final String urlString = expandedStore.getURL();
+                                Object readObject =
+                                        getObjectToRead(
+                                                urlString,
+                                                readerCoverage,
+                                                expandedStore,
+                                                readerHints);
+
+                                // readers might change the provided hints, pass down a defensive
+                                // copy
+                                GridCoverageReader created =
+                                        gridFormat.getReader(readObject, readerHints);
+                                if (created == null) {
+                                    throw new IOException(
+                                            "Failed to create reader from "
+                                                    + urlString
+                                                    + " and hints "
+                                                    + readerHints);
+                                }
+                                return created;
+                            },
+                            info.getName());
+        } catch (StoreInitTimeoutException e) {
+            // the store is still being initialized by another thread, not broken
+            throw e;
+        } catch (IOException e) {
+            disableStoreInfoIfNeeded(info, CoverageStoreInfo.class, e);
+            throw e;
         }
 
         if (coverageInfo == null && coverageName != null) {
@@ -1850,10 +2058,15 @@ public WebMapServer getWebMapServer(WMSStoreInfo info) throws IOException {
             }
             if (wms == null) {
                 synchronized (id) {
-                    wms = wmsCache.get(id);
+                    wms = peek(wmsCache, id);
                     if (wms == null) {
-                        wms = createWebMapServer(expandedStore, entityResolver);
-                        wmsCache.put(id, wms);
+                        long start = System.nanoTime();
+                        try {
+                            wms = createWebMapServer(expandedStore, entityResolver);
+                            wmsCache.put(id, wms);
+                        } finally {
+                            recordLoad(wmsCache, start);
+                        }
                     }
                 }
             }
@@ -1909,10 +2122,15 @@ public WebMapTileServer getWebMapTileServer(WMTSStoreInfo info) throws IOExcepti
             }
             if (wmts == null) {
                 synchronized (id) {
-                    wmts = wmtsCache.get(id);
+                    wmts = peek(wmtsCache, id);
                     if (wmts == null) {
-                        wmts = createWebMapTileServer(info, entityResolver);
-                        wmtsCache.put(id, wmts);
+                        long start = System.nanoTime();
+                        try {
+                            wmts = createWebMapTileServer(info, entityResolver);
+                            wmtsCache.put(id, wmts);
+                        } finally {
+                            recordLoad(wmtsCache, start);
+                        }
                     }
                 }
             }
@@ -2067,11 +2285,15 @@ public StyledLayerDescriptor getSld(final StyleInfo info) throws IOException {
         StyledLayerDescriptor sld = sldCache.get(key);
         if (sld == null) {
             synchronized (key) {
-                sld = sldCache.get(key);
+                sld = peek(sldCache, key);
                 if (sld == null) {
-                    sld = dataDir().parsedSld(info);
-
-                    sldCache.put(key, sld);
+                    long start = System.nanoTime();
+                    try {
+                        sld = dataDir().parsedSld(info);
+                        sldCache.put(key, sld);
+                    } finally {
+                        recordLoad(sldCache, start);
+                    }
 
                     final Resource styleResource = dataDir().style(info);
                     styleResource.addListener(
@@ -2106,10 +2328,15 @@ public Style getStyle(final StyleInfo info) throws IOException {
         Style style = styleCache.get(key);
         if (style == null) {
             synchronized (key) {
-                style = styleCache.get(key);
+                style = peek(styleCache, key);
                 if (style == null) {
-                    style = createStyle(info);
-                    styleCache.put(key, style);
+                    long start = System.nanoTime();
+                    try {
+                        style = createStyle(info);
+                        styleCache.put(key, style);
+                    } finally {
+                        recordLoad(styleCache, start);
+                    }
 
                     final Resource styleResource = dataDir().style(info);
                     styleResource.addListener(
@@ -2303,28 +2530,131 @@ public void dispose() {
     }
 
     /**
-     * Base class for all the resource caches, ensures type safety and provides an easier way to
-     * handle with resource disposal
+     * Looks up a value without counting it in the cache statistics, used by the loading code to
+     * check again under lock if another thread loaded the value in the meantime
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> V peek(Map<K, V> cache, K key) {
+        if (cache instanceof CatalogResourceCache) {
+            return ((CatalogResourceCache<K, V>) cache).delegate.get(key);
+        }
+        return cache.get(key);
+    }
+
+    /** Adds the time elapsed since the given {@link System#nanoTime()} to the cache load time */
+    static void recordLoad(Map<?, ?> cache, long start) {
+        if (cache instanceof CatalogResourceCache) {
+            ((CatalogResourceCache<?, ?>) cache).loadTime.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Base class for all the resource caches, ensures type safety, provides an easier way to
+     * handle with resource disposal, and collects the cache statistics.
+     *
+     * <p>Depending on the {@link ResourceCachePolicy} the entries are kept in a {@link
+     * SoftValueHashMap}, holding the most recently used values with hard references and leaving
+     * the others to the garbage collector, or in a LRU map that never grows past the given size.
      *
      * @author Andrea Aime
      * @param <K>
      * @param <V>
      */
-    abstract class CatalogResourceCache<K, V> extends SoftValueHashMap<K, V> {
+    abstract class CatalogResourceCache<K, V> extends AbstractMap<K, V> {
+
+        final Map<K, V> delegate;
+
+        final LongAdder hits = new LongAdder();
+
+        final LongAdder misses = new LongAdder();
+
+        final LongAdder evictions = new LongAdder();
+
+        final LongAdder loadTime = new LongAdder();
 
         public CatalogResourceCache() {
             this(100);
         }
 
         public CatalogResourceCache(int hardReferences) {
-            super(hardReferences);
-            super.cleaner = (ValueCleaner<K, V>) (key, object) -> dispose(key, object);
+            this(hardReferences, ResourceCachePolicy.SOFT);
+        }
+
+        @SuppressWarnings("serial")
+        public CatalogResourceCache(int maxSize, ResourceCachePolicy policy) {
+            if (policy == ResourceCachePolicy.BOUNDED) {
+                this.delegate =
+                        Collections.synchronizedMap(
+                                new LinkedHashMap<K, V>(16, 0.75f, true) {
+                                    @Override
+                                    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                                        if (size() > maxSize) {
+                                            evicted(eldest.getKey(), eldest.getValue());
+                                            return true;
+                                        }
+                                        return false;
+                                    }
+                                });
+            } else {
+                this.delegate =
+                        new SoftValueHashMap<K, V>(maxSize) {
+                            {
+                                cleaner = (ValueCleaner<K, V>) (k, v) -> evicted(k, v);
+                            }
+                        };
+            }
+        }
+
+        /** Wraps the given map, without any eviction */
+        CatalogResourceCache(Map<K, V> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public V get(Object key) {
+            V value = delegate.get(key);
+            if (value != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return delegate.put(key, value);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return delegate.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return delegate.entrySet();
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return delegate.keySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return delegate.values();
         }
 
         @Override
         @SuppressWarnings("unchecked")
         public V remove(Object key) {
-            V object = super.remove(key);
+            V object = delegate.remove(key);
             if (object != null) {
                 dispose((K) key, object);
             }
@@ -2332,27 +2662,120 @@ public V remove(Object key) {
         }
 
         @Override
-        @SuppressWarnings("unchecked")
         public void clear() {
-            for (Entry entry : entrySet()) {
+            for (Entry<K, V> entry : new ArrayList<>(delegate.entrySet())) {
                 try {
-                    dispose((K) entry.getKey(), (V) entry.getValue());
+                    dispose(entry.getKey(), entry.getValue());
                 } catch (Exception e) {
                     LOGGER.log(Level.WARNING, "Error dispoing entry: " + entry, e);
                 }
             }
-            super.clear();
+            delegate.clear();
+        }
+
+        /** Called when an entry is evicted by the cache policy */
+        void evicted(K key, V object) {
+            evictions.increment();
+            dispose(key, object);
+        }
+
+        /** Returns a snapshot of the statistics of this cache */
+        public CacheStatistics getStatistics() {
+            return new CacheStatistics(
+                    size(),
+                    hits.sum(),
+                    misses.sum(),
+                    evictions.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(loadTime.sum()));
         }
 
         protected abstract void dispose(K key, V object);
     }
 
+    /** A cache that does not evict entries and does not need to dispose them */
+    class UnboundedCache<K, V> extends CatalogResourceCache<K, V> {
+
+        UnboundedCache() {
+            super(new ConcurrentHashMap<>());
+        }
+
+        @Override
+        protected void dispose(K key, V object) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Statistics of a {@link ResourcePool} cache. A miss is counted each time a lookup does not
+     * find the value, the checks repeated under lock by the loading code are not counted. The load
+     * time accounts for the time spent by the loading code creating the values, failures included.
+     */
+    public static class CacheStatistics {
+        final int size;
+        final long hits;
+        final long misses;
+        final long evictions;
+        final long loadTime;
+
+        public CacheStatistics(int size, long hits, long misses, long evictions, long loadTime) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.loadTime = loadTime;
+        }
+
+        /** The number of entries currently in the cache */
+        public int getSize() {
+            return size;
+        }
+
+        /** The number of lookups that found a value in the cache */
+        public long getHits() {
+            return hits;
+        }
+
+        /** The number of lookups that did not find a value in the cache */
+        public long getMisses() {
+            return misses;
+        }
+
+        /** The number of entries evicted by the cache policy */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /** The total time spent loading values into the cache, in milliseconds */
+        public long getLoadTime() {
+            return loadTime;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStatistics [size="
+                    + size
+                    + ", hits="
+                    + hits
+                    + ", misses="
+                    + misses
+                    + ", evictions="
+                    + evictions
+                    + ", loadTime="
+                    + loadTime
+                    + "]";
+        }
+    }
+
     class FeatureTypeCache extends CatalogResourceCache<String, FeatureType> {
 
         public FeatureTypeCache(int maxSize) {
             super(maxSize);
         }
 
+        public FeatureTypeCache(int maxSize, ResourceCachePolicy policy) {
+            super(maxSize, policy);
+        }
+
         @Override
         protected void dispose(String key, FeatureType featureType) {
             String id = key.substring(0, key.indexOf(PROJECTION_POLICY_SEPARATOR));
@@ -2497,6 +2920,10 @@ class FeatureTypeAttributeCache extends CatalogResourceCache<String, List<Attrib
             super(size);
         }
 
+        FeatureTypeAttributeCache(int size, ResourceCachePolicy policy) {
+            super(size, policy);
+        }
+
         @Override
         protected void dispose(String key, List<AttributeTypeInfo> object) {
             // nothing to do actually
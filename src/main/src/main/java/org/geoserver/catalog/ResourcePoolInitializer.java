@@ -6,11 +6,18 @@
 package org.geoserver.catalog;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
 import org.geoserver.config.ConfigurationListenerAdapter;
 import org.geoserver.config.GeoServer;
 import org.geoserver.config.GeoServerInfo;
+import org.geoserver.config.GeoServerInfo.ResourceCachePolicy;
 import org.geoserver.config.GeoServerReinitializer;
+import org.geoserver.platform.GeoServerExtensions;
 import org.geoserver.util.EntityResolverProvider;
+import org.geotools.util.logging.Logging;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * Initializes parameters of the {@link ResourcePool} class from configuration.
@@ -19,6 +26,14 @@
  */
 public class ResourcePoolInitializer implements GeoServerReinitializer {
 
+    static final Logger LOGGER = Logging.getLogger(ResourcePoolInitializer.class);
+
+    /**
+     * System property enabling the background initialization of all the stores on startup, see
+     * {@link ResourcePool#prewarmStores(java.util.concurrent.Executor)}
+     */
+    public static final String PREWARM_STORES = "org.geoserver.catalog.prewarmStores";
+
     GeoServer gs;
     EntityResolverProvider resolverProvider;
 
@@ -33,7 +48,15 @@ public void initialize(GeoServer geoServer) throws Exception {
         final GeoServerInfo global = geoServer.getGlobal();
         final int cacheSize = global.getFeatureTypeCacheSize();
         if (cacheSize > 0) {
-            gs.getCatalog().getResourcePool().setFeatureTypeCacheSize(cacheSize);
+            gs.getCatalog()
+                    .getResourcePool()
+                    .setFeatureTypeCacheSize(cacheSize, global.getResourceCachePolicy());
+        } else if (global.getResourceCachePolicy() != ResourceCachePolicy.SOFT) {
+            gs.getCatalog()
+                    .getResourcePool()
+                    .setFeatureTypeCacheSize(
+                            ResourcePool.FEATURETYPE_CACHE_SIZE_DEFAULT,
+                            global.getResourceCachePolicy());
         }
 
         geoServer.addListener(
@@ -45,11 +68,22 @@ public void handleGlobalChange(
                             List<Object> oldValues,
                             List<Object> newValues) {
                         int i = propertyNames.indexOf("featureTypeCacheSize");
-                        if (i > -1) {
-                            Number featureTypeCacheSize = (Number) newValues.get(i);
+                        int j = propertyNames.indexOf("resourceCachePolicy");
+                        if (i > -1 || j > -1) {
+                            final int featureTypeCacheSize =
+                                    i > -1
+                                            ? ((Number) newValues.get(i)).intValue()
+                                            : global.getFeatureTypeCacheSize();
+                            ResourceCachePolicy policy =
+                                    j > -1
+                                            ? (ResourceCachePolicy) newValues.get(j)
+                                            : global.getResourceCachePolicy();
+                            if (policy == null) {
+                                policy = ResourceCachePolicy.SOFT;
+                            }
                             gs.getCatalog()
                                     .getResourcePool()
-                                    .setFeatureTypeCacheSize(featureTypeCacheSize.intValue());
+                                    .setFeatureTypeCacheSize(featureTypeCacheSize, policy);
                         }
                         gs.getCatalog()
                                 .getResourcePool()
@@ -59,5 +93,28 @@ public void handleGlobalChange(
                 });
 
         gs.getCatalog().getResourcePool().setEntityResolverProvider(resolverProvider);
+
+        if (Boolean.parseBoolean(GeoServerExtensions.getProperty(PREWARM_STORES))) {
+            prewarmStores(gs.getCatalog().getResourcePool());
+        }
+    }
+
+    /** Initializes all stores in background threads, leaving the startup unaffected */
+    private void prewarmStores(ResourcePool pool) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("StorePrewarm-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Runtime.getRuntime().availableProcessors(), threadFactory);
+        long start = System.currentTimeMillis();
+        pool.prewarmStores(executor)
+                .whenComplete(
+                        (r, e) -> {
+                            executor.shutdown();
+                            LOGGER.info(
+                                    "Stores initialized in "
+                                            + (System.currentTimeMillis() - start)
+                                            + " ms");
+                        });
     }
 }
@@ -0,0 +1,63 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.catalog;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.geoserver.config.GeoServer;
+import org.geotools.util.logging.Logging;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Publishes the statistics of the {@link ResourcePool} caches as a JMX MXBean named {@value
+ * #OBJECT_NAME}. The pool is looked up at each call, as it can be replaced at runtime.
+ */
+public class ResourcePoolStatistics
+        implements ResourcePoolStatisticsMXBean, InitializingBean, DisposableBean {
+
+    static final Logger LOGGER = Logging.getLogger(ResourcePoolStatistics.class);
+
+    public static final String OBJECT_NAME = "org.geoserver:type=ResourcePool";
+
+    private final GeoServer geoServer;
+
+    private ObjectName objectName;
+
+    public ResourcePoolStatistics(GeoServer geoServer) {
+        this.geoServer = geoServer;
+    }
+
+    @Override
+    public Map<String, ResourcePool.CacheStatistics> getCacheStatistics() {
+        return geoServer.getCatalog().getResourcePool().getCacheStatistics();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to register the resource pool statistics in JMX", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.catalog;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the {@link ResourcePool} when a request gives up waiting for a store being initialized
+ * by another thread. The store itself is not known to be broken, so it must not be disabled.
+ */
+public class StoreInitTimeoutException extends IOException {
+
+    private static final long serialVersionUID = 2398746515375625131L;
+
+    public StoreInitTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -7,12 +7,15 @@
 
 import com.google.common.base.Function;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.geoserver.catalog.Catalog;
 import org.geoserver.catalog.CatalogCapabilities;
 import org.geoserver.catalog.CatalogFacade;
 import org.geoserver.catalog.CatalogFactory;
 import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.CatalogSnapshot;
 import org.geoserver.catalog.CatalogVisitor;
 import org.geoserver.catalog.CoverageInfo;
 import org.geoserver.catalog.CoverageStoreInfo;
@@ -969,4 +972,21 @@ public void removeListeners(Class<? extends CatalogListener> listenerClass) {
     public CatalogCapabilities getCatalogCapabilities() {
         return delegate.getCatalogCapabilities();
     }
+
+    /** Applies the same filtering and wrapping as {@link #list(Class, Filter)} */
+    @Override
+    public CatalogSnapshot snapshot() {
+        Map<Class<? extends CatalogInfo>, Filter> filters = new HashMap<>();
+        return delegate.snapshot()
+                .transform(
+                        (type, info) -> {
+                            Filter filter =
+                                    filters.computeIfAbsent(
+                                            type, t -> securityFilter(t, Filter.INCLUDE));
+                            if (filter != Filter.INCLUDE && !filter.evaluate(info)) {
+                                return null;
+                            }
+                            return checkAccess(info);
+                        });
+    }
 }
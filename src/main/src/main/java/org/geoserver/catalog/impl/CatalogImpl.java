@@ -9,13 +9,16 @@
 import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -28,6 +31,7 @@
 import org.geoserver.catalog.CatalogFacade;
 import org.geoserver.catalog.CatalogFactory;
 import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.CatalogSnapshot;
 import org.geoserver.catalog.CatalogValidator;
 import org.geoserver.catalog.CatalogVisitor;
 import org.geoserver.catalog.CoverageDimensionInfo;
@@ -451,6 +455,14 @@ public List<CoverageStoreInfo> getCoverageStores() {
     // Resource methods
     @Override
     public void add(ResourceInfo resource) {
+        ResourceInfo resolved = prepareAdd(resource);
+        beforeadded(resolved);
+        ResourceInfo added = facade.add(resolved);
+        added(added);
+    }
+
+    /** Fills in the defaults, resolves and validates a resource about to be added */
+    private ResourceInfo prepareAdd(ResourceInfo resource) {
         if (resource.getNamespace() == null) {
             // default to default namespace
             resource.setNamespace(getDefaultNamespace());
@@ -460,9 +472,7 @@ public void add(ResourceInfo resource) {
         }
         ResourceInfo resolved = resolve(resource);
         validate(resolved, true);
-        beforeadded(resolved);
-        ResourceInfo added = facade.add(resolved);
-        added(added);
+        return resolved;
     }
 
     @Override
@@ -748,6 +758,14 @@ public List<CoverageInfo> getCoveragesByCoverageStore(CoverageStoreInfo store) {
     // Layer methods
     @Override
     public void add(LayerInfo layer) {
+        layer = prepareAdd(layer);
+        beforeadded(layer);
+        LayerInfo added = facade.add(layer);
+        added(added);
+    }
+
+    /** Resolves and validates a layer about to be added, deriving its type if missing */
+    private LayerInfo prepareAdd(LayerInfo layer) {
         layer = resolve(layer);
         validate(layer, true);
 
@@ -765,9 +783,7 @@ public void add(LayerInfo layer) {
                 throw new IllegalArgumentException(msg);
             }
         }
-        beforeadded(layer);
-        LayerInfo added = facade.add(layer);
-        added(added);
+        return layer;
     }
 
     @Override
@@ -1663,6 +1679,86 @@ public void add(StyleInfo style) {
         added(added);
     }
 
+    /**
+     * Adds a batch of resources, layers and styles, meant for bulk loads such as the startup one.
+     *
+     * <p>Each object is resolved and validated as in the single object {@code add} methods, and
+     * checked against the objects preceding it in the batch for name clashes, then all the valid
+     * ones are handed to {@link CatalogFacade#addAll(List)} in a single call. Objects failing
+     * validation are skipped and reported to the error handler.
+     *
+     * @param infos The objects to add, any layer must follow its resource
+     * @param errorHandler Receives the objects that could not be added, along with the reason
+     */
+    public <T extends CatalogInfo> void addAll(
+            List<T> infos, BiConsumer<T, RuntimeException> errorHandler) {
+        List<CatalogInfo> prepared = new ArrayList<>(infos.size());
+        Set<String> batchKeys = new HashSet<>();
+        boolean pendingResources = false;
+        for (T info : infos) {
+            try {
+                CatalogInfo resolved;
+                if (info instanceof ResourceInfo) {
+                    resolved = prepareAdd((ResourceInfo) info);
+                    pendingResources = true;
+                } else if (info instanceof LayerInfo) {
+                    // the layer resource must be in the catalog to validate the layer
+                    if (pendingResources) {
+                        flushBatch(prepared);
+                        pendingResources = false;
+                    }
+                    resolved = prepareAdd((LayerInfo) info);
+                } else if (info instanceof StyleInfo) {
+                    resolved = resolve((StyleInfo) info);
+                    validate((StyleInfo) resolved, true);
+                } else {
+                    throw new IllegalArgumentException(
+                            "Only resources, layers and styles can be added in bulk: " + info);
+                }
+                // the catalog lookups cannot see the other objects in the batch yet
+                List<String> keys = batchKeys(resolved);
+                for (String key : keys) {
+                    if (batchKeys.contains(key)) {
+                        throw new IllegalArgumentException(
+                                "Object " + key + " is already part of the batch");
+                    }
+                }
+                batchKeys.addAll(keys);
+                beforeadded(resolved);
+                prepared.add(resolved);
+            } catch (RuntimeException e) {
+                errorHandler.accept(info, e);
+            }
+        }
+        flushBatch(prepared);
+    }
+
+    private void flushBatch(List<CatalogInfo> prepared) {
+        if (!prepared.isEmpty()) {
+            for (CatalogInfo added : facade.addAll(prepared)) {
+                added(added);
+            }
+            prepared.clear();
+        }
+    }
+
+    private List<String> batchKeys(CatalogInfo info) {
+        if (info instanceof ResourceInfo) {
+            ResourceInfo r = (ResourceInfo) info;
+            return Arrays.asList(
+                    "'" + r.getName() + "' in store " + r.getStore().getId(),
+                    "'" + r.getName() + "' in namespace " + r.getNamespace().getId());
+        } else if (info instanceof LayerInfo) {
+            return Collections.singletonList("'" + ((LayerInfo) info).prefixedName() + "'");
+        } else if (info instanceof StyleInfo) {
+            StyleInfo s = (StyleInfo) info;
+            WorkspaceInfo ws = s.getWorkspace();
+            return Collections.singletonList(
+                    "style '" + s.getName() + "' in workspace " + (ws == null ? "" : ws.getId()));
+        }
+        return Collections.emptyList();
+    }
+
     @Override
     public ValidationResult validate(StyleInfo style, boolean isNew) {
         if (isNull(style.getName())) {
@@ -2277,4 +2373,9 @@ public <T extends CatalogInfo> T get(Class<T> type, Filter filter)
     public CatalogCapabilities getCatalogCapabilities() {
         return facade.getCatalogCapabilities();
     }
+
+    @Override
+    public CatalogSnapshot snapshot() {
+        return facade.snapshot();
+    }
 }
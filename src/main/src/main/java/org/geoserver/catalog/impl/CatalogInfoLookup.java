@@ -4,12 +4,16 @@
  */
 package org.geoserver.catalog.impl;
 
+import com.google.common.collect.Iterators;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.function.Function;
@@ -29,6 +33,12 @@
  * <p>The lookups by predicate have been tested and optimized for performance, in particular the
  * current for loops turned out to be significantly faster than building and returning streams
  *
+ * <p>Secondary {@link PropertyIndex indexes} can be registered on properties commonly used in
+ * filters (workspace, store, enabled flags, ...), they are used by {@link CatalogQueryPlanner} to
+ * avoid full scans when listing and counting objects. The indexes are kept up to date on add and
+ * removal, but need to be explicitly refreshed by calling {@link #reindex(CatalogInfo)} once the
+ * changes to an object have been committed.
+ *
  * @param <T>
  */
 class CatalogInfoLookup<T extends CatalogInfo> {
@@ -36,6 +46,7 @@
 
     ConcurrentHashMap<Class<T>, Map<String, T>> idMultiMap = new ConcurrentHashMap<>();
     ConcurrentHashMap<Class<T>, Map<Name, T>> nameMultiMap = new ConcurrentHashMap<>();
+    Map<String, PropertyIndex<T>> indexes = new ConcurrentHashMap<>();
     Function<T, Name> nameMapper;
     static final Predicate<?> TRUE = x -> true;
 
@@ -49,6 +60,40 @@ public CatalogInfoLookup(Function<T, Name> nameMapper) {
         this.nameMapper = nameMapper;
     }
 
+    /** Registers a secondary index on the given property */
+    public CatalogInfoLookup<T> addIndex(
+            String property, Class<?> type, Function<T, Object> extractor) {
+        return addIndex(new PropertyIndex<>(property, type, extractor, false, false));
+    }
+
+    /** Registers a sorted secondary index on the given property, supporting prefix lookups */
+    public CatalogInfoLookup<T> addSortedIndex(
+            String property, Class<?> type, Function<T, Object> extractor) {
+        return addIndex(new PropertyIndex<>(property, type, extractor, true, false));
+    }
+
+    /**
+     * Registers a secondary index on a collection property, the extractor is expected to return a
+     * collection of values of the given type
+     */
+    public CatalogInfoLookup<T> addMultiValuedIndex(
+            String property, Class<?> type, Function<T, Object> extractor) {
+        return addIndex(new PropertyIndex<>(property, type, extractor, false, true));
+    }
+
+    private CatalogInfoLookup<T> addIndex(PropertyIndex<T> index) {
+        indexes.put(index.property, index);
+        for (T value : values()) {
+            index.index(value);
+        }
+        return this;
+    }
+
+    /** Returns the secondary index for the given property, or null if not indexed */
+    PropertyIndex<T> getIndex(String property) {
+        return indexes.get(property);
+    }
+
     @SuppressWarnings("unchecked")
     <K> Map<K, T> getMapForValue(ConcurrentHashMap<Class<T>, Map<K, T>> maps, T value) {
         Class<T> vc;
@@ -89,7 +134,11 @@ public T add(T value) {
         Name name = nameMapper.apply(value);
         nameMap.put(name, value);
         Map<String, T> idMap = getMapForValue(idMultiMap, value);
-        return idMap.put(value.getId(), value);
+        T previous = idMap.put(value.getId(), value);
+        for (PropertyIndex<T> index : indexes.values()) {
+            index.index(value);
+        }
+        return previous;
     }
 
     public Collection<T> values() {
@@ -106,6 +155,9 @@ public T remove(T value) {
         Map<Name, T> nameMap = getMapForValue(nameMultiMap, value);
         nameMap.remove(name);
         Map<String, T> idMap = getMapForValue(idMultiMap, value);
+        for (PropertyIndex<T> index : indexes.values()) {
+            index.remove(value.getId());
+        }
         return idMap.remove(value.getId());
     }
 
@@ -124,9 +176,23 @@ public void update(T proxiedValue) {
         }
     }
 
+    /**
+     * Refreshes the secondary indexes for the given value, to be called after the modifications
+     * have been committed
+     */
+    public void reindex(T value) {
+        T actualValue = ModificationProxy.unwrap(value);
+        for (PropertyIndex<T> index : indexes.values()) {
+            index.index(actualValue);
+        }
+    }
+
     public void clear() {
         idMultiMap.clear();
         nameMultiMap.clear();
+        for (PropertyIndex<T> index : indexes.values()) {
+            index.clear();
+        }
     }
 
     /**
@@ -157,6 +223,99 @@ <U extends CatalogInfo> List<U> list(Class<U> clazz, Predicate<U> predicate) {
         return result;
     }
 
+    /**
+     * Looks up objects by class and matching predicate among the ones with the given identifiers,
+     * typically obtained from a secondary index. The results are returned in the same order as
+     * {@link #list(Class, Predicate)} would.
+     */
+    <U extends CatalogInfo> List<U> list(Class<U> clazz, Predicate<U> predicate, Set<String> ids) {
+        ArrayList<U> result = new ArrayList<>();
+        // iterate on the name map keys, to get the same class order as list(Class, Predicate)
+        for (Class<T> key : nameMultiMap.keySet()) {
+            if (clazz.isAssignableFrom(key)) {
+                Map<String, T> valueMap = idMultiMap.get(key);
+                if (valueMap != null) {
+                    List<T> matches = new ArrayList<>();
+                    for (String id : ids) {
+                        T v = valueMap.get(id);
+                        @SuppressWarnings("unchecked")
+                        final U u = (U) v;
+                        if (v != null && (predicate == TRUE || predicate.test(u))) {
+                            matches.add(v);
+                        }
+                    }
+                    matches.sort(nameComparator());
+                    @SuppressWarnings("unchecked")
+                    List<U> cast = (List<U>) matches;
+                    result.addAll(cast);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Lazily looks up objects by class and matching predicate, in the same order as {@link
+     * #list(Class, Predicate)} would, but without building the full list of matches. Used to
+     * stream paged results.
+     */
+    <U extends CatalogInfo> Iterator<U> iterator(Class<U> clazz, Predicate<U> predicate) {
+        List<Iterator<T>> iterators = new ArrayList<>();
+        for (Class<T> key : nameMultiMap.keySet()) {
+            if (clazz.isAssignableFrom(key)) {
+                Map<Name, T> valueMap = nameMultiMap.get(key);
+                if (valueMap != null) {
+                    iterators.add(valueMap.values().iterator());
+                }
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Iterator<U> all = (Iterator<U>) Iterators.concat(iterators.iterator());
+        if (predicate == TRUE) {
+            return all;
+        }
+        return Iterators.filter(all, u -> predicate.test(u));
+    }
+
+    /** Counts the objects of the given class */
+    <U extends CatalogInfo> int count(Class<U> clazz) {
+        int count = 0;
+        for (Class<T> key : idMultiMap.keySet()) {
+            if (clazz.isAssignableFrom(key)) {
+                Map<String, T> valueMap = idMultiMap.get(key);
+                if (valueMap != null) {
+                    count += valueMap.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Counts the objects of the given class among the ones with the given identifiers */
+    <U extends CatalogInfo> int count(Class<U> clazz, Set<String> ids) {
+        int count = 0;
+        for (Class<T> key : idMultiMap.keySet()) {
+            if (clazz.isAssignableFrom(key)) {
+                Map<String, T> valueMap = idMultiMap.get(key);
+                if (valueMap != null) {
+                    for (String id : ids) {
+                        if (valueMap.containsKey(id)) {
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Compares values the same way the name maps sort their keys */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<T> nameComparator() {
+        return (v1, v2) -> ((Comparable) nameMapper.apply(v1)).compareTo(nameMapper.apply(v2));
+    }
+
     /** Looks up a CatalogInfo by class and identifier */
     public <U extends CatalogInfo> U findById(String id, Class<U> clazz) {
         for (Class<T> key : idMultiMap.keySet()) {
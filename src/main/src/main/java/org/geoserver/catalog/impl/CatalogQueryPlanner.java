@@ -0,0 +1,246 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.catalog.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.Predicates;
+import org.opengis.filter.And;
+import org.opengis.filter.ExcludeFilter;
+import org.opengis.filter.Filter;
+import org.opengis.filter.IncludeFilter;
+import org.opengis.filter.MultiValuedFilter.MatchAction;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Turns the filters built by {@link Predicates} into lookups against the {@link PropertyIndex
+ * secondary indexes} of a {@link CatalogInfoLookup}.
+ *
+ * <p>The planner understands equality comparisons against indexed properties (including the
+ * object identifier), "starts with" like filters against sorted indexes, and their combination
+ * with AND/OR. Anything else is left to a full scan. Properties that cannot be indexed directly,
+ * like {@code workspace.name}, can be mapped to an indexed one by registering an alias that
+ * translates the expected value (e.g., from workspace name to workspace id) at query time.
+ */
+class CatalogQueryPlanner {
+
+    /** The outcome of planning a filter against a lookup */
+    static final class Plan {
+
+        /** A plan requiring a full scan and a filter evaluation on each object */
+        static final Plan SCAN = new Plan(null, false);
+
+        /** A plan matching all objects */
+        static final Plan ALL = new Plan(null, true);
+
+        /** A plan matching no object */
+        static final Plan NONE = new Plan(Collections.emptySet(), true);
+
+        final Set<String> ids;
+
+        final boolean exact;
+
+        Plan(Set<String> ids, boolean exact) {
+            this.ids = ids;
+            this.exact = exact;
+        }
+
+        /**
+         * Returns the identifiers of the candidate objects, or null if all objects in the lookup
+         * are candidates
+         */
+        Set<String> getIds() {
+            return ids;
+        }
+
+        /**
+         * Returns true if the candidates are exactly the objects matching the filter, false if
+         * the filter still needs to be evaluated on each of them
+         */
+        boolean isExact() {
+            return exact;
+        }
+    }
+
+    /** Maps a non indexed property to an indexed one */
+    static final class Alias {
+        final String property;
+
+        final Function<Object, Object> translator;
+
+        Alias(String property, Function<Object, Object> translator) {
+            this.property = property;
+            this.translator = translator;
+        }
+    }
+
+    Map<String, Alias> aliases = new ConcurrentHashMap<>();
+
+    /**
+     * Registers an alias, filters against {@code property} will be turned into lookups against
+     * the {@code indexed} property, using the {@code translator} to convert the expected value.
+     * When the translator returns null, no object can match.
+     */
+    void addAlias(String property, String indexed, Function<Object, Object> translator) {
+        aliases.put(property, new Alias(indexed, translator));
+    }
+
+    /** Plans the execution of the filter against the given lookup */
+    Plan plan(CatalogInfoLookup<?> lookup, Filter filter) {
+        if (filter == null || filter instanceof IncludeFilter) {
+            return Plan.ALL;
+        } else if (filter instanceof ExcludeFilter) {
+            return Plan.NONE;
+        } else if (filter instanceof PropertyIsEqualTo) {
+            return planEqual(lookup, (PropertyIsEqualTo) filter);
+        } else if (filter instanceof PropertyIsLike) {
+            return planLike(lookup, (PropertyIsLike) filter);
+        } else if (filter instanceof And) {
+            return planAnd(lookup, ((And) filter).getChildren());
+        } else if (filter instanceof Or) {
+            return planOr(lookup, ((Or) filter).getChildren());
+        }
+        return Plan.SCAN;
+    }
+
+    private Plan planEqual(CatalogInfoLookup<?> lookup, PropertyIsEqualTo filter) {
+        if (!filter.isMatchingCase()) {
+            return Plan.SCAN;
+        }
+        PropertyName name = propertyName(filter.getExpression1(), filter.getExpression2());
+        Literal literal = literal(filter.getExpression1(), filter.getExpression2());
+        if (name == null || literal == null || literal.getValue() == null) {
+            return Plan.SCAN;
+        }
+        String property = name.getPropertyName();
+        Object value = literal.getValue();
+
+        if ("id".equals(property)) {
+            if (!(value instanceof String)) {
+                return Plan.SCAN;
+            }
+            CatalogInfo info = lookup.findById((String) value, CatalogInfo.class);
+            return info == null ? Plan.NONE : new Plan(Collections.singleton(info.getId()), true);
+        }
+
+        Alias alias = aliases.get(property);
+        if (alias != null && lookup.getIndex(alias.property) != null) {
+            property = alias.property;
+            value = alias.translator.apply(value);
+            if (value == null) {
+                return Plan.NONE;
+            }
+        }
+
+        PropertyIndex<?> index = lookup.getIndex(property);
+        if (index == null || !index.type.isInstance(value)) {
+            return Plan.SCAN;
+        }
+        if (index.multiValued && filter.getMatchAction() != MatchAction.ANY) {
+            return Plan.SCAN;
+        }
+        return new Plan(new HashSet<>(index.get(value)), true);
+    }
+
+    private Plan planLike(CatalogInfoLookup<?> lookup, PropertyIsLike filter) {
+        if (!filter.isMatchingCase() || !(filter.getExpression() instanceof PropertyName)) {
+            return Plan.SCAN;
+        }
+        PropertyIndex<?> index =
+                lookup.getIndex(((PropertyName) filter.getExpression()).getPropertyName());
+        String pattern = filter.getLiteral();
+        String wildcard = filter.getWildCard();
+        if (index == null
+                || !index.sorted
+                || index.multiValued
+                || pattern == null
+                || wildcard == null
+                || wildcard.isEmpty()
+                || !pattern.endsWith(wildcard)) {
+            return Plan.SCAN;
+        }
+        String prefix = pattern.substring(0, pattern.length() - wildcard.length());
+        if (prefix.contains(wildcard)
+                || containsToken(prefix, filter.getSingleChar())
+                || containsToken(prefix, filter.getEscape())) {
+            return Plan.SCAN;
+        }
+        Set<String> ids = index.getByPrefix(prefix);
+        return ids == null ? Plan.SCAN : new Plan(ids, true);
+    }
+
+    private Plan planAnd(CatalogInfoLookup<?> lookup, List<Filter> children) {
+        List<Set<String>> sets = new ArrayList<>();
+        boolean exact = true;
+        for (Filter child : children) {
+            Plan plan = plan(lookup, child);
+            exact &= plan.exact;
+            if (plan.ids != null) {
+                sets.add(plan.ids);
+            }
+        }
+        if (sets.isEmpty()) {
+            return exact ? Plan.ALL : Plan.SCAN;
+        }
+
+        // intersect starting from the smallest set
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<String> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return new Plan(result, exact);
+    }
+
+    private Plan planOr(CatalogInfoLookup<?> lookup, List<Filter> children) {
+        Set<String> result = new HashSet<>();
+        boolean exact = true;
+        for (Filter child : children) {
+            Plan plan = plan(lookup, child);
+            if (plan.ids == null) {
+                // either matches everything, or requires a full scan anyways
+                return plan.exact ? Plan.ALL : Plan.SCAN;
+            }
+            exact &= plan.exact;
+            result.addAll(plan.ids);
+        }
+        return new Plan(result, exact);
+    }
+
+    private boolean containsToken(String value, String token) {
+        return token != null && !token.isEmpty() && value.contains(token);
+    }
+
+    private PropertyName propertyName(Expression e1, Expression e2) {
+        if (e1 instanceof PropertyName) {
+            return (PropertyName) e1;
+        } else if (e2 instanceof PropertyName) {
+            return (PropertyName) e2;
+        }
+        return null;
+    }
+
+    private Literal literal(Expression e1, Expression e2) {
+        if (e1 instanceof Literal) {
+            return (Literal) e1;
+        } else if (e2 instanceof Literal) {
+            return (Literal) e2;
+        }
+        return null;
+    }
+}
@@ -5,7 +5,8 @@
  */
 package org.geoserver.catalog.impl;
 
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -13,17 +14,22 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import org.geoserver.catalog.Catalog;
 import org.geoserver.catalog.CatalogFacade;
 import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.CatalogSnapshot;
 import org.geoserver.catalog.DataStoreInfo;
 import org.geoserver.catalog.LayerGroupInfo;
 import org.geoserver.catalog.LayerInfo;
@@ -35,6 +41,7 @@
 import org.geoserver.catalog.StoreInfo;
 import org.geoserver.catalog.StyleInfo;
 import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.catalog.impl.CatalogQueryPlanner.Plan;
 import org.geoserver.catalog.util.CloseableIterator;
 import org.geoserver.catalog.util.CloseableIteratorAdapter;
 import org.geoserver.ows.util.OwsUtils;
@@ -95,6 +102,12 @@ static final class LayerInfoLookup extends CatalogInfoLookup<LayerInfo> {
 
         public LayerInfoLookup() {
             super(LAYER_NAME_MAPPER);
+            // name, enabled and advertised are derived from the resource, see reindex(ResourceInfo)
+            addSortedIndex("name", String.class, LayerInfo::getName);
+            addIndex("resource.id", String.class, l -> id(l.getResource()));
+            addIndex("enabled", Boolean.class, LayerInfo::isEnabled);
+            addIndex("advertised", Boolean.class, LayerInfo::isAdvertised);
+            addIndex("defaultStyle.id", String.class, l -> id(l.getDefaultStyle()));
         }
 
         public void update(ResourceInfo proxiedValue) {
@@ -114,6 +127,16 @@ public void update(ResourceInfo proxiedValue) {
             }
         }
 
+        /** Refreshes the indexes of the layers publishing the given (committed) resource */
+        public void reindex(ResourceInfo resource) {
+            for (String id : getIndex("resource.id").get(resource.getId())) {
+                LayerInfo layer = findById(id, LayerInfo.class);
+                if (layer != null) {
+                    reindex(layer);
+                }
+            }
+        }
+
         @Override
         public LayerInfoLookup setCatalog(Catalog catalog) {
             super.setCatalog(catalog);
@@ -121,29 +144,71 @@ public LayerInfoLookup setCatalog(Catalog catalog) {
         }
     }
 
+    static String id(CatalogInfo info) {
+        return info == null ? null : info.getId();
+    }
+
+    static CatalogInfoLookup<StoreInfo> storeLookup() {
+        return new CatalogInfoLookup<>(STORE_NAME_MAPPER)
+                .addSortedIndex("name", String.class, StoreInfo::getName)
+                .addIndex("workspace.id", String.class, s -> id(s.getWorkspace()))
+                .addIndex("enabled", Boolean.class, StoreInfo::isEnabled);
+    }
+
+    static CatalogInfoLookup<ResourceInfo> resourceLookup() {
+        return new CatalogInfoLookup<>(RESOURCE_NAME_MAPPER)
+                .addSortedIndex("name", String.class, ResourceInfo::getName)
+                .addIndex("store.id", String.class, r -> id(r.getStore()))
+                .addIndex("namespace.id", String.class, r -> id(r.getNamespace()))
+                .addIndex("enabled", Boolean.class, ResourceInfo::isEnabled)
+                .addIndex("advertised", Boolean.class, ResourceInfo::isAdvertised)
+                .addIndex("SRS", String.class, ResourceInfo::getSRS)
+                .addMultiValuedIndex("keywords.value", String.class, ResourceInfo::keywordValues);
+    }
+
+    static CatalogInfoLookup<NamespaceInfo> namespaceLookup() {
+        return new CatalogInfoLookup<>(NAMESPACE_NAME_MAPPER)
+                .addSortedIndex("prefix", String.class, NamespaceInfo::getPrefix)
+                .addIndex("URI", String.class, NamespaceInfo::getURI);
+    }
+
+    static CatalogInfoLookup<WorkspaceInfo> workspaceLookup() {
+        return new CatalogInfoLookup<>(WORKSPACE_NAME_MAPPER)
+                .addSortedIndex("name", String.class, WorkspaceInfo::getName);
+    }
+
+    static CatalogInfoLookup<LayerGroupInfo> layerGroupLookup() {
+        return new CatalogInfoLookup<>(LAYERGROUP_NAME_MAPPER)
+                .addSortedIndex("name", String.class, LayerGroupInfo::getName)
+                .addIndex("workspace.id", String.class, lg -> id(lg.getWorkspace()));
+    }
+
+    static CatalogInfoLookup<StyleInfo> styleLookup() {
+        return new CatalogInfoLookup<>(STYLE_NAME_MAPPER)
+                .addSortedIndex("name", String.class, StyleInfo::getName)
+                .addIndex("workspace.id", String.class, s -> id(s.getWorkspace()));
+    }
+
     /** Contains the stores keyed by implementation class */
-    protected CatalogInfoLookup<StoreInfo> stores = new CatalogInfoLookup<>(STORE_NAME_MAPPER);
+    protected CatalogInfoLookup<StoreInfo> stores = storeLookup();
 
     /** The default store keyed by workspace id */
     protected Map<String, DataStoreInfo> defaultStores = new ConcurrentHashMap<>();
 
     /** resources */
-    protected CatalogInfoLookup<ResourceInfo> resources =
-            new CatalogInfoLookup<>(RESOURCE_NAME_MAPPER);
+    protected CatalogInfoLookup<ResourceInfo> resources = resourceLookup();
 
     /** The default namespace */
     protected volatile NamespaceInfo defaultNamespace;
 
     /** namespaces */
-    protected CatalogInfoLookup<NamespaceInfo> namespaces =
-            new CatalogInfoLookup<>(NAMESPACE_NAME_MAPPER);
+    protected CatalogInfoLookup<NamespaceInfo> namespaces = namespaceLookup();
 
     /** The default workspace */
     protected volatile WorkspaceInfo defaultWorkspace;
 
     /** workspaces */
-    protected CatalogInfoLookup<WorkspaceInfo> workspaces =
-            new CatalogInfoLookup<>(WORKSPACE_NAME_MAPPER);
+    protected CatalogInfoLookup<WorkspaceInfo> workspaces = workspaceLookup();
 
     /** layers */
     protected LayerInfoLookup layers = new LayerInfoLookup();
@@ -152,17 +217,42 @@ public LayerInfoLookup setCatalog(Catalog catalog) {
     protected List<MapInfo> maps = new CopyOnWriteArrayList<>();
 
     /** layer groups */
-    protected CatalogInfoLookup<LayerGroupInfo> layerGroups =
-            new CatalogInfoLookup<>(LAYERGROUP_NAME_MAPPER);
+    protected CatalogInfoLookup<LayerGroupInfo> layerGroups = layerGroupLookup();
 
     /** styles */
-    protected CatalogInfoLookup<StyleInfo> styles = new CatalogInfoLookup<>(STYLE_NAME_MAPPER);
+    protected CatalogInfoLookup<StyleInfo> styles = styleLookup();
+
+    /** Turns filters into secondary index lookups for list and count */
+    private final CatalogQueryPlanner planner = new CatalogQueryPlanner();
+
+    /** Incremented on every change, used to version the snapshots */
+    private final AtomicLong version = new AtomicLong();
+
+    /** The last snapshot taken, reused until the catalog is modified */
+    private volatile CatalogSnapshot snapshot;
 
     /** the catalog */
     private CatalogImpl catalog;
 
     public DefaultCatalogFacade(Catalog catalog) {
         setCatalog(catalog);
+        // the lookups are shared on syncTo, the aliases are resolved against the current ones
+        planner.addAlias("workspace.name", "workspace.id", this::getWorkspaceId);
+        planner.addAlias("namespace.prefix", "namespace.id", this::getNamespaceId);
+    }
+
+    private Object getWorkspaceId(Object name) {
+        if (!(name instanceof String)) {
+            return null;
+        }
+        return id(workspaces.findByName(new NameImpl((String) name), WorkspaceInfo.class));
+    }
+
+    private Object getNamespaceId(Object prefix) {
+        if (!(prefix instanceof String)) {
+            return null;
+        }
+        return id(namespaces.findByName(new NameImpl((String) prefix), NamespaceInfo.class));
     }
 
     @Override
@@ -182,6 +272,7 @@ public Catalog getCatalog() {
     public StoreInfo add(StoreInfo store) {
         resolve(store);
         stores.add(store);
+        version.incrementAndGet();
         return ModificationProxy.create(store, StoreInfo.class);
     }
 
@@ -192,6 +283,7 @@ public void remove(StoreInfo store) {
         synchronized (stores) {
             stores.remove(store);
         }
+        version.incrementAndGet();
     }
 
     @Override
@@ -206,6 +298,8 @@ public void save(StoreInfo store) {
         beforeSaved(store, propertyNames, oldValues, newValues);
         stores.update(store);
         commitProxy(store);
+        stores.reindex(store);
+        version.incrementAndGet();
         afterSaved(store, propertyNames, oldValues, newValues);
     }
 
@@ -284,6 +378,7 @@ public void setDefaultDataStore(WorkspaceInfo workspace, DataStoreInfo store) {
                 defaultStores.remove(workspace.getId());
             }
         }
+        version.incrementAndGet();
 
         // fire postmodify event after change
         catalog.firePostModified(
@@ -302,6 +397,7 @@ public ResourceInfo add(ResourceInfo resource) {
         synchronized (resources) {
             resources.add(resource);
         }
+        version.incrementAndGet();
         return ModificationProxy.create(resource, ResourceInfo.class);
     }
 
@@ -311,6 +407,7 @@ public void remove(ResourceInfo resource) {
         synchronized (resources) {
             resources.remove(resource);
         }
+        version.incrementAndGet();
     }
 
     @Override
@@ -326,6 +423,9 @@ public void save(ResourceInfo resource) {
         resources.update(resource);
         layers.update(resource);
         commitProxy(resource);
+        resources.reindex(resource);
+        layers.reindex(resource);
+        version.incrementAndGet();
         afterSaved(resource, propertyNames, oldValues, newValues);
     }
 
@@ -419,6 +519,7 @@ public <T extends ResourceInfo> List<T> getResourcesByStore(StoreInfo store, Cla
     public LayerInfo add(LayerInfo layer) {
         resolve(layer);
         layers.add(layer);
+        version.incrementAndGet();
 
         return ModificationProxy.create(layer, LayerInfo.class);
     }
@@ -426,6 +527,7 @@ public LayerInfo add(LayerInfo layer) {
     @Override
     public void remove(LayerInfo layer) {
         layers.remove(unwrap(layer));
+        version.incrementAndGet();
     }
 
     @Override
@@ -440,6 +542,8 @@ public void save(LayerInfo layer) {
         beforeSaved(layer, propertyNames, oldValues, newValues);
         layers.update(layer);
         commitProxy(layer);
+        layers.reindex(layer);
+        version.incrementAndGet();
         afterSaved(layer, propertyNames, oldValues, newValues);
     }
 
@@ -571,6 +675,7 @@ public LayerGroupInfo add(LayerGroupInfo layerGroup) {
         synchronized (layerGroups) {
             layerGroups.add(layerGroup);
         }
+        version.incrementAndGet();
         return ModificationProxy.create(layerGroup, LayerGroupInfo.class);
     }
 
@@ -582,6 +687,7 @@ public void remove(LayerGroupInfo layerGroup) {
         synchronized (layerGroups) {
             layerGroups.remove(unwrap(layerGroup));
         }
+        version.incrementAndGet();
     }
 
     /* (non-Javadoc)
@@ -599,6 +705,8 @@ public void save(LayerGroupInfo layerGroup) {
         beforeSaved(layerGroup, propertyNames, oldValues, newValues);
         layerGroups.update(layerGroup);
         commitProxy(layerGroup);
+        layerGroups.reindex(layerGroup);
+        version.incrementAndGet();
         afterSaved(layerGroup, propertyNames, oldValues, newValues);
     }
 
@@ -668,6 +776,7 @@ public NamespaceInfo add(NamespaceInfo namespace) {
         resolve(namespace);
         NamespaceInfo unwrapped = unwrap(namespace);
         namespaces.add(unwrapped);
+        version.incrementAndGet();
 
         return ModificationProxy.create(unwrapped, NamespaceInfo.class);
     }
@@ -679,6 +788,7 @@ public void remove(NamespaceInfo namespace) {
         }
 
         namespaces.remove(namespace);
+        version.incrementAndGet();
     }
 
     @Override
@@ -693,6 +803,8 @@ public void save(NamespaceInfo namespace) {
         beforeSaved(namespace, propertyNames, oldValues, newValues);
         namespaces.update(namespace);
         commitProxy(namespace);
+        namespaces.reindex(namespace);
+        version.incrementAndGet();
         afterSaved(namespace, propertyNames, oldValues, newValues);
     }
 
@@ -717,6 +829,7 @@ public void setDefaultNamespace(NamespaceInfo defaultNamespace) {
                 Arrays.asList(defaultNamespace));
 
         this.defaultNamespace = unwrap(defaultNamespace);
+        version.incrementAndGet();
 
         // fire postmodify event after change
         catalog.firePostModified(
@@ -768,6 +881,7 @@ public WorkspaceInfo add(WorkspaceInfo workspace) {
         resolve(workspace);
         WorkspaceInfo unwrapped = unwrap(workspace);
         workspaces.add(unwrapped);
+        version.incrementAndGet();
         return ModificationProxy.create(unwrapped, WorkspaceInfo.class);
     }
 
@@ -777,6 +891,7 @@ public void remove(WorkspaceInfo workspace) {
             this.defaultWorkspace = null;
         }
         workspaces.remove(workspace);
+        version.incrementAndGet();
     }
 
     @Override
@@ -799,6 +914,8 @@ public void save(WorkspaceInfo workspace) {
         beforeSaved(workspace, propertyNames, oldValues, newValues);
         workspaces.update(workspace);
         commitProxy(workspace);
+        workspaces.reindex(workspace);
+        version.incrementAndGet();
         afterSaved(workspace, propertyNames, oldValues, newValues);
     }
 
@@ -823,6 +940,7 @@ public void setDefaultWorkspace(WorkspaceInfo workspace) {
                 Arrays.asList(workspace));
 
         this.defaultWorkspace = unwrap(workspace);
+        version.incrementAndGet();
 
         // fire postmodify event after change
         catalog.firePostModified(
@@ -859,6 +977,7 @@ public StyleInfo add(StyleInfo style) {
         synchronized (styles) {
             styles.add(style);
         }
+        version.incrementAndGet();
         return ModificationProxy.create(style, StyleInfo.class);
     }
 
@@ -867,6 +986,7 @@ public void remove(StyleInfo style) {
         synchronized (styles) {
             styles.remove(unwrap(style));
         }
+        version.incrementAndGet();
     }
 
     @Override
@@ -881,6 +1001,8 @@ public void save(StyleInfo style) {
         beforeSaved(style, propertyNames, oldValues, newValues);
         styles.update(style);
         commitProxy(style);
+        styles.reindex(style);
+        version.incrementAndGet();
         afterSaved(style, propertyNames, oldValues, newValues);
     }
 
@@ -946,8 +1068,83 @@ public List<StyleInfo> getStylesByWorkspace(WorkspaceInfo workspace) {
         return ModificationProxy.createList(matches, StyleInfo.class);
     }
 
+    /**
+     * Adds the objects splitting them in runs of consecutive objects stored in the same lookup,
+     * each run is added while holding the lookup lock only once.
+     */
+    @Override
+    public List<CatalogInfo> addAll(List<? extends CatalogInfo> infos) {
+        List<CatalogInfo> result = new ArrayList<>(infos.size());
+        int start = 0;
+        while (start < infos.size()) {
+            Object lock = lockFor(infos.get(start));
+            int end = start + 1;
+            while (end < infos.size() && lockFor(infos.get(end)) == lock) {
+                end++;
+            }
+            synchronized (lock) {
+                result.addAll(CatalogFacade.super.addAll(infos.subList(start, end)));
+            }
+            start = end;
+        }
+        return result;
+    }
+
+    private Object lockFor(CatalogInfo info) {
+        if (info instanceof WorkspaceInfo) {
+            return workspaces;
+        } else if (info instanceof NamespaceInfo) {
+            return namespaces;
+        } else if (info instanceof StoreInfo) {
+            return stores;
+        } else if (info instanceof ResourceInfo) {
+            return resources;
+        } else if (info instanceof LayerInfo) {
+            return layers;
+        } else if (info instanceof LayerGroupInfo) {
+            return layerGroups;
+        } else if (info instanceof StyleInfo) {
+            return styles;
+        } else if (info instanceof MapInfo) {
+            return maps;
+        }
+        throw new IllegalArgumentException("Unsupported catalog object: " + info);
+    }
+
+    /**
+     * Returns a snapshot of the contents, with unproxied objects. The snapshot is cached and
+     * reused until the next change.
+     */
+    @Override
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot current = snapshot;
+        // read the version before collecting the contents, if a change happens meanwhile the
+        // snapshot will be considered stale on the next call
+        long currentVersion = version.get();
+        if (current != null && current.getVersion() == currentVersion) {
+            return current;
+        }
+
+        Map<Class<? extends CatalogInfo>, List<? extends CatalogInfo>> contents = new HashMap<>();
+        contents.put(WorkspaceInfo.class, workspaces.list(WorkspaceInfo.class, ptrue()));
+        contents.put(NamespaceInfo.class, namespaces.list(NamespaceInfo.class, ptrue()));
+        contents.put(StoreInfo.class, stores.list(StoreInfo.class, ptrue()));
+        contents.put(ResourceInfo.class, resources.list(ResourceInfo.class, ptrue()));
+        contents.put(StyleInfo.class, styles.list(StyleInfo.class, ptrue()));
+        contents.put(LayerInfo.class, layers.list(LayerInfo.class, ptrue()));
+        contents.put(LayerGroupInfo.class, layerGroups.list(LayerGroupInfo.class, ptrue()));
+        current = new CatalogSnapshot(currentVersion, contents);
+        snapshot = current;
+        return current;
+    }
+
+    private static <T> Predicate<T> ptrue() {
+        return CatalogInfoLookup.ptrue();
+    }
+
     @Override
     public void dispose() {
+        version.incrementAndGet();
         if (stores != null) stores.clear();
         if (defaultStores != null) defaultStores.clear();
         if (resources != null) resources.clear();
@@ -966,7 +1163,7 @@ public void resolve() {
 
         // workspaces
         if (workspaces == null) {
-            workspaces = new CatalogInfoLookup<>(WORKSPACE_NAME_MAPPER);
+            workspaces = workspaceLookup();
         }
         for (WorkspaceInfo ws : workspaces.values()) {
             resolve(ws);
@@ -974,7 +1171,7 @@ public void resolve() {
 
         // namespaces
         if (namespaces == null) {
-            namespaces = new CatalogInfoLookup<>(NAMESPACE_NAME_MAPPER);
+            namespaces = namespaceLookup();
         }
         for (NamespaceInfo ns : namespaces.values()) {
             resolve(ns);
@@ -982,7 +1179,7 @@ public void resolve() {
 
         // stores
         if (stores == null) {
-            stores = new CatalogInfoLookup<>(STORE_NAME_MAPPER);
+            stores = storeLookup();
         }
         for (Object o : stores.values()) {
             resolve((StoreInfoImpl) o);
@@ -990,7 +1187,7 @@ public void resolve() {
 
         // styles
         if (styles == null) {
-            styles = new CatalogInfoLookup<>(STYLE_NAME_MAPPER);
+            styles = styleLookup();
         }
         for (StyleInfo s : styles.values()) {
             resolve(s);
@@ -998,7 +1195,7 @@ public void resolve() {
 
         // resources
         if (resources == null) {
-            resources = new CatalogInfoLookup<>(RESOURCE_NAME_MAPPER);
+            resources = resourceLookup();
         }
         for (Object o : resources.values()) {
             resolve((ResourceInfo) o);
@@ -1014,7 +1211,7 @@ public void resolve() {
 
         // layer groups
         if (layerGroups == null) {
-            layerGroups = new CatalogInfoLookup<>(LAYERGROUP_NAME_MAPPER);
+            layerGroups = layerGroupLookup();
         }
         for (LayerGroupInfo lg : layerGroups.values()) {
             resolve(lg);
@@ -1047,6 +1244,7 @@ public void syncTo(CatalogFacade dao) {
             other.maps = maps;
             other.layerGroups = layerGroups.setCatalog(catalog);
             other.styles = styles.setCatalog(catalog);
+            other.version.incrementAndGet();
         } else {
             // do a manual import
             for (WorkspaceInfo ws : workspaces.values()) {
@@ -1091,7 +1289,22 @@ public void syncTo(CatalogFacade dao) {
 
     @Override
     public <T extends CatalogInfo> int count(final Class<T> of, final Filter filter) {
-        return Iterables.size(iterable(of, filter, null));
+        if (MapInfo.class.isAssignableFrom(of)) {
+            return Iterators.size(candidates(of, filter));
+        }
+
+        int count = 0;
+        for (CatalogInfoLookup<?> lookup : lookups(of)) {
+            Plan plan = planner.plan(lookup, filter);
+            if (plan.isExact()) {
+                // answered straight from the indexes, no need to evaluate the filter
+                Set<String> ids = plan.getIds();
+                count += ids == null ? lookup.count(of) : lookup.count(of, ids);
+            } else {
+                count += Iterators.size(candidates(lookup, of, filter, plan));
+            }
+        }
+        return count;
     }
 
     /**
@@ -1145,62 +1358,122 @@ public <T extends CatalogInfo> CloseableIterator<T> list(
             }
         }
 
-        Iterable<T> iterable = iterable(of, filter, sortOrder);
-
-        if (offset != null && offset.intValue() > 0) {
-            iterable = Iterables.skip(iterable, offset.intValue());
-        }
-
-        if (count != null && count.intValue() >= 0) {
-            iterable = Iterables.limit(iterable, count.intValue());
+        Iterator<T> iterator;
+        if (sortOrder == null || sortOrder.length == 0) {
+            // stream the matches, without building the full list
+            iterator = candidates(of, filter);
+            if (offset != null && offset.intValue() > 0) {
+                Iterators.advance(iterator, offset.intValue());
+            }
+            if (count != null && count.intValue() >= 0) {
+                iterator = Iterators.limit(iterator, count.intValue());
+            }
+        } else {
+            List<T> all = Lists.newArrayList(candidates(of, filter));
+            iterator = sort(all, sortOrder, offset, count).iterator();
         }
-
-        Iterator<T> iterator = iterable.iterator();
+        iterator = Iterators.transform(iterator, ci -> ModificationProxy.create(ci, of));
 
         return new CloseableIteratorAdapter<>(iterator);
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends CatalogInfo> Iterable<T> iterable(
             final Class<T> of, final Filter filter, final SortBy[] sortByList) {
-        List<T> all;
+        List<T> all = Lists.newArrayList(candidates(of, filter));
+        if (null != sortByList) {
+            all = sort(all, sortByList, null, null);
+        }
+
+        return ModificationProxy.createList(all, of);
+    }
 
+    /** Returns the lookups containing objects of the given type */
+    private List<CatalogInfoLookup<?>> lookups(final Class<?> of) {
         if (NamespaceInfo.class.isAssignableFrom(of)) {
-            all = namespaces.list(of, toPredicate(filter));
+            return Collections.singletonList(namespaces);
         } else if (WorkspaceInfo.class.isAssignableFrom(of)) {
-            all = workspaces.list(of, toPredicate(filter));
+            return Collections.singletonList(workspaces);
         } else if (StoreInfo.class.isAssignableFrom(of)) {
-            all = stores.list(of, toPredicate(filter));
+            return Collections.singletonList(stores);
         } else if (ResourceInfo.class.isAssignableFrom(of)) {
-            all = resources.list(of, toPredicate(filter));
+            return Collections.singletonList(resources);
         } else if (LayerInfo.class.isAssignableFrom(of)) {
-            all = layers.list(of, toPredicate(filter));
+            return Collections.singletonList(layers);
         } else if (LayerGroupInfo.class.isAssignableFrom(of)) {
-            all = layerGroups.list(of, toPredicate(filter));
+            return Collections.singletonList(layerGroups);
         } else if (PublishedInfo.class.isAssignableFrom(of)) {
-            all = new ArrayList<>();
-            all.addAll((List<T>) layers.list(LayerInfo.class, toPredicate(filter)));
-            all.addAll((List<T>) layerGroups.list(LayerGroupInfo.class, toPredicate(filter)));
+            return Arrays.asList(layers, layerGroups);
         } else if (StyleInfo.class.isAssignableFrom(of)) {
-            all = styles.list(of, toPredicate(filter));
-        } else if (MapInfo.class.isAssignableFrom(of)) {
-            all = (List<T>) new ArrayList<>(maps);
+            return Collections.singletonList(styles);
         } else {
             throw new IllegalArgumentException("Unknown type: " + of);
         }
+    }
 
-        if (null != sortByList) {
-            for (int i = sortByList.length - 1; i >= 0; i--) {
-                SortBy sortBy = sortByList[i];
-                Ordering<Object> ordering = Ordering.from(comparator(sortBy));
-                if (SortOrder.DESCENDING.equals(sortBy.getSortOrder())) {
-                    ordering = ordering.reverse();
-                }
-                all = ordering.sortedCopy(all);
+    /** Lazily returns the (unproxied) objects matching the filter, in lookup order */
+    @SuppressWarnings("unchecked")
+    private <T extends CatalogInfo> Iterator<T> candidates(final Class<T> of, final Filter filter) {
+        if (MapInfo.class.isAssignableFrom(of)) {
+            Predicate<T> predicate = toPredicate(filter);
+            Iterator<T> all = (Iterator<T>) (Iterator<?>) maps.iterator();
+            return Iterators.filter(all, m -> predicate.test(m));
+        }
+
+        List<Iterator<T>> iterators = new ArrayList<>();
+        for (CatalogInfoLookup<?> lookup : lookups(of)) {
+            Plan plan = planner.plan(lookup, filter);
+            iterators.add(candidates(lookup, of, filter, plan));
+        }
+        return Iterators.concat(iterators.iterator());
+    }
+
+    private <T extends CatalogInfo> Iterator<T> candidates(
+            CatalogInfoLookup<?> lookup, Class<T> of, Filter filter, Plan plan) {
+        Predicate<T> predicate = plan.isExact() ? CatalogInfoLookup.ptrue() : toPredicate(filter);
+        Set<String> ids = plan.getIds();
+        if (ids == null) {
+            return lookup.iterator(of, predicate);
+        } else {
+            return lookup.list(of, predicate, ids).iterator();
+        }
+    }
+
+    /**
+     * Sorts the objects and extracts the requested page. When only a page is requested a partial
+     * sort is used, with the original position as a tie breaker, so that the results are the same
+     * as the ones of a full stable sort
+     */
+    private <T> List<T> sort(List<T> all, SortBy[] sortByList, Integer offset, Integer count) {
+        Ordering<Object> ordering = null;
+        for (SortBy sortBy : sortByList) {
+            Ordering<Object> current = Ordering.from(comparator(sortBy));
+            if (SortOrder.DESCENDING.equals(sortBy.getSortOrder())) {
+                current = current.reverse();
             }
+            ordering = ordering == null ? current : ordering.compound(current);
         }
 
-        return ModificationProxy.createList(all, of);
+        int skip = offset != null && offset.intValue() > 0 ? offset.intValue() : 0;
+        int limit = count != null && count.intValue() >= 0 ? count.intValue() : -1;
+        List<T> sorted;
+        if (ordering == null) {
+            sorted = all;
+        } else if (limit >= 0 && (long) skip + limit < all.size()) {
+            Ordering<Integer> byPosition =
+                    ordering.onResultOf((Integer i) -> all.get(i))
+                            .compound(Ordering.<Integer>natural());
+            List<Integer> positions =
+                    byPosition.leastOf(IntStream.range(0, all.size()).iterator(), skip + limit);
+            sorted = Lists.transform(positions, i -> all.get(i));
+        } else {
+            sorted = ordering.sortedCopy(all);
+        }
+
+        if (skip >= sorted.size()) {
+            return Collections.emptyList();
+        }
+        int end = limit >= 0 ? Math.min(sorted.size(), skip + limit) : sorted.size();
+        return sorted.subList(skip, end);
     }
 
     private <T> Predicate<T> toPredicate(Filter filter) {
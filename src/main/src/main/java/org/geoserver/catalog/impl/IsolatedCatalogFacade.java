@@ -15,6 +15,7 @@
 import org.geoserver.catalog.CatalogCapabilities;
 import org.geoserver.catalog.CatalogFacade;
 import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.CatalogSnapshot;
 import org.geoserver.catalog.DataStoreInfo;
 import org.geoserver.catalog.LayerGroupInfo;
 import org.geoserver.catalog.LayerInfo;
@@ -485,6 +486,10 @@ public void syncTo(CatalogFacade other) {
 
     @Override
     public <T extends CatalogInfo> int count(Class<T> of, Filter filter) {
+        if (Dispatcher.REQUEST.get() == null) {
+            // everything is visible outside of OWS requests, let the delegate optimize the count
+            return facade.count(of, filter);
+        }
         CloseableIterator<T> found = facade.list(of, filter, null, null);
         try (CloseableIterator<T> filtered = filterIsolated(of, found)) {
             int count = 0;
@@ -511,6 +516,15 @@ public <T extends CatalogInfo> CloseableIterator<T> list(
         return filterIsolated(of, facade.list(of, filter, offset, count, sortOrder));
     }
 
+    @Override
+    public CatalogSnapshot snapshot() {
+        if (Dispatcher.REQUEST.get() == null) {
+            // everything is visible outside of OWS requests
+            return facade.snapshot();
+        }
+        return facade.snapshot().transform((type, info) -> enforceIsolation(info));
+    }
+
     @Override
     public CatalogCapabilities getCatalogCapabilities() {
         CatalogCapabilities capabilities = facade.getCatalogCapabilities();
@@ -532,6 +546,28 @@ private WorkspaceInfo getLocalWorkspace() {
         return LocalWorkspace.get();
     }
 
+    /**
+     * Checks if the provided catalog object is visible in the current context, dispatching to the
+     * type specific checks.
+     *
+     * @param info the catalog object to check
+     * @return the catalog object if visible, otherwise NULL
+     */
+    private CatalogInfo enforceIsolation(CatalogInfo info) {
+        if (info instanceof StoreInfo) {
+            return enforceStoreIsolation((StoreInfo) info);
+        } else if (info instanceof ResourceInfo) {
+            return enforceResourceIsolation((ResourceInfo) info);
+        } else if (info instanceof LayerInfo) {
+            return enforceLayerIsolation((LayerInfo) info);
+        } else if (info instanceof StyleInfo) {
+            return enforceStyleIsolation((StyleInfo) info);
+        } else if (info instanceof LayerGroupInfo) {
+            return enforceLayerGroupIsolation((LayerGroupInfo) info);
+        }
+        return info;
+    }
+
     /**
      * Checks if the provided store is visible in the current context.
      *
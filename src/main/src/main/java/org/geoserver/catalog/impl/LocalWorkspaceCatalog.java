@@ -16,6 +16,7 @@
 import java.util.stream.Collectors;
 import org.geoserver.catalog.Catalog;
 import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.CatalogSnapshot;
 import org.geoserver.catalog.CoverageInfo;
 import org.geoserver.catalog.CoverageStoreInfo;
 import org.geoserver.catalog.DataStoreInfo;
@@ -598,6 +599,32 @@ public void removeListeners(Class<? extends CatalogListener> listenerClass) {
         delegate.removeListeners(listenerClass);
     }
 
+    @Override
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = delegate.snapshot();
+        if (!useNameDequalifyingProxy()) {
+            return snapshot;
+        }
+        // apply the same dequalification rules as the direct lookup methods
+        boolean dequalifyAll = useNameDequalifyingProxyForAll();
+        return snapshot.transform((type, info) -> wrapSnapshotObject(info, dequalifyAll));
+    }
+
+    private CatalogInfo wrapSnapshotObject(CatalogInfo info, boolean dequalifyAll) {
+        if (info instanceof LayerInfo) {
+            return NameDequalifyingProxy.create((LayerInfo) info, LayerInfo.class);
+        } else if (info instanceof LayerGroupInfo) {
+            return NameDequalifyingProxy.create((LayerGroupInfo) info, LayerGroupInfo.class);
+        } else if (dequalifyAll && info instanceof FeatureTypeInfo) {
+            return NameDequalifyingProxy.create((FeatureTypeInfo) info, FeatureTypeInfo.class);
+        } else if (dequalifyAll && info instanceof CoverageInfo) {
+            return NameDequalifyingProxy.create((CoverageInfo) info, CoverageInfo.class);
+        } else if (dequalifyAll && info instanceof StyleInfo) {
+            return NameDequalifyingProxy.create((StyleInfo) info, StyleInfo.class);
+        }
+        return info;
+    }
+
     @Override
     public NamespaceInfo getDefaultNamespace() {
         if (LocalWorkspace.get() != null) {
@@ -0,0 +1,162 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.catalog.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import org.geoserver.catalog.CatalogInfo;
+
+/**
+ * A secondary index for {@link CatalogInfoLookup}, mapping the values of a property (as returned by
+ * a user provided extractor) to the identifiers of the {@link CatalogInfo} objects having them.
+ *
+ * <p>The extractor can return a single value or, for multi valued indexes, a {@link Collection} of
+ * values, in the latter case the object is indexed under each of them (e.g., keywords). Null values
+ * are not indexed. Sorted indexes also support prefix lookups, used for "name starts with" type of
+ * queries.
+ *
+ * @param <T>
+ */
+class PropertyIndex<T extends CatalogInfo> {
+
+    final String property;
+
+    final Class<?> type;
+
+    final Function<T, Object> extractor;
+
+    final boolean sorted;
+
+    final boolean multiValued;
+
+    final Map<Object, Set<String>> entries;
+
+    /** The keys each object is currently indexed with, used to clean up on update and removal */
+    final Map<String, Collection<Object>> keysById = new ConcurrentHashMap<>();
+
+    PropertyIndex(
+            String property,
+            Class<?> type,
+            Function<T, Object> extractor,
+            boolean sorted,
+            boolean multiValued) {
+        this.property = property;
+        this.type = type;
+        this.extractor = extractor;
+        this.sorted = sorted;
+        this.multiValued = multiValued;
+        this.entries = sorted ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+    }
+
+    /** (Re)indexes the given object, removing it from the keys it does not have anymore */
+    synchronized void index(T value) {
+        String id = value.getId();
+        if (id == null) {
+            return;
+        }
+        Collection<Object> newKeys = keys(value);
+        Collection<Object> oldKeys = keysById.get(id);
+        if (oldKeys != null) {
+            for (Object key : oldKeys) {
+                if (!newKeys.contains(key)) {
+                    removeEntry(key, id);
+                }
+            }
+        }
+        for (Object key : newKeys) {
+            entries.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (newKeys.isEmpty()) {
+            keysById.remove(id);
+        } else {
+            keysById.put(id, newKeys);
+        }
+    }
+
+    /** Removes the object with the given identifier from the index */
+    synchronized void remove(String id) {
+        Collection<Object> oldKeys = keysById.remove(id);
+        if (oldKeys != null) {
+            for (Object key : oldKeys) {
+                removeEntry(key, id);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        keysById.clear();
+    }
+
+    /** Returns the identifiers of the objects indexed with the given key */
+    Set<String> get(Object key) {
+        Set<String> ids = entries.get(key);
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    /**
+     * Returns the identifiers of the objects indexed with a key starting with the given prefix, or
+     * null if the index is not sorted
+     */
+    Set<String> getByPrefix(String prefix) {
+        if (!sorted || !String.class.equals(type)) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        NavigableMap<Object, Set<String>> map = (NavigableMap<Object, Set<String>>) entries;
+        Set<String> result = new HashSet<>();
+        String upper = prefix + Character.MAX_VALUE;
+        for (Set<String> ids : map.subMap(prefix, true, upper, true).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    private void removeEntry(Object key, String id) {
+        Set<String> ids = entries.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    private Collection<Object> keys(T value) {
+        Object key;
+        try {
+            key = extractor.apply(value);
+        } catch (RuntimeException e) {
+            // some properties cannot be computed on partially built objects (e.g., a layer
+            // without a resource), they are simply not indexed
+            CatalogInfoLookup.LOGGER.log(
+                    Level.FINEST,
+                    "Could not extract " + property + " from " + value.getId(),
+                    e);
+            key = null;
+        }
+        if (key == null) {
+            return Collections.emptySet();
+        } else if (key instanceof Collection) {
+            Set<Object> result = new HashSet<>();
+            for (Object k : (Collection<?>) key) {
+                if (k != null) {
+                    result.add(k);
+                }
+            }
+            return result;
+        } else {
+            return Collections.singleton(key);
+        }
+    }
+}
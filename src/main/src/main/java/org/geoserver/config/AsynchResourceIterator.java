@@ -68,7 +68,7 @@ public void run() {
                         if (mapped != null) {
                             queue.put(mapped);
                         }
-                    } catch (IOException e) {
+                    } catch (IOException | RuntimeException e) {
                         LOGGER.log(Level.WARNING, "Failed to load resource '" + r.name() + "'", e);
                     }
                 }
@@ -157,7 +157,7 @@ public AsynchResourceIterator(
             final Resource r = resources.get(0);
             try {
                 mapped = mapper.apply(r);
-            } catch (IOException e) {
+            } catch (IOException | RuntimeException e) {
                 LOGGER.log(Level.WARNING, "Failed to load resource '" + r.name() + "'", e);
             } finally {
                 completed = true;
@@ -0,0 +1,200 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.config;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.binary.BinaryStreamReader;
+import com.thoughtworks.xstream.io.binary.BinaryStreamWriter;
+import com.thoughtworks.xstream.io.copy.HierarchicalStreamCopier;
+import com.thoughtworks.xstream.io.xml.XppDriver;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geoserver.config.util.XStreamPersister;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.platform.resource.Resource;
+import org.geoserver.platform.resource.Resources;
+import org.geotools.util.logging.Logging;
+
+/**
+ * A binary snapshot of the catalog configuration files, used to speed up startup.
+ *
+ * <p>For each configuration file read while loading the catalog the snapshot stores its last
+ * modification time and its contents converted to the XStream binary format, which can be
+ * depersisted without parsing XML. On the next startup the files whose modification time did not
+ * change are read from the snapshot, while new and modified files are read from the data directory
+ * and converted. After each load the snapshot is rewritten with the files that have actually been
+ * read, so that removed files are dropped.
+ *
+ * <p>The conversion happens at the stream level, the binary contents carry the very same nodes,
+ * attributes and values as the XML, thus the usual {@link XStreamPersister} converters (reference
+ * resolution, password decryption and so on) are used in both cases.
+ *
+ * <p>The snapshot is disabled by default, set the {@link #ENABLED_PROPERTY} system property to
+ * {@code true} to enable it.
+ */
+public class BinaryConfigSnapshot {
+
+    static final Logger LOGGER = Logging.getLogger(BinaryConfigSnapshot.class);
+
+    /** Name of the snapshot file, in the root of the data directory */
+    public static final String FILE_NAME = "catalog.snapshot";
+
+    /** System property enabling the snapshot */
+    public static final String ENABLED_PROPERTY = "org.geoserver.catalog.snapshot";
+
+    /** Prefix of binary contents, a NUL character cannot appear in a XML document */
+    static final byte[] MAGIC = {0, 'G', 'S', 'B'};
+
+    /** Version of the snapshot file format */
+    static final int VERSION = 1;
+
+    static final class Entry {
+        final long lastModified;
+        final byte[] contents;
+
+        Entry(long lastModified, byte[] contents) {
+            this.lastModified = lastModified;
+            this.contents = contents;
+        }
+    }
+
+    /** Entries read from the snapshot file */
+    final Map<String, Entry> previous;
+
+    /** Entries read during the current load, will make up the next snapshot */
+    final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    final AtomicInteger hits = new AtomicInteger();
+
+    final AtomicInteger misses = new AtomicInteger();
+
+    BinaryConfigSnapshot(Map<String, Entry> previous) {
+        this.previous = previous;
+    }
+
+    /** Returns true if the snapshot has been enabled via the {@link #ENABLED_PROPERTY} */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(GeoServerExtensions.getProperty(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Reads a snapshot from the given file. A missing, unreadable or incompatible file results in
+     * an empty snapshot, forcing all the configuration to be read from XML.
+     */
+    public static BinaryConfigSnapshot load(Resource file) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (Resources.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.in()))) {
+                if (in.readInt() == VERSION) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String path = in.readUTF();
+                        long lastModified = in.readLong();
+                        byte[] contents = new byte[in.readInt()];
+                        in.readFully(contents);
+                        entries.put(path, new Entry(lastModified, contents));
+                    }
+                } else {
+                    LOGGER.info("Ignoring catalog snapshot with an unsupported version");
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to read the catalog snapshot, ignoring it", e);
+                entries.clear();
+            }
+        }
+        return new BinaryConfigSnapshot(entries);
+    }
+
+    /**
+     * Returns the contents of a configuration file, from the snapshot if the file did not change,
+     * or reading and converting its XML otherwise. The result must be depersisted using {@link
+     * #depersist(XStreamPersister, byte[], Class)}.
+     */
+    public byte[] read(Resource file) throws IOException {
+        String path = file.path();
+        long lastModified = file.lastmodified();
+        Entry entry = previous.get(path);
+        if (entry == null || entry.lastModified != lastModified) {
+            misses.incrementAndGet();
+            entry = new Entry(lastModified, toBinary(file.getContents()));
+        } else {
+            hits.incrementAndGet();
+        }
+        current.put(path, entry);
+        return entry.contents;
+    }
+
+    /** Writes the files read during the current load into the given file */
+    public void save(Resource file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file.out()))) {
+            out.writeInt(VERSION);
+            out.writeInt(current.size());
+            for (Map.Entry<String, Entry> e : current.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue().lastModified);
+                out.writeInt(e.getValue().contents.length);
+                out.write(e.getValue().contents);
+            }
+        }
+    }
+
+    /** Number of files read from the snapshot */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /** Number of files read from the data directory, because missing or modified */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /** Returns true if the contents have been returned by {@link #read(Resource)} */
+    public static boolean isBinary(byte[] contents) {
+        return contents.length >= MAGIC.length
+                && Arrays.equals(MAGIC, Arrays.copyOf(contents, MAGIC.length));
+    }
+
+    /** Depersists contents returned by {@link #read(Resource)} */
+    public static <T> T depersist(XStreamPersister xp, byte[] contents, Class<T> clazz)
+            throws IOException {
+        InputStream in =
+                new ByteArrayInputStream(
+                        contents, MAGIC.length, contents.length - MAGIC.length);
+        HierarchicalStreamReader reader = new BinaryStreamReader(in);
+        try {
+            return clazz.cast(xp.getXStream().unmarshal(reader));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /** Converts a XML document into the binary format */
+    static byte[] toBinary(byte[] xml) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(xml.length);
+        bytes.write(MAGIC);
+        HierarchicalStreamReader reader =
+                new XppDriver().createReader(new ByteArrayInputStream(xml));
+        BinaryStreamWriter writer = new BinaryStreamWriter(bytes);
+        try {
+            new HierarchicalStreamCopier().copy(reader, writer);
+        } finally {
+            writer.close();
+            reader.close();
+        }
+        return bytes.toByteArray();
+    }
+}
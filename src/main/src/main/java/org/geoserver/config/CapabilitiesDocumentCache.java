@@ -0,0 +1,476 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import org.apache.commons.io.IOUtils;
+import org.geoserver.catalog.CatalogException;
+import org.geoserver.catalog.PublishedInfo;
+import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.catalog.event.CatalogAddEvent;
+import org.geoserver.catalog.event.CatalogListener;
+import org.geoserver.catalog.event.CatalogModifyEvent;
+import org.geoserver.catalog.event.CatalogPostModifyEvent;
+import org.geoserver.catalog.event.CatalogRemoveEvent;
+import org.geoserver.ows.AbstractDispatcherCallback;
+import org.geoserver.ows.LocalPublished;
+import org.geoserver.ows.LocalWorkspace;
+import org.geoserver.ows.Request;
+import org.geoserver.ows.Response;
+import org.geoserver.ows.util.ResponseUtils;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.platform.Operation;
+import org.geoserver.platform.ServiceException;
+import org.geotools.util.logging.Logging;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Caches the GetCapabilities documents, so that large catalogs do not need to be walked at every
+ * request.
+ *
+ * <p>Documents are keyed on the service, version, local workspace and layer, the name and roles of
+ * the current user, the accepted languages, the base URL and proxy headers, and the request
+ * parameters. Only GET requests are cached. All documents become stale as soon as the catalog or
+ * the configuration changes, or when they get older than the configured time to live (which also
+ * bounds how long a change in the data security rules can go unnoticed). A stale document is
+ * regenerated by the first request hitting it, while concurrent requests for the same document keep
+ * being served the stale copy instead of waiting.
+ *
+ * <p>The cache is disabled by default, and configured using the following variables, either as
+ * system, environment or servlet context variables:
+ *
+ * <ul>
+ *   <li>CAPABILITIES_DOCUMENT_CACHE_ENABLED: enables the cache, defaults to false
+ *   <li>CAPABILITIES_DOCUMENT_CACHE_MAX_SIZE: the max amount of memory used by the cached
+ *       documents, in bytes, defaults to 64MB
+ *   <li>CAPABILITIES_DOCUMENT_CACHE_TTL: the max age of a document, in seconds, defaults to 600
+ *   <li>CAPABILITIES_DOCUMENT_CACHE_GZIP: keeps the documents gzip compressed in memory, trading
+ *       some CPU to serve hits for a smaller footprint, defaults to false
+ * </ul>
+ */
+public class CapabilitiesDocumentCache extends AbstractDispatcherCallback
+        implements CatalogListener {
+
+    static final Logger LOGGER = Logging.getLogger(CapabilitiesDocumentCache.class);
+
+    public static final String ENABLED_PROPERTY = "CAPABILITIES_DOCUMENT_CACHE_ENABLED";
+
+    public static final String MAX_SIZE_PROPERTY = "CAPABILITIES_DOCUMENT_CACHE_MAX_SIZE";
+
+    public static final String TTL_PROPERTY = "CAPABILITIES_DOCUMENT_CACHE_TTL";
+
+    public static final String GZIP_PROPERTY = "CAPABILITIES_DOCUMENT_CACHE_GZIP";
+
+    static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+
+    static final long DEFAULT_TTL = 600;
+
+    /** Headers used to build the URLs in the documents when running behind a proxy */
+    static final List<String> PROXY_HEADERS =
+            Arrays.asList(
+                    "Host",
+                    "Forwarded",
+                    "X-Forwarded-Proto",
+                    "X-Forwarded-Host",
+                    "X-Forwarded-Port",
+                    "X-Forwarded-Path");
+
+    /** A cached document */
+    static final class Entry {
+
+        final byte[] contents;
+
+        final boolean compressed;
+
+        final long generation;
+
+        final long created;
+
+        /** Set while a request is regenerating the stale document */
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(byte[] contents, boolean compressed, long generation, long created) {
+            this.contents = contents;
+            this.compressed = compressed;
+            this.generation = generation;
+            this.created = created;
+        }
+
+        void writeTo(OutputStream output) throws IOException {
+            if (compressed) {
+                try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(contents))) {
+                    IOUtils.copy(is, output);
+                }
+            } else {
+                output.write(contents);
+            }
+        }
+    }
+
+    GeoServer gs;
+
+    boolean enabled;
+
+    long maxSize;
+
+    long ttl;
+
+    boolean gzip;
+
+    /** Incremented at every catalog and configuration change, making all the documents stale */
+    final AtomicLong generation = new AtomicLong();
+
+    /** The documents, in access order */
+    final LinkedHashMap<List<Object>, Entry> documents = new LinkedHashMap<>(16, 0.75f, true);
+
+    long size;
+
+    final AtomicLong hits = new AtomicLong();
+
+    final AtomicLong staleHits = new AtomicLong();
+
+    final AtomicLong misses = new AtomicLong();
+
+    public CapabilitiesDocumentCache(GeoServer gs) {
+        this.gs = gs;
+        this.enabled = Boolean.parseBoolean(GeoServerExtensions.getProperty(ENABLED_PROPERTY));
+        this.maxSize = getLongProperty(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+        this.ttl = getLongProperty(TTL_PROPERTY, DEFAULT_TTL);
+        this.gzip = Boolean.parseBoolean(GeoServerExtensions.getProperty(GZIP_PROPERTY));
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Capabilities document cache is enabled: " + enabled);
+        }
+
+        gs.getCatalog().addListener(this);
+        gs.addListener(
+                new ConfigurationListenerAdapter() {
+                    @Override
+                    public void handlePostGlobalChange(GeoServerInfo global) {
+                        invalidate();
+                    }
+
+                    @Override
+                    public void handleSettingsAdded(SettingsInfo settings) {
+                        invalidate();
+                    }
+
+                    @Override
+                    public void handleSettingsPostModified(SettingsInfo settings) {
+                        invalidate();
+                    }
+
+                    @Override
+                    public void handleSettingsRemoved(SettingsInfo settings) {
+                        invalidate();
+                    }
+
+                    @Override
+                    public void handlePostServiceChange(ServiceInfo service) {
+                        invalidate();
+                    }
+
+                    @Override
+                    public void handleServiceRemove(ServiceInfo service) {
+                        invalidate();
+                    }
+
+                    @Override
+                    public void reloaded() {
+                        invalidate();
+                    }
+                });
+    }
+
+    private static long getLongProperty(String name, long defaultValue) {
+        String value = GeoServerExtensions.getProperty(name);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + name + ": " + value + ", using default");
+            }
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public Response responseDispatched(
+            Request request, Operation operation, Object result, Response response) {
+        if (enabled
+                && request.isGet()
+                && "GetCapabilities".equalsIgnoreCase(request.getRequest())) {
+            return new CachingResponse(response, getKey(request));
+        }
+
+        return response;
+    }
+
+    /** Builds the key identifying the document produced by the request */
+    List<Object> getKey(Request request) {
+        WorkspaceInfo ws = LocalWorkspace.get();
+        PublishedInfo published = LocalPublished.get();
+        TreeSet<String> roles = new TreeSet<>();
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        // access managers can grant access by user name too, roles alone are not enough
+        String user = auth != null ? auth.getName() : null;
+        if (auth != null && auth.getAuthorities() != null) {
+            for (GrantedAuthority authority : auth.getAuthorities()) {
+                roles.add(authority.getAuthority());
+            }
+        }
+        Map<String, String> kvp = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (request.getRawKvp() != null) {
+            for (Map.Entry<String, Object> entry : request.getRawKvp().entrySet()) {
+                Object value = entry.getValue();
+                kvp.put(
+                        entry.getKey(),
+                        value instanceof Object[]
+                                ? Arrays.toString((Object[]) value)
+                                : String.valueOf(value));
+            }
+        }
+        HttpServletRequest http = request.getHttpRequest();
+        String baseURL = null;
+        String language = null;
+        TreeMap<String, String> headers = new TreeMap<>();
+        if (http != null) {
+            baseURL = ResponseUtils.baseURL(http);
+            language = http.getHeader("Accept-Language");
+            for (String header : PROXY_HEADERS) {
+                String value = http.getHeader(header);
+                if (value != null) {
+                    headers.put(header, value);
+                }
+            }
+        }
+
+        return Arrays.asList(
+                request.getService(),
+                request.getVersion(),
+                ws != null ? ws.getName() : null,
+                published != null ? published.prefixedName() : null,
+                user,
+                roles,
+                language,
+                baseURL,
+                headers,
+                kvp);
+    }
+
+    /** Makes all the cached documents stale */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /** Drops all the cached documents */
+    public synchronized void clear() {
+        documents.clear();
+        size = 0;
+    }
+
+    synchronized Entry get(List<Object> key) {
+        return documents.get(key);
+    }
+
+    synchronized void put(List<Object> key, Entry entry) {
+        Entry previous = documents.put(key, entry);
+        if (previous != null) {
+            size -= previous.contents.length;
+        }
+        size += entry.contents.length;
+        Iterator<Entry> it = documents.values().iterator();
+        while (size > maxSize && it.hasNext()) {
+            size -= it.next().contents.length;
+            it.remove();
+        }
+    }
+
+    boolean isStale(Entry entry) {
+        return entry.generation != generation.get()
+                || System.currentTimeMillis() - entry.created > TimeUnit.SECONDS.toMillis(ttl);
+    }
+
+    /** Returns true if the cache is enabled */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Enables/disables the cache */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /** Returns true if the documents are kept gzip compressed in memory */
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    /** Sets whether the documents are kept gzip compressed in memory */
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /** Returns the number of cached documents */
+    public synchronized int getCount() {
+        return documents.size();
+    }
+
+    /** Returns the memory used by the cached documents, in bytes */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /** Returns the number of requests served from a fresh document */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Returns the number of requests served from a stale document while it was regenerated */
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    /** Returns the number of requests that had to generate the document */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void handleAddEvent(CatalogAddEvent event) throws CatalogException {
+        invalidate();
+    }
+
+    @Override
+    public void handleRemoveEvent(CatalogRemoveEvent event) throws CatalogException {
+        invalidate();
+    }
+
+    @Override
+    public void handleModifyEvent(CatalogModifyEvent event) throws CatalogException {
+        // never mind: we need the Post event
+    }
+
+    @Override
+    public void handlePostModifyEvent(CatalogPostModifyEvent event) throws CatalogException {
+        invalidate();
+    }
+
+    @Override
+    public void reloaded() {
+        invalidate();
+    }
+
+    /** A Response wrapper serving the document from the cache, or generating and caching it */
+    private class CachingResponse extends Response {
+
+        Response delegate;
+
+        List<Object> key;
+
+        public CachingResponse(Response delegate, List<Object> key) {
+            super(delegate.getBinding());
+            this.delegate = delegate;
+            this.key = key;
+        }
+
+        @Override
+        public boolean canHandle(Operation operation) {
+            return delegate.canHandle(operation);
+        }
+
+        @Override
+        public String getMimeType(Object value, Operation operation) throws ServiceException {
+            return delegate.getMimeType(value, operation);
+        }
+
+        @Override
+        public String[][] getHeaders(Object value, Operation operation) throws ServiceException {
+            return delegate.getHeaders(value, operation);
+        }
+
+        @Override
+        public void write(Object value, OutputStream output, Operation operation)
+                throws IOException, ServiceException {
+            Entry entry = get(key);
+            if (entry != null) {
+                if (!isStale(entry)) {
+                    hits.incrementAndGet();
+                    entry.writeTo(output);
+                    return;
+                } else if (!entry.refreshing.compareAndSet(false, true)) {
+                    // another request is regenerating it, don't wait
+                    staleHits.incrementAndGet();
+                    entry.writeTo(output);
+                    return;
+                }
+            }
+
+            misses.incrementAndGet();
+            // grab the generation before building, a change happening meanwhile must make the
+            // document stale
+            long current = generation.get();
+            long created = System.currentTimeMillis();
+            try {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                delegate.write(value, bos, operation);
+                byte[] contents = bos.toByteArray();
+                boolean compressed = gzip;
+                if (compressed) {
+                    ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+                    try (GZIPOutputStream gos = new GZIPOutputStream(zipped)) {
+                        gos.write(contents);
+                    }
+                    put(key, new Entry(zipped.toByteArray(), true, current, created));
+                } else {
+                    put(key, new Entry(contents, false, current, created));
+                }
+                output.write(contents);
+            } finally {
+                if (entry != null) {
+                    entry.refreshing.set(false);
+                }
+            }
+        }
+
+        @Override
+        public String getPreferredDisposition(Object value, Operation operation) {
+            return delegate.getPreferredDisposition(value, operation);
+        }
+
+        @Override
+        public String getAttachmentFileName(Object value, Operation operation) {
+            return delegate.getAttachmentFileName(value, operation);
+        }
+
+        @Override
+        public String getCharset(Operation operation) {
+            return delegate.getCharset(operation);
+        }
+    }
+}
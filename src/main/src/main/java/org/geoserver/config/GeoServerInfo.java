@@ -96,6 +96,15 @@ public interface GeoServerInfo extends Info {
     /** Sets the size of the cache for feature type objects. */
     void setFeatureTypeCacheSize(int featureTypeCacheSize);
 
+    /**
+     * The eviction policy of the feature type caches, see {@link ResourceCachePolicy}. Defaults to
+     * {@link ResourceCachePolicy#SOFT}.
+     */
+    ResourceCachePolicy getResourceCachePolicy();
+
+    /** Sets the eviction policy of the feature type caches. */
+    void setResourceCachePolicy(ResourceCachePolicy resourceCachePolicy);
+
     /** Flag determining if access to services should occur only through "virtual services". */
     Boolean isGlobalServices();
 
@@ -185,6 +194,20 @@ public enum WebUIMode {
     /** Set the WebUIMode */
     public void setWebUIMode(WebUIMode mode);
 
+    /** Eviction policies for the feature type caches of the resource pool */
+    public enum ResourceCachePolicy {
+        /**
+         * Keeps {@link #getFeatureTypeCacheSize()} entries hard referenced, the others are held by
+         * soft references and released by the garbage collector under memory pressure
+         */
+        SOFT,
+        /**
+         * Keeps at most {@link #getFeatureTypeCacheSize()} entries, evicting the least recently
+         * used ones, without relying on the garbage collector
+         */
+        BOUNDED
+    };
+
     /** Determines if Per-workspace Stores Queries are activated. */
     Boolean isAllowStoredQueriesPerWorkspace();
 
@@ -13,8 +13,19 @@
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -29,6 +40,7 @@
 import org.geoserver.catalog.NamespaceInfo;
 import org.geoserver.catalog.ResourceInfo;
 import org.geoserver.catalog.ResourcePool;
+import org.geoserver.catalog.StoreInfo;
 import org.geoserver.catalog.StyleInfo;
 import org.geoserver.catalog.WMSLayerInfo;
 import org.geoserver.catalog.WMSStoreInfo;
@@ -60,6 +72,7 @@
 import org.geotools.util.logging.Logging;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -92,13 +105,19 @@ public WorkspaceContents(Resource resource, byte[] contents, byte[] nsContents)
     /** {@link ResourceMapper} for workspaces */
     static final class WorkspaceMapper implements ResourceMapper<WorkspaceContents> {
 
+        final ResourceMapper<byte[]> reader;
+
+        WorkspaceMapper(ResourceMapper<byte[]> reader) {
+            this.reader = reader;
+        }
+
         @Override
         public WorkspaceContents apply(Resource rd) throws IOException {
             Resource wr = rd.get("workspace.xml");
             Resource nr = rd.get("namespace.xml");
             if (Resources.exists(wr) && Resources.exists(nr)) {
-                byte[] contents = wr.getContents();
-                byte[] nrContents = nr.getContents();
+                byte[] contents = reader.apply(wr);
+                byte[] nrContents = reader.apply(nr);
                 return new WorkspaceContents(rd, contents, nrContents);
             } else {
                 LOGGER.warning("Ignoring workspace directory " + rd.path());
@@ -123,13 +142,19 @@ public SingleResourceContents(Resource resource, byte[] contents) {
 
     /** Basic {@link ResourceMapper} for a single {@link Resource} * */
     static final ResourceMapper<SingleResourceContents> RESOURCE_MAPPER =
-            r -> new SingleResourceContents(r, r.getContents());
+            resourceMapper(Resource::getContents);
+
+    /** {@link ResourceMapper} for a single {@link Resource}, using the given contents reader */
+    static ResourceMapper<SingleResourceContents> resourceMapper(ResourceMapper<byte[]> reader) {
+        return r -> new SingleResourceContents(r, reader.apply(r));
+    }
 
     /** Layer IO resources */
     static final class LayerContents {
         Resource resource;
         byte[] contents;
         byte[] layerContents;
+        ResourceInfo resourceInfo;
 
         public LayerContents(Resource resource, byte[] contents, byte[] layerContents) {
             this.resource = resource;
@@ -151,11 +176,16 @@ public ResourceLayerMapper(String resourceFileName, String resourceType) {
 
         @Override
         public LayerContents apply(Resource rd) throws IOException {
+            return apply(rd, Resource::getContents);
+        }
+
+        /** Maps the resource directory, using the given reader to grab the file contents */
+        public LayerContents apply(Resource rd, ResourceMapper<byte[]> reader) throws IOException {
             Resource r = rd.get(resourceFileName);
             Resource lr = rd.get("layer.xml");
             if (Resources.exists(r) && Resources.exists(lr)) {
-                byte[] contents = r.getContents();
-                byte[] lrContents = lr.getContents();
+                byte[] contents = reader.apply(r);
+                byte[] lrContents = reader.apply(lr);
                 return new LayerContents(rd, contents, lrContents);
             } else {
                 LOGGER.warning("Ignoring " + resourceType + " directory " + rd.path());
@@ -177,51 +207,84 @@ public LayerContents apply(Resource rd) throws IOException {
     static final ResourceLayerMapper WMTS_LAYER_MAPPER =
             new ResourceLayerMapper("wmtslayer.xml", "wmts layer");
     /**
-     * Generic layer catalog loader for all types of IO resources
+     * Generic layer catalog loader for all types of IO resources. The resources are read and
+     * depersisted in parallel, then added to the catalog in bulk, followed by their layers.
      *
      * @author Andrea Aime - GeoSolutions
      */
-    static final class LayerLoader<T extends ResourceInfo> implements Consumer<LayerContents> {
+    static final class LayerLoader<T extends ResourceInfo> {
 
         Class<T> clazz;
         XStreamPersister xp;
-        Catalog catalog;
-
-        public LayerLoader(Class<T> clazz, XStreamPersister xp, Catalog catalog) {
+        CatalogImpl catalog;
+        ResourceMapper<byte[]> reader;
+
+        public LayerLoader(
+                Class<T> clazz,
+                XStreamPersister xp,
+                CatalogImpl catalog,
+                ResourceMapper<byte[]> reader) {
             this.clazz = clazz;
             this.xp = xp;
             this.catalog = catalog;
+            this.reader = reader;
         }
 
-        @Override
-        public void accept(LayerContents lc) {
-            T ft = null;
-            try {
-                ft = depersist(xp, lc.contents, clazz);
-                catalog.add(ft);
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "Failed to load resource", e);
-                return;
+        /** Loads all the resources and layers found in the store directory */
+        public void load(Resource storeDirectory, ResourceLayerMapper mapper) {
+            List<LayerContents> contents = new ArrayList<>();
+            try (AsynchResourceIterator<LayerContents> it =
+                    new AsynchResourceIterator<>(
+                            storeDirectory,
+                            Resources.DirectoryFilter.INSTANCE,
+                            r -> depersistResource(mapper, r))) {
+                it.forEachRemaining(contents::add);
             }
 
+            List<ResourceInfo> resources =
+                    contents.stream().map(lc -> lc.resourceInfo).collect(Collectors.toList());
+            Set<ResourceInfo> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+            catalog.addAll(
+                    resources,
+                    (r, e) -> {
+                        failed.add(r);
+                        LOGGER.log(Level.WARNING, "Failed to load resource", e);
+                    });
+            contents.removeIf(lc -> failed.contains(lc.resourceInfo));
             if (LOGGER.isLoggable(Level.CONFIG)) {
-                String type =
-                        ft instanceof CoverageInfo
-                                ? "coverage"
-                                : ft instanceof FeatureTypeInfo ? "feature type" : "resource";
-                LOGGER.config(
-                        "Loaded "
-                                + type
-                                + " '"
-                                + lc.resource.name()
-                                + "', "
-                                + (ft.isEnabled() ? "enabled" : "disabled"));
+                for (LayerContents lc : contents) {
+                    ResourceInfo ft = lc.resourceInfo;
+                    String type =
+                            ft instanceof CoverageInfo
+                                    ? "coverage"
+                                    : ft instanceof FeatureTypeInfo ? "feature type" : "resource";
+                    LOGGER.config(
+                            "Loaded "
+                                    + type
+                                    + " '"
+                                    + lc.resource.name()
+                                    + "', "
+                                    + (ft.isEnabled() ? "enabled" : "disabled"));
+                }
             }
 
-            try {
-                LayerInfo l = depersist(xp, lc.layerContents, LayerInfo.class);
-                catalog.add(l);
-
+            // layers can only be depersisted once their resources are in the catalog
+            List<LayerInfo> layers =
+                    contents.parallelStream()
+                            .map(this::depersistLayer)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+            Set<LayerInfo> failedLayers = Collections.newSetFromMap(new IdentityHashMap<>());
+            catalog.addAll(
+                    layers,
+                    (l, e) -> {
+                        failedLayers.add(l);
+                        LOGGER.log(Level.WARNING, "Failed to load layer " + l.getName(), e);
+                    });
+            for (LayerInfo l : layers) {
+                if (failedLayers.contains(l)) {
+                    continue;
+                }
                 LOGGER.config("Loaded layer '" + l.getName() + "'");
 
                 for (StyleInfo style : l.getStyles()) {
@@ -231,15 +294,138 @@ public void accept(LayerContents lc) {
                                 "Layer '" + l.getName() + "' references a missing style");
                     }
                 }
+            }
+        }
 
+        private LayerContents depersistResource(ResourceLayerMapper mapper, Resource rd)
+                throws IOException {
+            LayerContents lc = mapper.apply(rd, reader);
+            if (lc != null) {
+                try {
+                    lc.resourceInfo = depersist(xp, lc.contents, clazz);
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Failed to load resource " + rd.name(), e);
+                    return null;
+                }
+            }
+            return lc;
+        }
+
+        private LayerInfo depersistLayer(LayerContents lc) {
+            try {
+                return depersist(xp, lc.layerContents, LayerInfo.class);
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Failed to load layer " + lc.resource.name(), e);
+                return null;
+            }
+        }
+    }
+
+    /** The types of stores found in a workspace directory */
+    enum StoreType {
+        DATA("datastore.xml", DataStoreInfo.class, FeatureTypeInfo.class, FEATURE_LAYER_MAPPER),
+        COVERAGE(
+                "coveragestore.xml",
+                CoverageStoreInfo.class,
+                CoverageInfo.class,
+                COVERAGE_LAYER_MAPPER),
+        WMS("wmsstore.xml", WMSStoreInfo.class, WMSLayerInfo.class, WMS_LAYER_MAPPER),
+        WMTS("wmtsstore.xml", WMTSStoreInfo.class, WMTSLayerInfo.class, WMTS_LAYER_MAPPER);
+
+        final String fileName;
+        final Class<? extends StoreInfo> storeClass;
+        final Class<? extends ResourceInfo> resourceClass;
+        final ResourceLayerMapper layerMapper;
+
+        StoreType(
+                String fileName,
+                Class<? extends StoreInfo> storeClass,
+                Class<? extends ResourceInfo> resourceClass,
+                ResourceLayerMapper layerMapper) {
+            this.fileName = fileName;
+            this.storeClass = storeClass;
+            this.resourceClass = resourceClass;
+            this.layerMapper = layerMapper;
+        }
+
+        static StoreType lookup(String fileName) {
+            for (StoreType type : values()) {
+                if (type.fileName.equals(fileName)) {
+                    return type;
+                }
             }
+            return null;
+        }
+    }
+
+    /** A store added to the catalog, waiting for its resources to be loaded */
+    static final class LoadedStore {
+        final StoreType type;
+        final Resource directory;
+        final StoreInfo store;
+
+        LoadedStore(StoreType type, Resource directory, StoreInfo store) {
+            this.type = type;
+            this.directory = directory;
+            this.store = store;
         }
     }
 
+    /** A catalog loading stage, see {@link GeoServerLoader#getCatalogLoadingTimes()} */
+    @FunctionalInterface
+    interface LoadingStage {
+        void run() throws Exception;
+    }
+
+    /** Maps each store directory into a {@link SingleResourceContents} */
+    static ResourceMapper<SingleResourceContents> storeMapper(ResourceMapper<byte[]> reader) {
+        return sd -> {
+            for (StoreType type : StoreType.values()) {
+                Resource f = sd.get(type.fileName);
+                if (Resources.exists(f)) {
+                    return new SingleResourceContents(f, reader.apply(f));
+                }
+            }
+            if (!isConfigDirectory(sd)) {
+                LOGGER.warning("Ignoring store directory '" + sd.name() + "'");
+            }
+            // nothing found
+            return null;
+        };
+    }
+
     static final ExtensionFilter XML_FILTER = new Resources.ExtensionFilter("XML");
 
+    /**
+     * Number of workspaces whose stores and resources are loaded in parallel, defaults to the
+     * number of available processors
+     */
+    static final int CATALOG_LOADING_THREADS;
+
+    static {
+        String name = "org.geoserver.catalog.workspaceThreads";
+        String value = GeoServerExtensions.getProperty(name);
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (value != null) {
+            try {
+                threads = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + name + ": " + value);
+            }
+        }
+        CATALOG_LOADING_THREADS = Math.max(1, threads);
+    }
+
+    /** Time spent in the various catalog loading stages, in milliseconds */
+    final Map<String, Long> catalogLoadingTimes =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Reads the contents of the catalog configuration files, either straight from the data
+     * directory, or through a {@link BinaryConfigSnapshot}
+     */
+    ResourceMapper<byte[]> contentsReader = Resource::getContents;
+
     protected GeoServerResourceLoader resourceLoader;
     GeoServer geoserver;
     XStreamPersisterFactory xpf = new XStreamPersisterFactory();
@@ -483,12 +669,26 @@ boolean checkStoresOnStartup(XStreamPersister xp) {
         return true;
     }
 
-    /** Reads the catalog from disk. */
+    /**
+     * Reads the catalog from disk, in stages: global styles, workspaces (with their namespaces and
+     * styles), stores, resources and layers, layer groups. The stores and resources stages work on
+     * all workspaces in parallel, as their contents cannot clash with each other, while within each
+     * store the resources are read and depersisted in parallel, and added to the catalog in bulk.
+     * The time spent in each stage is available from {@link #getCatalogLoadingTimes()}.
+     */
     Catalog readCatalog(XStreamPersister xp) throws Exception {
         CatalogImpl catalog = new CatalogImpl();
         catalog.setResourceLoader(resourceLoader);
         xp.setCatalog(catalog);
         xp.setUnwrapNulls(false);
+        catalogLoadingTimes.clear();
+
+        BinaryConfigSnapshot snapshot = null;
+        if (BinaryConfigSnapshot.isEnabled()) {
+            Resource snapshotFile = resourceLoader.get(BinaryConfigSnapshot.FILE_NAME);
+            snapshot = BinaryConfigSnapshot.load(snapshotFile);
+            contentsReader = snapshot::read;
+        }
 
         // see if we really need to verify stores on startup
         boolean checkStores = checkStoresOnStartup(xp);
@@ -496,175 +696,88 @@ Catalog readCatalog(XStreamPersister xp) throws Exception {
             catalog.setExtendedValidation(false);
         }
 
-        // global styles
-        loadStyles(resourceLoader.get("styles"), catalog, xp);
+        // propagate the admin authentication to the loading threads
+        ExecutorService executor =
+                new DelegatingSecurityContextExecutorService(
+                        Executors.newFixedThreadPool(CATALOG_LOADING_THREADS));
+        try {
+            // global styles
+            stage("styles", () -> loadStyles(resourceLoader.get("styles"), catalog, xp));
 
-        // workspaces, stores, and resources
-        Resource workspaces = resourceLoader.get("workspaces");
-        if (Resources.exists(workspaces)) {
-            // do a first quick scan over all workspaces, setting the default
-            Resource dws = workspaces.get("default.xml");
-            WorkspaceInfo defaultWorkspace = null;
-            if (Resources.exists(dws)) {
-                try {
-                    defaultWorkspace = depersist(xp, dws, WorkspaceInfo.class);
-                    if (LOGGER.isLoggable(Level.CONFIG)) {
-                        LOGGER.config(
-                                "Loaded default workspace '" + defaultWorkspace.getName() + "'");
-                    }
-                } catch (Exception e) {
-                    LOGGER.log(Level.WARNING, "Failed to load default workspace", e);
+            // workspaces, stores, and resources
+            Resource workspaces = resourceLoader.get("workspaces");
+            if (Resources.exists(workspaces)) {
+                List<Resource> workspaceList =
+                        workspaces
+                                .list()
+                                .parallelStream()
+                                .filter(r -> Resources.DirectoryFilter.INSTANCE.accept(r))
+                                .collect(Collectors.toList());
+
+                stage("workspaces", () -> loadWorkspaces(workspaces, catalog, xp));
+
+                Map<Resource, List<LoadedStore>> stores = new ConcurrentHashMap<>();
+                stage(
+                        "stores",
+                        () ->
+                                forEachParallel(
+                                        executor,
+                                        workspaceList,
+                                        wsd -> stores.put(wsd, loadStores(wsd, catalog, xp))));
+                if (checkStores) {
+                    List<DataStoreInfo> dataStores =
+                            stores.values().stream()
+                                    .flatMap(List::stream)
+                                    .map(ls -> ls.store)
+                                    .filter(st -> st instanceof DataStoreInfo && st.isEnabled())
+                                    .map(DataStoreInfo.class::cast)
+                                    .collect(Collectors.toList());
+                    stage(
+                            "store checks",
+                            () -> forEachParallel(executor, dataStores, this::checkDataStore));
                 }
-            } else {
-                LOGGER.warning("No default workspace was found.");
-            }
-
-            List<Resource> workspaceList =
-                    workspaces
-                            .list()
-                            .parallelStream()
-                            .filter(r -> Resources.DirectoryFilter.INSTANCE.accept(r))
-                            .collect(Collectors.toList());
-
-            try (AsynchResourceIterator<WorkspaceContents> it =
-                    new AsynchResourceIterator<>(
-                            workspaces,
-                            Resources.DirectoryFilter.INSTANCE,
-                            new WorkspaceMapper())) {
-                while (it.hasNext()) {
-                    WorkspaceContents wc = it.next();
-                    WorkspaceInfo ws;
-                    final Resource workspaceResource = wc.resource;
-                    try {
-                        ws = depersist(xp, wc.contents, WorkspaceInfo.class);
-                        catalog.add(ws);
-                        LOGGER.log(
-                                Level.CONFIG,
-                                () -> String.format("Loaded workspace '%s'", ws.getName()));
-                    } catch (Exception e) {
-                        LOGGER.log(
-                                Level.WARNING,
-                                "Failed to load workspace '" + workspaceResource.name() + "'",
-                                e);
-                        continue;
-                    }
 
-                    // load the namespace
-                    NamespaceInfo ns = null;
-                    try {
-                        ns = depersist(xp, wc.nsContents, NamespaceInfo.class);
-                        catalog.add(ns);
-                    } catch (Exception e) {
-                        LOGGER.log(
-                                Level.WARNING,
-                                "Failed to load namespace for '" + workspaceResource.name() + "'",
-                                e);
-                    }
-
-                    // set the default workspace, this value might be null in the case of coming
-                    // from a
-                    // 2.0.0 data directory. See https://osgeo-org.atlassian.net/browse/GEOS-3440
-                    if (defaultWorkspace != null) {
-                        if (ws.getName().equals(defaultWorkspace.getName())) {
-                            catalog.setDefaultWorkspace(ws);
-                            if (ns != null) {
-                                catalog.setDefaultNamespace(ns);
-                            }
-                        }
-                    } else {
-                        // create the default.xml file
-                        defaultWorkspace = catalog.getDefaultWorkspace();
-                        if (defaultWorkspace != null) {
-                            try {
-                                persist(xp, defaultWorkspace, dws);
-                            } catch (Exception e) {
-                                LOGGER.log(
-                                        Level.WARNING,
-                                        "Failed to persist default workspace '"
-                                                + workspaceResource.name()
-                                                + "'",
-                                        e);
+                stage(
+                        "resources",
+                        () ->
+                                forEachParallel(
+                                        executor,
+                                        workspaceList,
+                                        wsd -> loadResources(stores.get(wsd), catalog, xp)));
+
+                // layer groups can contain other layer groups, load them sequentially
+                stage(
+                        "layergroups",
+                        () -> {
+                            for (Resource wsd : workspaceList) {
+                                Resource layergroups = wsd.get("layergroups");
+                                if (layergroups != null) {
+                                    loadLayerGroups(layergroups, catalog, xp);
+                                }
                             }
-                        }
-                    }
-
-                    // load the styles for the workspace
-                    Resource styles = workspaceResource.get("styles");
-                    if (styles != null) {
-                        loadStyles(styles, catalog, xp);
-                    }
-                }
+                        });
+            } else {
+                LOGGER.warning("No 'workspaces' directory found, unable to load any stores.");
             }
 
-            // maps each store into a SingleResourceContents
-            ResourceMapper<SingleResourceContents> storeMapper =
-                    sd -> {
-                        Resource f = sd.get("datastore.xml");
-                        if (Resources.exists(f)) {
-                            return new SingleResourceContents(f, f.getContents());
-                        }
-                        f = sd.get("coveragestore.xml");
-                        if (Resources.exists(f)) {
-                            return new SingleResourceContents(f, f.getContents());
+            // layergroups
+            stage(
+                    "global layergroups",
+                    () -> {
+                        Resource layergroups = resourceLoader.get("layergroups");
+                        if (layergroups != null) {
+                            loadLayerGroups(layergroups, catalog, xp);
                         }
-                        f = sd.get("wmsstore.xml");
-                        if (Resources.exists(f)) {
-                            return new SingleResourceContents(f, f.getContents());
-                        }
-                        f = sd.get("wmtsstore.xml");
-                        if (Resources.exists(f)) {
-                            return new SingleResourceContents(f, f.getContents());
-                        }
-                        if (!isConfigDirectory(sd)) {
-                            LOGGER.warning("Ignoring store directory '" + sd.name() + "'");
-                        }
-                        // nothing found
-                        return null;
-                    };
-
-            for (Resource wsd : workspaceList) {
-                // load the stores for this workspace
-                try (AsynchResourceIterator<SingleResourceContents> it =
-                        new AsynchResourceIterator<>(
-                                wsd, Resources.DirectoryFilter.INSTANCE, storeMapper)) {
-                    while (it.hasNext()) {
-                        SingleResourceContents SingleResourceContents = it.next();
-                        final String resourceName = SingleResourceContents.resource.name();
-                        if ("datastore.xml".equals(resourceName)) {
-                            loadDataStore(SingleResourceContents, catalog, xp, checkStores);
-                        } else if ("coveragestore.xml".equals(resourceName)) {
-                            loadCoverageStore(SingleResourceContents, catalog, xp);
-                        } else if ("wmsstore.xml".equals(resourceName)) {
-                            loadWmsStore(SingleResourceContents, catalog, xp);
-                        } else if ("wmtsstore.xml".equals(resourceName)) {
-                            loadWmtsStore(SingleResourceContents, catalog, xp);
-                        } else if (!isConfigDirectory(SingleResourceContents.resource)) {
-                            LOGGER.warning(
-                                    "Ignoring store directory '"
-                                            + SingleResourceContents.resource.name()
-                                            + "'");
-                            continue;
-                        }
-                    }
-                }
-
-                // load the layer groups for this workspace
-                Resource layergroups = wsd.get("layergroups");
-                if (layergroups != null) {
-                    loadLayerGroups(layergroups, catalog, xp);
-                }
-            }
-        } else {
-            LOGGER.warning("No 'workspaces' directory found, unable to load any stores.");
-        }
-
-        // layergroups
-        Resource layergroups = resourceLoader.get("layergroups");
-        if (layergroups != null) {
-            loadLayerGroups(layergroups, catalog, xp);
+                    });
+        } finally {
+            executor.shutdownNow();
         }
         xp.setUnwrapNulls(true);
-        catalog.resolve();
+        stage("resolve", () -> catalog.resolve());
+        if (snapshot != null) {
+            contentsReader = Resource::getContents;
+            saveSnapshot(snapshot);
+        }
         // re-enable extended validation
         if (!checkStores) {
             catalog.setExtendedValidation(true);
@@ -672,164 +785,224 @@ Catalog readCatalog(XStreamPersister xp) throws Exception {
         return catalog;
     }
 
-    private void loadWmsStore(
-            SingleResourceContents SingleResourceContents,
-            CatalogImpl catalog,
-            XStreamPersister xp) {
-        final Resource storeResource = SingleResourceContents.resource;
-        WMSStoreInfo wms = null;
-        try {
-            wms = depersist(xp, SingleResourceContents.contents, WMSStoreInfo.class);
-            catalog.add(wms);
-
-            LOGGER.info(
-                    "Loaded wmsstore '"
-                            + wms.getName()
-                            + "', "
-                            + (wms.isEnabled() ? "enabled" : "disabled"));
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Failed to load wms store '" + storeResource.name() + "'", e);
-            return;
+    /**
+     * Returns the time spent in each stage of the last catalog load, in milliseconds, in
+     * execution order
+     */
+    public Map<String, Long> getCatalogLoadingTimes() {
+        synchronized (catalogLoadingTimes) {
+            return new LinkedHashMap<>(catalogLoadingTimes);
         }
+    }
 
-        // load wms layers
-        LayerLoader<WMSLayerInfo> coverageLoader =
-                new LayerLoader<>(WMSLayerInfo.class, xp, catalog);
-        try (AsynchResourceIterator<LayerContents> it =
-                new AsynchResourceIterator<>(
-                        storeResource.parent(),
-                        Resources.DirectoryFilter.INSTANCE,
-                        WMS_LAYER_MAPPER)) {
-            while (it.hasNext()) {
-                LayerContents lc = it.next();
-                coverageLoader.accept(lc);
+    private void stage(String name, LoadingStage stage) throws Exception {
+        Stopwatch sw = Stopwatch.createStarted();
+        stage.run();
+        sw.stop();
+        catalogLoadingTimes.put(name, sw.elapsed(TimeUnit.MILLISECONDS));
+        LOGGER.config("Catalog loading stage '" + name + "' completed in " + sw);
+    }
+
+    /** Runs the task on all items using the executor, and waits for completion */
+    private <T> void forEachParallel(ExecutorService executor, List<T> items, Consumer<T> task)
+            throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (T item : items) {
+            futures.add(executor.submit(() -> task.accept(item)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.WARNING, "Failed to load catalog contents", e.getCause());
             }
         }
     }
 
-    private void loadWmtsStore(
-            SingleResourceContents SingleResourceContents,
-            CatalogImpl catalog,
-            XStreamPersister xp) {
-        final Resource storeResource = SingleResourceContents.resource;
-        WMTSStoreInfo wmts = null;
-        try {
-            wmts = depersist(xp, SingleResourceContents.contents, WMTSStoreInfo.class);
-            catalog.add(wmts);
-
-            LOGGER.info("Loaded wmtsstore '" + wmts.getName() + "'");
-        } catch (Exception e) {
-            LOGGER.log(
-                    Level.WARNING, "Failed to load wmts store '" + storeResource.name() + "'", e);
-            return;
+    private void loadWorkspaces(Resource workspaces, CatalogImpl catalog, XStreamPersister xp)
+            throws IOException {
+        // do a first quick scan over all workspaces, setting the default
+        Resource dws = workspaces.get("default.xml");
+        WorkspaceInfo defaultWorkspace = null;
+        if (Resources.exists(dws)) {
+            try {
+                defaultWorkspace = depersist(xp, dws, WorkspaceInfo.class);
+                if (LOGGER.isLoggable(Level.CONFIG)) {
+                    LOGGER.config("Loaded default workspace '" + defaultWorkspace.getName() + "'");
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to load default workspace", e);
+            }
+        } else {
+            LOGGER.warning("No default workspace was found.");
         }
 
-        // load wmts layers
-        LayerLoader<WMTSLayerInfo> coverageLoader =
-                new LayerLoader<>(WMTSLayerInfo.class, xp, catalog);
-        try (AsynchResourceIterator<LayerContents> it =
+        try (AsynchResourceIterator<WorkspaceContents> it =
                 new AsynchResourceIterator<>(
-                        storeResource.parent(),
+                        workspaces,
                         Resources.DirectoryFilter.INSTANCE,
-                        WMTS_LAYER_MAPPER)) {
+                        new WorkspaceMapper(contentsReader))) {
             while (it.hasNext()) {
-                LayerContents lc = it.next();
-                coverageLoader.accept(lc);
+                WorkspaceContents wc = it.next();
+                WorkspaceInfo ws;
+                final Resource workspaceResource = wc.resource;
+                try {
+                    ws = depersist(xp, wc.contents, WorkspaceInfo.class);
+                    catalog.add(ws);
+                    LOGGER.log(
+                            Level.CONFIG,
+                            () -> String.format("Loaded workspace '%s'", ws.getName()));
+                } catch (Exception e) {
+                    LOGGER.log(
+                            Level.WARNING,
+                            "Failed to load workspace '" + workspaceResource.name() + "'",
+                            e);
+                    continue;
+                }
+
+                // load the namespace
+                NamespaceInfo ns = null;
+                try {
+                    ns = depersist(xp, wc.nsContents, NamespaceInfo.class);
+                    catalog.add(ns);
+                } catch (Exception e) {
+                    LOGGER.log(
+                            Level.WARNING,
+                            "Failed to load namespace for '" + workspaceResource.name() + "'",
+                            e);
+                }
+
+                // set the default workspace, this value might be null in the case of coming
+                // from a
+                // 2.0.0 data directory. See https://osgeo-org.atlassian.net/browse/GEOS-3440
+                if (defaultWorkspace != null) {
+                    if (ws.getName().equals(defaultWorkspace.getName())) {
+                        catalog.setDefaultWorkspace(ws);
+                        if (ns != null) {
+                            catalog.setDefaultNamespace(ns);
+                        }
+                    }
+                } else {
+                    // create the default.xml file
+                    defaultWorkspace = catalog.getDefaultWorkspace();
+                    if (defaultWorkspace != null) {
+                        try {
+                            persist(xp, defaultWorkspace, dws);
+                        } catch (Exception e) {
+                            LOGGER.log(
+                                    Level.WARNING,
+                                    "Failed to persist default workspace '"
+                                            + workspaceResource.name()
+                                            + "'",
+                                    e);
+                        }
+                    }
+                }
+
+                // load the styles for the workspace
+                Resource styles = workspaceResource.get("styles");
+                if (styles != null) {
+                    loadStyles(styles, catalog, xp);
+                }
             }
         }
     }
 
-    private void loadCoverageStore(
-            SingleResourceContents SingleResourceContents,
-            CatalogImpl catalog,
-            XStreamPersister xp) {
-        CoverageStoreInfo cs = null;
-        final Resource storeResource = SingleResourceContents.resource;
+    private void saveSnapshot(BinaryConfigSnapshot snapshot) {
+        LOGGER.info(
+                "Read "
+                        + snapshot.getHits()
+                        + " catalog files from the binary snapshot, "
+                        + snapshot.getMisses()
+                        + " from the data directory");
         try {
-            cs = depersist(xp, SingleResourceContents.contents, CoverageStoreInfo.class);
-            catalog.add(cs);
-
-            if (LOGGER.isLoggable(Level.INFO)) {
-                LOGGER.config(
-                        "Loaded coverage store '"
-                                + cs.getName()
-                                + "', "
-                                + (cs.isEnabled() ? "enabled" : "disabled"));
-            }
+            Resource snapshotFile = resourceLoader.get(BinaryConfigSnapshot.FILE_NAME);
+            stage("snapshot", () -> snapshot.save(snapshotFile));
         } catch (Exception e) {
-            LOGGER.log(
-                    Level.WARNING,
-                    "Failed to load coverage store '" + storeResource.name() + "'",
-                    e);
-            return;
+            LOGGER.log(Level.WARNING, "Failed to write the catalog binary snapshot", e);
         }
+    }
 
-        // load coverages
-        LayerLoader<CoverageInfo> coverageLoader =
-                new LayerLoader<>(CoverageInfo.class, xp, catalog);
-        try (AsynchResourceIterator<LayerContents> it =
+    /** Loads the stores of a workspace, returning them for the resource loading stage */
+    private List<LoadedStore> loadStores(Resource wsd, CatalogImpl catalog, XStreamPersister xp) {
+        List<LoadedStore> result = new ArrayList<>();
+        try (AsynchResourceIterator<SingleResourceContents> it =
                 new AsynchResourceIterator<>(
-                        storeResource.parent(),
+                        wsd,
                         Resources.DirectoryFilter.INSTANCE,
-                        COVERAGE_LAYER_MAPPER)) {
+                        storeMapper(contentsReader))) {
             while (it.hasNext()) {
-                LayerContents lc = it.next();
-                coverageLoader.accept(lc);
+                SingleResourceContents contents = it.next();
+                StoreType type = StoreType.lookup(contents.resource.name());
+                if (type == null) {
+                    if (!isConfigDirectory(contents.resource)) {
+                        LOGGER.warning(
+                                "Ignoring store directory '" + contents.resource.name() + "'");
+                    }
+                    continue;
+                }
+                StoreInfo store = loadStore(type, contents, catalog, xp);
+                if (store != null) {
+                    result.add(new LoadedStore(type, contents.resource.parent(), store));
+                }
             }
         }
+        return result;
     }
 
-    private void loadDataStore(
-            SingleResourceContents SingleResourceContents,
+    private StoreInfo loadStore(
+            StoreType type,
+            SingleResourceContents contents,
             CatalogImpl catalog,
-            XStreamPersister xp,
-            boolean checkStores) {
-        final Resource storeResource = SingleResourceContents.resource;
-        DataStoreInfo ds;
+            XStreamPersister xp) {
+        final Resource storeResource = contents.resource;
         try {
-            ds = depersist(xp, SingleResourceContents.contents, DataStoreInfo.class);
-            catalog.add(ds);
+            StoreInfo store = depersist(xp, contents.contents, type.storeClass);
+            catalog.add(store);
 
             if (LOGGER.isLoggable(Level.CONFIG)) {
                 LOGGER.config(
-                        "Loaded data store '"
-                                + ds.getName()
+                        "Loaded "
+                                + type.name().toLowerCase()
+                                + " store '"
+                                + store.getName()
                                 + "', "
-                                + (ds.isEnabled() ? "enabled" : "disabled"));
-            }
-
-            if (checkStores && ds.isEnabled()) {
-                // connect to the datastore to determine if we should disable it
-                try {
-                    ds.getDataStore(null);
-                } catch (Throwable t) {
-                    LOGGER.warning("Error connecting to '" + ds.getName() + "'. Disabling.");
-                    LOGGER.log(Level.INFO, "", t);
-
-                    ds.setError(t);
-                    ds.setEnabled(false);
-                }
+                                + (store.isEnabled() ? "enabled" : "disabled"));
             }
+            return store;
         } catch (Exception e) {
             LOGGER.log(
                     Level.WARNING,
-                    "Failed to load data store '" + storeResource.parent().name() + "'",
+                    "Failed to load "
+                            + type.name().toLowerCase()
+                            + " store '"
+                            + storeResource.parent().name()
+                            + "'",
                     e);
-            return;
+            return null;
         }
+    }
 
-        // load feature types
-        LayerLoader<FeatureTypeInfo> featureLoader =
-                new LayerLoader<>(FeatureTypeInfo.class, xp, catalog);
-        try (AsynchResourceIterator<LayerContents> it =
-                new AsynchResourceIterator<>(
-                        storeResource.parent(),
-                        Resources.DirectoryFilter.INSTANCE,
-                        FEATURE_LAYER_MAPPER)) {
-            while (it.hasNext()) {
-                LayerContents lc = it.next();
-                featureLoader.accept(lc);
-            }
+    /** Connects to the data store to determine if it should be disabled */
+    private void checkDataStore(DataStoreInfo ds) {
+        try {
+            ds.getDataStore(null);
+        } catch (Throwable t) {
+            LOGGER.warning("Error connecting to '" + ds.getName() + "'. Disabling.");
+            LOGGER.log(Level.INFO, "", t);
+
+            ds.setError(t);
+            ds.setEnabled(false);
+        }
+    }
+
+    private void loadResources(List<LoadedStore> stores, CatalogImpl catalog, XStreamPersister xp) {
+        if (stores == null) {
+            return;
+        }
+        for (LoadedStore ls : stores) {
+            new LayerLoader<>(ls.type.resourceClass, xp, catalog, contentsReader)
+                    .load(ls.directory, ls.type.layerMapper);
         }
     }
 
@@ -837,7 +1010,7 @@ private void loadDataStore(
      * Some config directories in GeoServer are used to store workspace specific configurations,
      * identify them so that we don't log complaints about their existence
      */
-    private boolean isConfigDirectory(Resource dir) {
+    private static boolean isConfigDirectory(Resource dir) {
         String name = dir.name();
         boolean result = "styles".equals(name) || "layergroups".equals(name);
         return result;
@@ -1006,22 +1179,36 @@ protected void readConfiguration(GeoServer geoServer, XStreamPersister xp) throw
         }
     }
 
-    void loadStyles(Resource styles, Catalog catalog, XStreamPersister xp) throws IOException {
+    void loadStyles(Resource styles, CatalogImpl catalog, XStreamPersister xp)
+            throws IOException {
         Filter<Resource> styleFilter =
                 r -> XML_FILTER.accept(r) && !Resources.exists(styles.get(r.name() + ".xml"));
-        try (AsynchResourceIterator<SingleResourceContents> it =
-                new AsynchResourceIterator<>(styles, styleFilter, RESOURCE_MAPPER)) {
-            while (it.hasNext()) {
-                SingleResourceContents r = it.next();
-                try {
-                    StyleInfo s = depersist(xp, r.contents, StyleInfo.class);
-                    catalog.add(s);
-
-                    if (LOGGER.isLoggable(Level.INFO)) {
-                        LOGGER.config("Loaded style '" + s.getName() + "'");
-                    }
-                } catch (Exception e) {
-                    LOGGER.log(Level.WARNING, "Failed to load style" + r.resource.name(), e);
+        List<StyleInfo> loaded = new ArrayList<>();
+        try (AsynchResourceIterator<StyleInfo> it =
+                new AsynchResourceIterator<>(
+                        styles,
+                        styleFilter,
+                        r -> {
+                            try {
+                                return depersist(xp, contentsReader.apply(r), StyleInfo.class);
+                            } catch (Exception e) {
+                                LOGGER.log(Level.WARNING, "Failed to load style" + r.name(), e);
+                                return null;
+                            }
+                        })) {
+            it.forEachRemaining(loaded::add);
+        }
+        Set<StyleInfo> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        catalog.addAll(
+                loaded,
+                (s, e) -> {
+                    failed.add(s);
+                    LOGGER.log(Level.WARNING, "Failed to load style " + s.getName(), e);
+                });
+        if (LOGGER.isLoggable(Level.CONFIG)) {
+            for (StyleInfo s : loaded) {
+                if (!failed.contains(s)) {
+                    LOGGER.config("Loaded style '" + s.getName() + "'");
                 }
             }
         }
@@ -1029,7 +1216,8 @@ void loadStyles(Resource styles, Catalog catalog, XStreamPersister xp) throws IO
 
     void loadLayerGroups(Resource layerGroups, Catalog catalog, XStreamPersister xp) {
         try (AsynchResourceIterator<SingleResourceContents> it =
-                new AsynchResourceIterator<>(layerGroups, XML_FILTER, RESOURCE_MAPPER)) {
+                new AsynchResourceIterator<>(
+                        layerGroups, XML_FILTER, resourceMapper(contentsReader))) {
             while (it.hasNext()) {
                 SingleResourceContents r = it.next();
                 try {
@@ -1104,6 +1292,9 @@ <T> T depersist(XStreamPersister xp, Resource f, Class<T> clazz) throws IOExcept
     /** Helper method which uses xstream to depersist an object as xml from disk. */
     static <T> T depersist(XStreamPersister xp, byte[] contents, Class<T> clazz)
             throws IOException {
+        if (BinaryConfigSnapshot.isBinary(contents)) {
+            return BinaryConfigSnapshot.depersist(xp, contents, clazz);
+        }
         try (InputStream in = new ByteArrayInputStream(contents)) {
             return xp.load(in, clazz);
         }
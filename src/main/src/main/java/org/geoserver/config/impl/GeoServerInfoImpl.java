@@ -40,6 +40,8 @@ public class GeoServerInfoImpl implements GeoServerInfo {
 
     protected int featureTypeCacheSize;
 
+    protected ResourceCachePolicy resourceCachePolicy;
+
     protected Boolean globalServices = true;
 
     protected Boolean useHeadersProxyURL = false;
@@ -230,6 +232,19 @@ public void setFeatureTypeCacheSize(int featureTypeCacheSize) {
         this.featureTypeCacheSize = featureTypeCacheSize;
     }
 
+    @Override
+    public ResourceCachePolicy getResourceCachePolicy() {
+        if (resourceCachePolicy == null) {
+            return ResourceCachePolicy.SOFT;
+        }
+        return resourceCachePolicy;
+    }
+
+    @Override
+    public void setResourceCachePolicy(ResourceCachePolicy resourceCachePolicy) {
+        this.resourceCachePolicy = resourceCachePolicy;
+    }
+
     @Override
     public Boolean isGlobalServices() {
         return globalServices;
@@ -345,6 +360,7 @@ public int hashCode() {
                 prime * result
                         + ((resourceErrorHandling == null) ? 0 : resourceErrorHandling.hashCode());
         result = prime * result + ((lockProviderName == null) ? 0 : lockProviderName.hashCode());
+        result = prime * result + getResourceCachePolicy().hashCode();
         return result;
     }
 
@@ -391,6 +407,10 @@ public boolean equals(Object obj) {
             if (!lockProviderName.equals(other.getLockProviderName())) return false;
         }
 
+        if (!Objects.equals(getResourceCachePolicy(), other.getResourceCachePolicy())) {
+            return false;
+        }
+
         return true;
     }
 
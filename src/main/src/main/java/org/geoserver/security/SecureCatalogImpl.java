@@ -13,13 +13,16 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import org.geoserver.catalog.Catalog;
 import org.geoserver.catalog.CatalogCapabilities;
 import org.geoserver.catalog.CatalogFacade;
 import org.geoserver.catalog.CatalogFactory;
 import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.CatalogSnapshot;
 import org.geoserver.catalog.CatalogVisitor;
 import org.geoserver.catalog.CoverageInfo;
 import org.geoserver.catalog.CoverageStoreInfo;
@@ -1744,6 +1747,27 @@ public CatalogCapabilities getCatalogCapabilities() {
         return delegate.getCatalogCapabilities();
     }
 
+    /**
+     * Applies the same filtering and wrapping as {@link #list(Class, Filter)} to the delegate
+     * snapshot, objects the user has full access to are returned as is
+     */
+    @Override
+    public CatalogSnapshot snapshot() {
+        final Authentication user = user();
+        Map<Class<? extends CatalogInfo>, Filter> filters = new HashMap<>();
+        return delegate.snapshot()
+                .transform(
+                        (type, info) -> {
+                            Filter filter =
+                                    filters.computeIfAbsent(
+                                            type, t -> securityFilter(t, Filter.INCLUDE));
+                            if (filter != Filter.INCLUDE && !filter.evaluate(info)) {
+                                return null;
+                            }
+                            return checkAccess(user, info, MixedModeBehavior.HIDE);
+                        });
+    }
+
     public boolean isDefaultAccessManager() {
         ResourceAccessManager manager = this.accessManager;
         while (ResourceAccessManagerWrapper.class.isAssignableFrom(manager.getClass())) {
@@ -52,6 +52,10 @@ public SecuredFeatureTypeInfo(FeatureTypeInfo info, WrapperPolicy policy) {
         this.policy = policy;
     }
 
+    public WrapperPolicy getWrapperPolicy() {
+        return policy;
+    }
+
     @Override
     public FeatureType getFeatureType() throws IOException {
 
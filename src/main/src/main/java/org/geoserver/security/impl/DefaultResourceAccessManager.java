@@ -13,7 +13,14 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -31,6 +38,11 @@
 import org.geoserver.catalog.WMSLayerInfo;
 import org.geoserver.catalog.WMTSLayerInfo;
 import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.catalog.event.CatalogAddEvent;
+import org.geoserver.catalog.event.CatalogListener;
+import org.geoserver.catalog.event.CatalogModifyEvent;
+import org.geoserver.catalog.event.CatalogPostModifyEvent;
+import org.geoserver.catalog.event.CatalogRemoveEvent;
 import org.geoserver.ows.Dispatcher;
 import org.geoserver.ows.Request;
 import org.geoserver.platform.GeoServerExtensions;
@@ -39,6 +51,7 @@
 import org.geoserver.security.CatalogMode;
 import org.geoserver.security.CoverageAccessLimits;
 import org.geoserver.security.DataAccessLimits;
+import org.geoserver.security.GeoServerSecurityFilterChainProxy;
 import org.geoserver.security.InMemorySecurityFilter;
 import org.geoserver.security.LayerGroupAccessLimits;
 import org.geoserver.security.ResourceAccessManager;
@@ -51,6 +64,7 @@
 import org.geotools.util.logging.Logging;
 import org.opengis.filter.Filter;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 
 /**
  * Default implementation of {@link ResourceAccessManager}, loads simple access rules from a
@@ -103,6 +117,105 @@ public SecureTreeNode getNode() {
         }
     }
 
+    /**
+     * Key of a cached access decision. The decision depends only on the roles of the user, not on
+     * the user identity, so all users sharing the same role set share the cached decisions.
+     */
+    static final class DecisionKey {
+        final Set<String> roles;
+        final String workspace;
+        final String name;
+        final String id;
+        final AccessMode mode;
+        final boolean directAccess;
+        final boolean groupCheck;
+
+        DecisionKey(
+                Set<String> roles,
+                String workspace,
+                String name,
+                String id,
+                AccessMode mode,
+                boolean directAccess,
+                boolean groupCheck) {
+            this.roles = roles;
+            this.workspace = workspace;
+            this.name = name;
+            this.id = id;
+            this.mode = mode;
+            this.directAccess = directAccess;
+            this.groupCheck = groupCheck;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DecisionKey that = (DecisionKey) o;
+            return directAccess == that.directAccess
+                    && groupCheck == that.groupCheck
+                    && mode == that.mode
+                    && Objects.equals(workspace, that.workspace)
+                    && Objects.equals(name, that.name)
+                    && Objects.equals(id, that.id)
+                    && Objects.equals(roles, that.roles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(roles, workspace, name, id, mode, directAccess, groupCheck);
+        }
+    }
+
+    /** Clears the cached decisions when the catalog changes */
+    class DecisionCacheCleaner implements CatalogListener {
+
+        @Override
+        public void handleAddEvent(CatalogAddEvent event) {
+            clearDecisionCache();
+        }
+
+        @Override
+        public void handleRemoveEvent(CatalogRemoveEvent event) {
+            clearDecisionCache();
+        }
+
+        @Override
+        public void handleModifyEvent(CatalogModifyEvent event) {
+            // wait for the post modify event
+        }
+
+        @Override
+        public void handlePostModifyEvent(CatalogPostModifyEvent event) {
+            clearDecisionCache();
+        }
+
+        @Override
+        public void reloaded() {
+            clearDecisionCache();
+        }
+    }
+
+    /**
+     * Maximum number of cached access decisions, set to zero to disable the cache. When the limit
+     * is reached the cache is emptied and starts filling again.
+     */
+    static final int DECISION_CACHE_SIZE;
+
+    static {
+        String name = "org.geoserver.security.decisionCacheSize";
+        String value = GeoServerExtensions.getProperty(name);
+        int size = 100000;
+        if (value != null) {
+            try {
+                size = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + name + ": " + value);
+            }
+        }
+        DECISION_CACHE_SIZE = size;
+    }
+
     SecureTreeNode root;
 
     DataAccessRuleDAO dao;
@@ -113,6 +226,21 @@ public SecureTreeNode getNode() {
 
     LayerGroupContainmentCache groupsCache;
 
+    /** Cached workspace and resource access decisions */
+    final Map<DecisionKey, Boolean> decisions = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped each time the decision cache is cleared, so that decisions computed against the old
+     * rules are not cached after the clear
+     */
+    final AtomicLong decisionsGeneration = new AtomicLong();
+
+    final LongAdder decisionCacheHits = new LongAdder();
+
+    final LongAdder decisionCacheMisses = new LongAdder();
+
+    final LongAdder decisionTime = new LongAdder();
+
     /**
      * Pass a reference to the raw, unsecured catalog. The reference is used to evaluate the
      * relationship between layers and the groups containing them
@@ -121,6 +249,9 @@ public DefaultResourceAccessManager(DataAccessRuleDAO dao, Catalog rawCatalog) {
         this.dao = dao;
         this.rawCatalog = rawCatalog;
         this.root = buildAuthorizationTree(dao);
+        if (rawCatalog != null) {
+            rawCatalog.addListener(new DecisionCacheCleaner());
+        }
     }
 
     /**
@@ -138,7 +269,20 @@ public CatalogMode getMode() {
 
     public boolean canAccess(Authentication user, WorkspaceInfo workspace, AccessMode mode) {
         checkPropertyFile();
-        SecureTreeNode node = root.getDeepestNode(new String[] {workspace.getName()});
+        String name = workspace.getName();
+        return decide(
+                user,
+                name,
+                null,
+                workspace.getId(),
+                mode,
+                true,
+                false,
+                () -> computeAccess(user, name, mode));
+    }
+
+    private boolean computeAccess(Authentication user, String workspace, AccessMode mode) {
+        SecureTreeNode node = root.getDeepestNode(new String[] {workspace});
         if (node.canAccess(user, mode)) {
             return true;
         }
@@ -204,13 +348,95 @@ public boolean canAccess(
             return true;
         }
 
+        boolean groupCheck = layerGroupContainmentCheckRequired();
+        return decide(
+                user,
+                workspace,
+                resourceName,
+                resource.getId(),
+                mode,
+                directAccess,
+                groupCheck,
+                () ->
+                        computeAccess(
+                                user,
+                                resource,
+                                workspace,
+                                resourceName,
+                                mode,
+                                directAccess,
+                                groupCheck));
+    }
+
+    /**
+     * Returns the access decision from the cache, or computes it, if missing. The cache is skipped
+     * when security is disabled for the current request.
+     */
+    boolean decide(
+            Authentication user,
+            String workspace,
+            String name,
+            String id,
+            AccessMode mode,
+            boolean directAccess,
+            boolean groupCheck,
+            BooleanSupplier decision) {
+        if (DECISION_CACHE_SIZE <= 0
+                || !GeoServerSecurityFilterChainProxy.isSecurityEnabledForCurrentRequest()) {
+            return decision.getAsBoolean();
+        }
+        DecisionKey key =
+                new DecisionKey(
+                        getRoles(user), workspace, name, id, mode, directAccess, groupCheck);
+        Boolean result = decisions.get(key);
+        if (result != null) {
+            decisionCacheHits.increment();
+            return result;
+        }
+        decisionCacheMisses.increment();
+        long generation = decisionsGeneration.get();
+        long start = System.nanoTime();
+        result = decision.getAsBoolean();
+        decisionTime.add(System.nanoTime() - start);
+        if (decisions.size() >= DECISION_CACHE_SIZE) {
+            decisions.clear();
+        }
+        // the rules might have changed while deciding, in that case the result could be stale
+        if (generation == decisionsGeneration.get()) {
+            decisions.put(key, result);
+            // a clear might have slipped in between the check and the put
+            if (generation != decisionsGeneration.get()) {
+                decisions.remove(key, result);
+            }
+        }
+        return result;
+    }
+
+    private Set<String> getRoles(Authentication user) {
+        if (user == null || user.getAuthorities() == null) {
+            return Collections.emptySet();
+        }
+        Set<String> roles = new HashSet<>();
+        for (GrantedAuthority authority : user.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        return roles;
+    }
+
+    private boolean computeAccess(
+            Authentication user,
+            ResourceInfo resource,
+            String workspace,
+            String resourceName,
+            AccessMode mode,
+            boolean directAccess,
+            boolean groupCheck) {
         // if we have a catalog rule that is at resource level, it's the most specific type,
         // it wins. Or it could be that we do not need to check layer groups at all
         SecureTreeNode securityNode = root.getDeepestNode(new String[] {workspace, resourceName});
         int catalogNodeDepth = securityNode.getDepth();
         boolean rulesAllowAccess = securityNode.canAccess(user, mode);
-        if (catalogNodeDepth == SecureTreeNode.RESOURCE_DEPTH
-                || !layerGroupContainmentCheckRequired()) {
+        if (catalogNodeDepth == SecureTreeNode.RESOURCE_DEPTH || !groupCheck) {
             return rulesAllowAccess;
         }
 
@@ -333,9 +559,31 @@ private void rebuildAuthorizationTree(boolean force) {
         if (lastLoaded < daoLastModified || force) {
             root = buildAuthorizationTree(dao);
             lastLoaded = daoLastModified;
+            clearDecisionCache();
         }
     }
 
+    /** Clears the cached access decisions */
+    public void clearDecisionCache() {
+        decisionsGeneration.incrementAndGet();
+        decisions.clear();
+    }
+
+    /** Number of access decisions served from the cache */
+    public long getDecisionCacheHits() {
+        return decisionCacheHits.sum();
+    }
+
+    /** Number of access decisions computed against the rules tree */
+    public long getDecisionCacheMisses() {
+        return decisionCacheMisses.sum();
+    }
+
+    /** Total time spent computing access decisions not found in the cache, in milliseconds */
+    public long getDecisionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(decisionTime.sum());
+    }
+
     SecureTreeNode buildAuthorizationTree(DataAccessRuleDAO dao) {
         SecureTreeNode root = new SecureTreeNode();
 
@@ -29,8 +29,8 @@
 import org.geoserver.catalog.event.CatalogPostModifyEvent;
 import org.geoserver.catalog.event.CatalogRemoveEvent;
 import org.geoserver.catalog.impl.LayerGroupStyleListener;
-import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 
 /**
  * A cache for layer group containment, it speeds up looking up layer groups containing a particular
@@ -38,7 +38,7 @@
  *
  * @author Andrea Aime - GeoSolutions
  */
-public class LayerGroupContainmentCache implements ApplicationListener {
+public class LayerGroupContainmentCache implements ApplicationListener<ContextRefreshedEvent> {
 
     /** Builds a concurrent set wrapping a {@link ConcurrentHashMap} */
     static final Function<? super String, ? extends Set<LayerGroupSummary>> CONCURRENT_SET_BUILDER =
@@ -133,14 +133,22 @@ private void clearGroupInfo(LayerGroupInfo lg) {
                                         resourceContainmentCache.get(rid);
                                 if (containers != null) {
                                     containers.remove(data);
+                                    if (containers.isEmpty()) {
+                                        resourceContainmentCache.remove(rid, containers);
+                                    }
                                 }
                             }
                         });
-        // this group does not contain anything anymore, remove from containment
-        for (LayerGroupSummary d : groupCache.values()) {
-            // will be removed by equality
-            d.containerGroups.remove(new LayerGroupSummary(lg));
-        }
+        // this group does not contain anything anymore, remove it from the containers of its
+        // direct children (the catalog does not allow removing a group that is still contained
+        // in another one, so there is no need to look upwards)
+        LayerGroupSummary removed = data != null ? data : new LayerGroupSummary(lg);
+        lg.getLayers().stream()
+                .filter(IS_GROUP)
+                .map(p -> groupCache.get(p.getId()))
+                .filter(Objects::nonNull)
+                // will be removed by equality
+                .forEach(child -> child.containerGroups.remove(removed));
     }
 
     /** Returns all groups containing directly or indirectly containing the resource */
@@ -192,8 +200,13 @@ private void collectContainers(LayerGroupSummary lg, Set<LayerGroupSummary> grou
         }
     }
 
+    /**
+     * Builds the caches from scratch once the application context is ready. After that the caches
+     * are maintained incrementally by the catalog listener, and fully rebuilt only on catalog
+     * reload
+     */
     @Override
-    public void onApplicationEvent(ApplicationEvent applicationEvent) {
+    public void onApplicationEvent(ContextRefreshedEvent event) {
         buildLayerGroupCaches();
     }
 
@@ -35,6 +35,7 @@
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.net.URL;
@@ -42,10 +43,18 @@
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.media.jai.PlanarImage;
 import javax.xml.namespace.QName;
 import javax.xml.transform.TransformerFactory;
@@ -341,10 +350,141 @@ public void testConfigureFeatureTypeCacheSize() {
         Catalog catalog = getCatalog();
         // we actually keep two versions of the feature type in the cache, so we need it
         // twice as big
-        assertEquals(
-                400,
-                ((SoftValueHashMap) catalog.getResourcePool().getFeatureTypeCache())
-                        .getHardReferencesCount());
+        ResourcePool.CatalogResourceCache<?, ?> cache =
+                (ResourcePool.CatalogResourceCache<?, ?>)
+                        catalog.getResourcePool().getFeatureTypeCache();
+        assertEquals(400, ((SoftValueHashMap) cache.delegate).getHardReferencesCount());
+    }
+
+    @Test
+    public void testBoundedFeatureTypeCache() throws Exception {
+        Catalog catalog = getCatalog();
+        ResourcePool pool = new ResourcePool(catalog);
+        pool.setFeatureTypeCacheSize(1, GeoServerInfo.ResourceCachePolicy.BOUNDED);
+
+        // two versions of each feature type are cached, the third one evicts the oldest
+        pool.getFeatureType(catalog.getFeatureTypeByName(getLayerId(MockData.BUILDINGS)));
+        pool.getFeatureType(catalog.getFeatureTypeByName(getLayerId(MockData.BUILDINGS)), false);
+        pool.getFeatureType(catalog.getFeatureTypeByName(getLayerId(MockData.LAKES)));
+
+        ResourcePool.CacheStatistics stats = pool.getCacheStatistics().get("featureTypes");
+        assertEquals(2, stats.getSize());
+        assertEquals(3, stats.getMisses());
+        assertEquals(1, stats.getEvictions());
+    }
+
+    @Test
+    public void testSingleFlightLoad() throws Exception {
+        ResourcePool pool = new ResourcePool();
+        Map<String, Object> cache = new ConcurrentHashMap<>();
+        Map<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+        AtomicInteger counter = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<Object> loader =
+                () -> {
+                    counter.incrementAndGet();
+                    loading.countDown();
+                    release.await();
+                    return new Object();
+                };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first =
+                    executor.submit(
+                            () -> pool.loadSingleFlight(cache, loads, "key", loader, "test"));
+            loading.await();
+            Future<Object> second =
+                    executor.submit(
+                            () -> pool.loadSingleFlight(cache, loads, "key", loader, "test"));
+            // a load of another key is not blocked
+            assertNotNull(pool.loadSingleFlight(cache, loads, "other", Object::new, "other"));
+            release.countDown();
+
+            assertSame(first.get(), second.get());
+            assertEquals(1, counter.get());
+            assertTrue(loads.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSingleFlightFailure() throws Exception {
+        ResourcePool pool = new ResourcePool();
+        Map<String, Object> cache = new ConcurrentHashMap<>();
+        Map<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+        try {
+            pool.loadSingleFlight(
+                    cache,
+                    loads,
+                    "key",
+                    () -> {
+                        throw new IOException("Failed");
+                    },
+                    "test");
+            fail("Should have failed");
+        } catch (IOException e) {
+            assertEquals("Failed", e.getMessage());
+        }
+        // failures are not cached, the next request retries
+        assertTrue(loads.isEmpty());
+        assertTrue(cache.isEmpty());
+        assertNotNull(pool.loadSingleFlight(cache, loads, "key", Object::new, "test"));
+    }
+
+    @Test
+    public void testCacheStatistics() throws Exception {
+        Catalog catalog = getCatalog();
+        ResourcePool pool = new ResourcePool(catalog);
+        FeatureTypeInfo info = catalog.getFeatureTypeByName(getLayerId(MockData.BUILDINGS));
+        pool.getFeatureType(info);
+        pool.getFeatureType(info);
+
+        Map<String, ResourcePool.CacheStatistics> statistics = pool.getCacheStatistics();
+        ResourcePool.CacheStatistics ft = statistics.get("featureTypes");
+        assertEquals(1, ft.getSize());
+        assertEquals(1, ft.getMisses());
+        assertTrue(ft.getHits() >= 1);
+        assertEquals(0, ft.getEvictions());
+        ResourcePool.CacheStatistics ds = statistics.get("dataStores");
+        assertEquals(1, ds.getMisses());
+    }
+
+    @Test
+    public void testCacheMissesCountedOnLookup() throws Exception {
+        ResourcePool pool = new ResourcePool(getCatalog());
+        Map<String, FeatureType> cache = pool.getFeatureTypeCache();
+
+        // every failed lookup is a miss, even if nothing gets loaded
+        assertNull(cache.get("missing"));
+        assertNull(cache.get("missing"));
+        assertEquals(2, pool.getCacheStatistics().get("featureTypes").getMisses());
+
+        // storing values is neither a miss nor a load
+        FeatureType ft = createNiceMock(FeatureType.class);
+        replay(ft);
+        cache.put("a", ft);
+        cache.put("a", ft);
+        ResourcePool.CacheStatistics stats = pool.getCacheStatistics().get("featureTypes");
+        assertEquals(2, stats.getMisses());
+        assertEquals(0, stats.getLoadTime());
+
+        // checks repeated by the loading code are not counted
+        assertSame(ft, ResourcePool.peek(cache, "a"));
+        assertNull(ResourcePool.peek(cache, "missing"));
+        stats = pool.getCacheStatistics().get("featureTypes");
+        assertEquals(2, stats.getMisses());
+        assertEquals(0, stats.getHits());
+    }
+
+    @Test
+    public void testCacheStatisticsMXBean() throws Exception {
+        ObjectName name = new ObjectName(ResourcePoolStatistics.OBJECT_NAME);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+        assertNotNull(server.getAttribute(name, "CacheStatistics"));
     }
 
     @Test
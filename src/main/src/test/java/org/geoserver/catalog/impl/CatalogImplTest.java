@@ -21,6 +21,7 @@
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -990,6 +991,43 @@ public void testDataStoreEvents() {
         assertEquals(ds, l.removed.get(0).getSource());
     }
 
+    @Test
+    public void testAddAll() {
+        addDataStore();
+        addNamespace();
+        addStyle();
+        CatalogFactory factory = catalog.getFactory();
+        List<ResourceInfo> resources = new ArrayList<>();
+        List<LayerInfo> layers = new ArrayList<>();
+        for (String name : new String[] {"ft1", "ft2", "ft1"}) {
+            FeatureTypeInfo ft = factory.createFeatureType();
+            ft.setName(name);
+            ft.setStore(ds);
+            ft.setNamespace(ns);
+            resources.add(ft);
+            LayerInfo layer = factory.createLayer();
+            layer.setResource(ft);
+            layer.setDefaultStyle(s);
+            layers.add(layer);
+        }
+
+        List<CatalogInfo> failed = new ArrayList<>();
+        TestListener listener = new TestListener();
+        catalog.addListener(listener);
+        ((CatalogImpl) catalog).addAll(resources, (r, e) -> failed.add(r));
+        // the duplicate is caught even if the catalog does not contain it yet
+        assertEquals(1, failed.size());
+        assertSame(resources.get(2), failed.get(0));
+        assertEquals(2, catalog.getFeatureTypes().size());
+        assertEquals(2, listener.added.size());
+
+        ((CatalogImpl) catalog).addAll(layers, (l, e) -> failed.add(l));
+        assertEquals(2, failed.size());
+        assertEquals(2, catalog.getLayers().size());
+        assertEquals(4, listener.added.size());
+        assertNotNull(catalog.getLayerByName("ft2"));
+    }
+
     @Test
     public void testAddFeatureType() {
         assertTrue(catalog.getFeatureTypes().isEmpty());
@@ -0,0 +1,226 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.catalog.impl;
+
+import static org.geoserver.catalog.Predicates.and;
+import static org.geoserver.catalog.Predicates.asc;
+import static org.geoserver.catalog.Predicates.contains;
+import static org.geoserver.catalog.Predicates.desc;
+import static org.geoserver.catalog.Predicates.equal;
+import static org.geoserver.catalog.Predicates.or;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.geoserver.catalog.Catalog;
+import org.geoserver.catalog.CatalogFactory;
+import org.geoserver.catalog.DataStoreInfo;
+import org.geoserver.catalog.FeatureTypeInfo;
+import org.geoserver.catalog.Keyword;
+import org.geoserver.catalog.LayerInfo;
+import org.geoserver.catalog.NamespaceInfo;
+import org.geoserver.catalog.Predicates;
+import org.geoserver.catalog.ResourceInfo;
+import org.geoserver.catalog.StoreInfo;
+import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.catalog.impl.CatalogQueryPlanner.Plan;
+import org.geoserver.catalog.util.CloseableIterator;
+import org.geoserver.platform.GeoServerExtensionsHelper;
+import org.geoserver.platform.GeoServerResourceLoader;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+
+public class CatalogQueryPlannerTest {
+
+    CatalogQueryPlanner planner;
+
+    CatalogInfoLookup<StoreInfo> stores;
+
+    Catalog catalog;
+
+    @Before
+    public void setUp() throws Exception {
+        planner = new CatalogQueryPlanner();
+        stores = DefaultCatalogFacade.storeLookup();
+        stores.add(store("s1", "ws1", "alpha", true));
+        stores.add(store("s2", "ws1", "beta", false));
+        stores.add(store("s3", "ws2", "alphabet", true));
+
+        GeoServerExtensionsHelper.setIsSpringContext(false);
+        catalog = new CatalogImpl();
+        catalog.setResourceLoader(new GeoServerResourceLoader());
+        CatalogFactory factory = catalog.getFactory();
+        for (String name : new String[] {"aaa", "bbb"}) {
+            WorkspaceInfo ws = factory.createWorkspace();
+            ws.setName(name);
+            catalog.add(ws);
+            NamespaceInfo ns = factory.createNamespace();
+            ns.setPrefix(name);
+            ns.setURI("http://" + name);
+            catalog.add(ns);
+            DataStoreInfo ds = factory.createDataStore();
+            ds.setName(name + "Store");
+            ds.setWorkspace(ws);
+            ds.setEnabled(true);
+            catalog.add(ds);
+            for (int i = 0; i < 10; i++) {
+                FeatureTypeInfo ft = factory.createFeatureType();
+                ft.setName(name + "Type" + i);
+                ft.setNativeName(ft.getName());
+                ft.setStore(ds);
+                ft.setNamespace(ns);
+                ft.setEnabled(i % 2 == 0);
+                ft.getKeywords().add(new Keyword(i < 3 ? "low" : "high"));
+                catalog.add(ft);
+                LayerInfo layer = factory.createLayer();
+                layer.setResource(ft);
+                catalog.add(layer);
+            }
+        }
+    }
+
+    private StoreInfo store(String id, String wsId, String name, boolean enabled) {
+        WorkspaceInfoImpl ws = new WorkspaceInfoImpl();
+        ws.setId(wsId);
+        ws.setName(wsId);
+        DataStoreInfoImpl store = new DataStoreInfoImpl(null);
+        store.setId(id);
+        store.setName(name);
+        store.setWorkspace(ws);
+        store.setEnabled(enabled);
+        return store;
+    }
+
+    @Test
+    public void testPlanEqual() {
+        Plan plan = planner.plan(stores, equal("workspace.id", "ws1"));
+        assertTrue(plan.isExact());
+        assertEquals(ImmutableSet.of("s1", "s2"), plan.getIds());
+
+        plan = planner.plan(stores, equal("enabled", true));
+        assertTrue(plan.isExact());
+        assertEquals(ImmutableSet.of("s1", "s3"), plan.getIds());
+
+        plan = planner.plan(stores, equal("id", "s3"));
+        assertTrue(plan.isExact());
+        assertEquals(ImmutableSet.of("s3"), plan.getIds());
+
+        plan = planner.plan(stores, equal("id", "notThere"));
+        assertTrue(plan.isExact());
+        assertTrue(plan.getIds().isEmpty());
+    }
+
+    @Test
+    public void testPlanLike() {
+        Plan plan =
+                planner.plan(
+                        stores,
+                        Predicates.factory.like(
+                                Predicates.factory.property("name"), "alpha*", "*", "?", "\\"));
+        assertTrue(plan.isExact());
+        assertEquals(ImmutableSet.of("s1", "s3"), plan.getIds());
+
+        // contains is case insensitive, cannot use the index
+        plan = planner.plan(stores, contains("name", "alpha"));
+        assertFalse(plan.isExact());
+        assertNull(plan.getIds());
+    }
+
+    @Test
+    public void testPlanLogic() {
+        Plan plan = planner.plan(stores, and(equal("workspace.id", "ws1"), equal("enabled", true)));
+        assertTrue(plan.isExact());
+        assertEquals(ImmutableSet.of("s1"), plan.getIds());
+
+        plan = planner.plan(stores, or(equal("workspace.id", "ws2"), equal("enabled", false)));
+        assertTrue(plan.isExact());
+        assertEquals(ImmutableSet.of("s2", "s3"), plan.getIds());
+
+        // partially indexed, the index narrows down the candidates
+        plan = planner.plan(stores, and(equal("workspace.id", "ws1"), equal("type", "foo")));
+        assertFalse(plan.isExact());
+        assertEquals(ImmutableSet.of("s1", "s2"), plan.getIds());
+
+        // cannot use the index on one branch of an OR
+        plan = planner.plan(stores, or(equal("workspace.id", "ws1"), equal("type", "foo")));
+        assertFalse(plan.isExact());
+        assertNull(plan.getIds());
+
+        plan = planner.plan(stores, Filter.INCLUDE);
+        assertTrue(plan.isExact());
+        assertNull(plan.getIds());
+    }
+
+    @Test
+    public void testReindexOnRemove() {
+        stores.remove(stores.findById("s1", StoreInfo.class));
+        Plan plan = planner.plan(stores, equal("workspace.id", "ws1"));
+        assertEquals(ImmutableSet.of("s2"), plan.getIds());
+    }
+
+    @Test
+    public void testCatalogCount() {
+        assertEquals(20, catalog.count(ResourceInfo.class, Filter.INCLUDE));
+        assertEquals(10, catalog.count(FeatureTypeInfo.class, equal("namespace.prefix", "aaa")));
+        assertEquals(10, catalog.count(LayerInfo.class, equal("enabled", true)));
+        assertEquals(
+                5,
+                catalog.count(
+                        ResourceInfo.class,
+                        and(equal("namespace.prefix", "bbb"), equal("enabled", true))));
+        assertEquals(6, catalog.count(ResourceInfo.class, equal("keywords.value", "low")));
+        assertEquals(1, catalog.count(StoreInfo.class, equal("workspace.name", "bbb")));
+        assertEquals(0, catalog.count(StoreInfo.class, equal("workspace.name", "ccc")));
+        // not indexed, falls back on filter evaluation
+        assertEquals(2, catalog.count(ResourceInfo.class, contains("name", "type1")));
+    }
+
+    @Test
+    public void testCatalogCountAfterSave() {
+        FeatureTypeInfo ft = catalog.getFeatureTypeByName("aaa", "aaaType1");
+        ft.setEnabled(true);
+        ft.setName("renamed");
+        catalog.save(ft);
+
+        assertEquals(11, catalog.count(LayerInfo.class, equal("enabled", true)));
+        assertEquals(11, catalog.count(ResourceInfo.class, equal("enabled", true)));
+        assertEquals(1, catalog.count(LayerInfo.class, equal("name", "renamed")));
+        assertEquals(0, catalog.count(LayerInfo.class, equal("name", "aaaType1")));
+    }
+
+    @Test
+    public void testCatalogListPaged() {
+        Filter filter = equal("namespace.prefix", "aaa");
+        SortBy[] sortBy = {desc("enabled"), asc("name")};
+        List<String> all = names(catalog.list(ResourceInfo.class, filter, null, null, sortBy));
+        assertEquals(10, all.size());
+        assertEquals("aaaType0", all.get(0));
+        assertEquals("aaaType9", all.get(9));
+
+        List<String> page = names(catalog.list(ResourceInfo.class, filter, 3, 4, sortBy));
+        assertEquals(all.subList(3, 7), page);
+
+        // unsorted paging is streamed, but must be consistent with the full listing
+        List<String> unsorted = names(catalog.list(ResourceInfo.class, filter, null, null));
+        assertEquals(unsorted.subList(2, 5), names(catalog.list(ResourceInfo.class, filter, 2, 3)));
+    }
+
+    private List<String> names(CloseableIterator<ResourceInfo> it) {
+        try {
+            return Lists.newArrayList(it).stream()
+                    .map(ResourceInfo::getName)
+                    .collect(Collectors.toList());
+        } finally {
+            it.close();
+        }
+    }
+}
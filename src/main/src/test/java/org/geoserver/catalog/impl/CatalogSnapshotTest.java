@@ -0,0 +1,109 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.catalog.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import java.util.List;
+import org.geoserver.catalog.Catalog;
+import org.geoserver.catalog.CatalogFactory;
+import org.geoserver.catalog.CatalogSnapshot;
+import org.geoserver.catalog.DataStoreInfo;
+import org.geoserver.catalog.FeatureTypeInfo;
+import org.geoserver.catalog.LayerInfo;
+import org.geoserver.catalog.NamespaceInfo;
+import org.geoserver.catalog.Predicates;
+import org.geoserver.catalog.PublishedInfo;
+import org.geoserver.catalog.ResourceInfo;
+import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.platform.GeoServerExtensionsHelper;
+import org.geoserver.platform.GeoServerResourceLoader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CatalogSnapshotTest {
+
+    Catalog catalog;
+
+    @Before
+    public void setUp() throws Exception {
+        GeoServerExtensionsHelper.setIsSpringContext(false);
+        catalog = new CatalogImpl();
+        catalog.setResourceLoader(new GeoServerResourceLoader());
+        CatalogFactory factory = catalog.getFactory();
+        WorkspaceInfo ws = factory.createWorkspace();
+        ws.setName("ws");
+        catalog.add(ws);
+        NamespaceInfo ns = factory.createNamespace();
+        ns.setPrefix("ws");
+        ns.setURI("http://ws");
+        catalog.add(ns);
+        DataStoreInfo ds = factory.createDataStore();
+        ds.setName("store");
+        ds.setWorkspace(ws);
+        ds.setEnabled(true);
+        catalog.add(ds);
+        for (int i = 0; i < 3; i++) {
+            FeatureTypeInfo ft = factory.createFeatureType();
+            ft.setName("type" + i);
+            ft.setNativeName(ft.getName());
+            ft.setStore(ds);
+            ft.setNamespace(ns);
+            ft.setEnabled(true);
+            catalog.add(ft);
+            LayerInfo layer = factory.createLayer();
+            layer.setResource(ft);
+            catalog.add(layer);
+        }
+    }
+
+    @Test
+    public void testUnproxied() {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        List<FeatureTypeInfo> types = snapshot.list(FeatureTypeInfo.class);
+        assertEquals(3, types.size());
+        for (FeatureTypeInfo ft : types) {
+            assertNull(ModificationProxy.handler(ft));
+        }
+        assertEquals(3, snapshot.list(PublishedInfo.class).size());
+        assertEquals(
+                1, snapshot.count(ResourceInfo.class, Predicates.equal("name", "type1")));
+
+        // the snapshot contents cannot be modified
+        assertThrows(UnsupportedOperationException.class, () -> types.remove(0));
+    }
+
+    @Test
+    public void testVersioning() {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        assertNotEquals(CatalogSnapshot.UNVERSIONED, snapshot.getVersion());
+        // reused until the catalog changes
+        assertSame(snapshot, catalog.snapshot());
+
+        catalog.remove(catalog.getLayerByName("type0"));
+        CatalogSnapshot updated = catalog.snapshot();
+        assertNotEquals(snapshot.getVersion(), updated.getVersion());
+        assertEquals(3, snapshot.list(LayerInfo.class).size());
+        assertEquals(2, updated.list(LayerInfo.class).size());
+    }
+
+    @Test
+    public void testEdit() {
+        CatalogSnapshot snapshot = catalog.snapshot();
+        FeatureTypeInfo ft = snapshot.list(FeatureTypeInfo.class).get(0);
+        FeatureTypeInfo editable = CatalogSnapshot.edit(ft, FeatureTypeInfo.class);
+        assertNotNull(ModificationProxy.handler(editable));
+        editable.setTitle("A new title");
+        catalog.save(editable);
+
+        assertEquals("A new title", catalog.getFeatureType(ft.getId()).getTitle());
+        assertNotEquals(snapshot.getVersion(), catalog.snapshot().getVersion());
+    }
+}
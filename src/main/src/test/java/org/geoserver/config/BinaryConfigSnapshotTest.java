@@ -0,0 +1,88 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.catalog.impl.WorkspaceInfoImpl;
+import org.geoserver.config.util.XStreamPersister;
+import org.geoserver.config.util.XStreamPersisterFactory;
+import org.geoserver.platform.resource.Files;
+import org.geoserver.platform.resource.Resource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BinaryConfigSnapshotTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    XStreamPersister xp;
+
+    @Before
+    public void setUp() {
+        xp = new XStreamPersisterFactory().createXMLPersister();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Resource file = Files.asResource(folder.newFile("workspace.xml"));
+        writeWorkspace(file, "ws1");
+
+        BinaryConfigSnapshot snapshot = BinaryConfigSnapshot.load(file.parent().get("none"));
+        byte[] contents = snapshot.read(file);
+        assertTrue(BinaryConfigSnapshot.isBinary(contents));
+        assertFalse(BinaryConfigSnapshot.isBinary(file.getContents()));
+        WorkspaceInfo ws = GeoServerLoader.depersist(xp, contents, WorkspaceInfo.class);
+        assertEquals("ws1", ws.getName());
+        assertEquals(0, snapshot.getHits());
+        assertEquals(1, snapshot.getMisses());
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        File xml = folder.newFile("workspace.xml");
+        Resource file = Files.asResource(xml);
+        writeWorkspace(file, "ws1");
+        Resource snapshotFile = Files.asResource(new File(folder.getRoot(), "catalog.snapshot"));
+
+        BinaryConfigSnapshot snapshot = BinaryConfigSnapshot.load(snapshotFile);
+        snapshot.read(file);
+        snapshot.save(snapshotFile);
+
+        // unchanged file, read from the snapshot
+        snapshot = BinaryConfigSnapshot.load(snapshotFile);
+        byte[] contents = snapshot.read(file);
+        assertEquals(1, snapshot.getHits());
+        assertEquals("ws1", GeoServerLoader.depersist(xp, contents, WorkspaceInfo.class).getName());
+
+        // modified file, read again from XML
+        writeWorkspace(file, "ws2");
+        xml.setLastModified(xml.lastModified() + 10000);
+        snapshot = BinaryConfigSnapshot.load(snapshotFile);
+        contents = snapshot.read(file);
+        assertEquals(0, snapshot.getHits());
+        assertEquals(1, snapshot.getMisses());
+        assertEquals("ws2", GeoServerLoader.depersist(xp, contents, WorkspaceInfo.class).getName());
+    }
+
+    private void writeWorkspace(Resource file, String name) throws Exception {
+        WorkspaceInfoImpl ws = new WorkspaceInfoImpl();
+        ws.setId(name + "-id");
+        ws.setName(name);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        xp.save(ws, bytes);
+        try (OutputStream out = file.out()) {
+            out.write(bytes.toByteArray());
+        }
+    }
+}
@@ -14,6 +14,9 @@
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 import org.geoserver.catalog.Catalog;
 import org.geoserver.catalog.LayerGroupInfo;
 import org.geoserver.catalog.LayerInfo;
@@ -136,6 +139,25 @@ public void testLoadNestedLayerGroups() throws Exception {
         assertTrue(nestedLayerGroup.getLayers().get(1) instanceof LayerInfo);
     }
 
+    @Test
+    public void testLoadingTimes() throws Exception {
+        loader.readCatalog(catalog, xp);
+
+        Map<String, Long> times = loader.getCatalogLoadingTimes();
+        assertEquals(
+                Arrays.asList(
+                        "styles",
+                        "workspaces",
+                        "stores",
+                        "store checks",
+                        "resources",
+                        "layergroups",
+                        "global layergroups",
+                        "resolve"),
+                new ArrayList<>(times.keySet()));
+        assertFalse(catalog.getLayers().isEmpty());
+    }
+
     @Test
     public void testLoadWithoutResaving() throws Exception {
         GeoServerImpl gs = new GeoServerImpl();
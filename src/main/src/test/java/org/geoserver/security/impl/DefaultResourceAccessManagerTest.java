@@ -4,16 +4,24 @@
  */
 package org.geoserver.security.impl;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Properties;
 import org.geoserver.catalog.Catalog;
+import org.geoserver.catalog.FeatureTypeInfo;
 import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.security.AccessMode;
 import org.geoserver.security.WorkspaceAccessLimits;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -39,4 +47,83 @@ public void getAccessLimits() {
 
         assertNotNull(workspaceAccessLimits);
     }
+
+    @Test
+    public void testDecisionCache() throws Exception {
+        Catalog catalog = mock(Catalog.class);
+        Properties props = new Properties();
+        props.put("*.*.r", "*");
+        props.put("topp.*.r", "ROLE_TOPP");
+        DefaultResourceAccessManager manager =
+                new DefaultResourceAccessManager(
+                        new MemoryDataAccessRuleDAO(catalog, props), catalog);
+
+        FeatureTypeInfo resource = mock(FeatureTypeInfo.class, Mockito.RETURNS_DEEP_STUBS);
+        when(resource.getId()).thenReturn("states-id");
+        when(resource.getName()).thenReturn("states");
+        when(resource.getStore().getWorkspace().getName()).thenReturn("topp");
+
+        Authentication first = user("first", "ROLE_TOPP");
+        Authentication second = user("second", "ROLE_TOPP");
+        Authentication other = user("other", "ROLE_OTHER");
+
+        assertTrue(manager.canAccess(first, resource, AccessMode.READ, true));
+        assertEquals(0, manager.getDecisionCacheHits());
+        assertEquals(1, manager.getDecisionCacheMisses());
+
+        // same role set, decision taken from the cache
+        assertTrue(manager.canAccess(second, resource, AccessMode.READ, true));
+        assertEquals(1, manager.getDecisionCacheHits());
+
+        // different role set
+        assertFalse(manager.canAccess(other, resource, AccessMode.READ, true));
+        assertEquals(2, manager.getDecisionCacheMisses());
+
+        // cleared on demand (and on catalog/rule changes)
+        manager.clearDecisionCache();
+        assertTrue(manager.canAccess(first, resource, AccessMode.READ, true));
+        assertEquals(3, manager.getDecisionCacheMisses());
+    }
+
+    @Test
+    public void testDecisionCacheClearedWhileDeciding() throws Exception {
+        Catalog catalog = mock(Catalog.class);
+        DefaultResourceAccessManager manager =
+                new DefaultResourceAccessManager(
+                        new MemoryDataAccessRuleDAO(catalog, new Properties()), catalog);
+        Authentication user = user("user", "ROLE_TOPP");
+
+        // rules reloaded while the decision is being computed, the result is not cached
+        assertTrue(
+                manager.decide(
+                        user,
+                        "topp",
+                        "states",
+                        "states-id",
+                        AccessMode.READ,
+                        true,
+                        false,
+                        () -> {
+                            manager.clearDecisionCache();
+                            return true;
+                        }));
+        assertTrue(manager.decisions.isEmpty());
+
+        // no concurrent clear, cached as usual
+        assertTrue(
+                manager.decide(
+                        user,
+                        "topp",
+                        "states",
+                        "states-id",
+                        AccessMode.READ,
+                        true,
+                        false,
+                        () -> true));
+        assertEquals(1, manager.decisions.size());
+    }
+
+    private Authentication user(String name, String role) {
+        return new TestingAuthenticationToken(name, null, role);
+    }
 }
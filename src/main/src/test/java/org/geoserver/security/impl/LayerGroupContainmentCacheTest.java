@@ -10,6 +10,7 @@
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 
 import java.io.File;
@@ -335,6 +336,40 @@ public void testAddRemoveNestedNamed() throws Exception {
         assertThat(containerNamesForGroup(nestedNamed), empty());
     }
 
+    @Test
+    public void testRemoveOuterGroup() throws Exception {
+        final String OUTER_GROUP = "outer";
+        LayerGroupInfo outer = addLayerGroup(OUTER_GROUP, Mode.NAMED, null, container);
+        assertThat(containerNamesForGroup(container), equalTo(set(OUTER_GROUP)));
+        assertThat(containerNamesForGroup(nature), equalTo(set(CONTAINER_GROUP, OUTER_GROUP)));
+
+        // only the direct children of the removed group are affected
+        catalog.remove(outer);
+        assertThat(containerNamesForGroup(container), empty());
+        assertThat(containerNamesForGroup(nature), equalTo(set(CONTAINER_GROUP)));
+        assertThat(cc.groupCache.get(container.getId()).getContainerGroups(), empty());
+        assertNull(cc.groupCache.get(outer.getId()));
+    }
+
+    @Test
+    public void testIncrementalUpdate() throws Exception {
+        LayerGroupSummary natureSummary = cc.groupCache.get(nature.getId());
+        LayerGroupSummary containerSummary = cc.groupCache.get(container.getId());
+
+        LayerInfo neatline = catalog.getLayerByName(getLayerId(MockData.MAP_NEATLINE));
+        container.getLayers().add(neatline);
+        container.getStyles().add(null);
+        catalog.save(container);
+        addLayerGroup("other", Mode.NAMED, null, neatline);
+
+        // the existing summaries have been updated in place, not rebuilt
+        assertSame(natureSummary, cc.groupCache.get(nature.getId()));
+        assertSame(containerSummary, cc.groupCache.get(container.getId()));
+        assertThat(
+                containerNamesForResource(MockData.MAP_NEATLINE),
+                equalTo(set(CONTAINER_GROUP, "other")));
+    }
+
     @Test
     public void testRenameGroup() throws Exception {
         nature.setName("renamed");
@@ -0,0 +1,255 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.ows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.geoserver.platform.ExtensionFilter;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.platform.Service;
+import org.geotools.util.Version;
+
+/**
+ * Immutable lookup tables of the extensions used by the {@link Dispatcher}, built once and reused
+ * until the application context changes, as tracked by {@link GeoServerExtensions#getGeneration()}.
+ *
+ * <p>The tables index services by id, xml readers by element name, and memoize the kvp readers
+ * matching a request bean class and the responses whose binding matches a result class. The
+ * dispatcher still performs the checks depending on the request contents (version, namespace,
+ * output format, operation) on the few candidates found in the tables, keeping the lookup results
+ * unchanged. Lookups keyed on request values are not memoized, as the set of keys would be
+ * controlled by the clients.
+ *
+ * <p>The tables hold the extensions before filtering, the {@link ExtensionFilter}s are applied at
+ * every lookup as they can change their mind from call to call (e.g., JSONP being enabled or
+ * disabled at runtime).
+ */
+final class DispatchTables {
+
+    /**
+     * An extension, shared if a singleton, or created on demand if the bean has prototype scope
+     */
+    static final class Extension<T> {
+
+        /** The instance used to check the extension capabilities, and returned for singletons */
+        final T instance;
+
+        /** The bean name, or null if the extension does not come from the application context */
+        final String name;
+
+        /** True if the bean has prototype scope */
+        final boolean prototype;
+
+        Extension(T instance, String name) {
+            this.instance = instance;
+            this.name = name;
+            this.prototype = name != null && GeoServerExtensions.isPrototype(name);
+        }
+
+        /** Returns the extension to be used in the current request */
+        @SuppressWarnings("unchecked")
+        T get() {
+            if (prototype) {
+                return (T) GeoServerExtensions.bean(name);
+            }
+            return instance;
+        }
+    }
+
+    private static volatile DispatchTables current;
+
+    final long generation;
+
+    final List<ExtensionFilter> filters;
+
+    final List<Extension<Service>> services;
+
+    /** Services by lower case id, in the extension order */
+    final Map<String, List<Extension<Service>>> servicesById;
+
+    final List<Extension<KvpRequestReader>> kvpReaders;
+
+    /** Kvp readers whose request bean is a superclass of a given class, memoized on first use */
+    final Map<Class<?>, List<Extension<KvpRequestReader>>> kvpReadersByType =
+            new ConcurrentHashMap<>();
+
+    final List<Extension<XmlRequestReader>> xmlReaders;
+
+    /** Xml readers by lower case element name, in the extension order */
+    final Map<String, List<Extension<XmlRequestReader>>> xmlReadersByElement;
+
+    final List<Extension<Response>> responses;
+
+    /** Responses whose binding can handle a result class, memoized on first use */
+    final Map<Class<?>, List<Extension<Response>>> responsesByResultType =
+            new ConcurrentHashMap<>();
+
+    DispatchTables(long generation) {
+        this.generation = generation;
+        this.filters =
+                Collections.unmodifiableList(GeoServerExtensions.extensions(ExtensionFilter.class));
+
+        this.services = load(Service.class, "Two identical service descriptors found");
+        this.servicesById = index(services, s -> s.getId());
+
+        this.kvpReaders = load(KvpRequestReader.class, "Two identical kvp readers found");
+
+        this.xmlReaders = load(XmlRequestReader.class, "Two identical xml readers found");
+        this.xmlReadersByElement = index(xmlReaders, r -> r.getElement().getLocalPart());
+
+        this.responses = load(Response.class, null);
+    }
+
+    /** Returns the tables for the current application context, rebuilding them if needed */
+    static DispatchTables get() {
+        long generation = GeoServerExtensions.getGeneration();
+        DispatchTables tables = current;
+        if (tables == null || tables.generation != generation) {
+            tables = new DispatchTables(generation);
+            current = tables;
+        }
+        return tables;
+    }
+
+    /** Returns the services not excluded by the extension filters */
+    List<Service> getServices() {
+        return filter(services);
+    }
+
+    /** Returns the services with the given id, case insensitive */
+    List<Service> getServices(String id) {
+        return filter(
+                servicesById.getOrDefault(id.toLowerCase(Locale.ROOT), Collections.emptyList()));
+    }
+
+    /** Returns true if any of the services has the given version */
+    boolean hasServiceVersion(Version version) {
+        for (Extension<Service> service : services) {
+            if (version.equals(service.instance.getVersion()) && !isExcluded(service)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the kvp readers not excluded by the extension filters */
+    List<KvpRequestReader> getKvpReaders() {
+        return filter(kvpReaders);
+    }
+
+    /** Returns the xml readers not excluded by the extension filters */
+    List<XmlRequestReader> getXmlReaders() {
+        return filter(xmlReaders);
+    }
+
+    /** Returns the xml readers for the given element, case insensitive */
+    List<XmlRequestReader> getXmlReaders(String element) {
+        if (element == null) {
+            return Collections.emptyList();
+        }
+        return filter(
+                xmlReadersByElement.getOrDefault(
+                        element.toLowerCase(Locale.ROOT), Collections.emptyList()));
+    }
+
+    /** Returns the most specific kvp reader for the given request bean class */
+    KvpRequestReader getKvpRequestReader(Class<?> type) {
+        List<Extension<KvpRequestReader>> candidates =
+                kvpReadersByType.computeIfAbsent(
+                        type,
+                        t -> {
+                            List<Extension<KvpRequestReader>> result = new ArrayList<>();
+                            for (Extension<KvpRequestReader> reader : kvpReaders) {
+                                if (reader.instance.getRequestBean().isAssignableFrom(t)) {
+                                    result.add(reader);
+                                }
+                            }
+                            return Collections.unmodifiableList(result);
+                        });
+        return Dispatcher.findKvpRequestReader(type, filter(candidates));
+    }
+
+    /**
+     * Returns the responses whose binding can handle the result type and that are not excluded by
+     * the extension filters, in extension order
+     */
+    List<Extension<Response>> getResponses(Class<?> resultType) {
+        List<Extension<Response>> candidates =
+                responsesByResultType.computeIfAbsent(
+                        resultType,
+                        t -> {
+                            List<Extension<Response>> result = new ArrayList<>();
+                            for (Extension<Response> response : responses) {
+                                if (response.instance.getBinding().isAssignableFrom(t)) {
+                                    result.add(response);
+                                }
+                            }
+                            return Collections.unmodifiableList(result);
+                        });
+        List<Extension<Response>> result = new ArrayList<>(candidates.size());
+        for (Extension<Response> candidate : candidates) {
+            if (!isExcluded(candidate)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /** Returns true if any of the extension filters asks to exclude the extension */
+    private boolean isExcluded(Extension<?> extension) {
+        for (ExtensionFilter filter : filters) {
+            if (filter.exclude(extension.name, extension.instance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the instances of the extensions not excluded by the extension filters */
+    private <T> List<T> filter(List<Extension<T>> extensions) {
+        List<T> result = new ArrayList<>(extensions.size());
+        for (Extension<T> extension : extensions) {
+            if (!isExcluded(extension)) {
+                result.add(extension.instance);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the extensions without filtering them. If a message is provided, checks the ones
+     * currently not excluded by the filters do not contain duplicates.
+     */
+    private <T> List<Extension<T>> load(Class<T> type, String duplicatesMessage) {
+        List<Extension<T>> result = new ArrayList<>();
+        for (Map.Entry<String, T> entry : GeoServerExtensions.unfilteredExtensions(type)) {
+            result.add(new Extension<>(entry.getValue(), entry.getKey()));
+        }
+        if (duplicatesMessage != null) {
+            Dispatcher.checkDuplicates(filter(result), duplicatesMessage);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <T> Map<String, List<Extension<T>>> index(
+            List<Extension<T>> extensions, Function<T, String> key) {
+        Map<String, List<Extension<T>>> result = new HashMap<>();
+        for (Extension<T> extension : extensions) {
+            String k = key.apply(extension.instance);
+            if (k != null) {
+                result.computeIfAbsent(k.toLowerCase(Locale.ROOT), x -> new ArrayList<>())
+                        .add(extension);
+            }
+        }
+        result.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        return Collections.unmodifiableMap(result);
+    }
+}
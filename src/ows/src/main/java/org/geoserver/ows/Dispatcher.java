@@ -26,6 +26,7 @@
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -772,18 +773,8 @@ else if (parameterType.isAssignableFrom(InputStream.class)) {
                     }
 
                     // make sure the versoin actually exists
-                    boolean found = false;
                     Version version = new Version(req.getVersion());
-
-                    for (Service service : loadServices()) {
-                        if (version.equals(service.getVersion())) {
-                            found = true;
-
-                            break;
-                        }
-                    }
-
-                    if (!found) {
+                    if (!DispatchTables.get().hasServiceVersion(version)) {
                         throw new ServiceException(
                                 "Invalid version: " + req.getVersion(),
                                 "InvalidParameterValue",
@@ -887,8 +878,16 @@ Object fireOperationExecutedCallback(Request req, Operation op, Object result) {
     void response(Object result, Request req, Operation opDescriptor) throws Throwable {
         // step 6: write response
         if (result != null) {
-            // look up respones
-            List<Response> responses = GeoServerExtensions.extensions(Response.class);
+            // look up respones, the tables already filter them by binding
+            List<DispatchTables.Extension<Response>> candidates =
+                    DispatchTables.get().getResponses(result.getClass());
+            List<Response> responses = new ArrayList<>(candidates.size());
+            Map<Response, DispatchTables.Extension<Response>> extensions =
+                    new IdentityHashMap<>(candidates.size());
+            for (DispatchTables.Extension<Response> candidate : candidates) {
+                responses.add(candidate.instance);
+                extensions.put(candidate.instance, candidate);
+            }
 
             // first filter by binding, and canHandle
             O:
@@ -972,7 +971,8 @@ void response(Object result, Request req, Operation opDescriptor) throws Throwab
                 }
             }
 
-            Response response = responses.get(0);
+            // create a new instance if the response is a prototype bean
+            Response response = extensions.get(responses.get(0)).get();
             response = fireResponseDispatchedCallback(req, opDescriptor, result, response);
 
             // load the output strategy to be used
@@ -1123,19 +1123,37 @@ Response fireResponseDispatchedCallback(
     }
 
     Collection<Service> loadServices() {
-        Collection<Service> services = GeoServerExtensions.extensions(Service.class);
+        return DispatchTables.get().getServices();
+    }
+
+    /**
+     * Checks the extensions do not contain duplicates, throwing an {@link IllegalStateException}
+     * with the given message otherwise
+     *
+     * @return An unmodifiable view of the extensions
+     */
+    static <T> List<T> checkDuplicates(List<T> extensions, String message) {
+        if (!(new HashSet<>(extensions).size() == extensions.size())) {
+            String msg = message;
+            for (int i = 0; i < extensions.size(); i++) {
+                T r1 = extensions.get(i);
+                for (int j = i + 1; j < extensions.size(); j++) {
+                    T r2 = extensions.get(j);
+                    if (r1.equals(r2)) {
+                        msg += ": " + r1 + " and " + r2;
+                        break;
+                    }
+                }
+            }
 
-        if (!(new HashSet<>(services).size() == services.size())) {
-            String msg = "Two identical service descriptors found";
             throw new IllegalStateException(msg);
         }
 
-        return services;
+        return Collections.unmodifiableList(extensions);
     }
 
     Service findService(String id, String ver, String namespace) throws ServiceException {
         Version version = (ver != null) ? new Version(ver) : null;
-        Collection<Service> services = loadServices();
 
         // the id is actually the pathinfo, in case workspace specific services
         // are active we want to skip the workspace part in the path and go directly to the
@@ -1145,13 +1163,7 @@ Service findService(String id, String ver, String namespace) throws ServiceExcep
         }
 
         // first just match on service,request
-        List<Service> matches = new ArrayList<>();
-
-        for (Service sBean : services) {
-            if (sBean.getId().equalsIgnoreCase(id)) {
-                matches.add(sBean);
-            }
-        }
+        List<Service> matches = DispatchTables.get().getServices(id);
 
         if (matches.isEmpty()) {
             return null;
@@ -1219,20 +1231,15 @@ Service findService(String id, String ver, String namespace) throws ServiceExcep
     }
 
     public static Collection<KvpRequestReader> loadKvpRequestReaders() {
-        Collection<KvpRequestReader> kvpReaders =
-                GeoServerExtensions.extensions(KvpRequestReader.class);
-
-        if (!(new HashSet<>(kvpReaders).size() == kvpReaders.size())) {
-            String msg = "Two identical kvp readers found";
-            throw new IllegalStateException(msg);
-        }
-
-        return kvpReaders;
+        return DispatchTables.get().getKvpReaders();
     }
 
     public static KvpRequestReader findKvpRequestReader(Class<?> type) {
-        Collection<KvpRequestReader> kvpReaders = loadKvpRequestReaders();
+        return DispatchTables.get().getKvpRequestReader(type);
+    }
 
+    static KvpRequestReader findKvpRequestReader(
+            Class<?> type, Collection<KvpRequestReader> kvpReaders) {
         List<KvpRequestReader> matches = new ArrayList<>();
 
         for (KvpRequestReader kvpReader : kvpReaders) {
@@ -1263,26 +1270,7 @@ public static KvpRequestReader findKvpRequestReader(Class<?> type) {
     }
 
     static Collection<XmlRequestReader> loadXmlReaders() {
-        List<XmlRequestReader> xmlReaders = GeoServerExtensions.extensions(XmlRequestReader.class);
-
-        if (!(new HashSet<>(xmlReaders).size() == xmlReaders.size())) {
-
-            String msg = "Two identical xml readers found";
-            for (int i = 0; i < xmlReaders.size(); i++) {
-                XmlRequestReader r1 = xmlReaders.get(i);
-                for (int j = i + 1; j < xmlReaders.size(); j++) {
-                    XmlRequestReader r2 = xmlReaders.get(j);
-                    if (r1.equals(r2)) {
-                        msg += ": " + r1 + " and " + r2;
-                        break;
-                    }
-                }
-            }
-
-            throw new IllegalStateException(msg);
-        }
-
-        return xmlReaders;
+        return DispatchTables.get().getXmlReaders();
     }
 
     /**
@@ -1297,7 +1285,8 @@ static Collection<XmlRequestReader> loadXmlReaders() {
      */
     public static XmlRequestReader findXmlReader(
             String namespace, String element, String serviceId, String ver) {
-        Collection<XmlRequestReader> xmlReaders = loadXmlReaders();
+        // readers with a matching element name, ignoring case
+        Collection<XmlRequestReader> xmlReaders = DispatchTables.get().getXmlReaders(element);
 
         // first just match on namespace, element
         List<XmlRequestReader> matches = new ArrayList<>();
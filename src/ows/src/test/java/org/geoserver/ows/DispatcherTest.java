@@ -7,10 +7,14 @@
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
@@ -31,6 +35,7 @@
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletResponse;
 import org.custommonkey.xmlunit.XMLUnit;
+import org.geoserver.platform.ExtensionFilter;
 import org.geoserver.platform.Operation;
 import org.geoserver.platform.Service;
 import org.geoserver.test.CodeExpectingHttpServletResponse;
@@ -159,6 +164,88 @@ public void testParseKVP() throws Exception {
         }
     }
 
+    @Test
+    public void testDispatchTables() throws Exception {
+        URL url = getClass().getResource("applicationContext.xml");
+
+        try (FileSystemXmlApplicationContext context =
+                new FileSystemXmlApplicationContext(url.toString())) {
+
+            Dispatcher dispatcher = (Dispatcher) context.getBean("dispatcher");
+
+            // tables are built once and reused
+            DispatchTables tables = DispatchTables.get();
+            assertSame(tables, DispatchTables.get());
+            Service service = dispatcher.findService("hello", "1.0.0", null);
+            assertEquals("hello", service.getId());
+            assertSame(service, dispatcher.findService("HELLO", null, null));
+            assertNull(dispatcher.findService("goodbye", null, null));
+            assertThat(
+                    Dispatcher.findKvpRequestReader(Message.class),
+                    instanceOf(MessageKvpRequestReader.class));
+            assertTrue(tables.kvpReadersByType.containsKey(Message.class));
+            assertTrue(
+                    tables.getResponses(Message.class).stream()
+                            .anyMatch(r -> r.get() instanceof MessageResponse));
+            assertTrue(
+                    tables.getResponses(String.class).stream()
+                            .noneMatch(r -> r.get() instanceof MessageResponse));
+            assertSame(tables, DispatchTables.get());
+
+            // refreshing the context rebuilds them
+            context.refresh();
+            assertNotSame(tables, DispatchTables.get());
+            assertEquals("hello", dispatcher.findService("hello", "1.0.0", null).getId());
+        }
+    }
+
+    @Test
+    public void testDispatchTablesApplyFiltersAtLookup() throws Exception {
+        URL url = getClass().getResource("applicationContext.xml");
+
+        // a filter changing its mind at runtime, like the JSONP one
+        AtomicBoolean exclude = new AtomicBoolean(false);
+        ExtensionFilter filter =
+                (beanId, bean) ->
+                        exclude.get()
+                                && ("helloWorldService".equals(beanId)
+                                        || "messageKvpReader".equals(beanId)
+                                        || "messageResponse".equals(beanId));
+        try (FileSystemXmlApplicationContext context =
+                new FileSystemXmlApplicationContext(new String[] {url.toString()}, false)) {
+            context.addBeanFactoryPostProcessor(
+                    factory -> factory.registerSingleton("toggleFilter", filter));
+            context.refresh();
+            Dispatcher dispatcher = (Dispatcher) context.getBean("dispatcher");
+
+            DispatchTables tables = DispatchTables.get();
+            assertEquals("hello", dispatcher.findService("hello", "1.0.0", null).getId());
+            assertThat(
+                    Dispatcher.findKvpRequestReader(Message.class),
+                    instanceOf(MessageKvpRequestReader.class));
+            assertTrue(
+                    tables.getResponses(Message.class).stream()
+                            .anyMatch(r -> r.get() instanceof MessageResponse));
+
+            // the same tables now hide the excluded extensions
+            exclude.set(true);
+            assertSame(tables, DispatchTables.get());
+            assertNull(dispatcher.findService("hello", "1.0.0", null));
+            assertNull(Dispatcher.findKvpRequestReader(Message.class));
+            assertTrue(
+                    tables.getResponses(Message.class).stream()
+                            .noneMatch(r -> r.get() instanceof MessageResponse));
+
+            // and show them again once the filter changes its mind
+            exclude.set(false);
+            assertSame(tables, DispatchTables.get());
+            assertEquals("hello", dispatcher.findService("hello", "1.0.0", null).getId());
+            assertThat(
+                    Dispatcher.findKvpRequestReader(Message.class),
+                    instanceOf(MessageKvpRequestReader.class));
+        }
+    }
+
     @Test
     public void testParseXML() throws Exception {
         URL url = getClass().getResource("applicationContext.xml");
@@ -6,12 +6,15 @@
 package org.geoserver.platform;
 
 import java.io.File;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.ServletContext;
@@ -81,6 +84,12 @@ public class GeoServerExtensions implements ApplicationContextAware, Application
      */
     static boolean isSpringContext = true;
 
+    /**
+     * Incremented every time the extensions available might have changed, e.g., the context is
+     * replaced or refreshed, or the caches are cleared
+     */
+    static final AtomicLong generation = new AtomicLong();
+
     /**
      * Static application context provided to {@link #setApplicationContext(ApplicationContext)}
      * during initalization.
@@ -108,6 +117,7 @@ public void setApplicationContext(ApplicationContext context) throws BeansExcept
         extensionsCache.clear();
         singletonBeanCache.clear();
         propertyCache.clear();
+        generation.incrementAndGet();
     }
 
     /**
@@ -128,14 +138,10 @@ public static final <T> List<T> extensions(
      * @param context The context in which to perform the lookup.
      * @return A collection of the extensions, or an empty collection.
      */
-    @SuppressWarnings("unchecked")
     public static final <T> List<T> extensions(
             Class<T> extensionPoint,
             ApplicationContext context,
             boolean isGeoServerExtensionsContext) {
-        Collection<String> names =
-                extensionNames(extensionPoint, context, isGeoServerExtensionsContext);
-
         // lookup extension filters preventing recursion
         List<ExtensionFilter> filters;
         if (ExtensionFilter.class.isAssignableFrom(extensionPoint)) {
@@ -144,28 +150,70 @@ public static final <T> List<T> extensions(
             filters = extensions(ExtensionFilter.class, context, isGeoServerExtensionsContext);
         }
 
+        // filter the beans (we don't cache the results of the filtering, an extension
+        // filter can change its mind from call to call)
+        List<Map.Entry<String, T>> extensions =
+                lookupExtensions(extensionPoint, context, isGeoServerExtensionsContext);
+        List<T> result = new ArrayList<>(extensions.size());
+        for (Map.Entry<String, T> extension : extensions) {
+            if (!excludeBean(extension.getKey(), extension.getValue(), filters)) {
+                result.add(extension.getValue());
+            }
+        }
+
+        // sort the results based on ExtensionPriority
+        Collections.sort(result, ExtensionPriority.COMPARATOR);
+
+        return result;
+    }
+
+    /**
+     * Loads all extensions implementing or extending <code>extensionPoint</code> from the GeoServer
+     * application context, along with their bean names, without applying the {@link
+     * ExtensionFilter}s. Meant for code keeping the extensions around, which then has to apply the
+     * filters at every use, as they can change their mind from call to call.
+     *
+     * @param extensionPoint The class or interface of the extensions.
+     * @return The extensions keyed by bean name, or by null if not coming from the application
+     *     context (extension providers, SPI), in the same order as {@link #extensions(Class)}.
+     */
+    public static <T> List<Map.Entry<String, T>> unfilteredExtensions(Class<T> extensionPoint) {
+        List<Map.Entry<String, T>> result = lookupExtensions(extensionPoint, context, true);
+        result.sort((e1, e2) -> ExtensionPriority.COMPARATOR.compare(e1.getValue(), e2.getValue()));
+        return result;
+    }
+
+    /** Loads the extensions and their bean names, without filtering or sorting them */
+    @SuppressWarnings("unchecked")
+    private static <T> List<Map.Entry<String, T>> lookupExtensions(
+            Class<T> extensionPoint,
+            ApplicationContext context,
+            boolean isGeoServerExtensionsContext) {
+        Collection<String> names =
+                extensionNames(extensionPoint, context, isGeoServerExtensionsContext);
+
         // look up all the beans
-        List<T> result = new ArrayList<>(names.size());
+        List<Map.Entry<String, T>> result = new ArrayList<>(names.size());
         for (String name : names) {
             Object bean = getBean(context, name, isGeoServerExtensionsContext);
-            if (!excludeBean(name, bean, filters)) result.add((T) bean);
+            result.add(new AbstractMap.SimpleImmutableEntry<>(name, (T) bean));
         }
 
         // load from secondary extension providers
         if (!ExtensionProvider.class.isAssignableFrom(extensionPoint)
                 && !ExtensionFilter.class.isAssignableFrom(extensionPoint)) {
 
-            List<T> secondary = new ArrayList<>();
             for (ExtensionProvider xp : extensions(ExtensionProvider.class, context)) {
                 try {
                     if (extensionPoint.isAssignableFrom(xp.getExtensionPoint())) {
-                        secondary.addAll(xp.getExtensions(extensionPoint));
+                        for (Object extension : xp.getExtensions(extensionPoint)) {
+                            result.add(new AbstractMap.SimpleImmutableEntry<>(null, (T) extension));
+                        }
                     }
                 } catch (Exception e) {
                     LOGGER.log(Level.WARNING, "Extension provider threw exception", e);
                 }
             }
-            filter(secondary, filters, result);
         }
 
         // load from factory spi
@@ -178,13 +226,9 @@ public static final <T> List<T> extensions(
                     .forEach(spiExtensions::add);
             spiCache.put(extensionPoint, spiExtensions);
         }
-        // filter the beans coming from SPI (we don't cache the results
-        // of the filtering, an extension filter can change its mind
-        // from call to call
-        filter(spiExtensions, filters, result);
-
-        // sort the results based on ExtensionPriority
-        Collections.sort(result, ExtensionPriority.COMPARATOR);
+        for (T extension : spiExtensions) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(null, extension));
+        }
 
         return result;
     }
@@ -265,12 +309,6 @@ private static Object getBean(
         return bean;
     }
 
-    private static <T> void filter(List<T> objects, List<ExtensionFilter> filters, List<T> result) {
-        for (T bean : objects) {
-            if (!excludeBean(null, bean, filters)) result.add(bean);
-        }
-    }
-
     /** Returns true if any of the {@link ExtensionFilter} asks to exclude the bean */
     private static boolean excludeBean(String beanId, Object bean, List<ExtensionFilter> filters) {
         for (ExtensionFilter filter : filters) {
@@ -292,6 +330,24 @@ public static final <T> List<T> extensions(Class<T> extensionPoint) {
         return extensions(extensionPoint, context, true);
     }
 
+    /**
+     * Returns a counter that changes every time the available extensions might have changed, that
+     * is, when the application context is set or refreshed. Code deriving lookup structures from
+     * the extensions can use it to know when they need to be rebuilt.
+     */
+    public static long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns true if the named bean is a prototype, that is, a new instance is returned at every
+     * lookup, in the GeoServer application context
+     */
+    public static boolean isPrototype(String name) {
+        ApplicationContext ctx = context;
+        return ctx != null && ctx.containsBean(name) && ctx.isPrototype(name);
+    }
+
     /**
      * Returns a specific bean given its name.
      *
@@ -398,6 +454,7 @@ public void onApplicationEvent(ApplicationEvent event) {
         if (event instanceof ContextRefreshedEvent) {
             extensionsCache.clear();
             singletonBeanCache.clear();
+            generation.incrementAndGet();
         }
     }
 
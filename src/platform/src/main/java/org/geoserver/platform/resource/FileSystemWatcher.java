@@ -10,6 +10,14 @@
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -21,15 +29,19 @@
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import org.geoserver.platform.GeoServerExtensions;
 import org.geoserver.platform.resource.ResourceNotification.Kind;
 import org.geotools.util.logging.Logging;
 import org.springframework.beans.factory.DisposableBean;
@@ -38,9 +50,18 @@
 /**
  * Active object (using a ScheduledExecutorService) used to watch file system for changes.
  *
- * <p>This implementation currently polls the file system and should be updated with Java 7
- * WatchService when available. The internal design is similar to WatchService, WatchKey and
- * WatchEvent in order to facilitate this transition.
+ * <p>When the platform provides native file system notifications, the watched directories (and the
+ * parents of the watched files) are registered with a {@link WatchService}. Native events only
+ * mark the affected watches as dirty, a poll of the dirty watches is then scheduled after a short
+ * delay, coalescing the bursts of events caused by a single change into one notification. Watches
+ * on resources whose directory does not exist yet are registered against the nearest existing
+ * ancestor, and registered again as the missing directories get created. Watches that cannot be
+ * registered are polled, and a full poll is still performed every {@link #NATIVE_POLL_CYCLES}
+ * cycles to recover from lost events.
+ *
+ * <p>Where native notifications are not available (or emulated by polling, as the JDK does on some
+ * platforms), or have been disabled via the {@link #NATIVE_WATCH_PROPERTY} system property, the
+ * file system is polled at a fixed delay.
  *
  * <p>This implementation makes a few concessions to being associated with ResourceStore, reporting
  * changes with resource paths rather than files.
@@ -51,6 +72,16 @@ public class FileSystemWatcher implements ResourceNotificationDispatcher, Dispos
 
     private static final Logger LOGGER = Logging.getLogger(FileSystemWatcher.class);
 
+    /** System property that can be set to false to disable native file system notifications */
+    public static final String NATIVE_WATCH_PROPERTY =
+            "org.geoserver.platform.resource.nativeWatch";
+
+    /** Delay used to coalesce native events before polling the affected watches */
+    static final long COALESCE_DELAY_MS = 100;
+
+    /** When native notifications are used, every how many cycles all watches are polled */
+    static final int NATIVE_POLL_CYCLES = 12;
+
     /** Change to file system */
     static class Delta {
         /** Watched directory where changes occurred */
@@ -123,11 +154,24 @@ private class Watch implements Comparable<Watch> {
         private Set<File> children = null;
         private long childrenLastModifiedMax = 0L;
 
+        /** Absolute path of the watched file, used to match native events */
+        final Path nioPath;
+
+        /** Directories registered for native notifications on behalf of this watch */
+        volatile Set<Path> registered = Collections.emptySet();
+
+        /** True if native notifications are received for all the directories of this watch */
+        volatile boolean nativeWatched;
+
+        /** Set when a native notification affecting this watch has been received */
+        volatile boolean dirty;
+
         public Watch(File file, String path) {
             Objects.requireNonNull(file);
             Objects.requireNonNull(path);
             this.file = file;
             this.path = path;
+            this.nioPath = file.toPath().toAbsolutePath();
             this.exsists = file.exists();
             this.last = exsists ? file.lastModified() : 0;
             if (file.isDirectory()) {
@@ -310,6 +354,179 @@ public boolean isMatch(File file, String path) {
         }
     }
 
+    /**
+     * Receives native notifications from a {@link WatchService}, marks the affected watches as
+     * dirty and schedules a poll for them, coalescing the events received within {@link
+     * #COALESCE_DELAY_MS}
+     */
+    private class NativeWatcher implements Runnable {
+
+        final WatchService service;
+
+        /** The directories registered with the watch service */
+        final Map<Path, WatchKey> keys = new ConcurrentHashMap<>();
+
+        /** Set while a poll of the dirty watches is scheduled but not yet started */
+        final AtomicBoolean pending = new AtomicBoolean();
+
+        NativeWatcher(WatchService service) {
+            this.service = service;
+        }
+
+        /**
+         * Registers the directories relevant to the watch: the watched directory itself, to be
+         * notified about changes in its contents, and its parent, to be notified about its creation
+         * and removal. Missing directories are replaced by their nearest existing ancestor, the
+         * watch is then registered again when notified about the creation of the missing ones.
+         */
+        synchronized void register(Watch watch) {
+            List<Path> directories = new ArrayList<>(2);
+            if (watch.file.isDirectory()) {
+                directories.add(watch.nioPath);
+            }
+            if (watch.nioPath.getParent() != null) {
+                directories.add(watch.nioPath.getParent());
+            }
+
+            boolean complete = true;
+            Set<Path> registered = new HashSet<>();
+            for (Path directory : directories) {
+                Path existing = registerNearest(directory);
+                if (existing != null) {
+                    registered.add(existing);
+                }
+                complete &= directory.equals(existing);
+            }
+            watch.registered = registered;
+            watch.nativeWatched = complete;
+        }
+
+        /**
+         * Registers the directory, or its nearest existing ancestor, returning the path actually
+         * registered (or null if registration failed)
+         */
+        private Path registerNearest(Path directory) {
+            Path registered = null;
+            while (true) {
+                Path existing = directory;
+                while (existing != null && !existing.toFile().isDirectory()) {
+                    existing = existing.getParent();
+                }
+                if (existing == null || existing.equals(registered) || !register(existing)) {
+                    return registered;
+                }
+                registered = existing;
+                if (existing.equals(directory)) {
+                    return registered;
+                }
+                // loop, the missing directories might have been created in the meantime,
+                // before the ancestor registration took effect
+            }
+        }
+
+        private boolean register(Path directory) {
+            WatchKey key = keys.get(directory);
+            if (key != null && key.isValid()) {
+                return true;
+            }
+            try {
+                key =
+                        directory.register(
+                                service,
+                                StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE,
+                                StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(directory, key);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(
+                        Level.FINE,
+                        "Could not register " + directory + ", it will be polled instead",
+                        e);
+                return false;
+            }
+        }
+
+        /** Cancels the registration of directories no watch is interested in anymore */
+        synchronized void unregisterUnused() {
+            Set<Path> used = new HashSet<>();
+            for (Watch watch : watchers) {
+                used.addAll(watch.registered);
+            }
+            for (Path directory : new ArrayList<>(keys.keySet())) {
+                if (!used.contains(directory)) {
+                    WatchKey key = keys.remove(directory);
+                    if (key != null) {
+                        key.cancel();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    WatchKey key = service.take();
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // events got lost, check everything
+                            watchers.forEach(w -> w.dirty = true);
+                        } else {
+                            changed(directory, directory.resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        // directory is gone, its removal has been notified to the parent
+                        keys.remove(directory, key);
+                    }
+                    schedulePoll();
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                // watcher has been shut down
+            }
+        }
+
+        /** Marks as dirty the watches affected by a change of the child of a directory */
+        private void changed(Path directory, Path child) {
+            for (Watch watch : watchers) {
+                Path path = watch.nioPath;
+                if (path.equals(directory)
+                        || path.equals(child)
+                        || (!watch.nativeWatched && path.startsWith(child))) {
+                    watch.dirty = true;
+                    // a watched directory might have just been created
+                    register(watch);
+                }
+            }
+        }
+
+        private void schedulePoll() {
+            if (pending.compareAndSet(false, true)) {
+                try {
+                    pool.schedule(
+                            () -> {
+                                pending.set(false);
+                                poll(false);
+                            },
+                            COALESCE_DELAY_MS,
+                            MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // watcher has been shut down
+                }
+            }
+        }
+
+        void close() {
+            try {
+                service.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to close the file system watch service", e);
+            }
+        }
+    }
+
     private ScheduledExecutorService pool;
 
     private final Function<String, File> fileExtractor;
@@ -318,94 +535,106 @@ public boolean isMatch(File file, String path) {
 
     CopyOnWriteArrayList<Watch> watchers = new CopyOnWriteArrayList<>();
 
+    /** Native notifications receiver, null if polling is used */
+    private volatile NativeWatcher nativeWatcher;
+
+    /** True once the availability of native notifications has been checked */
+    private boolean nativeChecked;
+
     /**
-     * Note we have a single runnable here to review all outstanding Watch instances. The focus is
-     * on using minimal system resources while we wait for Java 7 WatchService (to be more
-     * efficient).
+     * Note we have a single runnable here to review all outstanding Watch instances, the same
+     * thread is used to poll the watches marked as dirty by native notifications.
      */
-    private Runnable sync =
-            new Runnable() {
-                @Override
-                public void run() {
-                    long now = System.currentTimeMillis();
-                    for (Watch watch : watchers) {
-                        if (watch.getListeners().isEmpty()) {
-                            watchers.remove(watch);
-                            continue;
-                        }
-                        final boolean directory = watch.file.isDirectory();
-                        Level level = Level.FINER;
-                        long start = System.nanoTime();
-                        if (directory) LOGGER.log(level, "polling contents of " + watch.file);
-                        Delta delta;
+    private Runnable sync = () -> poll(true);
+
+    /** Counts the scheduled polls, used to decide when to perform a full poll */
+    private long cycles;
+
+    /**
+     * Polls the watches for changes, and notifies the listeners.
+     *
+     * @param scheduled True if this is the periodic poll, false if it has been triggered by native
+     *     notifications
+     */
+    private void poll(boolean scheduled) {
+        NativeWatcher nw = this.nativeWatcher;
+        boolean full = nw == null || (scheduled && ++cycles % NATIVE_POLL_CYCLES == 0);
+        long now = System.currentTimeMillis();
+        for (Watch watch : watchers) {
+            if (watch.getListeners().isEmpty()) {
+                watchers.remove(watch);
+                continue;
+            }
+            if (!full && watch.nativeWatched && !watch.dirty) {
+                // native notifications would have told us about changes
+                continue;
+            }
+            watch.dirty = false;
+            final boolean directory = watch.file.isDirectory();
+            Level level = Level.FINER;
+            long start = System.nanoTime();
+            if (directory) LOGGER.log(level, "polling contents of " + watch.file);
+            Delta delta;
+            try {
+                delta = watch.changed(now);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error polling contents of " + watch.file, e);
+                return;
+            }
+            if (directory && LOGGER.isLoggable(level)) {
+                long ellapsedMicros = MICROSECONDS.convert(System.nanoTime() - start, NANOSECONDS);
+                long ellapsedMillis = MILLISECONDS.convert(ellapsedMicros, MICROSECONDS);
+                String unit = ellapsedMillis == 0L ? "us" : "ms";
+                long time = ellapsedMillis == 0L ? ellapsedMicros : ellapsedMillis;
+                LOGGER.log(
+                        level,
+                        String.format(
+                                "delta computed in %,d%s for %s", time, unit, watch.file));
+            }
+            if (delta != null) {
+                notify(watch, delta);
+            }
+        }
+    }
+
+    private void notify(Watch watch, Delta delta) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.config(
+                    String.format(
+                            "Notifying %s change on %s. Created: %,d, removed: %,d, modified: %,d",
+                            delta.kind,
+                            delta.context,
+                            delta.created.size(),
+                            delta.removed.size(),
+                            delta.modified.size()));
+        }
+        // do not call listeners on the watch thread, they may take a
+        // considerable amount of time to process the events
+        CompletableFuture.runAsync(
+                () -> {
+                    /** Created based on created/removed/modified files */
+                    List<ResourceNotification.Event> events =
+                            ResourceNotification.delta(
+                                    watch.file, delta.created, delta.removed, delta.modified);
+
+                    ResourceNotification notify =
+                            new ResourceNotification(
+                                    watch.getPath(), delta.kind, watch.last, events);
+
+                    for (ResourceListener listener : watch.getListeners()) {
                         try {
-                            delta = watch.changed(now);
-                        } catch (RuntimeException e) {
-                            LOGGER.log(Level.WARNING, "Error polling contents of " + watch.file, e);
-                            return;
-                        }
-                        if (directory && LOGGER.isLoggable(level)) {
-                            long ellapsedMicros =
-                                    MICROSECONDS.convert(System.nanoTime() - start, NANOSECONDS);
-                            long ellapsedMillis =
-                                    MILLISECONDS.convert(ellapsedMicros, MICROSECONDS);
-                            String unit = ellapsedMillis == 0L ? "us" : "ms";
-                            long time = ellapsedMillis == 0L ? ellapsedMicros : ellapsedMillis;
-                            LOGGER.log(
-                                    level,
-                                    String.format(
-                                            "delta computed in %,d%s for %s",
-                                            time, unit, watch.file));
-                        }
-                        if (delta != null) {
-                            notify(watch, delta);
+                            listener.changed(notify);
+                        } catch (Throwable t) {
+                            Logger logger =
+                                    Logger.getLogger(listener.getClass().getPackage().getName());
+                            logger.log(
+                                    Level.FINE,
+                                    "Unable to notify " + watch + ":" + t.getMessage(),
+                                    t);
                         }
                     }
-                }
-
-                private void notify(Watch watch, Delta delta) {
-                    if (LOGGER.isLoggable(Level.INFO)) {
-                        LOGGER.config(
-                                String.format(
-                                        "Notifying %s change on %s. Created: %,d, removed: %,d, modified: %,d",
-                                        delta.kind,
-                                        delta.context,
-                                        delta.created.size(),
-                                        delta.removed.size(),
-                                        delta.modified.size()));
-                    }
-                    // do not call listeners on the watch thread, they may take a
-                    // considerable amount of time to process the events
-                    CompletableFuture.runAsync(
-                            () -> {
-                                /** Created based on created/removed/modified files */
-                                List<ResourceNotification.Event> events =
-                                        ResourceNotification.delta(
-                                                watch.file,
-                                                delta.created,
-                                                delta.removed,
-                                                delta.modified);
-
-                                ResourceNotification notify =
-                                        new ResourceNotification(
-                                                watch.getPath(), delta.kind, watch.last, events);
-
-                                for (ResourceListener listener : watch.getListeners()) {
-                                    try {
-                                        listener.changed(notify);
-                                    } catch (Throwable t) {
-                                        Logger logger =
-                                                Logger.getLogger(
-                                                        listener.getClass().getPackage().getName());
-                                        logger.log(
-                                                Level.FINE,
-                                                "Unable to notify " + watch + ":" + t.getMessage(),
-                                                t);
-                                    }
-                                }
-                            });
-                }
-            };
+                });
+    }
 
     private ScheduledFuture<?> monitor;
 
@@ -447,6 +676,42 @@ private Watch watch(File file, String path) {
         return null; // not found
     }
 
+    /**
+     * Returns the native notifications receiver, setting it up the first time it is called, or
+     * null if native notifications are not available or disabled
+     */
+    private NativeWatcher nativeWatcher() {
+        if (!nativeChecked) {
+            nativeChecked = true;
+            String enabled = GeoServerExtensions.getProperty(NATIVE_WATCH_PROPERTY);
+            if (enabled == null || Boolean.parseBoolean(enabled)) {
+                try {
+                    WatchService service = FileSystems.getDefault().newWatchService();
+                    if (service.getClass().getSimpleName().startsWith("Polling")) {
+                        // the JDK emulates notifications with a slower poller than ours
+                        service.close();
+                        LOGGER.fine("Native file system notifications not available, polling");
+                    } else {
+                        NativeWatcher nw = new NativeWatcher(service);
+                        tFactory.newThread(nw).start();
+                        nativeWatcher = nw;
+                    }
+                } catch (IOException | UnsupportedOperationException e) {
+                    LOGGER.log(
+                            Level.INFO,
+                            "Native file system notifications not available, polling",
+                            e);
+                }
+            }
+        }
+        return nativeWatcher;
+    }
+
+    /** Returns true if native file system notifications are in use */
+    boolean isNativeWatch() {
+        return nativeWatcher != null;
+    }
+
     @Override
     public synchronized void addListener(String path, ResourceListener listener) {
         Objects.requireNonNull(path, "Path for notification is required");
@@ -456,6 +721,10 @@ public synchronized void addListener(String path, ResourceListener listener) {
         if (watch == null) {
             watch = new Watch(file, path);
             watchers.add(watch);
+            NativeWatcher nw = nativeWatcher();
+            if (nw != null) {
+                nw.register(watch);
+            }
             if (monitor == null) {
                 monitor = pool.scheduleWithFixedDelay(sync, delay, delay, unit);
             }
@@ -477,6 +746,10 @@ public synchronized boolean removeListener(String path, ResourceListener listene
                 removed = watchers.remove(watch);
             }
         }
+        NativeWatcher nw = this.nativeWatcher;
+        if (removed && nw != null) {
+            nw.unregisterUnused();
+        }
         if (removed && watchers.isEmpty()) {
             if (monitor != null) {
                 monitor.cancel(false); // stop watching nobody is looking
@@ -500,6 +773,10 @@ public void schedule(long delay, TimeUnit unit) {
     public void destroy() throws Exception {
         pool.shutdown();
         monitor = null;
+        NativeWatcher nw = this.nativeWatcher;
+        if (nw != null) {
+            nw.close();
+        }
     }
 
     @Override
@@ -9,14 +9,33 @@
  */
 package org.geoserver.platform.resource;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.apache.commons.codec.digest.DigestUtils;
+import org.geoserver.platform.GeoServerExtensions;
 import org.geotools.util.logging.Logging;
 
 /**
- * An in memory lock provider based on a striped lock
+ * An in memory lock provider based on a striped lock.
+ *
+ * <p>Lock keys are spread over a fixed number of reentrant locks (stripes), configurable with the
+ * {@link #STRIPES_PROPERTY} system property. Two different keys can map to the same stripe, the
+ * locks being reentrant a thread already holding a stripe can still acquire other keys mapped to
+ * it. The locks favor throughput by default, fair locks handing them over in arrival order can be
+ * enabled with the {@link #FAIR_PROPERTY} system property.
+ *
+ * <p>Uncontended acquisitions are not timed, when a thread has to wait for a lock the wait time is
+ * recorded in a per key histogram, see {@link #getContentionStatistics()}, to help identifying the
+ * resources that contend.
  *
  * @author Andrea Aime - GeoSolutions
  */
@@ -24,17 +43,128 @@ public class MemoryLockProvider implements LockProvider {
 
     static final Logger LOGGER = Logging.getLogger(MemoryLockProvider.class.getName());
 
-    java.util.concurrent.locks.Lock[] locks;
+    /** System property setting the number of stripes used by the default constructor */
+    public static final String STRIPES_PROPERTY =
+            "org.geoserver.platform.resource.memoryLockStripes";
+
+    /** System property enabling fair locks in the default constructor */
+    public static final String FAIR_PROPERTY = "org.geoserver.platform.resource.memoryLockFair";
+
+    /** Default number of stripes */
+    static final int DEFAULT_STRIPES = 1024;
+
+    /** Maximum number of keys whose contention is tracked individually */
+    static final int MAX_TRACKED_KEYS = 1000;
+
+    /** The key collecting the contention of the keys exceeding {@link #MAX_TRACKED_KEYS} */
+    public static final String OTHER_KEYS = "*";
+
+    /** Statistics about the time spent waiting to acquire a contended lock */
+    public static class ContentionStatistics {
+
+        /** Upper bounds, in milliseconds, of the wait time histogram buckets */
+        public static final long[] BUCKETS = {1, 10, 100, 1000, Long.MAX_VALUE};
+
+        final LongAdder count = new LongAdder();
+
+        final LongAdder totalWait = new LongAdder();
+
+        final LongAccumulator maxWait = new LongAccumulator(Math::max, 0);
+
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS.length);
+
+        void record(long waitNanos) {
+            count.increment();
+            totalWait.add(waitNanos);
+            maxWait.accumulate(waitNanos);
+            long millis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+            int bucket = 0;
+            while (millis >= BUCKETS[bucket]) {
+                bucket++;
+            }
+            histogram.incrementAndGet(bucket);
+        }
+
+        /** Number of times a thread had to wait for the lock */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /** Total wait time, in nanoseconds */
+        public long getTotalWait() {
+            return totalWait.sum();
+        }
+
+        /** Maximum wait time, in nanoseconds */
+        public long getMaxWait() {
+            return maxWait.get();
+        }
+
+        /**
+         * The wait time histogram, the value at position i counts the waits shorter than {@link
+         * #BUCKETS}[i] milliseconds, and not counted in a previous bucket
+         */
+        public long[] getHistogram() {
+            long[] result = new long[histogram.length()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = histogram.get(i);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "ContentionStatistics [count="
+                    + getCount()
+                    + ", totalWait="
+                    + getTotalWait()
+                    + ", maxWait="
+                    + getMaxWait()
+                    + "]";
+        }
+    }
+
+    ReentrantLock[] locks;
+
+    final Map<String, ContentionStatistics> contention = new ConcurrentHashMap<>();
 
     public MemoryLockProvider() {
-        this(1024);
+        this(
+                getIntProperty(STRIPES_PROPERTY, DEFAULT_STRIPES),
+                Boolean.parseBoolean(GeoServerExtensions.getProperty(FAIR_PROPERTY)));
     }
 
     public MemoryLockProvider(int concurrency) {
-        locks = new java.util.concurrent.locks.Lock[concurrency];
+        this(concurrency, false);
+    }
+
+    /**
+     * Builds a lock provider
+     *
+     * @param concurrency The number of stripes
+     * @param fair If true, the locks are granted to the longest waiting thread, at the expense of
+     *     throughput
+     */
+    public MemoryLockProvider(int concurrency, boolean fair) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("The number of stripes must be positive");
+        }
+        locks = new ReentrantLock[concurrency];
         for (int i = 0; i < locks.length; i++) {
-            locks[i] = new ReentrantLock();
+            locks[i] = new ReentrantLock(fair);
+        }
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = GeoServerExtensions.getProperty(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + name + ": " + value + ", using default");
+            }
         }
+        return defaultValue;
     }
 
     @Override
@@ -42,7 +172,12 @@ public Resource.Lock acquire(String lockKey) {
         final int idx = getIndex(lockKey);
         if (LOGGER.isLoggable(Level.FINE))
             LOGGER.fine("Mapped lock key " + lockKey + " to index " + idx + ". Acquiring lock.");
-        locks[idx].lock();
+        ReentrantLock lock = locks[idx];
+        if (!tryLock(lock)) {
+            long start = System.nanoTime();
+            lock.lock();
+            recordWait(lockKey, System.nanoTime() - start);
+        }
         if (LOGGER.isLoggable(Level.FINE))
             LOGGER.fine("Mapped lock key " + lockKey + " to index " + idx + ". Lock acquired");
         return new Resource.Lock() {
@@ -66,11 +201,65 @@ public String toString() {
         };
     }
 
-    private int getIndex(String lockKey) {
-        // Simply hashing the lock key generated a significant number of collisions,
-        // doing the SHA1 digest of it provides a much better distribution
-        int idx = Math.abs(DigestUtils.sha1Hex(lockKey).hashCode() % locks.length);
-        return idx;
+    /** Acquires the lock only if immediately available, without barging in front of waiters */
+    private boolean tryLock(ReentrantLock lock) {
+        if (!lock.isFair()) {
+            return lock.tryLock();
+        }
+        try {
+            // unlike tryLock(), honors the fairness setting
+            return lock.tryLock(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void recordWait(String lockKey, long waitNanos) {
+        ContentionStatistics statistics = contention.get(lockKey);
+        if (statistics == null) {
+            String key = contention.size() < MAX_TRACKED_KEYS ? lockKey : OTHER_KEYS;
+            statistics = contention.computeIfAbsent(key, k -> new ContentionStatistics());
+        }
+        statistics.record(waitNanos);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Waited " + waitNanos + "ns to acquire lock key " + lockKey);
+        }
+    }
+
+    /**
+     * Returns the wait time statistics of the contended lock keys, sorted by decreasing total wait
+     * time. Only the first {@link #MAX_TRACKED_KEYS} contended keys are tracked individually, the
+     * others are accumulated under {@link #OTHER_KEYS}.
+     */
+    public Map<String, ContentionStatistics> getContentionStatistics() {
+        Map<String, ContentionStatistics> result = new LinkedHashMap<>();
+        contention.entrySet().stream()
+                .sorted(
+                        Comparator.comparingLong(
+                                (Map.Entry<String, ContentionStatistics> e) ->
+                                        e.getValue().getTotalWait())
+                                .reversed())
+                .forEach(e -> result.put(e.getKey(), e.getValue()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Clears the contention statistics */
+    public void resetContentionStatistics() {
+        contention.clear();
+    }
+
+    int getIndex(String lockKey) {
+        // Simply hashing the lock key generated a significant number of collisions, as the lower
+        // bits of String.hashCode() are poorly distributed for similar keys, mix all bits into
+        // them (MurmurHash3 finalizer) without the cost of a message digest
+        int h = lockKey.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, locks.length);
     }
 
     @Override
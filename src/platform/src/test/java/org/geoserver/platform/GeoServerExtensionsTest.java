@@ -19,6 +19,7 @@
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.ServletContext;
@@ -209,6 +210,34 @@ public void testExtensionFilterByClass() {
         assertSame(this, extensions.get(0));
     }
 
+    @Test
+    public void testUnfilteredExtensions() {
+        ApplicationContext appContext = createNiceMock(ApplicationContext.class);
+
+        NameExclusionFilter filter = new NameExclusionFilter();
+        filter.setBeanId("testId");
+        expect(appContext.getBeanNamesForType(ExtensionFilter.class))
+                .andReturn(new String[] {"filter"})
+                .anyTimes();
+        expect(appContext.getBean("filter")).andReturn(filter).anyTimes();
+        expect(appContext.getBeanNamesForType(GeoServerExtensionsTest.class))
+                .andReturn(new String[] {"testId"})
+                .anyTimes();
+        expect(appContext.getBean("testId")).andReturn(this).anyTimes();
+        replay(appContext);
+
+        GeoServerExtensions gse = new GeoServerExtensions();
+        gse.setApplicationContext(appContext);
+
+        // the filter is not applied, the bean name is returned so that callers can apply it
+        assertEquals(0, GeoServerExtensions.extensions(GeoServerExtensionsTest.class).size());
+        List<Map.Entry<String, GeoServerExtensionsTest>> extensions =
+                GeoServerExtensions.unfilteredExtensions(GeoServerExtensionsTest.class);
+        assertEquals(1, extensions.size());
+        assertEquals("testId", extensions.get(0).getKey());
+        assertSame(this, extensions.get(0).getValue());
+    }
+
     @Test
     public void testBeanString() {
         ApplicationContext appContext = createMock(ApplicationContext.class);
@@ -0,0 +1,119 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.platform.resource;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import org.geoserver.platform.resource.ResourceNotification.Event;
+import org.geoserver.platform.resource.ResourceNotification.Kind;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileSystemWatcherTest {
+
+    /** Generous, CI machines can be slow */
+    private static final int MAX_WAIT_SEC = 20;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    FileSystemWatcher watcher;
+
+    BlockingQueue<ResourceNotification> notifications = new LinkedBlockingQueue<>();
+
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty(FileSystemWatcher.NATIVE_WATCH_PROPERTY);
+        if (watcher != null) {
+            watcher.destroy();
+        }
+    }
+
+    private FileSystemWatcher nativeWatcher(File file) {
+        watcher = new FileSystemWatcher();
+        // polling would take way too long, the test must rely on native notifications
+        watcher.schedule(1, HOURS);
+        watcher.addListener(file.getPath(), notifications::add);
+        assumeTrue("Native file system notifications not available", watcher.isNativeWatch());
+        return watcher;
+    }
+
+    @Test
+    public void testNativeDirectoryEvents() throws Exception {
+        File dir = folder.newFolder("dir");
+        nativeWatcher(dir);
+
+        // files created in a burst are reported together
+        new File(dir, "a").createNewFile();
+        new File(dir, "b").createNewFile();
+        ResourceNotification n = notifications.poll(MAX_WAIT_SEC, SECONDS);
+        assertNotNull(n);
+        assertEquals(Kind.ENTRY_MODIFY, n.getKind());
+        Set<String> created = paths(n, Kind.ENTRY_CREATE);
+        if (created.size() < 2) {
+            // slow machine, the second event landed in a different poll
+            created.addAll(paths(notifications.poll(MAX_WAIT_SEC, SECONDS), Kind.ENTRY_CREATE));
+        }
+        assertTrue(created.contains("a"));
+        assertTrue(created.contains("b"));
+
+        new File(dir, "a").delete();
+        n = notifications.poll(MAX_WAIT_SEC, SECONDS);
+        assertNotNull(n);
+        assertTrue(paths(n, Kind.ENTRY_DELETE).contains("a"));
+    }
+
+    @Test
+    public void testNativeMissingDirectories() throws Exception {
+        File file = new File(folder.getRoot(), "sub/deep/file.txt");
+        nativeWatcher(file);
+
+        // the parent directories do not exist, the watch gets registered as they are created
+        assertTrue(file.getParentFile().mkdirs());
+        assertNull(notifications.poll(2 * FileSystemWatcher.COALESCE_DELAY_MS, MILLISECONDS));
+        assertTrue(file.createNewFile());
+        ResourceNotification n = notifications.poll(MAX_WAIT_SEC, SECONDS);
+        assertNotNull(n);
+        assertEquals(Kind.ENTRY_CREATE, n.getKind());
+        assertEquals(file.getPath(), n.getPath());
+    }
+
+    @Test
+    public void testPollingFallback() throws Exception {
+        System.setProperty(FileSystemWatcher.NATIVE_WATCH_PROPERTY, "false");
+        File dir = folder.newFolder("dir");
+        watcher = new FileSystemWatcher();
+        watcher.schedule(50, MILLISECONDS);
+        watcher.addListener(dir.getPath(), notifications::add);
+        assertFalse(watcher.isNativeWatch());
+
+        new File(dir, "a").createNewFile();
+        ResourceNotification n = notifications.poll(MAX_WAIT_SEC, SECONDS);
+        assertNotNull(n);
+        assertTrue(paths(n, Kind.ENTRY_CREATE).contains("a"));
+    }
+
+    private Set<String> paths(ResourceNotification n, Kind kind) {
+        assertNotNull(n);
+        return n.events().stream()
+                .filter(e -> e.getKind() == kind)
+                .map(Event::getPath)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,85 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.platform.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.geoserver.platform.resource.MemoryLockProvider.ContentionStatistics;
+import org.junit.Test;
+
+public class MemoryLockProviderTest {
+
+    @Test
+    public void testReentrant() {
+        MemoryLockProvider provider = new MemoryLockProvider(1);
+        // both keys map to the same stripe, the same thread can still acquire them
+        Resource.Lock l1 = provider.acquire("a");
+        Resource.Lock l2 = provider.acquire("b");
+        l2.release();
+        l1.release();
+        assertFalse(provider.locks[0].isLocked());
+        assertTrue(provider.getContentionStatistics().isEmpty());
+    }
+
+    @Test
+    public void testFair() {
+        MemoryLockProvider provider = new MemoryLockProvider(16, true);
+        assertEquals(16, provider.locks.length);
+        assertTrue(provider.locks[0].isFair());
+        provider.acquire("a").release();
+    }
+
+    @Test
+    public void testDistribution() {
+        MemoryLockProvider provider = new MemoryLockProvider(64);
+        int[] counts = new int[64];
+        for (int i = 0; i < 6400; i++) {
+            counts[provider.getIndex("workspaces/ws" + i + "/workspace.xml")]++;
+        }
+        // similar keys are spread over all the stripes
+        assertTrue(Arrays.stream(counts).allMatch(c -> c > 50 && c < 150));
+    }
+
+    @Test
+    public void testContentionStatistics() throws Exception {
+        MemoryLockProvider provider = new MemoryLockProvider();
+        Resource.Lock lock = provider.acquire("styles/point.sld");
+        CountDownLatch started = new CountDownLatch(1);
+        Thread waiter =
+                new Thread(
+                        () -> {
+                            started.countDown();
+                            provider.acquire("styles/point.sld").release();
+                        });
+        waiter.start();
+        started.await();
+        // give the other thread time to block on the lock
+        while (!provider.locks[provider.getIndex("styles/point.sld")].hasQueuedThreads()) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);
+        lock.release();
+        waiter.join();
+
+        Map<String, ContentionStatistics> statistics = provider.getContentionStatistics();
+        assertEquals(1, statistics.size());
+        ContentionStatistics cs = statistics.get("styles/point.sld");
+        assertNotNull(cs);
+        assertEquals(1, cs.getCount());
+        assertTrue(cs.getMaxWait() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(1, Arrays.stream(cs.getHistogram()).sum());
+        assertEquals(0, cs.getHistogram()[0]);
+
+        provider.resetContentionStatistics();
+        assertTrue(provider.getContentionStatistics().isEmpty());
+    }
+}
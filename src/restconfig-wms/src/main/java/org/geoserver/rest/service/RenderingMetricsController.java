@@ -0,0 +1,71 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.rest.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.geoserver.rest.RestBaseController;
+import org.geoserver.wms.map.RenderingMetrics;
+import org.geoserver.wms.map.RenderingMetrics.LayerMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Reports the per layer rendering metrics collected by {@link RenderingMetrics} */
+@RestController
+@RequestMapping(
+        path = RestBaseController.ROOT_PATH + "/services/wms/metrics",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+public class RenderingMetricsController extends RestBaseController {
+
+    private final RenderingMetrics metrics;
+
+    @Autowired
+    public RenderingMetricsController(RenderingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @GetMapping
+    public Map<String, Object> metricsGet() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", metrics.isEnabled());
+        result.put("histogramBounds", metrics.getHistogramBounds());
+        List<Map<String, Object>> layers = new ArrayList<>();
+        for (LayerMetrics lm : metrics.getLayers()) {
+            layers.add(toMap(lm));
+        }
+        result.put("layers", layers);
+        result.put("labelling", toMap(metrics.getLabelling()));
+        return result;
+    }
+
+    /** Clears the collected metrics */
+    @DeleteMapping
+    public void metricsDelete() {
+        metrics.reset();
+    }
+
+    private Map<String, Object> toMap(LayerMetrics lm) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("layer", lm.getLayer());
+        if (lm.getStyle() != null) {
+            map.put("style", lm.getStyle());
+        }
+        map.put("count", lm.getCount());
+        map.put("renderingTime", lm.getRenderingTime());
+        map.put("meanRenderingTime", lm.getMeanRenderingTime());
+        map.put("maxRenderingTime", lm.getMaxRenderingTime());
+        map.put("queryTime", lm.getQueryTime());
+        map.put("paintTime", lm.getPaintTime());
+        map.put("features", lm.getFeatures());
+        map.put("histogram", lm.getHistogram());
+        return map;
+    }
+}
@@ -0,0 +1,59 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.rest.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.geoserver.data.test.MockData;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.rest.RestBaseController;
+import org.geoserver.rest.catalog.CatalogRESTTestSupport;
+import org.geoserver.wms.map.RenderingMetrics;
+import org.junit.After;
+import org.junit.Test;
+
+public class RenderingMetricsControllerTest extends CatalogRESTTestSupport {
+
+    @After
+    public void disableMetrics() {
+        RenderingMetrics metrics = GeoServerExtensions.bean(RenderingMetrics.class);
+        metrics.setEnabled(false);
+        metrics.reset();
+    }
+
+    @Test
+    public void testGetAsJSON() throws Exception {
+        GeoServerExtensions.bean(RenderingMetrics.class).setEnabled(true);
+        String layer = getLayerId(MockData.BASIC_POLYGONS);
+        getAsServletResponse(
+                "wms?service=WMS&version=1.1.1&request=GetMap&layers="
+                        + layer
+                        + "&styles=&bbox=-2,-1,2,6&srs=EPSG:4326&width=200&height=200"
+                        + "&format=image/png");
+
+        JSONObject json =
+                (JSONObject)
+                        getAsJSON(RestBaseController.ROOT_PATH + "/services/wms/metrics.json");
+        assertTrue(json.getBoolean("enabled"));
+        JSONArray layers = json.getJSONArray("layers");
+        assertEquals(1, layers.size());
+        JSONObject metrics = layers.getJSONObject(0);
+        assertEquals(layer, metrics.getString("layer"));
+        assertEquals(1, metrics.getInt("count"));
+        assertTrue(metrics.getInt("features") > 0);
+
+        assertEquals(
+                200,
+                deleteAsServletResponse(RestBaseController.ROOT_PATH + "/services/wms/metrics")
+                        .getStatus());
+        json =
+                (JSONObject)
+                        getAsJSON(RestBaseController.ROOT_PATH + "/services/wms/metrics.json");
+        assertTrue(json.getJSONArray("layers").isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.geoserver.catalog.ResourcePool.CacheStatistics;
+import org.geoserver.config.GeoServer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Reports the statistics of the resource pool caches */
+@RestController
+@RequestMapping(
+        path = RestBaseController.ROOT_PATH + "/resourcepool",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+public class ResourcePoolController extends AbstractGeoServerController {
+
+    @Autowired
+    public ResourcePoolController(@Qualifier("geoServer") GeoServer geoServer) {
+        super(geoServer);
+    }
+
+    @GetMapping
+    public Map<String, Map<String, Object>> resourcePoolGet() {
+        Map<String, CacheStatistics> statistics =
+                geoServer.getCatalog().getResourcePool().getCacheStatistics();
+
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (Map.Entry<String, CacheStatistics> entry : statistics.entrySet()) {
+            CacheStatistics cs = entry.getValue();
+            Map<String, Object> cache = new LinkedHashMap<>();
+            cache.put("size", cs.getSize());
+            cache.put("hits", cs.getHits());
+            cache.put("misses", cs.getMisses());
+            cache.put("evictions", cs.getEvictions());
+            cache.put("loadTime", cs.getLoadTime());
+            caches.put(entry.getKey(), cache);
+        }
+
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        result.put("caches", caches);
+        return result;
+    }
+}
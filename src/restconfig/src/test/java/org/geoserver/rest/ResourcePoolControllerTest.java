@@ -0,0 +1,30 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.rest;
+
+import static org.junit.Assert.assertTrue;
+
+import net.sf.json.JSON;
+import net.sf.json.JSONObject;
+import org.geoserver.data.test.MockData;
+import org.geoserver.test.GeoServerSystemTestSupport;
+import org.junit.Test;
+
+public class ResourcePoolControllerTest extends GeoServerSystemTestSupport {
+
+    @Test
+    public void testGetAsJSON() throws Exception {
+        // load a feature type, to get something in the cache
+        getCatalog().getFeatureTypeByName(getLayerId(MockData.BUILDINGS)).getFeatureType();
+
+        JSON json = getAsJSON(RestBaseController.ROOT_PATH + "/resourcepool.json");
+        assertTrue(json instanceof JSONObject);
+        JSONObject caches = ((JSONObject) json).getJSONObject("caches");
+        JSONObject featureTypes = caches.getJSONObject("featureTypes");
+        assertTrue(featureTypes.getInt("misses") > 0);
+        assertTrue(featureTypes.getInt("size") > 0);
+        assertTrue(caches.has("dataStores"));
+    }
+}
@@ -322,7 +322,9 @@ protected void handleAcceptLanguagesParameter(
     }
 
     protected List<FeatureTypeInfo> getFeatureTypeInfoList(String namespace) {
-        List<FeatureTypeInfo> featureTypes = new ArrayList<>(catalog.getFeatureTypes());
+        // read only access, use a snapshot to avoid wrapping each feature type in a proxy
+        List<FeatureTypeInfo> featureTypes =
+                new ArrayList<>(catalog.snapshot().list(FeatureTypeInfo.class));
 
         // filter out disabled feature types
         for (Iterator<FeatureTypeInfo> it = featureTypes.iterator(); it.hasNext(); ) {
@@ -788,7 +790,8 @@ protected void handleFeatureTypes() {
 
                 end("Operations");
 
-                List<FeatureTypeInfo> featureTypes = new ArrayList<>(catalog.getFeatureTypes());
+                List<FeatureTypeInfo> featureTypes =
+                        new ArrayList<>(catalog.snapshot().list(FeatureTypeInfo.class));
 
                 // filter out disabled feature types
                 for (Iterator it = featureTypes.iterator(); it.hasNext(); ) {
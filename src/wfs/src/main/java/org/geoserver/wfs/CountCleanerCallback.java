@@ -0,0 +1,20 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wfs;
+
+import org.geoserver.ows.AbstractDispatcherCallback;
+import org.geoserver.ows.Request;
+
+/**
+ * Cancels the feature counts started in background by the request and still running when it ends,
+ * e.g., because the output format did not need them or the response failed
+ */
+public class CountCleanerCallback extends AbstractDispatcherCallback {
+
+    @Override
+    public void finished(Request request) {
+        CountExecutor.cancelStarted();
+    }
+}
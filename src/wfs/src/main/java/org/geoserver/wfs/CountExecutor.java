@@ -6,26 +6,75 @@
 package org.geoserver.wfs;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.threadlocals.ThreadLocalsTransfer;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.Query;
+import org.geotools.util.logging.Logging;
 
 /**
  * A class executing a feature count, but also able to return a pre-computed one. Used as an
  * accessory to compute the numberMatched attribute for WFS 2.0, and running the actual counts only
  * when strictly necessary
  *
+ * <p>The counts can optionally be run in background, concurrently with each other and with the
+ * rest of the request, by setting the WFS_PARALLEL_COUNT_THREADS variable to the max number of
+ * counting threads. In this case WFS_COUNT_TIMEOUT can be used to set a time limit, in
+ * milliseconds, after which the count is abandoned and reported as unknown. Setting
+ * WFS_COUNT_ESTIMATE to true makes the counts use only the store own counting, which can be
+ * based on statistics, reporting the count as unknown when the store cannot count the features
+ * without reading them. Counts still running when the request ends are cancelled by {@link
+ * CountCleanerCallback}.
+ *
  * @author Andrea Aime - GeoSolutions
  */
 class CountExecutor {
 
+    static final Logger LOGGER = Logging.getLogger(CountExecutor.class);
+
     private static final int COUNT_UNSET = -1;
 
+    static final String PARALLEL_COUNT_THREADS = "WFS_PARALLEL_COUNT_THREADS";
+
+    static final String COUNT_TIMEOUT = "WFS_COUNT_TIMEOUT";
+
+    static final String COUNT_ESTIMATE = "WFS_COUNT_ESTIMATE";
+
+    /** Number of threads running the counts in background, 0 if disabled */
+    private static Integer PARALLEL_THREADS = null;
+
+    /** Max time to wait for a count run in background, in milliseconds, 0 if unlimited */
+    private static Long TIMEOUT = null;
+
+    /** Whether to use only the store native counting */
+    private static Boolean ESTIMATE = null;
+
+    private static volatile ExecutorService POOL;
+
+    /** The counts started in background by the current request */
+    private static final ThreadLocal<List<CountExecutor>> STARTED = new ThreadLocal<>();
+
     FeatureSource source;
 
     Query query;
 
     int providedCount = COUNT_UNSET;
 
+    private Future<Integer> future;
+
+    private long submitTime;
+
     public CountExecutor(FeatureSource source, Query query) {
         this.source = source;
         this.query = query;
@@ -38,14 +87,178 @@ public CountExecutor(int providedCount) {
     public int getCount() throws IOException {
         if (isCountSet()) {
             return providedCount;
+        } else if (future != null) {
+            return getBackgroundCount();
         } else {
-            // make sure we get a count by getting a feature colleciton
-            // FeatureSource.getCount(...) can return -1
-            return source.getFeatures(query).size();
+            return count();
         }
     }
 
+    private int count() throws IOException {
+        if (isEstimate()) {
+            // -1 if the store cannot count without reading the features
+            return source.getCount(query);
+        }
+        // make sure we get a count by getting a feature colleciton
+        // FeatureSource.getCount(...) can return -1
+        return source.getFeatures(query).size();
+    }
+
     public boolean isCountSet() {
         return providedCount != COUNT_UNSET;
     }
+
+    /**
+     * Starts the count in background, if the parallel counts are enabled, so that it's already
+     * running, or done, once {@link #getCount()} is called
+     */
+    public void start() {
+        ExecutorService pool = getPool();
+        if (pool == null || isCountSet() || future != null) {
+            return;
+        }
+        ThreadLocalsTransfer threadLocalTransfer = new ThreadLocalsTransfer();
+        submitTime = System.nanoTime();
+        future =
+                pool.submit(
+                        () -> {
+                            threadLocalTransfer.apply();
+                            try {
+                                return count();
+                            } finally {
+                                threadLocalTransfer.cleanup();
+                            }
+                        });
+        List<CountExecutor> started = STARTED.get();
+        if (started == null) {
+            started = new ArrayList<>();
+            STARTED.set(started);
+        }
+        started.add(this);
+    }
+
+    /** Stops the background count, if still running, as its result is no longer needed */
+    public void cancel() {
+        if (future != null && !future.isDone()) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Stops the counts started in background by the current request that are still running, called
+     * at the end of the request
+     */
+    static void cancelStarted() {
+        List<CountExecutor> started = STARTED.get();
+        if (started != null) {
+            STARTED.remove();
+            for (CountExecutor executor : started) {
+                executor.cancel();
+            }
+        }
+    }
+
+    private int getBackgroundCount() throws IOException {
+        try {
+            long timeout = getTimeout();
+            if (timeout <= 0) {
+                return future.get();
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitTime);
+            return future.get(Math.max(0, timeout - elapsed), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Count timed out, reporting it as unknown: " + query);
+            }
+            future.cancel(true);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IOException("Interrupted while waiting for the count", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to count features", cause);
+        }
+    }
+
+    /**
+     * Returns the pool running the counts in background, or null if the parallel counts are
+     * disabled (the default)
+     */
+    static ExecutorService getPool() {
+        if (PARALLEL_THREADS == null) {
+            PARALLEL_THREADS = getIntProperty(PARALLEL_COUNT_THREADS);
+        }
+        int threads = PARALLEL_THREADS;
+        if (threads <= 0) {
+            return null;
+        }
+        if (POOL == null) {
+            synchronized (CountExecutor.class) {
+                if (POOL == null) {
+                    ThreadPoolExecutor pool =
+                            new ThreadPoolExecutor(
+                                    threads,
+                                    threads,
+                                    60L,
+                                    TimeUnit.SECONDS,
+                                    new LinkedBlockingQueue<>());
+                    pool.allowCoreThreadTimeOut(true);
+                    POOL = pool;
+                }
+            }
+        }
+        return POOL;
+    }
+
+    /** Sets the number of threads running the counts in background, 0 to disable */
+    static synchronized void setParallelThreads(int threads) {
+        PARALLEL_THREADS = threads;
+        if (POOL != null) {
+            POOL.shutdown();
+            POOL = null;
+        }
+    }
+
+    static long getTimeout() {
+        if (TIMEOUT == null) {
+            TIMEOUT = (long) getIntProperty(COUNT_TIMEOUT);
+        }
+        return TIMEOUT;
+    }
+
+    /** Sets the max time to wait for a background count, in milliseconds, 0 to wait forever */
+    static void setTimeout(long timeout) {
+        TIMEOUT = timeout;
+    }
+
+    static boolean isEstimate() {
+        if (ESTIMATE == null) {
+            ESTIMATE = Boolean.valueOf(GeoServerExtensions.getProperty(COUNT_ESTIMATE));
+        }
+        return ESTIMATE;
+    }
+
+    /** Enables or disables the usage of the store native counting only */
+    static void setEstimate(boolean estimate) {
+        ESTIMATE = estimate;
+    }
+
+    private static int getIntProperty(String name) {
+        String value = GeoServerExtensions.getProperty(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + name + ": " + value);
+            }
+        }
+        return 0;
+    }
 }
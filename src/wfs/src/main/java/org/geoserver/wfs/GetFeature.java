@@ -569,7 +569,14 @@ public FeatureCollectionResponse run(GetFeatureRequest request) throws WFSExcept
                                             joins,
                                             primaryTypeName,
                                             primaryAlias);
-                            totalCountExecutors.add(new CountExecutor(source, qTotal));
+                            CountExecutor countExecutor = new CountExecutor(source, qTotal);
+                            if (request.getVersion().startsWith("2")
+                                    && !meta.getSkipNumberMatched()) {
+                                // numberMatched is part of the response, get the count going
+                                // while the other queries are prepared and the features read
+                                countExecutor.start();
+                            }
+                            totalCountExecutors.add(countExecutor);
                         }
                     }
 
@@ -695,6 +702,8 @@ private BigInteger updateTotalCount(
         // cases/ where the client has limited the result set size, so we compute it lazily
         if (isNumberMatchedSkipped) {
             totalCount = BigInteger.valueOf(-1);
+            // counts started for the previous queries are not going to be used
+            totalCountExecutors.forEach(CountExecutor::cancel);
         } else if (count < maxFeatures && calculateSize && totalOffset == 0) {
             // optimization: if count < max features then total count == count
             // can't use this optimization for v2
@@ -914,6 +923,8 @@ private long getTotalCount(List<CountExecutor> totalCountExecutors) throws IOExc
             // period
             if (result == -1) {
                 totalCount = -1;
+                // the other counts running in background are no longer needed
+                totalCountExecutors.forEach(CountExecutor::cancel);
                 break;
             } else {
                 totalCount += result;
@@ -11,9 +11,11 @@
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -26,16 +28,24 @@
 import org.geoserver.platform.ServiceException;
 import org.geoserver.wfs.request.Delete;
 import org.geoserver.wfs.request.Insert;
+import org.geoserver.wfs.request.Property;
 import org.geoserver.wfs.request.TransactionElement;
 import org.geoserver.wfs.request.TransactionRequest;
 import org.geoserver.wfs.request.TransactionResponse;
+import org.geoserver.wfs.request.Update;
 import org.geotools.data.DefaultTransaction;
 import org.geotools.data.FeatureLockException;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.FeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.Feature;
 import org.opengis.feature.type.FeatureType;
+import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
+import org.opengis.filter.Id;
+import org.opengis.filter.Or;
+import org.opengis.filter.identity.Identifier;
 import org.springframework.context.ApplicationContext;
 
 /**
@@ -50,6 +60,9 @@ public class Transaction {
     private static final int DELETE_BATCH_SIZE =
             Integer.getInteger("org.geoserver.wfs.deleteBatchSize", 100);
 
+    private static final int UPDATE_BATCH_SIZE =
+            Integer.getInteger("org.geoserver.wfs.updateBatchSize", 100);
+
     /** WFS configuration */
     protected WFSInfo wfs;
 
@@ -425,7 +438,8 @@ protected TransactionResponse execute(TransactionRequest request) throws Excepti
      * @param stores
      * @param elementHandlers
      * @param result
-     * @return a new {@link BatchManager} batching INSERT and DELETE operations where possible.
+     * @return a new {@link BatchManager} batching INSERT, UPDATE and DELETE operations where
+     *     possible.
      */
     protected BatchManager createBatchManager(
             TransactionRequest request,
@@ -434,7 +448,13 @@ protected BatchManager createBatchManager(
             Map<TransactionElement, TransactionElementHandler> elementHandlers,
             TransactionResponse result) {
         return new BatchManager(
-                request, multiplexer, stores, result, elementHandlers, DELETE_BATCH_SIZE);
+                request,
+                multiplexer,
+                stores,
+                result,
+                elementHandlers,
+                DELETE_BATCH_SIZE,
+                UPDATE_BATCH_SIZE);
     }
 
     private TransactionRequest fireBeforeTransaction(TransactionRequest request) {
@@ -633,7 +653,8 @@ public void dataStoreChange(TransactionEvent event) throws WFSException {
      * {@link BatchManager} restructures the contents of the transaction in order to enable batched
      * execution in the data stores. When processing the {@link TransactionElement}s it aggregates
      * INSERT and DELETE operations where possible before calling the corresponding {@link
-     * TransactionElementHandler}s.
+     * TransactionElementHandler}s. UPDATE operations setting the same values on the same type are
+     * aggregated as well, turning a run of per feature updates into a single one.
      */
     protected static class BatchManager {
         private TransactionRequest request;
@@ -642,6 +663,7 @@ protected static class BatchManager {
         private TransactionResponse result;
         private Map<TransactionElement, TransactionElementHandler> elementHandlers;
         private int maxDeleteCount;
+        private int maxUpdateCount;
 
         /**
          * Creates a new {@link BatchManager}, ready to {@link #run()} and process the transactions
@@ -662,17 +684,42 @@ public BatchManager(
                 TransactionResponse result,
                 Map<TransactionElement, TransactionElementHandler> elementHandlers,
                 int maxDeleteCount) {
+            this(request, multiplexer, stores, result, elementHandlers, maxDeleteCount, 0);
+        }
+
+        /**
+         * Creates a new {@link BatchManager}, ready to {@link #run()} and process the transactions
+         * content.
+         *
+         * @param request The current request
+         * @param multiplexer the current transaction listener
+         * @param stores The map of stores
+         * @param result The result
+         * @param elementHandlers Mapping of {@link TransactionElement} to its corresponding {@link
+         *     TransactionElementHandler}
+         * @param maxDeleteCount Maximum number of deletes to be aggregated into and existing delete
+         * @param maxUpdateCount Maximum number of updates to be aggregated into and existing update
+         */
+        public BatchManager(
+                TransactionRequest request,
+                TransactionListener multiplexer,
+                Map<QName, FeatureStore> stores,
+                TransactionResponse result,
+                Map<TransactionElement, TransactionElementHandler> elementHandlers,
+                int maxDeleteCount,
+                int maxUpdateCount) {
             this.request = request;
             this.multiplexer = multiplexer;
             this.stores = stores;
             this.result = result;
             this.elementHandlers = elementHandlers;
             this.maxDeleteCount = maxDeleteCount;
+            this.maxUpdateCount = maxUpdateCount;
         }
 
         private TransactionElement aggrTargetElement;
         private TransactionElementHandler aggrTargetHandler;
-        private int aggrDeleteCount = 0;
+        private int aggrCount = 0;
 
         /**
          * Runs the aggregation of the {@link TransactionElement}s and invokes the required {@link
@@ -712,7 +759,7 @@ private boolean canAggregate(TransactionElement pElem) {
                 return true;
             }
             if (aggrTargetElement instanceof Delete && pElem instanceof Delete) {
-                if (aggrDeleteCount >= maxDeleteCount - 1) {
+                if (aggrCount >= maxDeleteCount - 1) {
                     return false;
                 }
                 Delete lTarget = (Delete) aggrTargetElement;
@@ -723,9 +770,52 @@ private boolean canAggregate(TransactionElement pElem) {
                     return true;
                 }
             }
+            if (aggrTargetElement instanceof Update && pElem instanceof Update) {
+                if (aggrCount >= maxUpdateCount - 1) {
+                    return false;
+                }
+                Update lTarget = (Update) aggrTargetElement;
+                Update lElem = (Update) pElem;
+                // the updated features are reported by handle, and a missing filter updates
+                // all features, no point merging it
+                QName lTargetType = lTarget.getTypeName();
+                return lTargetType != null
+                        && lTargetType.equals(lElem.getTypeName())
+                        && Objects.equals(lTarget.getHandle(), lElem.getHandle())
+                        && lTarget.getFilter() != null
+                        && lElem.getFilter() != null
+                        && isSameUpdate(lTarget.getUpdateProperties(), lElem.getUpdateProperties());
+            }
             return false;
         }
 
+        /** Returns true if the two lists update the same properties with the same values */
+        private boolean isSameUpdate(List<Property> pTarget, List<Property> pElem) {
+            if (pTarget.isEmpty() || pTarget.size() != pElem.size()) {
+                return false;
+            }
+            for (int i = 0; i < pTarget.size(); i++) {
+                Property lTarget = pTarget.get(i);
+                Property lElem = pElem.get(i);
+                if (!Objects.equals(lTarget.getName(), lElem.getName())) {
+                    return false;
+                }
+                Object lTargetValue = lTarget.getValue();
+                Object lElemValue = lElem.getValue();
+                if (!Objects.equals(lTargetValue, lElemValue)) {
+                    return false;
+                }
+                // geometries carry their CRS in the user data
+                if (lTargetValue instanceof Geometry
+                        && !Objects.equals(
+                                ((Geometry) lTargetValue).getUserData(),
+                                ((Geometry) lElemValue).getUserData())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         /**
          * Aggregates the given element into the current aggregation target.
          *
@@ -742,7 +832,13 @@ private void aggregate(TransactionElement pElem) {
                 Delete lTarget = (Delete) aggrTargetElement;
                 Delete lElem = (Delete) pElem;
                 lTarget.addFilter(lElem.getFilter());
-                aggrDeleteCount++;
+                aggrCount++;
+                lRemoveFromRequest = true;
+            } else if (aggrTargetElement instanceof Update) {
+                Update lTarget = (Update) aggrTargetElement;
+                Update lElem = (Update) pElem;
+                lTarget.setFilter(or(lTarget.getFilter(), lElem.getFilter()));
+                aggrCount++;
                 lRemoveFromRequest = true;
             }
             if (lRemoveFromRequest) {
@@ -753,10 +849,31 @@ private void aggregate(TransactionElement pElem) {
             }
         }
 
-        /** Calls the current handler with the current element, resetting the delete counter. */
+        /**
+         * Combines the filters in a single one, keeping it flat. Feature id filters are merged into
+         * a single one, that data stores can run as a single lookup.
+         */
+        private Filter or(Filter pTarget, Filter pElem) {
+            FilterFactory ff = CommonFactoryFinder.getFilterFactory2();
+            if (pTarget instanceof Id && pElem instanceof Id) {
+                Set<Identifier> lIds = new LinkedHashSet<>(((Id) pTarget).getIdentifiers());
+                lIds.addAll(((Id) pElem).getIdentifiers());
+                return ff.id(lIds);
+            }
+            List<Filter> lFilters = new ArrayList<>();
+            if (pTarget instanceof Or) {
+                lFilters.addAll(((Or) pTarget).getChildren());
+            } else {
+                lFilters.add(pTarget);
+            }
+            lFilters.add(pElem);
+            return ff.or(lFilters);
+        }
+
+        /** Calls the current handler with the current element, resetting the batch counter. */
         private void runAggregated() {
             aggrTargetHandler.execute(aggrTargetElement, request, stores, result, multiplexer);
-            aggrDeleteCount = 0;
+            aggrCount = 0;
         }
     }
 }
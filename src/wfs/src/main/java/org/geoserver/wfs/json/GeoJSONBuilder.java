@@ -10,6 +10,7 @@
 import java.util.List;
 import java.util.Map;
 import net.sf.json.JSONException;
+import net.sf.json.JSONString;
 import net.sf.json.util.JSONBuilder;
 import org.geotools.referencing.CRS;
 import org.geotools.util.Converters;
@@ -39,6 +40,11 @@ public class GeoJSONBuilder extends JSONBuilder {
 
     private boolean encodeMeasures = false;
 
+    /** Reusable buffer for the encoding of coordinates */
+    private final StringBuilder buffer = new StringBuilder();
+
+    private final JSONString rawBuffer = buffer::toString;
+
     public GeoJSONBuilder(Writer w) {
         super(w);
     }
@@ -47,6 +53,10 @@ public GeoJSONBuilder(Writer w) {
      * Writes any geometry object. This class figures out which geometry representation to write and
      * calls subclasses to actually write the object.
      *
+     * <p>The coordinates are encoded straight from the {@link CoordinateSequence} into a reusable
+     * buffer, and written out as a single raw JSON value, avoiding the boxing and generic number
+     * formatting that going through {@link #value(Object)} for each ordinate would incur.
+     *
      * @param geometry The geometry to be encoded
      * @return The JSONBuilder with the new geometry
      * @throws JSONException If anything goes wrong
@@ -60,50 +70,55 @@ public JSONBuilder writeGeom(Geometry geometry) throws JSONException {
 
         if (geometryType != MULTIGEOMETRY) {
             this.key("coordinates");
+            buffer.setLength(0);
 
             switch (geometryType) {
                 case POINT:
                     Point point = (Point) geometry;
-                    writeCoordinate(point);
+                    appendCoordinate(point);
                     break;
                 case LINESTRING:
-                    writeCoordinates(((LineString) geometry).getCoordinateSequence());
+                    appendCoordinates(((LineString) geometry).getCoordinateSequence());
                     break;
                 case MULTIPOINT:
-                    this.array();
+                    buffer.append('[');
                     for (int i = 0, n = geometry.getNumGeometries(); i < n; i++) {
-                        writeCoordinate((Point) geometry.getGeometryN(i));
+                        if (i > 0) buffer.append(',');
+                        appendCoordinate((Point) geometry.getGeometryN(i));
                     }
-                    this.endArray();
+                    buffer.append(']');
                     break;
                 case POLYGON:
-                    writePolygon((Polygon) geometry);
+                    appendPolygon((Polygon) geometry);
 
                     break;
 
                 case MULTILINESTRING:
-                    this.array();
+                    buffer.append('[');
 
                     for (int i = 0, n = geometry.getNumGeometries(); i < n; i++) {
-                        writeCoordinates(
+                        if (i > 0) buffer.append(',');
+                        appendCoordinates(
                                 ((LineString) geometry.getGeometryN(i)).getCoordinateSequence());
                     }
 
-                    this.endArray();
+                    buffer.append(']');
 
                     break;
 
                 case MULTIPOLYGON:
-                    this.array();
+                    buffer.append('[');
 
                     for (int i = 0, n = geometry.getNumGeometries(); i < n; i++) {
-                        writePolygon((Polygon) geometry.getGeometryN(i));
+                        if (i > 0) buffer.append(',');
+                        appendPolygon((Polygon) geometry.getGeometryN(i));
                     }
 
-                    this.endArray();
+                    buffer.append(']');
 
                     break;
             }
+            writeBuffer();
         } else {
             writeGeomCollection((GeometryCollection) geometry);
         }
@@ -122,41 +137,45 @@ private JSONBuilder writeGeomCollection(GeometryCollection collection) {
         return this.endArray();
     }
 
+    /** Writes the contents of the buffer as a raw JSON value */
+    private void writeBuffer() {
+        super.value(rawBuffer);
+    }
+
     /**
-     * Helper method that encodes a {@see Point} coordinate to the JSON output. This method will
-     * respect the configured axis order. If activated, coordinates measures (M) will be encoded,
-     * otherwise measures will be ignored.
+     * Helper method that encodes a {@see Point} coordinate to the buffer. This method will respect
+     * the configured axis order. If activated, coordinates measures (M) will be encoded, otherwise
+     * measures will be ignored.
      *
      * @param point the point whose coordinate will be encoded
-     * @return the JSON builder instance, this allow chained calls
      */
-    private JSONBuilder writeCoordinate(Point point) throws JSONException {
+    private void appendCoordinate(Point point) throws JSONException {
         CoordinateSequence coordinates = point.getCoordinateSequence();
         // let's see if we need to encode measures, NaN values will not be encoded
         double m = encodeMeasures ? coordinates.getM(0) : Double.NaN;
-        return writeCoordinate(coordinates.getX(0), coordinates.getY(0), coordinates.getZ(0), m);
+        appendCoordinate(coordinates.getX(0), coordinates.getY(0), coordinates.getZ(0), m);
     }
 
     /**
-     * Helper method that encodes a sequence of coordinates to the JSON output as an array. This
-     * method will respect the configured axis order. If activated, coordinates measures (M) will be
+     * Helper method that encodes a sequence of coordinates to the buffer as an array. This method
+     * will respect the configured axis order. If activated, coordinates measures (M) will be
      * encoded, otherwise measures will be ignored.
      *
      * @param coordinates the coordinates sequence that will be encoded
-     * @return the JSON builder instance, this allow chained calls
      */
-    private JSONBuilder writeCoordinates(CoordinateSequence coordinates) throws JSONException {
+    private void appendCoordinates(CoordinateSequence coordinates) throws JSONException {
         // start encoding the JSON array of coordinates
-        this.array();
+        buffer.append('[');
         // each coordinate will be encoded has an array of ordinates
-        for (int i = 0; i < coordinates.size(); i++) {
+        for (int i = 0, n = coordinates.size(); i < n; i++) {
+            if (i > 0) buffer.append(',');
             // let's see if we need to encode measures, NaN values will not be encoded
             double m = encodeMeasures ? coordinates.getM(i) : Double.NaN;
             // encode the coordinate ordinates to the JSON output
-            writeCoordinate(coordinates.getX(i), coordinates.getY(i), coordinates.getZ(i), m);
+            appendCoordinate(coordinates.getX(i), coordinates.getY(i), coordinates.getZ(i), m);
         }
         // we are done with the array
-        return this.endArray();
+        buffer.append(']');
     }
 
     /**
@@ -171,41 +190,47 @@ private JSONBuilder writeCoordinates(CoordinateSequence coordinates) throws JSON
      * @param y X ordinate
      * @param z Z ordinate, can be {@code NaN}
      * @param m M ordinate, can be {@code NaN}
-     * @return the JSON builder instance, this allow chained calls
      */
-    private JSONBuilder writeCoordinate(double x, double y, double z, double m) {
+    private void appendCoordinate(double x, double y, double z, double m) {
         // start encoding JSON array
-        this.array();
+        buffer.append('[');
         // adjust the order of X and Y ordinates if needed
         if (axisOrder == CRS.AxisOrder.NORTH_EAST) {
             // encode latitude first and then longitude
             if (!Double.isNaN(y)) { // for 1d linear referencing cases
-                roundedValue(y);
+                appendRounded(y);
+                buffer.append(',');
             }
-            roundedValue(x);
+            appendRounded(x);
         } else {
             // encode longitude first and then latitude
-            roundedValue(x);
+            appendRounded(x);
             if (!Double.isNaN(y)) { // for 1d linear referencing cases
-                roundedValue(y);
+                buffer.append(',');
+                appendRounded(y);
             }
         }
         // if Z value is not available but we have a measure, we set Z value to zero
         z = Double.isNaN(z) && !Double.isNaN(m) ? 0 : z;
         // encode Z value if available
         if (!Double.isNaN(z)) {
-            roundedValue(z);
+            buffer.append(',');
+            appendRounded(z);
         }
         // encode M value if available
         if (!Double.isNaN(m)) {
-            roundedValue(m);
+            buffer.append(',');
+            appendRounded(m);
         }
         // we are done with the array
-        return this.endArray();
+        buffer.append(']');
     }
 
-    private void roundedValue(double value) {
-        super.value(RoundingUtil.round(value, numDecimals));
+    private void appendRounded(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new JSONException("JSON does not allow non-finite numbers.");
+        }
+        RoundingUtil.appendRounded(buffer, value, numDecimals);
     }
 
     /**
@@ -216,19 +241,28 @@ private void roundedValue(double value) {
      */
     protected JSONBuilder writeBoundingBox(Envelope env) {
         this.key("bbox");
-        this.array();
+        buffer.setLength(0);
+        buffer.append('[');
         if (axisOrder == CRS.AxisOrder.NORTH_EAST) {
-            roundedValue(env.getMinY());
-            roundedValue(env.getMinX());
-            roundedValue(env.getMaxY());
-            roundedValue(env.getMaxX());
+            appendRounded(env.getMinY());
+            buffer.append(',');
+            appendRounded(env.getMinX());
+            buffer.append(',');
+            appendRounded(env.getMaxY());
+            buffer.append(',');
+            appendRounded(env.getMaxX());
         } else {
-            roundedValue(env.getMinX());
-            roundedValue(env.getMinY());
-            roundedValue(env.getMaxX());
-            roundedValue(env.getMaxY());
+            appendRounded(env.getMinX());
+            buffer.append(',');
+            appendRounded(env.getMinY());
+            buffer.append(',');
+            appendRounded(env.getMaxX());
+            buffer.append(',');
+            appendRounded(env.getMaxY());
         }
-        return this.endArray();
+        buffer.append(']');
+        writeBuffer();
+        return this;
     }
 
     /**
@@ -236,16 +270,16 @@ protected JSONBuilder writeBoundingBox(Envelope env) {
      *
      * @param geometry The polygon to write
      */
-    private void writePolygon(Polygon geometry) throws JSONException {
-        this.array();
-        writeCoordinates(geometry.getExteriorRing().getCoordinateSequence());
+    private void appendPolygon(Polygon geometry) throws JSONException {
+        buffer.append('[');
+        appendCoordinates(geometry.getExteriorRing().getCoordinateSequence());
 
         for (int i = 0, ii = geometry.getNumInteriorRing(); i < ii; i++) {
-            writeCoordinates(geometry.getInteriorRingN(i).getCoordinateSequence());
+            buffer.append(',');
+            appendCoordinates(geometry.getInteriorRingN(i).getCoordinateSequence());
         }
 
-        this.endArray(); // end the linear ring
-        // this.endObject(); //end the
+        buffer.append(']'); // end the linear ring
     }
 
     /** Internal representation of OGC SF Point */
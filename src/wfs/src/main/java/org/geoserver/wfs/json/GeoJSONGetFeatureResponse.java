@@ -58,6 +58,12 @@ public class GeoJSONGetFeatureResponse extends WFSGetFeatureOutputFormat
         implements ComplexFeatureAwareFormat {
     private final Logger LOGGER = org.geotools.util.logging.Logging.getLogger(this.getClass());
 
+    /**
+     * Size of the output buffer, larger than the default one as large collections are written a
+     * few characters at a time
+     */
+    protected static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     // store the response type
     protected final boolean jsonp;
 
@@ -125,7 +131,7 @@ protected void write(
         try {
             OutputStreamWriter osw =
                     new OutputStreamWriter(output, gs.getGlobal().getSettings().getCharset());
-            Writer outWriter = new BufferedWriter(osw);
+            Writer outWriter = new BufferedWriter(osw, OUTPUT_BUFFER_SIZE);
 
             if (jsonp) {
                 outWriter.write(getCallbackFunction() + "(");
@@ -15,6 +15,10 @@ public class RoundingUtil {
         1d, 10d, 100d, 1000d, 10000d, 100000d, 1000000d, 10000000d, 100000000d
     };
 
+    private static final long[] POW10 = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L
+    };
+
     /**
      * Round a value to the specified number of decimal places using the "Round Half Up" strategy.
      *
@@ -44,4 +48,67 @@ public static double round(double value, int numDecimals) {
 
         return Math.floor(value * scale + 0.5) / scale;
     }
+
+    /**
+     * Appends the value rounded to the specified number of decimal places, formatted as a JSON
+     * number. The output is the same as formatting {@link #round(double, int)} with json-lib, that
+     * is, {@link Double#toString(double)} with trailing zeroes removed, but in the common case of
+     * values written in plain notation it's computed from the scaled long value, without going
+     * through a boxed Double and its string representation.
+     *
+     * @param sb The builder receiving the formatted value
+     * @param value The value to round, must be finite
+     * @param numDecimals The number of decimal places to round to.
+     */
+    public static void appendRounded(StringBuilder sb, double value, int numDecimals) {
+        if (numDecimals >= 0 && numDecimals < SCALE.length) {
+            double scale = SCALE[numDecimals];
+            if (Math.ulp(value) * scale <= 1d) {
+                double scaled = Math.floor(value * scale + 0.5);
+                if (scaled == 0) {
+                    sb.append('0');
+                    return;
+                }
+                // Double.toString switches to scientific notation outside of this range
+                double abs = Math.abs(scaled / scale);
+                if (abs >= 1e-3 && abs < 1e7) {
+                    appendDecimal(sb, (long) scaled, numDecimals);
+                    return;
+                }
+            }
+        }
+        String s = Double.toString(round(value, numDecimals));
+        if (s.indexOf('.') > 0 && s.indexOf('E') < 0) {
+            int end = s.length();
+            while (s.charAt(end - 1) == '0') end--;
+            if (s.charAt(end - 1) == '.') end--;
+            sb.append(s, 0, end);
+        } else {
+            sb.append(s);
+        }
+    }
+
+    /** Appends scaled / 10^numDecimals, without trailing zeroes */
+    private static void appendDecimal(StringBuilder sb, long scaled, int numDecimals) {
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        long pow = POW10[numDecimals];
+        sb.append(scaled / pow);
+        long fraction = scaled % pow;
+        if (fraction != 0) {
+            int digits = numDecimals;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            sb.append('.');
+            // leading zeroes of the fraction
+            for (long p = POW10[digits - 1]; p > fraction; p /= 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+    }
 }
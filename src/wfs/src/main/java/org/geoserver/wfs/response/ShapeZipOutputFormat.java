@@ -10,6 +10,7 @@
 import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
@@ -23,14 +24,24 @@
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.SimpleTimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.xml.namespace.QName;
@@ -52,6 +63,7 @@
 import org.geoserver.platform.resource.Resource.Type;
 import org.geoserver.template.GeoServerTemplateLoader;
 import org.geoserver.template.TemplateUtils;
+import org.geoserver.threadlocals.ThreadLocalsTransfer;
 import org.geoserver.util.IOUtils;
 import org.geoserver.wfs.WFSException;
 import org.geoserver.wfs.WFSGetFeatureOutputFormat;
@@ -88,6 +100,19 @@ public class ShapeZipOutputFormat extends WFSGetFeatureOutputFormat
     private static final Logger LOGGER = Logging.getLogger(ShapeZipOutputFormat.class);
     public static final String GS_SHAPEFILE_CHARSET = "GS-SHAPEFILE-CHARSET";
     public static final String SHAPE_ZIP_DEFAULT_PRJ_IS_ESRI = "SHAPE-ZIP_DEFAULT_PRJ_IS_ESRI";
+    public static final String SHAPE_ZIP_PARALLEL_THREADS = "SHAPE_ZIP_PARALLEL_THREADS";
+
+    /** The files making up the output */
+    private static final FilenameFilter SHAPEFILE_SET_FILTER =
+            (dir, name) -> {
+                name = name.toLowerCase();
+                return name.endsWith(".shp")
+                        || name.endsWith(".shx")
+                        || name.endsWith(".dbf")
+                        || name.endsWith(".prj")
+                        || name.endsWith(".cst")
+                        || name.endsWith(".txt");
+            };
 
     private static final Configuration templateConfig = TemplateUtils.getSafeConfiguration();
 
@@ -96,6 +121,8 @@ public class ShapeZipOutputFormat extends WFSGetFeatureOutputFormat
     private GeoServerResourceLoader resourceLoader;
     private long maxShpSize = Long.getLong("GS_SHP_MAX_SIZE", Integer.MAX_VALUE);
     private long maxDbfSize = Long.getLong("GS_DBF_MAX_SIZE", Integer.MAX_VALUE);
+    private int parallelThreads;
+    private volatile ExecutorService dumpPool;
 
     public ShapeZipOutputFormat(
             GeoServer gs, Catalog catalog, GeoServerResourceLoader resourceLoader) {
@@ -176,7 +203,15 @@ public void write(
         write(collections, charset, output, GetFeatureRequest.adapt(getFeature.getParameters()[0]));
     }
 
-    /** @see WFSGetFeatureOutputFormat#write(Object, OutputStream, Operation) */
+    /**
+     * Writes the collections as a zip of shapefile sets. The output is not streamed, each set is
+     * first written to a temporary directory by a {@link ShapefileDumper}, as the shapefile writers
+     * need to seek back to fill the headers, and then copied into the zip. The scratch disk space
+     * needed is the size of the sets being dumped at the same time, not the size of the whole
+     * output.
+     *
+     * @see WFSGetFeatureOutputFormat#write(Object, OutputStream, Operation)
+     */
     public void write(
             List<SimpleFeatureCollection> collections,
             Charset charset,
@@ -184,11 +219,93 @@ public void write(
             final GetFeatureRequest request)
             throws IOException, ServiceException {
         // We might get multiple featurecollections in our response (multiple queries?) so we need
-        // to
-        // write out multiple shapefile sets, one for each query response.
+        // to write out multiple shapefile sets, one for each query response. Each one is dumped in
+        // its own directory and zipped as soon as complete, so that the temp directory holds
+        // only the shapefiles being written, rather than the whole output
         final File tempDir = IOUtils.createTempDirectory("shpziptemp");
+        ExecutorService pool = collections.size() > 1 ? getDumpPool() : null;
+        List<Future<Boolean>> dumps = new ArrayList<>();
+        try {
+            ZipOutputStream zipOut = new ZipOutputStream(output);
+            Set<String> entries = new HashSet<>();
+
+            // if an empty result out of feature type with unknown geometry is created, the
+            // zip file will be empty and the zip output stream will break
+            boolean shapefileCreated = false;
+            if (pool != null) {
+                // dump in parallel, but zip in order, while the next ones are still being dumped
+                for (int i = 0; i < collections.size(); i++) {
+                    SimpleFeatureCollection collection = collections.get(i);
+                    File dir = new File(tempDir, String.valueOf(i));
+                    ThreadLocalsTransfer threadLocalTransfer = new ThreadLocalsTransfer();
+                    dumps.add(
+                            pool.submit(
+                                    () -> {
+                                        threadLocalTransfer.apply();
+                                        try {
+                                            return dump(collection, dir, charset, request);
+                                        } finally {
+                                            threadLocalTransfer.cleanup();
+                                        }
+                                    }));
+                }
+                for (int i = 0; i < collections.size(); i++) {
+                    shapefileCreated |= getDumpResult(dumps.get(i));
+                    zipFiles(new File(tempDir, String.valueOf(i)), zipOut, entries);
+                }
+            } else {
+                for (int i = 0; i < collections.size(); i++) {
+                    File dir = new File(tempDir, String.valueOf(i));
+                    shapefileCreated |= dump(collections.get(i), dir, charset, request);
+                    zipFiles(dir, zipOut, entries);
+                }
+            }
+
+            // take care of the case the output is completely empty
+            if (!shapefileCreated) {
+                createEmptyZipWarning(tempDir);
+            }
+
+            // dump the request
+            if (this.gs.getService(WFSInfo.class).getIncludeWFSRequestDumpFile()) {
+                createRequestDump(tempDir, request, collections.get(0));
+            }
+            zipFiles(tempDir, zipOut, entries);
+            zipOut.finish();
+
+            // This is an error, because this closes the output stream too... it's
+            // not the right place to do so
+            // zipOut.close();
+        } finally {
+            // stop the dumps still running in case of failure
+            for (Future<Boolean> dump : dumps) {
+                dump.cancel(true);
+            }
+            // make sure we remove the temp directory and its contents completely now
+            try {
+                FileUtils.deleteDirectory(tempDir);
+            } catch (IOException e) {
+                LOGGER.warning(
+                        "Could not delete temp directory: "
+                                + tempDir.getAbsolutePath()
+                                + " due to: "
+                                + e.getMessage());
+            }
+        }
+    }
+
+    /** Dumps the collection as a set of shapefiles in the given directory */
+    private boolean dump(
+            SimpleFeatureCollection collection,
+            final File dir,
+            Charset charset,
+            final GetFeatureRequest request)
+            throws IOException {
+        if (!dir.mkdir()) {
+            throw new IOException("Failed to create directory " + dir.getAbsolutePath());
+        }
         ShapefileDumper dumper =
-                new ShapefileDumper(tempDir) {
+                new ShapefileDumper(dir) {
 
                     @Override
                     protected String getShapeName(SimpleFeatureType schema, String geometryType) {
@@ -203,7 +320,7 @@ protected void shapefileDumped(
                             String fileName, SimpleFeatureType remappedSchema) throws IOException {
                         try {
                             changeWKTFormatIfFileFormatIsESRI(
-                                    tempDir, request, fileName, remappedSchema);
+                                    dir, request, fileName, remappedSchema);
                         } catch (FactoryException e) {
                             throw new IOException("Failed to write out the ESRI style prj file", e);
                         }
@@ -213,55 +330,87 @@ protected void shapefileDumped(
         dumper.setMaxShpSize(maxShpSize);
         dumper.setCharset(charset);
 
-        // target charset
+        return dumper.dump(collection);
+    }
 
+    private boolean getDumpResult(Future<Boolean> dump) throws IOException {
         try {
-            // if an empty result out of feature type with unknown geometry is created, the
-            // zip file will be empty and the zip output stream will break
-            boolean shapefileCreated = false;
-            for (SimpleFeatureCollection collection : collections) {
-                shapefileCreated |= dumper.dump(collection);
+            return dump.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the shapefiles", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
+            throw new IOException("Failed to write the shapefiles", cause);
+        }
+    }
 
-            // take care of the case the output is completely empty
-            if (!shapefileCreated) {
-                createEmptyZipWarning(tempDir);
+    /**
+     * Adds the shapefile set files found in the directory to the zip, and removes them right after
+     * to free the disk space
+     */
+    private void zipFiles(File dir, ZipOutputStream zipOut, Set<String> entries)
+            throws IOException {
+        File[] files = dir.listFiles(SHAPEFILE_SET_FILTER);
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        byte[] buffer = new byte[64 * 1024];
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
             }
-
-            // dump the request
-            if (this.gs.getService(WFSInfo.class).getIncludeWFSRequestDumpFile()) {
-                createRequestDump(tempDir, request, collections.get(0));
+            if (entries.add(file.getName())) {
+                zipOut.putNextEntry(new ZipEntry(file.getName()));
+                try (InputStream in = new FileInputStream(file)) {
+                    int c;
+                    while (-1 != (c = in.read(buffer))) {
+                        zipOut.write(buffer, 0, c);
+                    }
+                }
+                zipOut.closeEntry();
+            } else {
+                LOGGER.warning("Skipping duplicate file in the shapefile zip: " + file.getName());
             }
-            // zip all the files produced
-            final FilenameFilter filter =
-                    (dir, name) -> {
-                        name = name.toLowerCase();
-                        return name.endsWith(".shp")
-                                || name.endsWith(".shx")
-                                || name.endsWith(".dbf")
-                                || name.endsWith(".prj")
-                                || name.endsWith(".cst")
-                                || name.endsWith(".txt");
-                    };
-            ZipOutputStream zipOut = new ZipOutputStream(output);
-            IOUtils.zipDirectory(tempDir, zipOut, filter);
-            zipOut.finish();
+            if (!file.delete()) {
+                LOGGER.fine("Could not delete " + file.getAbsolutePath());
+            }
+        }
+        zipOut.flush();
+    }
 
-            // This is an error, because this closes the output stream too... it's
-            // not the right place to do so
-            // zipOut.close();
-        } finally {
-            // make sure we remove the temp directory and its contents completely now
-            try {
-                FileUtils.deleteDirectory(tempDir);
-            } catch (IOException e) {
-                LOGGER.warning(
-                        "Could not delete temp directory: "
-                                + tempDir.getAbsolutePath()
-                                + " due to: "
-                                + e.getMessage());
+    /**
+     * Returns the pool dumping the feature collections in parallel, or null if parallel dumping is
+     * disabled (the default, can be enabled by setting the SHAPE_ZIP_PARALLEL_THREADS property to
+     * the max number of threads)
+     */
+    ExecutorService getDumpPool() {
+        int threads = parallelThreads;
+        if (threads <= 0) {
+            return null;
+        }
+        if (dumpPool == null) {
+            synchronized (this) {
+                if (dumpPool == null) {
+                    ThreadPoolExecutor pool =
+                            new ThreadPoolExecutor(
+                                    threads,
+                                    threads,
+                                    60L,
+                                    TimeUnit.SECONDS,
+                                    new LinkedBlockingQueue<>());
+                    pool.allowCoreThreadTimeOut(true);
+                    dumpPool = pool;
+                }
             }
         }
+        return dumpPool;
     }
 
     /** Dumps the request */
@@ -439,6 +588,31 @@ private Charset getShapefileCharset(Operation getFeature) {
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
+        String threads =
+                GeoServerExtensions.getProperty(SHAPE_ZIP_PARALLEL_THREADS, applicationContext);
+        if (threads != null) {
+            try {
+                setParallelThreads(Integer.parseInt(threads.trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + SHAPE_ZIP_PARALLEL_THREADS + ": " + threads);
+            }
+        }
+    }
+
+    public int getParallelThreads() {
+        return parallelThreads;
+    }
+
+    /**
+     * Sets the number of threads dumping the feature collections of a multi query request in
+     * parallel, 0 to disable (the default)
+     */
+    public synchronized void setParallelThreads(int parallelThreads) {
+        this.parallelThreads = parallelThreads;
+        if (dumpPool != null) {
+            dumpPool.shutdown();
+            dumpPool = null;
+        }
     }
 
     public long getMaxShpSize() {
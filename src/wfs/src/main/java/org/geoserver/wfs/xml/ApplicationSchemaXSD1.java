@@ -103,21 +103,29 @@ protected XSDSchema buildSchema() throws IOException {
                 this.featureTypes.values().stream()
                         .flatMap(Collection::stream)
                         .toArray(FeatureTypeInfo[]::new);
-        XSDSchema schema;
         if (containsComplexTypes(types)) {
             // we have complex features so we add all the available catalog feature types
-            schema = schemaBuilder.build(new FeatureTypeInfo[0], baseURL, true, true);
+            XSDSchema schema = schemaBuilder.build(new FeatureTypeInfo[0], baseURL, true, true);
             schemaBuilder.addApplicationTypes(schema);
-        } else {
-            // simple feature so we add only the feature types we need
-            schema = schemaBuilder.build(types, baseURL, true, true);
+            // add an explicit dependency on WFS 1.0.0 schema
+            return importWfsSchema(schema);
         }
+        FeatureTypeSchemaCache cache = FeatureTypeSchemaCache.get();
+        if (cache != null) {
+            return cache.getSchema(this, types, () -> buildSimpleSchema(types));
+        }
+        return buildSimpleSchema(types);
+    }
+
+    private XSDSchema buildSimpleSchema(FeatureTypeInfo[] types) throws IOException {
+        // simple feature so we add only the feature types we need
+        XSDSchema schema = schemaBuilder.build(types, baseURL, true, true);
         // add an explicit dependency on WFS 1.0.0 schema
         return importWfsSchema(schema);
     }
 
     /** Checks if the provided feature types contains complex types. */
-    private static boolean containsComplexTypes(FeatureTypeInfo[] featureTypes) {
+    static boolean containsComplexTypes(FeatureTypeInfo[] featureTypes) {
         for (FeatureTypeInfo featureType : featureTypes) {
             try {
                 if (!(featureType.getFeatureType() instanceof SimpleFeatureType)) {
@@ -31,8 +31,16 @@ protected XSDSchema buildSchema() throws IOException {
         for (Set<FeatureTypeInfo> fts : featureTypes.values()) {
             types.addAll(fts);
         }
-        XSDSchema schema =
-                schemaBuilder.build(types.toArray(new FeatureTypeInfo[types.size()]), baseURL, 1);
+        FeatureTypeInfo[] typeArray = types.toArray(new FeatureTypeInfo[types.size()]);
+        FeatureTypeSchemaCache cache = FeatureTypeSchemaCache.get();
+        if (cache != null && !containsComplexTypes(typeArray)) {
+            return cache.getSchema(this, typeArray, () -> buildSchema(typeArray));
+        }
+        return buildSchema(typeArray);
+    }
+
+    private XSDSchema buildSchema(FeatureTypeInfo[] types) throws IOException {
+        XSDSchema schema = schemaBuilder.build(types, baseURL, 1);
         // make sure that GML 3.2 namespace is used
         schema.getQNamePrefixToNamespaceMap().put("gml", GML.NAMESPACE);
         return schema;
@@ -0,0 +1,366 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wfs.xml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.xsd.XSDSchema;
+import org.geoserver.catalog.DataStoreInfo;
+import org.geoserver.catalog.FeatureTypeInfo;
+import org.geoserver.catalog.NamespaceInfo;
+import org.geoserver.catalog.WorkspaceInfo;
+import org.geoserver.catalog.event.CatalogAddEvent;
+import org.geoserver.catalog.event.CatalogEvent;
+import org.geoserver.catalog.event.CatalogListener;
+import org.geoserver.catalog.event.CatalogModifyEvent;
+import org.geoserver.catalog.event.CatalogPostModifyEvent;
+import org.geoserver.catalog.event.CatalogRemoveEvent;
+import org.geoserver.config.ConfigurationListenerAdapter;
+import org.geoserver.config.GeoServer;
+import org.geoserver.config.GeoServerInfo;
+import org.geoserver.config.ServiceInfo;
+import org.geoserver.ows.URLMangler.URLType;
+import org.geoserver.ows.util.ResponseUtils;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.wfs.WFSInfo;
+import org.geotools.util.logging.Logging;
+import org.geotools.xsd.Schemas;
+import org.opengis.feature.type.FeatureType;
+import org.opengis.feature.type.PropertyDescriptor;
+
+/**
+ * Caches the application schemas built for the GML encoding of GetFeature responses, keyed by
+ * output schema class, feature types and base URL, to avoid rebuilding the same {@link XSDSchema}
+ * for every request.
+ *
+ * <p>The cache is disabled by default, and enabled by setting the max number of cached schemas
+ * with the WFS_SCHEMA_CACHE_SIZE system, environment or servlet context variable. Entries are
+ * invalidated on changes to their feature types, and the cache is cleared on changes to
+ * namespaces, workspaces, stores, and to the WFS and global configuration.
+ *
+ * <p>Only schemas of simple feature types are cached, the complex feature ones depend on the whole
+ * set of feature types visible to the user. A cached schema can be in use by several requests at
+ * the same time, once invalidated it's disposed only after the last one of them ends.
+ */
+public class FeatureTypeSchemaCache implements CatalogListener {
+
+    static final Logger LOGGER = Logging.getLogger(FeatureTypeSchemaCache.class);
+
+    public static final String SIZE_PROPERTY = "WFS_SCHEMA_CACHE_SIZE";
+
+    /** Builds a schema on cache miss */
+    @FunctionalInterface
+    interface SchemaLoader {
+        XSDSchema build() throws IOException;
+    }
+
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong builds = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public FeatureTypeSchemaCache(GeoServer geoServer) {
+        this(getConfiguredSize());
+        geoServer.getCatalog().addListener(this);
+        geoServer.addListener(
+                new ConfigurationListenerAdapter() {
+                    @Override
+                    public void handleGlobalChange(
+                            GeoServerInfo global,
+                            List<String> propertyNames,
+                            List<Object> oldValues,
+                            List<Object> newValues) {
+                        clear();
+                    }
+
+                    @Override
+                    public void handleServiceChange(
+                            ServiceInfo service,
+                            List<String> propertyNames,
+                            List<Object> oldValues,
+                            List<Object> newValues) {
+                        if (service instanceof WFSInfo) {
+                            clear();
+                        }
+                    }
+
+                    @Override
+                    public void reloaded() {
+                        clear();
+                    }
+                });
+    }
+
+    /** For testing only */
+    FeatureTypeSchemaCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries =
+                new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                        if (size() > FeatureTypeSchemaCache.this.maxEntries) {
+                            eldest.getValue().retire();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+    }
+
+    private static int getConfiguredSize() {
+        String value = GeoServerExtensions.getProperty(SIZE_PROPERTY);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + SIZE_PROPERTY + ": " + value);
+            }
+        }
+        return 0;
+    }
+
+    /** Returns the cache, or null if not available or disabled */
+    public static FeatureTypeSchemaCache get() {
+        FeatureTypeSchemaCache cache = GeoServerExtensions.bean(FeatureTypeSchemaCache.class);
+        return cache != null && cache.isEnabled() ? cache : null;
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Returns the cached schema for the given output schema and feature types, building it with
+     * the loader if missing. The returned schema is shared, callers must not modify it.
+     */
+    XSDSchema getSchema(ApplicationSchemaXSD1 xsd, FeatureTypeInfo[] types, SchemaLoader loader)
+            throws IOException {
+        String key = buildKey(xsd, types);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.acquire()) {
+            hits.incrementAndGet();
+            SchemaCleanerCallback.addRelease(entry::release);
+            return entry.schema;
+        }
+
+        // build outside of the lock, and take ownership of the schemas scheduled for cleanup
+        // while building, they now live as long as the cache entry
+        int scheduled = SchemaCleanerCallback.getScheduledCount();
+        XSDSchema schema = loader.build();
+        List<XSDSchema> owned = SchemaCleanerCallback.unscheduleSchemas(scheduled);
+        builds.incrementAndGet();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Built schema for " + key + ", " + builds.get() + " builds so far");
+        }
+        Set<String> typeIds = new HashSet<>();
+        for (FeatureTypeInfo type : types) {
+            typeIds.add(type.getId());
+        }
+        Entry created = new Entry(schema, owned, typeIds);
+        created.acquire();
+        synchronized (entries) {
+            if (entries.putIfAbsent(key, created) != null) {
+                // lost a race with another request building the same schema, use ours for this
+                // request only
+                for (XSDSchema s : owned) {
+                    SchemaCleanerCallback.addSchema(s);
+                }
+                return schema;
+            }
+        }
+        SchemaCleanerCallback.addRelease(created::release);
+        return schema;
+    }
+
+    private String buildKey(ApplicationSchemaXSD1 xsd, FeatureTypeInfo[] types)
+            throws IOException {
+        List<String> typeKeys = new ArrayList<>(types.length);
+        for (FeatureTypeInfo type : types) {
+            // the feature type is part of the key as it might have been restricted by security
+            FeatureType featureType = type.getFeatureType();
+            StringBuilder sb = new StringBuilder(type.getId()).append('[');
+            for (PropertyDescriptor pd : featureType.getDescriptors()) {
+                sb.append(pd.getName().getLocalPart())
+                        .append(':')
+                        .append(pd.getType().getBinding().getName())
+                        .append(',');
+            }
+            typeKeys.add(sb.append(']').toString());
+        }
+        Collections.sort(typeKeys);
+
+        // the URLs in the schema depend on the request, probe the URL manglers
+        String baseURL = xsd.getBaseURL();
+        String serviceURL =
+                ResponseUtils.buildURL(baseURL, "wfs", new HashMap<>(), URLType.SERVICE);
+        String resourceURL =
+                ResponseUtils.buildURL(baseURL, "schemas", new HashMap<>(), URLType.RESOURCE);
+
+        return xsd.getClass().getName()
+                + "|"
+                + xsd.schemaBuilder.getClass().getName()
+                + "|"
+                + serviceURL
+                + "|"
+                + resourceURL
+                + "|"
+                + String.join("|", typeKeys);
+    }
+
+    /** Removes the entries containing the given feature type */
+    public void invalidate(String featureTypeId) {
+        synchronized (entries) {
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                if (entry.typeIds.contains(featureTypeId)) {
+                    it.remove();
+                    entry.retire();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /** Removes all entries */
+    public void clear() {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                entry.retire();
+            }
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    /** Returns the number of cached schemas */
+    public int getCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /** Returns the number of requests served with a cached schema */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Returns the number of schemas built, on cache miss */
+    public long getBuilds() {
+        return builds.get();
+    }
+
+    /** Returns the number of schemas removed from the cache due to configuration changes */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    @Override
+    public void handleAddEvent(CatalogAddEvent event) {
+        // new types are not cached yet
+    }
+
+    @Override
+    public void handleRemoveEvent(CatalogRemoveEvent event) {
+        handleEvent(event);
+    }
+
+    @Override
+    public void handleModifyEvent(CatalogModifyEvent event) {
+        // wait for the change to be applied
+    }
+
+    @Override
+    public void handlePostModifyEvent(CatalogPostModifyEvent event) {
+        handleEvent(event);
+    }
+
+    private void handleEvent(CatalogEvent event) {
+        Object source = event.getSource();
+        if (source instanceof FeatureTypeInfo) {
+            invalidate(((FeatureTypeInfo) source).getId());
+        } else if (source instanceof NamespaceInfo
+                || source instanceof WorkspaceInfo
+                || source instanceof DataStoreInfo) {
+            clear();
+        }
+    }
+
+    @Override
+    public void reloaded() {
+        clear();
+    }
+
+    /**
+     * A cached schema, along with the schemas built with it, disposed once the entry is retired
+     * and no longer in use
+     */
+    static class Entry {
+
+        final XSDSchema schema;
+
+        final List<XSDSchema> owned;
+
+        final Set<String> typeIds;
+
+        private int users;
+
+        private boolean retired;
+
+        Entry(XSDSchema schema, List<XSDSchema> owned, Set<String> typeIds) {
+            this.schema = schema;
+            this.owned = owned;
+            this.typeIds = typeIds;
+        }
+
+        synchronized boolean acquire() {
+            if (retired) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        synchronized void release() {
+            users--;
+            if (retired && users == 0) {
+                dispose();
+            }
+        }
+
+        synchronized void retire() {
+            if (!retired) {
+                retired = true;
+                if (users == 0) {
+                    dispose();
+                }
+            }
+        }
+
+        private void dispose() {
+            for (XSDSchema s : owned) {
+                Schemas.dispose(s);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package org.geoserver.wfs.xml;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.eclipse.xsd.XSDSchema;
 import org.geoserver.ows.AbstractDispatcherCallback;
@@ -13,7 +14,8 @@
 import org.geotools.xsd.Schemas;
 
 /**
- * Cleans up the temporarily created schemas when the request ends
+ * Cleans up the temporarily created schemas when the request ends, and releases the cached ones
+ * used by the request
  *
  * @author Andrea Aime - GeoSolutions
  */
@@ -21,6 +23,8 @@ public class SchemaCleanerCallback extends AbstractDispatcherCallback {
 
     static final ThreadLocal<List<XSDSchema>> schemas = new ThreadLocal<>();
 
+    static final ThreadLocal<List<Runnable>> releases = new ThreadLocal<>();
+
     /** Schedules a XSDSchema for removal at the end of the request */
     public static void addSchema(XSDSchema schema) {
         if (schema == null) {
@@ -35,6 +39,41 @@ public static void addSchema(XSDSchema schema) {
         list.add(schema);
     }
 
+    /**
+     * Returns the number of schemas scheduled for removal so far, to be used with {@link
+     * #unscheduleSchemas(int)}
+     */
+    static int getScheduledCount() {
+        List<XSDSchema> list = schemas.get();
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * Removes from the removal list the schemas scheduled after the given count, and returns them.
+     * Used when the schemas are meant to outlive the request, the caller becomes responsible for
+     * disposing them.
+     */
+    static List<XSDSchema> unscheduleSchemas(int count) {
+        List<XSDSchema> list = schemas.get();
+        if (list == null || list.size() <= count) {
+            return Collections.emptyList();
+        }
+        List<XSDSchema> tail = list.subList(count, list.size());
+        List<XSDSchema> result = new ArrayList<>(tail);
+        tail.clear();
+        return result;
+    }
+
+    /** Schedules an action to be run at the end of the request */
+    static void addRelease(Runnable release) {
+        List<Runnable> list = releases.get();
+        if (list == null) {
+            list = new ArrayList<>();
+            releases.set(list);
+        }
+        list.add(release);
+    }
+
     @Override
     public void finished(Request request) {
         List<XSDSchema> list = schemas.get();
@@ -44,5 +83,12 @@ public void finished(Request request) {
                 Schemas.dispose(schema);
             }
         }
+        List<Runnable> actions = releases.get();
+        if (actions != null) {
+            releases.remove();
+            for (Runnable action : actions) {
+                action.run();
+            }
+        }
     }
 }
@@ -16,6 +16,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,16 +33,20 @@
 import org.geoserver.wfs.request.Delete;
 import org.geoserver.wfs.request.Insert;
 import org.geoserver.wfs.request.Native;
+import org.geoserver.wfs.request.Property;
 import org.geoserver.wfs.request.Replace;
 import org.geoserver.wfs.request.TransactionElement;
 import org.geoserver.wfs.request.TransactionRequest;
 import org.geoserver.wfs.request.TransactionResponse;
 import org.geoserver.wfs.request.Update;
 import org.geotools.data.FeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.util.MapEntry;
 import org.junit.Test;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.Id;
 import org.opengis.filter.Or;
 
 /**
@@ -274,6 +279,85 @@ private void testAggregationWithDeleteBatchSize(int pDeleteBatchSize) {
         }
     }
 
+    /**
+     * Verifies that consecutive UPDATEs setting the same values on the same type are merged, and
+     * their feature id filters combined in a single one
+     */
+    @Test
+    public void testUpdateAggregation() throws Exception {
+        FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+        Update update1 = newUpdate(type1Name, ff.id(ff.featureId("t1.1")), "name", "a");
+        TransactionElementHandler update1Handler = mock(TransactionElementHandler.class);
+
+        Update update2 = newUpdate(type1Name, ff.id(ff.featureId("t1.2")), "name", "a");
+        TransactionElementHandler update2Handler = mock(TransactionElementHandler.class);
+
+        Update update3 = newUpdate(type1Name, ff.id(ff.featureId("t1.3")), "name", "b");
+        TransactionElementHandler update3Handler = mock(TransactionElementHandler.class);
+
+        Update update4 = newUpdate(type2Name, ff.id(ff.featureId("t2.1")), "name", "b");
+        TransactionElementHandler update4Handler = mock(TransactionElementHandler.class);
+
+        Map<TransactionElement, TransactionElementHandler> element2Handlers =
+                asMap( //
+                        keyValue(update1, update1Handler), //
+                        keyValue(update2, update2Handler), //
+                        keyValue(update3, update3Handler), //
+                        keyValue(update4, update4Handler));
+        TransactionRequest lTransaction = transactionRequest(element2Handlers.keySet());
+
+        BatchManager sut =
+                new BatchManager(
+                        lTransaction,
+                        transactionListener,
+                        stores,
+                        transactionResponse,
+                        element2Handlers,
+                        100,
+                        100);
+        sut.run();
+
+        // first two merged into a single id filter
+        assertTrue(update1.getFilter() instanceof Id);
+        assertEquals(
+                new HashSet<>(Arrays.asList("t1.1", "t1.2")),
+                ((Id) update1.getFilter()).getIDs());
+        verify(update1Handler, times(1)).execute(same(update1), any(), any(), any(), any());
+        verify(update2Handler, times(0)).execute(any(), any(), any(), any(), any());
+        // different value and different type are run on their own
+        verify(update3Handler, times(1)).execute(same(update3), any(), any(), any(), any());
+        verify(update4Handler, times(1)).execute(same(update4), any(), any(), any(), any());
+        assertEquals(3, lTransaction.getElements().size());
+    }
+
+    @Test
+    public void testUpdateAggregationDisabled() throws Exception {
+        FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+        Update update1 = newUpdate(type1Name, ff.id(ff.featureId("t1.1")), "name", "a");
+        TransactionElementHandler update1Handler = mock(TransactionElementHandler.class);
+
+        Update update2 = newUpdate(type1Name, ff.id(ff.featureId("t1.2")), "name", "a");
+        TransactionElementHandler update2Handler = mock(TransactionElementHandler.class);
+
+        Map<TransactionElement, TransactionElementHandler> element2Handlers =
+                asMap(keyValue(update1, update1Handler), keyValue(update2, update2Handler));
+        TransactionRequest lTransaction = transactionRequest(element2Handlers.keySet());
+
+        new BatchManager(
+                        lTransaction,
+                        transactionListener,
+                        stores,
+                        transactionResponse,
+                        element2Handlers,
+                        100,
+                        1)
+                .run();
+
+        verify(update1Handler, times(1)).execute(same(update1), any(), any(), any(), any());
+        verify(update2Handler, times(1)).execute(same(update2), any(), any(), any(), any());
+        assertEquals(2, lTransaction.getElements().size());
+    }
+
     private TransactionRequest transactionRequest(Set<TransactionElement> pElems) {
         TransactionType lTransactionType = Wfs20Factory.eINSTANCE.createTransactionType();
         TransactionRequest lTransactionRequest = TransactionRequest.adapt(lTransactionType);
@@ -322,6 +406,17 @@ private Update newUpdate() {
         return lUpdate;
     }
 
+    private Update newUpdate(QName pTypeName, Filter pFilter, String pName, Object pValue) {
+        Update lUpdate = newUpdate();
+        lUpdate.setTypeName(pTypeName);
+        lUpdate.setFilter(pFilter);
+        Property lProperty = lUpdate.createProperty();
+        lProperty.setName(new QName(pName));
+        lProperty.setValue(pValue);
+        lUpdate.setUpdateProperties(Arrays.asList(lProperty));
+        return lUpdate;
+    }
+
     private Insert newInsert(SimpleFeature pFeature) {
         InsertType lInsertType = Wfs20Factory.eINSTANCE.createInsertType();
         Insert lInsert = new Insert.WFS20(lInsertType);
@@ -0,0 +1,148 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.feature.FeatureCollection;
+import org.junit.After;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class CountExecutorTest extends WFSTestSupport {
+
+    @After
+    public void resetCounts() {
+        CountExecutor.cancelStarted();
+        CountExecutor.setParallelThreads(0);
+        CountExecutor.setTimeout(0);
+        CountExecutor.setEstimate(false);
+    }
+
+    @Test
+    public void testParallelNumberMatched() throws Exception {
+        CountExecutor.setParallelThreads(2);
+        assertNotNull(CountExecutor.getPool());
+
+        Document dom =
+                getAsDOM(
+                        "wfs?request=GetFeature&typenames=cdf:Fifteen&version=2.0.0"
+                                + "&service=wfs&count=5");
+        assertEquals("5", dom.getDocumentElement().getAttribute("numberReturned"));
+        assertEquals("15", dom.getDocumentElement().getAttribute("numberMatched"));
+    }
+
+    @Test
+    public void testEstimateNumberMatched() throws Exception {
+        CountExecutor.setEstimate(true);
+
+        Document dom =
+                getAsDOM(
+                        "wfs?request=GetFeature&typenames=cdf:Fifteen&version=2.0.0"
+                                + "&service=wfs&count=5");
+        // property files can be counted without reading the features
+        assertEquals("15", dom.getDocumentElement().getAttribute("numberMatched"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEstimateUnsupported() throws Exception {
+        CountExecutor.setEstimate(true);
+        FeatureSource source = mock(FeatureSource.class);
+        when(source.getCount(any(Query.class))).thenReturn(-1);
+
+        CountExecutor executor = new CountExecutor(source, Query.ALL);
+        assertEquals(-1, executor.getCount());
+        verify(source, never()).getFeatures(any(Query.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBackgroundCount() throws Exception {
+        CountExecutor.setParallelThreads(2);
+        CountDownLatch latch = new CountDownLatch(1);
+        FeatureCollection fc = mock(FeatureCollection.class);
+        when(fc.size())
+                .thenAnswer(
+                        invocation -> {
+                            latch.countDown();
+                            return 42;
+                        });
+        FeatureSource source = mock(FeatureSource.class);
+        when(source.getFeatures(any(Query.class))).thenReturn(fc);
+
+        CountExecutor executor = new CountExecutor(source, Query.ALL);
+        executor.start();
+        // the count runs without waiting for getCount to be called
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(42, executor.getCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCancelAtRequestEnd() throws Exception {
+        CountExecutor.setParallelThreads(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FeatureCollection fc = mock(FeatureCollection.class);
+        when(fc.size())
+                .thenAnswer(
+                        invocation -> {
+                            started.countDown();
+                            try {
+                                Thread.sleep(10000);
+                            } catch (InterruptedException e) {
+                                interrupted.countDown();
+                            }
+                            return 42;
+                        });
+        FeatureSource source = mock(FeatureSource.class);
+        when(source.getFeatures(any(Query.class))).thenReturn(fc);
+
+        CountExecutor executor = new CountExecutor(source, Query.ALL);
+        executor.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // the request ends without using the count
+        new CountCleanerCallback().finished(null);
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCountTimeout() throws Exception {
+        CountExecutor.setParallelThreads(1);
+        CountExecutor.setTimeout(50);
+        CountDownLatch release = new CountDownLatch(1);
+        FeatureCollection fc = mock(FeatureCollection.class);
+        when(fc.size())
+                .thenAnswer(
+                        invocation -> {
+                            release.await(10, TimeUnit.SECONDS);
+                            return 42;
+                        });
+        FeatureSource source = mock(FeatureSource.class);
+        when(source.getFeatures(any(Query.class))).thenReturn(fc);
+
+        try {
+            CountExecutor executor = new CountExecutor(source, Query.ALL);
+            executor.start();
+            // too slow, reported as unknown
+            assertEquals(-1, executor.getCount());
+        } finally {
+            release.countDown();
+        }
+    }
+}
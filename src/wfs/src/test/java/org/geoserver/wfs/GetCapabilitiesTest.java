@@ -24,6 +24,7 @@
 import org.geoserver.catalog.FeatureTypeInfo;
 import org.geoserver.catalog.LayerInfo;
 import org.geoserver.config.CapabilitiesCacheHeadersCallback;
+import org.geoserver.config.CapabilitiesDocumentCache;
 import org.geoserver.config.GeoServerInfo;
 import org.geoserver.config.ResourceErrorHandling;
 import org.geoserver.data.test.CiteTestData;
@@ -109,6 +110,18 @@ public void testNamespaceFilter() throws Exception {
         assertEquals(0, xpath.getMatchingNodes("//wfs:FeatureType", doc).getLength());
     }
 
+    @Test
+    public void testVirtualServiceQualifiedNames() throws Exception {
+        // the local workspace does not dequalify the feature type names in capabilities
+        Document doc = getAsDOM("sf/wfs?service=WFS&version=1.0.0&request=getCapabilities");
+        assertEquals("WFS_Capabilities", doc.getDocumentElement().getNodeName());
+        assertXpathExists("//wfs:FeatureType[wfs:Name = 'sf:PrimitiveGeoFeature']", doc);
+        XpathEngine xpath = XMLUnit.newXpathEngine();
+        assertTrue(xpath.getMatchingNodes("//wfs:FeatureType", doc).getLength() > 0);
+        String unqualified = "//wfs:FeatureType/wfs:Name[not(starts-with(., 'sf:'))]";
+        assertEquals(0, xpath.getMatchingNodes(unqualified, doc).getLength());
+    }
+
     @Test
     public void testPost() throws Exception {
         String xml =
@@ -369,6 +382,50 @@ public void testCachingHeadersDisabled() throws Exception {
         }
     }
 
+    @Test
+    public void testDocumentCache() throws Exception {
+        CapabilitiesDocumentCache cache = GeoServerExtensions.bean(CapabilitiesDocumentCache.class);
+        boolean backup = cache.isEnabled();
+        FeatureTypeInfo ft = getCatalog().getFeatureTypeByName(getLayerId(CiteTestData.BUILDINGS));
+        String title = ft.getTitle();
+        try {
+            cache.setEnabled(true);
+            String path = "wfs?service=WFS&version=1.0.0&request=getCapabilities";
+            Document doc = getAsDOM(path);
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.getCount());
+            Document cached = getAsDOM(path);
+            assertEquals(1, cache.getHits());
+            XMLAssert.assertXMLEqual(doc, cached);
+
+            // different parameters, different document
+            getAsDOM(path + "&namespace=cite");
+            assertEquals(2, cache.getMisses());
+            assertEquals(2, cache.getCount());
+
+            // same roles but different users, rules might be user specific
+            login("first", "pwd", "ROLE_TEST");
+            getAsDOM(path);
+            assertEquals(3, cache.getMisses());
+            login("second", "pwd", "ROLE_TEST");
+            getAsDOM(path);
+            assertEquals(4, cache.getMisses());
+            logout();
+
+            // a catalog change makes the documents stale
+            ft.setTitle("Cached buildings");
+            getCatalog().save(ft);
+            doc = getAsDOM(path);
+            assertEquals(5, cache.getMisses());
+            assertXpathExists("//wfs:FeatureType[wfs:Title = 'Cached buildings']", doc);
+        } finally {
+            logout();
+            cache.setEnabled(backup);
+            ft.setTitle(title);
+            getCatalog().save(ft);
+        }
+    }
+
     MockHttpServletRequest createGetRequestWithHeaders(String path, String... headers) {
         MockHttpServletRequest request = createRequest(path);
         request.setMethod("GET");
@@ -17,6 +17,7 @@
 import java.util.UUID;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import org.geotools.referencing.CRS;
 import org.junit.Before;
 import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
@@ -253,6 +254,24 @@ public void testNumberOfDecimalsFor3dPolygon() throws Exception {
                 writer.toString());
     }
 
+    @Test
+    public void testWriteMultiPolygonNorthEast() throws Exception {
+        builder.setAxisOrder(CRS.AxisOrder.NORTH_EAST);
+        builder.setNumberOfDecimals(2);
+        Geometry g =
+                new WKTReader()
+                        .read(
+                                "MULTIPOLYGON(((0 0, 0 10.123, -10.5 10, 0 0),(1 1, 1 2, 2 2, 1 1)),((5 5, 5 6, 6 6, 5 5)))");
+        builder.object();
+        builder.key("geometry");
+        builder.writeGeom(g);
+        builder.writeBoundingBox(g.getEnvelopeInternal());
+        builder.endObject();
+        assertEquals(
+                "{\"geometry\":{\"type\":\"MultiPolygon\",\"coordinates\":[[[[0,0],[10.12,0],[10,-10.5],[0,0]],[[1,1],[2,1],[2,2],[1,1]]],[[[5,5],[6,5],[6,6],[5,5]]]]},\"bbox\":[0,-10.5,10.12,6]}",
+                writer.toString());
+    }
+
     @Test
     public void testWriteStrList() throws Exception {
         final List<String> list = Arrays.asList("a", "b", "c", "d");
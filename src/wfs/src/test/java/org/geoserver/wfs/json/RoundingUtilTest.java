@@ -11,6 +11,7 @@
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Random;
+import net.sf.json.util.JSONUtils;
 import org.junit.Test;
 
 /**
@@ -94,4 +95,47 @@ public void testRandomRoundingVsBigDecimal() {
             }
         }
     }
+
+    @Test
+    public void testAppendRoundedMatchesJSONFormatting() {
+        Random r = new Random(0);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            double value;
+            switch (i % 3) {
+                case 0:
+                    value = (r.nextDouble() - 0.5) * 360;
+                    break;
+                case 1:
+                    value = (r.nextDouble() - 0.5) * 4e7;
+                    break;
+                default:
+                    value = (r.nextDouble() - 0.5) * Math.pow(10, r.nextInt(30) - 15);
+            }
+            for (int numDecimals = 0; numDecimals < 10; numDecimals++) {
+                sb.setLength(0);
+                RoundingUtil.appendRounded(sb, value, numDecimals);
+                String expected =
+                        JSONUtils.numberToString(RoundingUtil.round(value, numDecimals));
+                assertThat(sb.toString(), is(equalTo(expected)));
+            }
+        }
+    }
+
+    @Test
+    public void testAppendRoundedSpecificCases() {
+        assertThat(appendRounded(0, 6), is(equalTo("0")));
+        assertThat(appendRounded(-0.0000001, 6), is(equalTo("0")));
+        assertThat(appendRounded(10.1, 6), is(equalTo("10.1")));
+        assertThat(appendRounded(-10.0000004, 6), is(equalTo("-10")));
+        assertThat(appendRounded(0.00105, 4), is(equalTo("0.0011")));
+        assertThat(appendRounded(0.0001, 6), is(equalTo("1.0E-4")));
+        assertThat(appendRounded(12345678.9, 1), is(equalTo("1.23456789E7")));
+    }
+
+    private String appendRounded(double value, int numDecimals) {
+        StringBuilder sb = new StringBuilder();
+        RoundingUtil.appendRounded(sb, value, numDecimals);
+        return sb.toString();
+    }
 }
@@ -213,6 +213,38 @@ public void testMultiType() throws Exception {
         checkFieldsAreNotEmpty(new ByteArrayInputStream(zip));
     }
 
+    @Test
+    public void testMultipleCollectionsParallel() throws Exception {
+        ShapeZipOutputFormat zip =
+                new ShapeZipOutputFormat(
+                        GeoServerExtensions.bean(GeoServer.class),
+                        (Catalog) GeoServerExtensions.bean("catalog"),
+                        (GeoServerResourceLoader) GeoServerExtensions.bean("resourceLoader"));
+        zip.setParallelThreads(2);
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            FeatureCollectionResponse fct =
+                    FeatureCollectionResponse.adapt(
+                            WfsFactory.eINSTANCE.createFeatureCollectionType());
+            fct.getFeature().add(getFeatureSource(ALL_TYPES).getFeatures());
+            fct.getFeature().add(getFeatureSource(SystemTestData.BASIC_POLYGONS).getFeatures());
+            fct.getFeature().add(getFeatureSource(SystemTestData.BRIDGES).getFeatures());
+            zip.write(fct, bos, op);
+
+            final String[] expectedTypes = {
+                "AllTypesPoint",
+                "AllTypesMPoint",
+                "AllTypesPolygon",
+                "AllTypesLine",
+                SystemTestData.BASIC_POLYGONS.getLocalPart(),
+                SystemTestData.BRIDGES.getLocalPart()
+            };
+            checkShapefileIntegrity(expectedTypes, new ByteArrayInputStream(bos.toByteArray()));
+        } finally {
+            zip.setParallelThreads(0);
+        }
+    }
+
     @Test
     public void testSplitSize() throws Exception {
         byte[] zip =
@@ -0,0 +1,95 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wfs.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.geoserver.catalog.Catalog;
+import org.geoserver.catalog.FeatureTypeInfo;
+import org.geoserver.data.test.MockData;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.wfs.WFSTestSupport;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class FeatureTypeSchemaCacheTest extends WFSTestSupport {
+
+    FeatureTypeSchemaCache cache;
+
+    @BeforeClass
+    public static void enableCache() {
+        System.setProperty(FeatureTypeSchemaCache.SIZE_PROPERTY, "10");
+    }
+
+    @AfterClass
+    public static void disableCache() {
+        System.clearProperty(FeatureTypeSchemaCache.SIZE_PROPERTY);
+    }
+
+    @Before
+    public void clearCache() {
+        cache = GeoServerExtensions.bean(FeatureTypeSchemaCache.class);
+        cache.clear();
+    }
+
+    private void assertGetFeature(String version, String typeName) throws Exception {
+        Document dom =
+                getAsDOM(
+                        "wfs?request=GetFeature&service=WFS&version="
+                                + version
+                                + "&typename="
+                                + typeName);
+        assertEquals("wfs:FeatureCollection", dom.getDocumentElement().getNodeName());
+    }
+
+    @Test
+    public void testCachedSchema() throws Exception {
+        String typeName = getLayerId(MockData.BUILDINGS);
+        long builds = cache.getBuilds();
+        long hits = cache.getHits();
+
+        assertGetFeature("1.1.0", typeName);
+        assertEquals(builds + 1, cache.getBuilds());
+        assertGetFeature("1.1.0", typeName);
+        assertEquals(builds + 1, cache.getBuilds());
+        assertEquals(hits + 1, cache.getHits());
+
+        // a different GML version is a different schema
+        assertGetFeature("2.0.0", typeName);
+        assertEquals(builds + 2, cache.getBuilds());
+        assertEquals(2, cache.getCount());
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        String typeName = getLayerId(MockData.BUILDINGS);
+        assertGetFeature("1.1.0", typeName);
+        assertGetFeature("1.1.0", getLayerId(MockData.BRIDGES));
+        assertEquals(2, cache.getCount());
+
+        Catalog catalog = getCatalog();
+        FeatureTypeInfo info = catalog.getFeatureTypeByName(typeName);
+        assertNotNull(info);
+        String title = info.getTitle();
+        try {
+            info.setTitle("Changed");
+            catalog.save(info);
+            // only the schema of the modified type is gone
+            assertEquals(1, cache.getCount());
+
+            long builds = cache.getBuilds();
+            assertGetFeature("1.1.0", typeName);
+            assertEquals(builds + 1, cache.getBuilds());
+        } finally {
+            info = catalog.getFeatureTypeByName(typeName);
+            info.setTitle(title);
+            catalog.save(info);
+        }
+    }
+}
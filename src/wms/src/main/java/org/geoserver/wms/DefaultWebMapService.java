@@ -87,6 +87,15 @@
     /** default for 'transparent' parameter. */
     public static volatile ExecutorService RENDERING_POOL;
 
+    /** pool rendering the layers of a map in parallel */
+    public static volatile ExecutorService LAYER_RENDERING_POOL;
+
+    /** pool identifying the layers of a GetFeatureInfo request in parallel */
+    public static volatile ExecutorService FEATURE_INFO_POOL;
+
+    /** pool compressing the blocks of large PNG images in parallel */
+    public static volatile ExecutorService PNG_ENCODING_POOL;
+
     /** default for 'bbox' paramter */
     public static ReferencedEnvelope BBOX =
             new ReferencedEnvelope(new Envelope(-180, 180, -90, 90), DefaultGeographicCRS.WGS84);
@@ -107,6 +116,15 @@
     /** Use a global rendering pool, or use a new pool each time */
     private static Boolean USE_GLOBAL_RENDERING_POOL = null;
 
+    /** Number of threads rendering the layers of a map in parallel, 0 if disabled */
+    private static Integer PARALLEL_LAYER_RENDERING_THREADS = null;
+
+    /** Number of threads identifying the layers of a GetFeatureInfo in parallel, 0 if disabled */
+    private static Integer PARALLEL_FEATURE_INFO_THREADS = null;
+
+    /** Number of threads compressing large PNG images in parallel, 0 if disabled */
+    private static Integer PARALLEL_PNG_ENCODING_THREADS = null;
+
     private GetCapabilities getCapabilities;
 
     private DescribeLayer describeLayer;
@@ -187,6 +205,30 @@ public void setApplicationContext(ApplicationContext context) throws BeansExcept
             if (usePool == null) USE_GLOBAL_RENDERING_POOL = true;
             else USE_GLOBAL_RENDERING_POOL = Boolean.valueOf(usePool);
         }
+
+        // parallel rendering of the layers of a map, disabled by default
+        if (PARALLEL_LAYER_RENDERING_THREADS == null) {
+            String threads =
+                    GeoServerExtensions.getProperty("PARALLEL_LAYER_RENDERING_THREADS", context);
+            if (threads == null) PARALLEL_LAYER_RENDERING_THREADS = 0;
+            else PARALLEL_LAYER_RENDERING_THREADS = Integer.valueOf(threads);
+        }
+
+        // parallel identification of the GetFeatureInfo layers, disabled by default
+        if (PARALLEL_FEATURE_INFO_THREADS == null) {
+            String threads =
+                    GeoServerExtensions.getProperty("PARALLEL_FEATURE_INFO_THREADS", context);
+            if (threads == null) PARALLEL_FEATURE_INFO_THREADS = 0;
+            else PARALLEL_FEATURE_INFO_THREADS = Integer.valueOf(threads);
+        }
+
+        // parallel compression of large PNG images, disabled by default
+        if (PARALLEL_PNG_ENCODING_THREADS == null) {
+            String threads =
+                    GeoServerExtensions.getProperty("PARALLEL_PNG_ENCODING_THREADS", context);
+            if (threads == null) PARALLEL_PNG_ENCODING_THREADS = 0;
+            else PARALLEL_PNG_ENCODING_THREADS = Integer.valueOf(threads);
+        }
     }
 
     /**
@@ -347,6 +389,102 @@ public static ExecutorService getRenderingPool() {
         return RENDERING_POOL;
     }
 
+    /**
+     * Returns the pool used to render the layers of a map in parallel, or null if parallel layer
+     * rendering is disabled (the default, can be enabled by setting the
+     * PARALLEL_LAYER_RENDERING_THREADS property to the max number of threads)
+     */
+    public static ExecutorService getLayerRenderingPool() {
+        Integer threads = PARALLEL_LAYER_RENDERING_THREADS;
+        if (threads == null || threads <= 0) {
+            return null;
+        }
+        if (LAYER_RENDERING_POOL == null) {
+            synchronized (DefaultWebMapService.class) {
+                if (LAYER_RENDERING_POOL == null) {
+                    LAYER_RENDERING_POOL = new ThreadLocalTransferExecutor(threads);
+                }
+            }
+        }
+
+        return LAYER_RENDERING_POOL;
+    }
+
+    /** Sets the number of threads rendering the layers of a map in parallel, 0 to disable */
+    public static synchronized void setParallelLayerRenderingThreads(int threads) {
+        PARALLEL_LAYER_RENDERING_THREADS = threads;
+        if (LAYER_RENDERING_POOL != null) {
+            LAYER_RENDERING_POOL.shutdown();
+            LAYER_RENDERING_POOL = null;
+        }
+    }
+
+    /**
+     * Returns the pool used to identify the layers of a GetFeatureInfo request in parallel, or null
+     * if parallel identification is disabled (the default, can be enabled by setting the
+     * PARALLEL_FEATURE_INFO_THREADS property to the max number of threads)
+     */
+    public static ExecutorService getFeatureInfoPool() {
+        Integer threads = PARALLEL_FEATURE_INFO_THREADS;
+        if (threads == null || threads <= 0) {
+            return null;
+        }
+        if (FEATURE_INFO_POOL == null) {
+            synchronized (DefaultWebMapService.class) {
+                if (FEATURE_INFO_POOL == null) {
+                    FEATURE_INFO_POOL = new ThreadLocalTransferExecutor(threads);
+                }
+            }
+        }
+
+        return FEATURE_INFO_POOL;
+    }
+
+    /** Sets the number of threads identifying GetFeatureInfo layers in parallel, 0 to disable */
+    public static synchronized void setParallelFeatureInfoThreads(int threads) {
+        PARALLEL_FEATURE_INFO_THREADS = threads;
+        if (FEATURE_INFO_POOL != null) {
+            FEATURE_INFO_POOL.shutdown();
+            FEATURE_INFO_POOL = null;
+        }
+    }
+
+    /**
+     * Returns the pool used to compress large PNG images in parallel, or null if parallel
+     * compression is disabled (the default, can be enabled by setting the
+     * PARALLEL_PNG_ENCODING_THREADS property to the max number of threads)
+     */
+    public static ExecutorService getPNGEncodingPool() {
+        Integer threads = PARALLEL_PNG_ENCODING_THREADS;
+        if (threads == null || threads <= 0) {
+            return null;
+        }
+        if (PNG_ENCODING_POOL == null) {
+            synchronized (DefaultWebMapService.class) {
+                if (PNG_ENCODING_POOL == null) {
+                    PNG_ENCODING_POOL = new ThreadLocalTransferExecutor(threads);
+                }
+            }
+        }
+
+        return PNG_ENCODING_POOL;
+    }
+
+    /** Returns the number of threads compressing large PNG images in parallel, 0 if disabled */
+    public static int getPNGEncodingThreads() {
+        Integer threads = PARALLEL_PNG_ENCODING_THREADS;
+        return threads == null ? 0 : Math.max(0, threads);
+    }
+
+    /** Sets the number of threads compressing large PNG images in parallel, 0 to disable */
+    public static synchronized void setParallelPNGEncodingThreads(int threads) {
+        PARALLEL_PNG_ENCODING_THREADS = threads;
+        if (PNG_ENCODING_POOL != null) {
+            PNG_ENCODING_POOL.shutdown();
+            PNG_ENCODING_POOL = null;
+        }
+    }
+
     @Override
     public void destroy() throws Exception {
         if (RENDERING_POOL != null) {
@@ -354,5 +492,20 @@ public void destroy() throws Exception {
             RENDERING_POOL.awaitTermination(10, TimeUnit.SECONDS);
             RENDERING_POOL = null;
         }
+        if (LAYER_RENDERING_POOL != null) {
+            LAYER_RENDERING_POOL.shutdown();
+            LAYER_RENDERING_POOL.awaitTermination(10, TimeUnit.SECONDS);
+            LAYER_RENDERING_POOL = null;
+        }
+        if (FEATURE_INFO_POOL != null) {
+            FEATURE_INFO_POOL.shutdown();
+            FEATURE_INFO_POOL.awaitTermination(10, TimeUnit.SECONDS);
+            FEATURE_INFO_POOL = null;
+        }
+        if (PNG_ENCODING_POOL != null) {
+            PNG_ENCODING_POOL.shutdown();
+            PNG_ENCODING_POOL.awaitTermination(10, TimeUnit.SECONDS);
+            PNG_ENCODING_POOL = null;
+        }
     }
 }
@@ -0,0 +1,459 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.namespace.QName;
+import org.geoserver.catalog.CatalogException;
+import org.geoserver.catalog.CatalogInfo;
+import org.geoserver.catalog.DimensionInfo;
+import org.geoserver.catalog.FeatureTypeInfo;
+import org.geoserver.catalog.LayerInfo;
+import org.geoserver.catalog.ResourceInfo;
+import org.geoserver.catalog.StoreInfo;
+import org.geoserver.catalog.event.CatalogAddEvent;
+import org.geoserver.catalog.event.CatalogEvent;
+import org.geoserver.catalog.event.CatalogListener;
+import org.geoserver.catalog.event.CatalogModifyEvent;
+import org.geoserver.catalog.event.CatalogPostModifyEvent;
+import org.geoserver.catalog.event.CatalogRemoveEvent;
+import org.geoserver.config.GeoServer;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.platform.resource.Resource;
+import org.geoserver.platform.resource.Resources;
+import org.geoserver.security.AccessLimits;
+import org.geoserver.security.DataAccessLimits;
+import org.geoserver.security.VectorAccessLimits;
+import org.geoserver.security.WrapperPolicy;
+import org.geoserver.security.decorators.SecuredFeatureTypeInfo;
+import org.geoserver.wfs.TransactionCallback;
+import org.geoserver.wfs.TransactionEvent;
+import org.geoserver.wfs.WFSException;
+import org.geoserver.wfs.request.TransactionRequest;
+import org.geoserver.wfs.request.TransactionResponse;
+import org.geotools.util.logging.Logging;
+import org.opengis.filter.Filter;
+
+/**
+ * Caches the time, elevation and custom dimension domains of vector layers, which otherwise require
+ * a scan of the whole feature source every time they are needed.
+ *
+ * <p>A domain is dropped when the layer, its resource or its store are modified in the catalog, and
+ * when a WFS transaction touching the layer completes. Changes made to the data outside of
+ * GeoServer are picked up once the domain gets older than the configured time to live.
+ *
+ * <p>The cache is configured using the following variables, either as system, environment or
+ * servlet context variables:
+ *
+ * <ul>
+ *   <li>DIMENSION_DOMAIN_CACHE_TTL: the time to live of the domains, in seconds. Defaults to 0,
+ *       which disables the cache
+ *   <li>DIMENSION_DOMAIN_CACHE_PERSIST: if true, the domains are also saved in the data directory,
+ *       so that they survive a restart (within their time to live). Defaults to false
+ * </ul>
+ */
+public class DimensionDomainCache implements TransactionCallback, CatalogListener {
+
+    static final Logger LOGGER = Logging.getLogger(DimensionDomainCache.class);
+
+    public static final String TTL_PROPERTY = "DIMENSION_DOMAIN_CACHE_TTL";
+
+    public static final String PERSIST_PROPERTY = "DIMENSION_DOMAIN_CACHE_PERSIST";
+
+    /** The data directory folder holding the persisted domains */
+    static final String PERSIST_DIRECTORY = "dimension-domains";
+
+    /** Computes a domain */
+    @FunctionalInterface
+    public interface DomainLoader<T> {
+        TreeSet<T> load() throws IOException;
+    }
+
+    /** A cached domain */
+    static final class Entry {
+
+        final String signature;
+
+        final long created;
+
+        /** The domain, can be null */
+        final TreeSet<Object> values;
+
+        Entry(String signature, long created, TreeSet<Object> values) {
+            this.signature = signature;
+            this.created = created;
+            this.values = values;
+        }
+    }
+
+    GeoServer geoServer;
+
+    long ttl;
+
+    boolean persist;
+
+    /** Domains by feature type id and dimension name */
+    final Map<String, Entry> domains = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented at every invalidation, a domain computed while an invalidation happened is not
+     * cached as it might be out of date
+     */
+    final AtomicLong generation = new AtomicLong();
+
+    /** The layers modified by the transaction running in the current thread */
+    final ThreadLocal<Set<QName>> transactionLayers = ThreadLocal.withInitial(HashSet::new);
+
+    public DimensionDomainCache(GeoServer geoServer) {
+        this.geoServer = geoServer;
+        String value = GeoServerExtensions.getProperty(TTL_PROPERTY);
+        if (value != null) {
+            try {
+                this.ttl = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + TTL_PROPERTY + ": " + value);
+            }
+        }
+        this.persist = Boolean.parseBoolean(GeoServerExtensions.getProperty(PERSIST_PROPERTY));
+        geoServer.getCatalog().addListener(this);
+    }
+
+    /** Returns true if the cache is enabled */
+    public boolean isEnabled() {
+        return ttl > 0;
+    }
+
+    /** Returns the time to live of the domains, in seconds, zero or less if disabled */
+    public long getTimeToLive() {
+        return ttl;
+    }
+
+    /** Sets the time to live of the domains, in seconds. Zero or less disables the cache */
+    public void setTimeToLive(long ttl) {
+        this.ttl = ttl;
+        if (ttl <= 0) {
+            clear();
+        }
+    }
+
+    /** Returns true if the domains are persisted in the data directory */
+    public boolean isPersist() {
+        return persist;
+    }
+
+    /** Sets whether the domains are persisted in the data directory */
+    public void setPersist(boolean persist) {
+        this.persist = persist;
+    }
+
+    /**
+     * Returns the domain of the dimension, from the cache if available, using the loader otherwise.
+     * The returned set is a copy the caller can modify.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TreeSet<T> getDomain(
+            FeatureTypeInfo typeInfo,
+            String dimensionName,
+            DimensionInfo dimension,
+            DomainLoader<T> loader)
+            throws IOException {
+        // security might filter the data the user can see, don't share the domain
+        if (!isEnabled() || typeInfo.getId() == null || isSecured(typeInfo)) {
+            return loader.load();
+        }
+
+        String key = typeInfo.getId() + "/" + dimensionName;
+        String signature = getSignature(typeInfo, dimension);
+        Entry entry = domains.get(key);
+        if (entry == null && persist) {
+            entry = read(key);
+            if (entry != null) {
+                domains.put(key, entry);
+            }
+        }
+        if (entry == null
+                || !entry.signature.equals(signature)
+                || System.currentTimeMillis() - entry.created > TimeUnit.SECONDS.toMillis(ttl)) {
+            long current = generation.get();
+            long created = System.currentTimeMillis();
+            TreeSet<Object> values = (TreeSet<Object>) loader.load();
+            entry = new Entry(signature, created, values);
+            if (generation.get() == current) {
+                domains.put(key, entry);
+                if (persist) {
+                    write(key, entry);
+                }
+            }
+        }
+
+        return entry.values == null ? null : new TreeSet<>((TreeSet<T>) entry.values);
+    }
+
+    /**
+     * Returns true if the security subsystem limits what the current user can read out of the
+     * feature type, in which case the domain is specific to the user
+     */
+    private boolean isSecured(FeatureTypeInfo typeInfo) {
+        if (!(typeInfo instanceof SecuredFeatureTypeInfo)) {
+            return false;
+        }
+        WrapperPolicy policy = ((SecuredFeatureTypeInfo) typeInfo).getWrapperPolicy();
+        if (policy == null) {
+            return false;
+        }
+        // the data is not accessible at all, let the loader fail as usual
+        if (policy.isMetadata()) {
+            return true;
+        }
+        AccessLimits limits = policy.getLimits();
+        if (limits == null) {
+            return false;
+        } else if (!(limits instanceof DataAccessLimits)) {
+            return true;
+        }
+        Filter readFilter = ((DataAccessLimits) limits).getReadFilter();
+        if (readFilter != null && readFilter != Filter.INCLUDE) {
+            return true;
+        }
+        if (limits instanceof VectorAccessLimits) {
+            VectorAccessLimits vl = (VectorAccessLimits) limits;
+            return vl.getReadAttributes() != null
+                    || vl.getClipVectorFilter() != null
+                    || vl.getIntersectVectorFilter() != null;
+        }
+        return false;
+    }
+
+    /**
+     * The signature identifies the layer and the dimension configuration the domain was computed
+     * for, the layer name is used to match the transaction events
+     */
+    static String getSignature(FeatureTypeInfo typeInfo, DimensionInfo dimension) {
+        return typeInfo.getNamespace().getURI()
+                + "|"
+                + typeInfo.getName()
+                + "|"
+                + typeInfo.getNativeName()
+                + "|"
+                + dimension.getAttribute()
+                + "|"
+                + dimension.getEndAttribute()
+                + "|"
+                + dimension.getPresentation()
+                + "|"
+                + dimension.getResolution();
+    }
+
+    /** Drops all the domains of the given feature type */
+    public void invalidate(String typeId) {
+        generation.incrementAndGet();
+        String prefix = typeId + "/";
+        domains.keySet().removeIf(k -> k.startsWith(prefix));
+        if (persist) {
+            Resource directory = getDirectory();
+            for (Resource r : directory.list()) {
+                if (r.name().startsWith(toFileName(prefix))) {
+                    r.delete();
+                }
+            }
+        }
+    }
+
+    /** Drops all the domains */
+    public void clear() {
+        generation.incrementAndGet();
+        domains.clear();
+        if (persist) {
+            getDirectory().delete();
+        }
+    }
+
+    /** Returns the number of cached domains */
+    public int size() {
+        return domains.size();
+    }
+
+    /** Drops the domains of the layer touched by a transaction */
+    void invalidate(QName layerName) {
+        String uri = layerName.getNamespaceURI();
+        String local = layerName.getLocalPart();
+        Set<String> ids = new HashSet<>();
+        for (Map.Entry<String, Entry> e : domains.entrySet()) {
+            String[] parts = e.getValue().signature.split("\\|", 4);
+            if ((uri == null || uri.isEmpty() || uri.equals(parts[0]))
+                    && (local.equals(parts[1]) || local.equals(parts[2]))) {
+                String key = e.getKey();
+                ids.add(key.substring(0, key.lastIndexOf('/')));
+            }
+        }
+        if (ids.isEmpty()) {
+            // make sure a domain being computed right now is not cached
+            generation.incrementAndGet();
+        }
+        ids.forEach(this::invalidate);
+    }
+
+    Resource getDirectory() {
+        return geoServer.getCatalog().getResourceLoader().get(PERSIST_DIRECTORY);
+    }
+
+    private static String toFileName(String key) {
+        return key.replaceAll("[^\\w\\.\\-]", "_");
+    }
+
+    private Entry read(String key) {
+        Resource resource = getDirectory().get(toFileName(key) + ".ser");
+        if (!Resources.exists(resource)) {
+            return null;
+        }
+        try (ObjectInputStream ois = new DomainInputStream(resource.in())) {
+            String signature = (String) ois.readObject();
+            long created = ois.readLong();
+            @SuppressWarnings("unchecked")
+            TreeSet<Object> values = (TreeSet<Object>) ois.readObject();
+            return new Entry(signature, created, values);
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Could not read the persisted domain " + key, e);
+            resource.delete();
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        Resource resource = getDirectory().get(toFileName(key) + ".ser");
+        try (OutputStream os = resource.out();
+                ObjectOutputStream oos = new ObjectOutputStream(os)) {
+            oos.writeObject(entry.signature);
+            oos.writeLong(entry.created);
+            oos.writeObject(entry.values);
+        } catch (Exception e) {
+            // non serializable values, or file system issues, the domain is still cached in memory
+            LOGGER.log(Level.FINE, "Could not persist the domain " + key, e);
+            resource.delete();
+        }
+    }
+
+    /**
+     * Only allows deserializing the classes found in dimension domains, the files are not meant to
+     * contain anything else
+     */
+    static class DomainInputStream extends ObjectInputStream {
+
+        public DomainInputStream(InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            String name = desc.getName();
+            if ((name.length() == 2 && name.charAt(0) == '[')
+                    || name.startsWith("java.lang.")
+                    || name.startsWith("java.math.")
+                    || name.equals("java.util.TreeSet")
+                    || name.equals("java.util.Date")
+                    || name.startsWith("java.sql.")
+                    || name.startsWith("java.util.Comparators$")
+                    || name.startsWith("java.util.Collections$ReverseComparator")) {
+                return super.resolveClass(desc);
+            }
+            throw new InvalidClassException(name, "Unexpected class in dimension domain");
+        }
+    }
+
+    // catalog events
+
+    @Override
+    public void handleAddEvent(CatalogAddEvent event) throws CatalogException {
+        // a new resource has no domain yet
+    }
+
+    @Override
+    public void handleRemoveEvent(CatalogRemoveEvent event) throws CatalogException {
+        handleEvent(event);
+    }
+
+    @Override
+    public void handleModifyEvent(CatalogModifyEvent event) throws CatalogException {
+        // we need the post event
+    }
+
+    @Override
+    public void handlePostModifyEvent(CatalogPostModifyEvent event) throws CatalogException {
+        handleEvent(event);
+    }
+
+    private void handleEvent(CatalogEvent event) {
+        CatalogInfo source = event.getSource();
+        if (source instanceof LayerInfo) {
+            source = ((LayerInfo) source).getResource();
+        }
+        if (source instanceof ResourceInfo) {
+            invalidate(source.getId());
+        } else if (source instanceof StoreInfo) {
+            // connection parameters might have changed, drop all the store resources
+            for (FeatureTypeInfo ft :
+                    geoServer.getCatalog().getFeatureTypesByStore((StoreInfo) source)) {
+                invalidate(ft.getId());
+            }
+        }
+    }
+
+    @Override
+    public void reloaded() {
+        clear();
+    }
+
+    // transaction events
+
+    @Override
+    public TransactionRequest beforeTransaction(TransactionRequest request) throws WFSException {
+        transactionLayers.remove();
+        return request;
+    }
+
+    @Override
+    public void beforeCommit(TransactionRequest request) throws WFSException {
+        // nothing to do
+    }
+
+    @Override
+    public void dataStoreChange(TransactionEvent event) throws WFSException {
+        if (isEnabled() && event.getLayerName() != null) {
+            transactionLayers.get().add(event.getLayerName());
+        }
+    }
+
+    /**
+     * Drops the domains once the transaction is complete, dropping them earlier would allow
+     * concurrent requests to cache the uncommitted state
+     */
+    @Override
+    public void afterTransaction(
+            TransactionRequest request, TransactionResponse result, boolean committed) {
+        try {
+            if (committed) {
+                transactionLayers.get().forEach(this::invalidate);
+            }
+        } finally {
+            transactionLayers.remove();
+        }
+    }
+}
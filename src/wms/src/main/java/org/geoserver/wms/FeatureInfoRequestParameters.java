@@ -103,6 +103,31 @@ public FeatureInfoRequestParameters(GetFeatureInfoRequest request) {
         this.propertyNames = request.getPropertyNames();
     }
 
+    /** Copies the parameters, positioned on the specified layer */
+    private FeatureInfoRequestParameters(FeatureInfoRequestParameters other, int layer) {
+        this.x = other.x;
+        this.y = other.y;
+        this.buffer = other.buffer;
+        this.viewParams = other.viewParams;
+        this.getMapReq = other.getMapReq;
+        this.requestedCRS = other.requestedCRS;
+        this.width = other.width;
+        this.height = other.height;
+        this.bbox = other.bbox;
+        this.scaleDenominator = other.scaleDenominator;
+        this.filters = other.filters;
+        this.sorts = other.sorts;
+        this.layers = other.layers;
+        this.styles = other.styles;
+        this.elevations = other.elevations;
+        this.times = other.times;
+        this.ff = other.ff;
+        this.propertyNames = other.propertyNames;
+        this.maxFeatures = other.maxFeatures;
+        this.excludeNodataResults = other.excludeNodataResults;
+        this.currentLayer = layer;
+    }
+
     private double getScaleDenominator(GetMapRequest request) {
         final Envelope envelope = request.getBbox();
         final CoordinateReferenceSystem mapcrs = request.getCrs();
@@ -151,6 +176,14 @@ private List<Style> getStyles(final GetFeatureInfoRequest request, List<MapLayer
         return styles;
     }
 
+    /**
+     * Returns a copy of these parameters positioned on the specified layer, allowing to identify
+     * the layers concurrently
+     */
+    FeatureInfoRequestParameters forLayer(int layer) {
+        return new FeatureInfoRequestParameters(this, layer);
+    }
+
     /** Moves to the next requested layer */
     void nextLayer() {
         currentLayer++;
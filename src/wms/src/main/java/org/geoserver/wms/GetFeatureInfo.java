@@ -9,6 +9,11 @@
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.opengis.wfs.FeatureCollectionType;
@@ -21,8 +26,10 @@
 import org.geotools.data.DataUtilities;
 import org.geotools.data.Query;
 import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.store.MaxFeaturesFeatureCollection;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.NameImpl;
+import org.geotools.feature.collection.MaxSimpleFeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.util.logging.Logging;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -64,10 +71,15 @@ private List<FeatureCollection> execute(GetFeatureInfoRequest request) throws Ex
         final List<MapLayerInfo> requestedLayers = request.getQueryLayers();
         FeatureInfoRequestParameters requestParams = new FeatureInfoRequestParameters(request);
 
+        List<LayerIdentifier> identifiers = GeoServerExtensions.extensions(LayerIdentifier.class);
+        ExecutorService pool = DefaultWebMapService.getFeatureInfoPool();
+        if (pool != null && requestedLayers.size() > 1) {
+            return executeParallel(request, requestParams, identifiers, pool);
+        }
+
         List<FeatureCollection> results = new ArrayList<>(requestedLayers.size());
 
         int maxFeatures = request.getFeatureCount();
-        List<LayerIdentifier> identifiers = GeoServerExtensions.extensions(LayerIdentifier.class);
         for (final MapLayerInfo layer : requestedLayers) {
             try {
                 LayerIdentifier<?> identifier = getLayerIdentifier(layer, identifiers);
@@ -95,6 +107,125 @@ private List<FeatureCollection> execute(GetFeatureInfoRequest request) throws Ex
         return results;
     }
 
+    /**
+     * Identifies all the layers concurrently, each one up to the feature count, then collects the
+     * results in layer order until the feature count is reached, as the sequential execution does.
+     * The whole identification is bound by the max rendering time
+     */
+    private List<FeatureCollection> executeParallel(
+            GetFeatureInfoRequest request,
+            FeatureInfoRequestParameters requestParams,
+            List<LayerIdentifier> identifiers,
+            ExecutorService pool)
+            throws Exception {
+        final List<MapLayerInfo> requestedLayers = request.getQueryLayers();
+        final int featureCount = request.getFeatureCount();
+        List<Future<List<IdentifiedCollection>>> futures = new ArrayList<>();
+        List<FeatureCollection> results = new ArrayList<>(requestedLayers.size());
+        int maxRenderingTime = WMS.get().getMaxRenderingTime(request.getGetMapRequest());
+        try {
+            for (int i = 0; i < requestedLayers.size(); i++) {
+                final MapLayerInfo layer = requestedLayers.get(i);
+                final LayerIdentifier<?> identifier = getLayerIdentifier(layer, identifiers);
+                final FeatureInfoRequestParameters layerParams = requestParams.forLayer(i);
+                futures.add(pool.submit(() -> identify(identifier, layerParams, featureCount)));
+            }
+
+            long deadline = System.currentTimeMillis() + maxRenderingTime * 1000L;
+            int maxFeatures = featureCount;
+            for (int i = 0; i < futures.size() && maxFeatures > 0; i++) {
+                List<IdentifiedCollection> collections;
+                try {
+                    collections = getResult(futures.get(i), maxRenderingTime, deadline);
+                } catch (ExecutionException e) {
+                    throw new ServiceException(
+                            "Failed to run GetFeatureInfo on layer "
+                                    + requestedLayers.get(i).getName(),
+                            e.getCause());
+                }
+                if (collections != null) {
+                    for (IdentifiedCollection ic : collections) {
+                        if (maxFeatures <= 0) {
+                            break;
+                        }
+                        // each layer was identified up to the whole feature count
+                        FeatureCollection fc = ic.collection;
+                        int size = ic.size;
+                        if (size > maxFeatures) {
+                            fc = limit(fc, maxFeatures);
+                            size = maxFeatures;
+                        }
+                        fc = wrapComplexCollection(fc, requestedLayers.get(i));
+                        maxFeatures = addToResults(fc, size, results, request, maxFeatures);
+                    }
+                }
+            }
+        } catch (TimeoutException e) {
+            throw new ServiceException(
+                    "This request used more time than allowed and has been forcefully stopped. "
+                            + "Max rendering time is "
+                            + maxRenderingTime
+                            + "s");
+        } finally {
+            // stop the identification of the layers that are no longer needed
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private <T> T getResult(Future<T> future, int maxRenderingTime, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (maxRenderingTime <= 0) {
+            return future.get();
+        }
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        return future.get(remaining, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Identifies a single layer, computing the size of the collections while still running in
+     * parallel with the other layers
+     */
+    private List<IdentifiedCollection> identify(
+            LayerIdentifier<?> identifier, FeatureInfoRequestParameters params, int maxFeatures)
+            throws Exception {
+        List<FeatureCollection> identifiedCollections = identifier.identify(params, maxFeatures);
+        if (identifiedCollections == null) {
+            return null;
+        }
+        List<IdentifiedCollection> result = new ArrayList<>();
+        for (FeatureCollection identifierCollection : identifiedCollections) {
+            FeatureCollection fc = selectProperties(params, identifierCollection);
+            if (fc != null) {
+                result.add(new IdentifiedCollection(fc, fc.size()));
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private FeatureCollection limit(FeatureCollection collection, int maxFeatures) {
+        if (collection instanceof SimpleFeatureCollection) {
+            return new MaxSimpleFeatureCollection(
+                    (SimpleFeatureCollection) collection, maxFeatures);
+        }
+        return new MaxFeaturesFeatureCollection<>(collection, maxFeatures);
+    }
+
+    /** A feature collection along with its size */
+    private static class IdentifiedCollection {
+        FeatureCollection collection;
+
+        int size;
+
+        IdentifiedCollection(FeatureCollection collection, int size) {
+            this.collection = collection;
+            this.size = size;
+        }
+    }
+
     private LayerIdentifier getLayerIdentifier(
             MapLayerInfo layer, List<LayerIdentifier> identifiers) {
         for (LayerIdentifier identifier : identifiers) {
@@ -117,46 +248,61 @@ private int addToResults(
             GetFeatureInfoRequest request,
             int maxFeatures) {
         if (collection != null) {
-            if (!(collection.getSchema() instanceof SimpleFeatureType)) {
-                // put wrapper around it with layer name
-                Name name =
-                        new NameImpl(
-                                layer.getFeature().getNamespace().getName(),
-                                layer.getFeature().getName());
-                collection = new FeatureCollectionDecorator(name, collection);
-            }
-
+            collection = wrapComplexCollection(collection, layer);
             int size = collection.size();
-            if (size != 0) {
-
-                // HACK HACK HACK
-                // For complex features, we need the targetCrs and version in scenario where we have
-                // a top level feature that does not contain a geometry(therefore no crs) and has a
-                // nested feature that contains geometry as its property.Furthermore it is possible
-                // for each nested feature to have different crs hence we need to reproject on each
-                // feature accordingly.
-                // This is a Hack, this information should not be passed through feature type
-                // appschema will need to remove this information from the feature type again
-                if (!(collection instanceof SimpleFeatureCollection)) {
-                    collection
-                            .getSchema()
-                            .getUserData()
-                            .put("targetCrs", request.getGetMapRequest().getCrs());
-                    collection.getSchema().getUserData().put("targetVersion", "wms:getfeatureinfo");
-                }
+            maxFeatures = addToResults(collection, size, results, request, maxFeatures);
+        }
+        return maxFeatures;
+    }
 
-                results.add(collection);
+    private int addToResults(
+            FeatureCollection collection,
+            int size,
+            List<FeatureCollection> results,
+            GetFeatureInfoRequest request,
+            int maxFeatures) {
+        if (size != 0) {
 
-                // don't return more than FEATURE_COUNT
-                maxFeatures -= size;
-                if (maxFeatures <= 0) {
-                    return 0;
-                }
+            // HACK HACK HACK
+            // For complex features, we need the targetCrs and version in scenario where we have
+            // a top level feature that does not contain a geometry(therefore no crs) and has a
+            // nested feature that contains geometry as its property.Furthermore it is possible
+            // for each nested feature to have different crs hence we need to reproject on each
+            // feature accordingly.
+            // This is a Hack, this information should not be passed through feature type
+            // appschema will need to remove this information from the feature type again
+            if (!(collection instanceof SimpleFeatureCollection)) {
+                collection
+                        .getSchema()
+                        .getUserData()
+                        .put("targetCrs", request.getGetMapRequest().getCrs());
+                collection.getSchema().getUserData().put("targetVersion", "wms:getfeatureinfo");
+            }
+
+            results.add(collection);
+
+            // don't return more than FEATURE_COUNT
+            maxFeatures -= size;
+            if (maxFeatures <= 0) {
+                return 0;
             }
         }
         return maxFeatures;
     }
 
+    private FeatureCollection wrapComplexCollection(
+            FeatureCollection collection, MapLayerInfo layer) {
+        if (!(collection.getSchema() instanceof SimpleFeatureType)) {
+            // put wrapper around it with layer name
+            Name name =
+                    new NameImpl(
+                            layer.getFeature().getNamespace().getName(),
+                            layer.getFeature().getName());
+            collection = new FeatureCollectionDecorator(name, collection);
+        }
+        return collection;
+    }
+
     protected FeatureCollection selectProperties(
             FeatureInfoRequestParameters params, FeatureCollection collection) throws IOException {
         // no general way to reduce attribute names in complex features yet
@@ -237,10 +237,22 @@ public class WMS implements ApplicationContextAware {
 
     private DimensionDefaultValueSelectionStrategyFactory defaultDimensionValueFactory;
 
+    private DimensionDomainCache dimensionDomainCache;
+
     public WMS(GeoServer geoserver) {
         this.geoserver = geoserver;
     }
 
+    /** Returns the cache of the vector dimension domains, or null if not set */
+    public DimensionDomainCache getDimensionDomainCache() {
+        return dimensionDomainCache;
+    }
+
+    /** Sets the cache of the vector dimension domains */
+    public void setDimensionDomainCache(DimensionDomainCache dimensionDomainCache) {
+        this.dimensionDomainCache = dimensionDomainCache;
+    }
+
     public Catalog getCatalog() {
         return geoserver.getCatalog();
     }
@@ -1270,6 +1282,12 @@ public TreeSet<Date> getFeatureTypeTimes(FeatureTypeInfo typeInfo) throws IOExce
                     "Layer " + typeInfo.prefixedName() + " does not have time support enabled");
         }
 
+        return getDimensionDomain(
+                typeInfo, ResourceInfo.TIME, time, () -> loadFeatureTypeTimes(typeInfo, time));
+    }
+
+    private TreeSet<Date> loadFeatureTypeTimes(FeatureTypeInfo typeInfo, DimensionInfo time)
+            throws IOException {
         FeatureCollection collection = getDimensionCollection(typeInfo, time);
 
         TreeSet<Date> result = new TreeSet<>();
@@ -1351,6 +1369,15 @@ public TreeSet<Double> getFeatureTypeElevations(FeatureTypeInfo typeInfo) throws
                             + " does not have elevation support enabled");
         }
 
+        return getDimensionDomain(
+                typeInfo,
+                ResourceInfo.ELEVATION,
+                elevation,
+                () -> loadFeatureTypeElevations(typeInfo, elevation));
+    }
+
+    private TreeSet<Double> loadFeatureTypeElevations(
+            FeatureTypeInfo typeInfo, DimensionInfo elevation) throws IOException {
         FeatureCollection collection = getDimensionCollection(typeInfo, elevation);
 
         TreeSet<Double> result = new TreeSet<>();
@@ -1782,6 +1809,18 @@ public static boolean isWmsExposable(LayerInfo lyr) {
      */
     public TreeSet<Object> getDimensionValues(FeatureTypeInfo typeInfo, DimensionInfo dimensionInfo)
             throws IOException {
+        // the dimension name is not known here, the domain is identified by its attribute
+        String dimensionName =
+                ResourceInfo.VECTOR_CUSTOM_DIMENSION_PREFIX + dimensionInfo.getAttribute();
+        return getDimensionDomain(
+                typeInfo,
+                dimensionName,
+                dimensionInfo,
+                () -> loadDimensionValues(typeInfo, dimensionInfo));
+    }
+
+    private TreeSet<Object> loadDimensionValues(
+            FeatureTypeInfo typeInfo, DimensionInfo dimensionInfo) throws IOException {
         final FeatureCollection fcollection = getDimensionCollection(typeInfo, dimensionInfo);
 
         final TreeSet<Object> result = new TreeSet<>();
@@ -1814,6 +1853,19 @@ public TreeSet<Object> getDimensionValues(FeatureTypeInfo typeInfo, DimensionInf
         return result;
     }
 
+    /** Returns the dimension domain, using the domain cache if available */
+    private <T> TreeSet<T> getDimensionDomain(
+            FeatureTypeInfo typeInfo,
+            String dimensionName,
+            DimensionInfo dimension,
+            DimensionDomainCache.DomainLoader<T> loader)
+            throws IOException {
+        if (dimensionDomainCache == null) {
+            return loader.load();
+        }
+        return dimensionDomainCache.getDomain(typeInfo, dimensionName, dimension, loader);
+    }
+
     public boolean isDefaultGroupStyleEnabled() {
         return getServiceInfo().isDefaultGroupStyleEnabled();
     }
@@ -17,6 +17,7 @@
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Transparency;
+import java.awt.color.ColorSpace;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.image.ColorModel;
@@ -41,6 +42,7 @@
 import javax.media.jai.ROI;
 import javax.media.jai.ROIShape;
 import javax.media.jai.RasterFactory;
+import javax.media.jai.operator.CompositeDescriptor;
 import javax.media.jai.operator.ConstantDescriptor;
 import javax.media.jai.operator.MosaicDescriptor;
 import org.geoserver.catalog.LayerInfo;
@@ -61,6 +63,7 @@
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.image.ImageWorker;
 import org.geotools.image.util.ColorUtilities;
+import org.geotools.map.GridReaderLayer;
 import org.geotools.map.Layer;
 import org.geotools.parameter.Parameter;
 import org.geotools.process.Processors;
@@ -70,8 +73,11 @@
 import org.geotools.renderer.lite.RendererUtilities;
 import org.geotools.renderer.lite.RenderingTransformationHelper;
 import org.geotools.renderer.lite.gridcoverage2d.GridCoverageRenderer;
+import org.geotools.styling.FeatureTypeStyle;
 import org.geotools.styling.RasterSymbolizer;
+import org.geotools.styling.Rule;
 import org.geotools.styling.Style;
+import org.geotools.styling.Symbolizer;
 import org.geotools.util.logging.Logging;
 import org.opengis.coverage.grid.Format;
 import org.opengis.feature.Feature;
@@ -147,6 +153,21 @@ public DirectRasterRenderer(
             Interpolation layerInterpolation,
             boolean transparencySupported)
             throws FactoryException {
+        this(wms, mapContent, layerIndex, layerInterpolation, transparencySupported, false);
+    }
+
+    /**
+     * @param overlay if true the layer is rendered on a transparent background regardless of the
+     *     map transparency, for it to be composited with other layers
+     */
+    private DirectRasterRenderer(
+            WMS wms,
+            WMSMapContent mapContent,
+            int layerIndex,
+            Interpolation layerInterpolation,
+            boolean transparencySupported,
+            boolean overlay)
+            throws FactoryException {
         this.wms = wms;
         this.mapContent = mapContent;
         this.layerIndex = layerIndex;
@@ -183,7 +204,7 @@ public DirectRasterRenderer(
         //
         // Check transparency and bg color
         //
-        this.transparent = mapContent.isTransparent() && transparencySupported;
+        this.transparent = overlay || (mapContent.isTransparent() && transparencySupported);
         this.bgColor = getBackgroundColor(transparent);
 
         //
@@ -588,6 +609,196 @@ public RenderedImage render() throws FactoryException {
         return image;
     }
 
+    /**
+     * Returns true if the map is a stack of raster layers that can be rendered by {@link
+     * #renderStack(WMS, WMSMapContent, List, boolean)}: all layers are visible coverage layers, and
+     * none uses composition, blending or opacity, which the stack compositing does not support
+     */
+    static boolean isStackable(WMSMapContent mapContent) {
+        List<Layer> layers = mapContent.layers();
+        if (layers.size() < 2) {
+            return false;
+        }
+        for (Layer layer : layers) {
+            if (!(layer instanceof GridReaderLayer) || !layer.isVisible()) {
+                return false;
+            }
+            Style style = ((GridReaderLayer) layer).getStyle();
+            if (style == null) {
+                return false;
+            }
+            for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+                Map<String, String> options = fts.getOptions();
+                if (options.containsKey(FeatureTypeStyle.COMPOSITE)
+                        || options.containsKey(FeatureTypeStyle.COMPOSITE_BASE)) {
+                    return false;
+                }
+                for (Rule rule : fts.rules()) {
+                    for (Symbolizer symbolizer : rule.symbolizers()) {
+                        if (symbolizer.getOptions().containsKey(FeatureTypeStyle.COMPOSITE)
+                                || !isOpaque(symbolizer)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Returns true if the symbolizer is not a raster one, or paints with full opacity */
+    private static boolean isOpaque(Symbolizer symbolizer) {
+        if (!(symbolizer instanceof RasterSymbolizer)) {
+            return true;
+        }
+        Expression opacity = ((RasterSymbolizer) symbolizer).getOpacity();
+        if (opacity == null) {
+            return true;
+        }
+        Double value = opacity.evaluate(null, Double.class);
+        return value != null && value >= 1;
+    }
+
+    /**
+     * Renders a stack of coverage layers as the final RenderedImage to be encoded. Each layer is
+     * rendered on the direct path over a transparent background, and the results are composited
+     * bottom to top with the JAI Composite operation (source over), on top of the background
+     * color if the map is not transparent. No Graphics2D is involved.
+     *
+     * @return the map, or null if any of the layers could not be rendered on the direct path, in
+     *     which case the caller should fall back on the StreamingRenderer
+     */
+    static RenderedImage renderStack(
+            WMS wms,
+            WMSMapContent mapContent,
+            List<Interpolation> interpolations,
+            boolean transparencySupported)
+            throws FactoryException {
+        List<Layer> layers = mapContent.layers();
+        RenderedImage result = null;
+        ImageLayout layout = null;
+        Rectangle mapRasterArea = null;
+        for (int i = 0; i < layers.size(); i++) {
+            Interpolation interpolation = null;
+            if (interpolations != null && interpolations.size() > i) {
+                interpolation = interpolations.get(i);
+            }
+            DirectRasterRenderer renderer =
+                    new DirectRasterRenderer(
+                            wms, mapContent, i, interpolation, transparencySupported, true);
+            RenderedImage image = renderer.render();
+            if (image == null) {
+                return null;
+            }
+            image = toRGBA(image, renderer.mapRasterArea);
+            if (image == null) {
+                return null;
+            }
+            if (result == null) {
+                mapRasterArea = renderer.mapRasterArea;
+                layout = renderer.getRGBALayout();
+                boolean transparent = mapContent.isTransparent() && transparencySupported;
+                if (transparent) {
+                    result = image;
+                    continue;
+                }
+                Color bgColor = renderer.getBackgroundColor(false);
+                result =
+                        createBkgImage(
+                                mapRasterArea.width,
+                                mapRasterArea.height,
+                                bgColor,
+                                new RenderingHints(JAI.KEY_IMAGE_LAYOUT, layout));
+            }
+            result = over(image, result, layout);
+        }
+
+        if (!(mapContent.isTransparent() && transparencySupported)) {
+            // opaque map, the alpha channel is no longer needed
+            result =
+                    new ImageWorker(result)
+                            .retainBands(3)
+                            .forceComponentColorModel()
+                            .getRenderedImage();
+        }
+        return result;
+    }
+
+    /**
+     * Turns a rendered layer in a 4 bands RGBA byte image covering the map area, or returns null
+     * if that is not possible
+     */
+    private static RenderedImage toRGBA(RenderedImage image, Rectangle mapRasterArea) {
+        if (image.getSampleModel().getDataType() != DataBuffer.TYPE_BYTE
+                || !PlanarImage.wrapRenderedImage(image).getBounds().equals(mapRasterArea)) {
+            return null;
+        }
+        ImageWorker iw = new ImageWorker(image).forceComponentColorModel();
+        image = iw.getRenderedImage();
+        ColorModel cm = image.getColorModel();
+        if (cm.getNumColorComponents() == 1) {
+            RenderedImage gray = new ImageWorker(image).retainFirstBand().getRenderedImage();
+            iw = new ImageWorker(gray).bandMerge(3);
+            if (cm.hasAlpha()) {
+                iw.addBand(new ImageWorker(image).retainLastBand().getRenderedImage(), false);
+            }
+            iw.forceComponentColorModel().forceColorSpaceRGB();
+            image = iw.getRenderedImage();
+            cm = image.getColorModel();
+        }
+        if (cm.getNumColorComponents() != 3) {
+            return null;
+        }
+        if (!cm.hasAlpha()) {
+            RenderedImage alpha =
+                    ConstantDescriptor.create(
+                            (float) mapRasterArea.width,
+                            (float) mapRasterArea.height,
+                            new Byte[] {(byte) 255},
+                            null);
+            image = new ImageWorker(image).addBand(alpha, false).getRenderedImage();
+        }
+        return image;
+    }
+
+    /** Composites the top RGBA image over the bottom one */
+    private static RenderedImage over(
+            RenderedImage top, RenderedImage bottom, ImageLayout layout) {
+        RenderedImage topColors = new ImageWorker(top).retainBands(3).getRenderedImage();
+        RenderedImage topAlpha = new ImageWorker(top).retainLastBand().getRenderedImage();
+        RenderedImage bottomColors = new ImageWorker(bottom).retainBands(3).getRenderedImage();
+        RenderedImage bottomAlpha = new ImageWorker(bottom).retainLastBand().getRenderedImage();
+        return CompositeDescriptor.create(
+                topColors,
+                bottomColors,
+                topAlpha,
+                bottomAlpha,
+                false,
+                CompositeDescriptor.DESTINATION_ALPHA_LAST,
+                new RenderingHints(JAI.KEY_IMAGE_LAYOUT, layout));
+    }
+
+    /** Returns the layout of a RGBA byte image covering the map, using the map tiling */
+    private ImageLayout getRGBALayout() {
+        ColorModel cm =
+                new ComponentColorModel(
+                        ColorSpace.getInstance(ColorSpace.CS_sRGB),
+                        true,
+                        false,
+                        Transparency.TRANSLUCENT,
+                        DataBuffer.TYPE_BYTE);
+        int tileWidth = tileSizeX > 0 ? tileSizeX : Math.min(mapWidth, MAX_TILE_SIZE);
+        int tileHeight = tileSizeY > 0 ? tileSizeY : Math.min(mapHeight, MAX_TILE_SIZE);
+        ImageLayout layout = new ImageLayout(0, 0, mapWidth, mapHeight);
+        layout.setTileGridXOffset(0);
+        layout.setTileGridYOffset(0);
+        layout.setTileWidth(tileWidth);
+        layout.setTileHeight(tileHeight);
+        layout.setColorModel(cm);
+        layout.setSampleModel(cm.createCompatibleSampleModel(tileWidth, tileHeight));
+        return layout;
+    }
+
     private GridCoverage2D readCoverage(
             ReadingContext context, Color readerBgColor, GridGeometry2D readGG) throws IOException {
         GridCoverage2D coverage;
@@ -595,7 +806,7 @@ private GridCoverage2D readCoverage(
         // Get the reader
         //
         final Feature feature =
-                mapContent.layers().get(0).getFeatureSource().getFeatures().features().next();
+                layer.getFeatureSource().getFeatures().features().next();
         final GridCoverage2DReader reader =
                 (GridCoverage2DReader) feature.getProperty("grid").getValue();
         // render via grid coverage renderer, that will apply the advanced projection
@@ -699,7 +910,7 @@ private RenderedImage readWithProjectionHandling(
         // Get the reader
         //
         final Feature feature =
-                DataUtilities.first(mapContent.layers().get(0).getFeatureSource().getFeatures());
+                DataUtilities.first(layer.getFeatureSource().getFeatures());
         if (feature == null || feature.getProperty("grid") == null) {
             return null;
         }
@@ -0,0 +1,245 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geoserver.ows.AbstractDispatcherCallback;
+import org.geoserver.ows.Request;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geoserver.platform.Operation;
+import org.geoserver.wms.GetMapRequest;
+import org.geotools.util.logging.Logging;
+
+/**
+ * Keeps the drawing surfaces used by GetMap requests for reuse, instead of allocating a new
+ * multi-megabyte image for each request.
+ *
+ * <p>A surface is checked out while rendering, and returned to the pool only once the request is
+ * finished, as the encoders can use it until then. For the same reason only plain, non tiled, WMS
+ * GetMap requests use the pool: meta tiles are sliced into tiles that get cached, and requests
+ * running outside of the dispatcher have no clear end. Only the RGB and RGBA surfaces are pooled,
+ * the paletted ones depend on the request palette.
+ *
+ * <p>The pool is disabled by default, and enabled by setting DRAWING_SURFACE_POOL_MAX_MEMORY, as a
+ * system, environment or servlet context variable, to the max amount of memory, in KB, taken by
+ * the idle surfaces. The memory used by a surface is computed with {@link
+ * ImageUtils#getDrawingSurfaceMemoryUse(int, int, java.awt.image.IndexColorModel, boolean)}.
+ */
+public class DrawingSurfacePool extends AbstractDispatcherCallback {
+
+    static final Logger LOGGER = Logging.getLogger(DrawingSurfacePool.class);
+
+    public static final String MAX_MEMORY_PROPERTY = "DRAWING_SURFACE_POOL_MAX_MEMORY";
+
+    private static final int KB = 1024;
+
+    /** Identifies a surface size and type */
+    static final class Key {
+        final int width;
+
+        final int height;
+
+        final boolean transparent;
+
+        Key(int width, int height, boolean transparent) {
+            this.width = width;
+            this.height = height;
+            this.transparent = transparent;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return width == other.width
+                    && height == other.height
+                    && transparent == other.transparent;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(width, height, transparent);
+        }
+    }
+
+    /** The idle surfaces, by size and type */
+    static final Map<Key, Deque<BufferedImage>> idle = new HashMap<>();
+
+    /**
+     * The request running in the current thread, not inherited by the threads it spawns, as the
+     * surfaces they check out could be returned before they are done with them
+     */
+    static final ThreadLocal<Request> request = new ThreadLocal<>();
+
+    /** The surfaces checked out by the request running in the current thread */
+    static final ThreadLocal<List<BufferedImage>> checkedOut = new ThreadLocal<>();
+
+    /** Max memory used by the idle surfaces, in bytes */
+    static volatile long maxMemory;
+
+    /** Memory used by the idle surfaces, in bytes */
+    static long memory;
+
+    static long hits;
+
+    static long misses;
+
+    public DrawingSurfacePool() {
+        String value = GeoServerExtensions.getProperty(MAX_MEMORY_PROPERTY);
+        if (value != null) {
+            try {
+                setMaxMemory(Long.parseLong(value.trim()) * KB);
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + MAX_MEMORY_PROPERTY + ": " + value);
+            }
+        }
+    }
+
+    /**
+     * Returns a cleared surface from the pool, or a new one, if the current request can use pooled
+     * surfaces. Returns null otherwise.
+     */
+    public static BufferedImage checkout(int width, int height, boolean transparent) {
+        if (maxMemory <= 0) {
+            return null;
+        }
+        if (!isPoolable(request.get())) {
+            return null;
+        }
+
+        Key key = new Key(width, height, transparent);
+        BufferedImage image = null;
+        synchronized (DrawingSurfacePool.class) {
+            Deque<BufferedImage> surfaces = idle.get(key);
+            if (surfaces != null && !surfaces.isEmpty()) {
+                image = surfaces.pop();
+                memory -= getMemoryUse(key);
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (image != null) {
+            clear(image);
+        } else {
+            image = ImageUtils.createImage(width, height, null, transparent);
+        }
+        List<BufferedImage> list = checkedOut.get();
+        if (list == null) {
+            list = new ArrayList<>();
+            checkedOut.set(list);
+        }
+        list.add(image);
+
+        return image;
+    }
+
+    /** Only the plain GetMap requests going through the dispatcher can use the pool */
+    static boolean isPoolable(Request request) {
+        if (request == null
+                || !"WMS".equalsIgnoreCase(request.getService())
+                || !"GetMap".equalsIgnoreCase(request.getRequest())) {
+            return false;
+        }
+        Operation operation = request.getOperation();
+        if (operation == null
+                || operation.getParameters() == null
+                || operation.getParameters().length == 0
+                || !(operation.getParameters()[0] instanceof GetMapRequest)) {
+            return false;
+        }
+        return !((GetMapRequest) operation.getParameters()[0]).isTiled();
+    }
+
+    private static void clear(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        if (buffer instanceof DataBufferByte) {
+            for (byte[] bank : ((DataBufferByte) buffer).getBankData()) {
+                Arrays.fill(bank, (byte) 0);
+            }
+        }
+    }
+
+    private static long getMemoryUse(Key key) {
+        return ImageUtils.getDrawingSurfaceMemoryUse(
+                key.width, key.height, null, key.transparent);
+    }
+
+    @Override
+    public Request init(Request request) {
+        DrawingSurfacePool.request.set(request);
+        return request;
+    }
+
+    /** Returns the surfaces checked out by the request to the pool */
+    @Override
+    public void finished(Request request) {
+        DrawingSurfacePool.request.remove();
+        List<BufferedImage> images = checkedOut.get();
+        checkedOut.remove();
+        if (images == null || maxMemory <= 0) {
+            return;
+        }
+        synchronized (DrawingSurfacePool.class) {
+            for (BufferedImage image : images) {
+                boolean transparent = image.getColorModel().hasAlpha();
+                Key key = new Key(image.getWidth(), image.getHeight(), transparent);
+                long size = getMemoryUse(key);
+                if (memory + size <= maxMemory) {
+                    idle.computeIfAbsent(key, k -> new ArrayDeque<>()).push(image);
+                    memory += size;
+                } else if (LOGGER.isLoggable(Level.FINER)) {
+                    LOGGER.finer("Drawing surface pool full, dropping surface");
+                }
+            }
+        }
+    }
+
+    /** Sets the max memory used by the idle surfaces, in bytes, zero or less disables the pool */
+    public static synchronized void setMaxMemory(long maxMemory) {
+        DrawingSurfacePool.maxMemory = maxMemory;
+        if (memory > maxMemory) {
+            clear();
+        }
+    }
+
+    /** Returns the max memory used by the idle surfaces, in bytes */
+    public static long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /** Returns the memory used by the idle surfaces, in bytes */
+    public static synchronized long getMemory() {
+        return memory;
+    }
+
+    /** Returns the number of checkouts served by an idle surface */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /** Returns the number of checkouts that required a new surface */
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Drops all the idle surfaces */
+    public static synchronized void clear() {
+        idle.clear();
+        memory = 0;
+    }
+}
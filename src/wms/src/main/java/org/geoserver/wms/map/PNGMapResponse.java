@@ -97,6 +97,7 @@ public void formatImageOutputStream(
         image = applyPalette(image, mapContent, f -> f != null && f.contains("png8"), true);
         float quality = (100 - wms.getPngCompression()) / 100.0f;
         JAIInfo.PngEncoderType encoder = wms.getPNGEncoderType();
+        long start = System.currentTimeMillis();
         if (encoder == JAIInfo.PngEncoderType.PNGJ) {
             image = new PNGJWriter().writePNG(image, outStream, quality, mapContent);
             RasterCleaner.addImage(image);
@@ -111,6 +112,7 @@ public void formatImageOutputStream(
             iw.writePNG(outStream, "FILTERED", quality, nativeAcceleration, false);
             RasterCleaner.addImage(iw.getRenderedImage());
         }
+        RenderTimeStatistics.recordEncodingTime(System.currentTimeMillis() - start);
 
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.fine("Writing png image ... done!");
@@ -0,0 +1,312 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.map.MapViewport;
+import org.geotools.renderer.RenderListener;
+import org.geotools.renderer.lite.StreamingRenderer;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.TextSymbolizer;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * A {@link StreamingRenderer} painting each layer of the map on its own surface, concurrently, and
+ * compositing the results in layer order. Useful when the map is made of several independent layers
+ * whose rendering time is dominated by the data access.
+ *
+ * <p>The layers are painted by renderers obtained from the factory, configured with the same hints
+ * and thread pool as this one. The render listeners registered on this renderer receive the events
+ * of all the layer renderers, serialized, and stopping this renderer stops them all, so that the
+ * timeout and error enforcers keep working as usual.
+ *
+ * <p>Labels are painted after all the layers, and composite and sorting vendor options operate
+ * across layers, so maps using them cannot be rendered layer by layer: {@link #canRender(List)}
+ * checks the layers are independent.
+ */
+public class ParallelLayerRenderer extends StreamingRenderer {
+
+    static final Logger LOGGER = Logging.getLogger(ParallelLayerRenderer.class);
+
+    private final Supplier<StreamingRenderer> factory;
+
+    private final ExecutorService layerPool;
+
+    private final List<RenderListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final List<StreamingRenderer> renderers = new CopyOnWriteArrayList<>();
+
+    private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+
+    private ExecutorService threadPool;
+
+    private volatile boolean stopped;
+
+    /**
+     * Builds a new parallel renderer
+     *
+     * @param factory builds the renderers used for the single layers
+     * @param layerPool the pool rendering the layers, should be bounded
+     */
+    public ParallelLayerRenderer(Supplier<StreamingRenderer> factory, ExecutorService layerPool) {
+        this.factory = factory;
+        this.layerPool = layerPool;
+    }
+
+    /**
+     * Returns true if the layers can be painted on separate surfaces and composited, giving the
+     * same result as painting them in sequence
+     */
+    public static boolean canRender(List<Layer> layers) {
+        if (layers.size() < 2) {
+            return false;
+        }
+        for (Layer layer : layers) {
+            Style style = layer.getStyle();
+            if (style == null) {
+                continue;
+            }
+            for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+                Map<String, String> options = fts.getOptions();
+                if (options.containsKey(FeatureTypeStyle.COMPOSITE)
+                        || options.containsKey(FeatureTypeStyle.COMPOSITE_BASE)
+                        || options.containsKey(FeatureTypeStyle.SORT_BY_GROUP)) {
+                    return false;
+                }
+                for (Rule rule : fts.rules()) {
+                    for (Symbolizer symbolizer : rule.symbolizers()) {
+                        Map<String, String> symbolizerOptions = symbolizer.getOptions();
+                        if (symbolizer instanceof TextSymbolizer
+                                || symbolizerOptions.containsKey(FeatureTypeStyle.COMPOSITE)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void setThreadPool(ExecutorService threadPool) {
+        super.setThreadPool(threadPool);
+        this.threadPool = threadPool;
+    }
+
+    @Override
+    public void addRenderListener(RenderListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeRenderListener(RenderListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void stopRendering() {
+        stopped = true;
+        for (StreamingRenderer renderer : renderers) {
+            renderer.stopRendering();
+        }
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public void paint(
+            Graphics2D graphics,
+            Rectangle paintArea,
+            ReferencedEnvelope mapArea,
+            AffineTransform worldToScreen) {
+        List<Layer> layers = new ArrayList<>(getMapContent().layers());
+        List<Future<BufferedImage>> images = new ArrayList<>();
+        for (Layer layer : layers) {
+            if (!layer.isVisible() || stopped) {
+                continue;
+            }
+            fireLayerStart(layer);
+            Future<BufferedImage> future =
+                    layerPool.submit(
+                            () -> paintLayer(graphics, layer, paintArea, mapArea, worldToScreen));
+            futures.add(future);
+            images.add(future);
+        }
+
+        // composite in layer order, as soon as each layer is ready
+        graphics.setComposite(AlphaComposite.SrcOver);
+        for (Future<BufferedImage> future : images) {
+            try {
+                BufferedImage image = future.get();
+                if (image != null && !stopped) {
+                    graphics.drawImage(image, paintArea.x, paintArea.y, null);
+                }
+            } catch (CancellationException e) {
+                // rendering has been stopped
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopRendering();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                fireErrorOccurred(
+                        cause instanceof Exception ? (Exception) cause : new Exception(cause));
+            }
+        }
+    }
+
+    /** Paints a single layer on its own transparent surface */
+    private BufferedImage paintLayer(
+            Graphics2D graphics,
+            Layer layer,
+            Rectangle paintArea,
+            ReferencedEnvelope mapArea,
+            AffineTransform worldToScreen) {
+        if (stopped) {
+            return null;
+        }
+        StreamingRenderer renderer = factory.get();
+        renderers.add(renderer);
+        MapViewport viewport = new MapViewport(mapArea);
+        viewport.setScreenArea(paintArea);
+        MapContent content = new LayerMapContent(layer, viewport);
+        try {
+            content.getUserData().putAll(getMapContent().getUserData());
+
+            renderer.setMapContent(content);
+            renderer.setThreadPool(threadPool);
+            renderer.setJava2DHints(getJava2DHints());
+            Map<Object, Object> hints = new HashMap<>(getRendererHints());
+            // each renderer needs its own label cache
+            hints.remove(StreamingRenderer.LABEL_CACHE_KEY);
+            renderer.setRendererHints(hints);
+            renderer.addRenderListener(new LayerListener(layer));
+            if (stopped) {
+                return null;
+            }
+
+            BufferedImage image =
+                    new BufferedImage(
+                            paintArea.width, paintArea.height, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setRenderingHints(graphics.getRenderingHints());
+                renderer.paint(
+                        g,
+                        new Rectangle(0, 0, paintArea.width, paintArea.height),
+                        mapArea,
+                        worldToScreen);
+            } finally {
+                g.dispose();
+            }
+            return image;
+        } finally {
+            renderers.remove(renderer);
+            content.dispose();
+            fireLayerEnd(layer);
+        }
+    }
+
+    private void fireLayerStart(Layer layer) {
+        synchronized (listeners) {
+            for (RenderListener listener : listeners) {
+                listener.layerStart(layer);
+            }
+        }
+    }
+
+    private void fireLayerEnd(Layer layer) {
+        synchronized (listeners) {
+            for (RenderListener listener : listeners) {
+                listener.layerEnd(layer);
+            }
+        }
+    }
+
+    private void fireErrorOccurred(Exception e) {
+        synchronized (listeners) {
+            for (RenderListener listener : listeners) {
+                listener.errorOccurred(e);
+            }
+        }
+    }
+
+    /**
+     * A map content exposing a single layer, without taking ownership of it: the layer belongs to
+     * the main map content, which will dispose it
+     */
+    private static class LayerMapContent extends MapContent {
+
+        private final List<Layer> layers;
+
+        LayerMapContent(Layer layer, MapViewport viewport) {
+            this.layers = Collections.singletonList(layer);
+            setViewport(viewport);
+        }
+
+        @Override
+        public List<Layer> layers() {
+            return layers;
+        }
+    }
+
+    /**
+     * Forwards the feature and error events of a layer renderer, serialized. Layer events are
+     * fired in layer order by the parallel renderer itself, labelling ones are dropped as each
+     * layer renderer would fire its own. The layers are all started upfront, so the statistics
+     * are told which layer painted each feature
+     */
+    private class LayerListener implements RenderListener {
+
+        private final Layer layer;
+
+        LayerListener(Layer layer) {
+            this.layer = layer;
+        }
+
+        @Override
+        public void featureRenderer(SimpleFeature feature) {
+            synchronized (listeners) {
+                for (RenderListener listener : listeners) {
+                    if (listener instanceof RenderTimeStatistics) {
+                        ((RenderTimeStatistics) listener).featureRenderer(layer, feature);
+                    } else {
+                        listener.featureRenderer(feature);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void errorOccurred(Exception e) {
+            LOGGER.log(Level.FINE, "Error rendering layer", e);
+            fireErrorOccurred(e);
+        }
+    }
+}
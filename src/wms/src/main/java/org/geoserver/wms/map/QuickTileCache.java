@@ -7,33 +7,76 @@
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
+import java.awt.image.DataBuffer;
 import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.xml.namespace.QName;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.geoserver.catalog.FeatureTypeInfo;
 import org.geoserver.config.ConfigurationListenerAdapter;
 import org.geoserver.config.GeoServer;
 import org.geoserver.config.GeoServerInfo;
 import org.geoserver.config.ServiceInfo;
 import org.geoserver.config.impl.GeoServerLifecycleHandler;
+import org.geoserver.platform.GeoServerExtensions;
 import org.geoserver.platform.ServiceException;
 import org.geoserver.wfs.TransactionEvent;
 import org.geoserver.wfs.TransactionListener;
 import org.geoserver.wfs.WFSException;
 import org.geoserver.wms.GetMapRequest;
+import org.geoserver.wms.MapLayerInfo;
+import org.geoserver.wms.WMSInfo;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.CRS.AxisOrder;
 import org.geotools.util.CanonicalSet;
+import org.geotools.util.logging.Logging;
 import org.locationtech.jts.geom.Envelope;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Caches the tiles of the meta tiles rendered for tiled GetMap requests, so that the requests for
+ * the other tiles of the same meta tile do not need to render it again.
+ *
+ * <p>The cache is bounded by the memory used by the tiles, set in KB by the
+ * QUICK_TILE_CACHE_MAX_MEMORY system, environment or servlet context variable (64MB by default,
+ * zero disables the cache), evicting the oldest meta tiles first. Transactions only invalidate the
+ * meta tiles containing the modified layer, while WMS configuration changes and reloads clear the
+ * whole cache. The cache size and the hit, miss and eviction counts are exposed as a JMX MXBean
+ * named {@value #OBJECT_NAME}.
+ */
+public class QuickTileCache
+        implements TransactionListener,
+                GeoServerLifecycleHandler,
+                QuickTileCacheMXBean,
+                InitializingBean,
+                DisposableBean {
+
+    static final Logger LOGGER = Logging.getLogger(QuickTileCache.class);
+
+    public static final String MAX_MEMORY_PROPERTY = "QUICK_TILE_CACHE_MAX_MEMORY";
+
+    static final long DEFAULT_MAX_MEMORY = 64 * 1024 * 1024;
+
+    public static final String OBJECT_NAME = "org.geoserver:type=QuickTileCache";
 
-public class QuickTileCache implements TransactionListener, GeoServerLifecycleHandler {
     /**
      * Set of parameters that we can ignore, since they do not define a map, are either unrelated,
      * or define the tiling instead
@@ -55,9 +98,33 @@ public class QuickTileCache implements TransactionListener, GeoServerLifecycleHa
     /** Canonicalizer used to return the same object when two threads ask for the same meta-tile */
     private CanonicalSet<MetaTileKey> metaTileKeys = CanonicalSet.newInstance(MetaTileKey.class);
 
-    private WeakHashMap<MetaTileKey, CacheElement> tileCache = new WeakHashMap<>();
+    /** The cached meta tiles, read without locking */
+    final Map<MetaTileKey, CacheElement> tileCache = new ConcurrentHashMap<>();
+
+    /** The cached meta tiles in insertion order, guarded by itself along with the memory count */
+    private final Deque<CacheElement> evictionQueue = new ArrayDeque<>();
+
+    private long memory;
+
+    private volatile long maxMemory = DEFAULT_MAX_MEMORY;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private ObjectName objectName;
 
     public QuickTileCache(GeoServer geoServer) {
+        String value = GeoServerExtensions.getProperty(MAX_MEMORY_PROPERTY);
+        if (value != null) {
+            try {
+                maxMemory = Long.parseLong(value.trim()) * 1024;
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid value for " + MAX_MEMORY_PROPERTY + ": " + value);
+            }
+        }
         geoServer.addListener(
                 new ConfigurationListenerAdapter() {
                     @Override
@@ -66,7 +133,7 @@ public void handleGlobalChange(
                             List<String> propertyNames,
                             List<Object> oldValues,
                             List<Object> newValues) {
-                        tileCache.clear();
+                        clear();
                     }
 
                     @Override
@@ -75,12 +142,15 @@ public void handleServiceChange(
                             List<String> propertyNames,
                             List<Object> oldValues,
                             List<Object> newValues) {
-                        tileCache.clear();
+                        // other services do not affect the maps
+                        if (service instanceof WMSInfo) {
+                            clear();
+                        }
                     }
 
                     @Override
                     public void reloaded() {
-                        tileCache.clear();
+                        clear();
                     }
                 });
     }
@@ -88,6 +158,28 @@ public void reloaded() {
     /** For testing only */
     QuickTileCache() {}
 
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to register the tile cache statistics in JMX", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
     /**
      * Given a tiled request, builds a key that can be used to access the cache looking for a
      * specific meta-tile, and also as a synchronization tool to avoid multiple requests to trigger
@@ -117,6 +209,7 @@ public MetaTileKey getMetaTileKey(GetMapRequest request) {
         Point metaTileCoords = getMetaTileCoordinates(tileCoords);
         ReferencedEnvelope metaTileEnvelope = getMetaTileEnvelope(bbox, tileCoords, metaTileCoords);
         MetaTileKey key = new MetaTileKey(mapKey, metaTileCoords, metaTileEnvelope);
+        key.layers = getVectorLayers(request);
 
         // since this will be used for thread synchronization, we have to make
         // sure two thread asking for the same meta tile will get the same key
@@ -124,6 +217,30 @@ public MetaTileKey getMetaTileKey(GetMapRequest request) {
         return metaTileKeys.unique(key);
     }
 
+    /**
+     * Returns the names of the vector layers in the map, that transactions can modify, or null if
+     * the map contains layers that cannot be identified
+     */
+    private Set<QName> getVectorLayers(GetMapRequest request) {
+        List<MapLayerInfo> layers = request.getLayers();
+        if (layers == null || layers.isEmpty()) {
+            return null;
+        }
+        Set<QName> names = new HashSet<>();
+        for (MapLayerInfo layer : layers) {
+            if (layer.getType() == MapLayerInfo.TYPE_REMOTE_VECTOR) {
+                return null;
+            } else if (layer.getType() == MapLayerInfo.TYPE_VECTOR) {
+                FeatureTypeInfo ft = layer.getFeature();
+                if (ft == null || ft.getNamespace() == null) {
+                    return null;
+                }
+                names.add(new QName(ft.getNamespace().getURI(), ft.getName()));
+            }
+        }
+        return names;
+    }
+
     private ReferencedEnvelope getMetaTileEnvelope(
             ReferencedEnvelope bbox, Point tileCoords, Point metaTileCoords) {
         double minx = bbox.getMinX() + (metaTileCoords.x - tileCoords.x) * bbox.getWidth();
@@ -274,6 +391,9 @@ static class MetaTileKey {
 
         ReferencedEnvelope metaTileEnvelope;
 
+        /** The vector layers in the map, null if unknown. Not part of the key identity */
+        Set<QName> layers;
+
         public MetaTileKey(
                 MapKey mapKey, Point metaTileCoords, ReferencedEnvelope metaTileEnvelope) {
             super();
@@ -328,13 +448,15 @@ public String toString() {
     }
 
     /** Gathers a tile from the cache, if available */
-    public synchronized RenderedImage getTile(MetaTileKey key, GetMapRequest request) {
+    public RenderedImage getTile(MetaTileKey key, GetMapRequest request) {
         CacheElement ce = tileCache.get(key);
 
         if (ce == null) {
+            misses.incrementAndGet();
             return null;
         }
 
+        hits.incrementAndGet();
         return getTile(key, request, ce.tiles);
     }
 
@@ -351,38 +473,160 @@ public RenderedImage getTile(MetaTileKey key, GetMapRequest request, RenderedIma
     }
 
     /**
-     * Puts the specified tile array in the cache, and returns the tile the request was looking for
+     * Puts the specified tile array in the cache, evicting the oldest meta tiles if the cache goes
+     * beyond its max memory
      */
-    public synchronized void storeTiles(MetaTileKey key, RenderedImage[] tiles) {
-        tileCache.put(key, new CacheElement(tiles));
+    public void storeTiles(MetaTileKey key, RenderedImage[] tiles) {
+        CacheElement ce = new CacheElement(key, tiles);
+        synchronized (evictionQueue) {
+            if (ce.size > maxMemory) {
+                return;
+            }
+            CacheElement previous = tileCache.put(key, ce);
+            if (previous != null) {
+                evictionQueue.remove(previous);
+                memory -= previous.size;
+            }
+            evictionQueue.add(ce);
+            memory += ce.size;
+            evict();
+        }
+    }
+
+    /** Drops the oldest meta tiles until the cache fits in its max memory */
+    private void evict() {
+        while (memory > maxMemory && !evictionQueue.isEmpty()) {
+            CacheElement eldest = evictionQueue.poll();
+            tileCache.remove(eldest.key, eldest);
+            memory -= eldest.size;
+            evictions.incrementAndGet();
+        }
     }
 
-    class CacheElement {
+    /** Removes the meta tiles of the maps containing the specified layer */
+    public void invalidate(QName layerName) {
+        synchronized (evictionQueue) {
+            for (Iterator<CacheElement> it = evictionQueue.iterator(); it.hasNext(); ) {
+                CacheElement ce = it.next();
+                if (ce.contains(layerName)) {
+                    it.remove();
+                    tileCache.remove(ce.key, ce);
+                    memory -= ce.size;
+                }
+            }
+        }
+    }
+
+    /** Removes all the meta tiles */
+    @Override
+    public void clear() {
+        synchronized (evictionQueue) {
+            tileCache.clear();
+            evictionQueue.clear();
+            memory = 0;
+        }
+    }
+
+    /** Sets the max memory used by the cached tiles, in bytes, zero disables the cache */
+    @Override
+    public void setMaxMemory(long maxMemory) {
+        synchronized (evictionQueue) {
+            this.maxMemory = maxMemory;
+            evict();
+        }
+    }
+
+    @Override
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /** Returns the memory used by the cached tiles, in bytes */
+    @Override
+    public long getMemory() {
+        synchronized (evictionQueue) {
+            return memory;
+        }
+    }
+
+    /** Returns the number of cached meta tiles */
+    @Override
+    public int getCount() {
+        return tileCache.size();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    static class CacheElement {
+        MetaTileKey key;
+
         RenderedImage[] tiles;
 
-        public CacheElement(RenderedImage[] tiles) {
+        long size;
+
+        public CacheElement(MetaTileKey key, RenderedImage[] tiles) {
+            this.key = key;
             this.tiles = tiles;
+            for (RenderedImage tile : tiles) {
+                SampleModel sm = tile.getSampleModel();
+                long pixelSize = 0;
+                for (int bits : sm.getSampleSize()) {
+                    pixelSize += bits;
+                }
+                if (pixelSize == 0) {
+                    pixelSize = DataBuffer.getDataTypeSize(sm.getDataType()) * sm.getNumBands();
+                }
+                size += (long) tile.getWidth() * tile.getHeight() * pixelSize / 8;
+            }
+        }
+
+        boolean contains(QName layerName) {
+            if (key.layers == null) {
+                return true;
+            }
+            for (QName name : key.layers) {
+                if (name.getLocalPart().equals(layerName.getLocalPart())
+                        && (layerName.getNamespaceURI().isEmpty()
+                                || name.getNamespaceURI().equals(layerName.getNamespaceURI()))) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
     @Override
     public void dataStoreChange(TransactionEvent event) throws WFSException {
-        // if anything changes we just wipe out the cache. the mapkey
-        // contains a string with part of the map request where the layer
-        // name is included, but we would have to parse it and consider
-        // also that the namespace may be missing in the getmap request
-        tileCache.clear();
+        QName layerName = event.getLayerName();
+        if (layerName == null) {
+            clear();
+        } else {
+            invalidate(layerName);
+        }
     }
 
     @Override
     public void onReset() {
         // data might have changed in the meantime
-        tileCache.clear();
+        clear();
     }
 
     @Override
     public void onDispose() {
-        tileCache.clear();
+        clear();
     }
 
     @Override
@@ -392,6 +636,6 @@ public void beforeReload() {
 
     @Override
     public void onReload() {
-        tileCache.clear();
+        clear();
     }
 }
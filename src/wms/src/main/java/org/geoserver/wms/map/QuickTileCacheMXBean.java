@@ -0,0 +1,33 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map;
+
+/** JMX view of the {@link QuickTileCache} */
+public interface QuickTileCacheMXBean {
+
+    /** Returns the max memory used by the cached tiles, in bytes */
+    long getMaxMemory();
+
+    /** Sets the max memory used by the cached tiles, in bytes, zero disables the cache */
+    void setMaxMemory(long maxMemory);
+
+    /** Returns the memory used by the cached tiles, in bytes */
+    long getMemory();
+
+    /** Returns the number of cached meta tiles */
+    int getCount();
+
+    /** Returns the number of tile requests served from the cache */
+    long getHits();
+
+    /** Returns the number of tile requests that required rendering the meta tile */
+    long getMisses();
+
+    /** Returns the number of meta tiles evicted to stay within the memory bound */
+    long getEvictions();
+
+    /** Removes all the meta tiles */
+    void clear();
+}
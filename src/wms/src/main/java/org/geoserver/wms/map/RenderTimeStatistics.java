@@ -5,82 +5,167 @@
 package org.geoserver.wms.map;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 import org.geotools.map.Layer;
 import org.geotools.renderer.RenderListener;
 import org.opengis.feature.simple.SimpleFeature;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 
+/**
+ * Collects the rendering time of each layer of a map, and of the labels. The per layer data is
+ * kept in arrays indexed by the layer start order, the times are measured with {@link
+ * System#nanoTime()} and reported in milliseconds.
+ *
+ * <p>Along with the time, the number of features painted is tracked for each layer, and the time
+ * split between the time to the first feature, mostly spent querying the data, and the time spent
+ * painting after that. Once rendering is complete the statistics are made available as a request
+ * attribute, and contributed to the {@link RenderingMetrics}, if enabled.
+ */
 public class RenderTimeStatistics implements RenderListener {
 
     public static final String ID = "statistics";
+    private static final int INITIAL_CAPACITY = 4;
     private List<Layer> layers;
-    private Map<Integer, Long> startRenderingLayersTimes;
-    private Map<Integer, Long> endRenderingLayersTimes;
+    private Map<Layer, Integer> layerIndexes = new IdentityHashMap<>();
+    private long[] startTimes = new long[INITIAL_CAPACITY];
+    private long[] firstFeatureTimes = new long[INITIAL_CAPACITY];
+    private long[] endTimes = new long[INITIAL_CAPACITY];
+    private int[] featureCounts = new int[INITIAL_CAPACITY];
     private Map<Integer, Long> renderingLayersTimes;
     private Long renderingLabelsTimes;
-    private Long startRenderingLabelsTimes;
-    private Long endRenderingLabelsTimes;
+    private long startRenderingLabelsTimes;
+    private long endRenderingLabelsTimes;
+    private Long encodingTime;
     private int index = 0;
+    /** The layer receiving the feature events, the last started */
+    private int current = -1;
     private List<Integer> renderingLayersIdxs;
+    private boolean recorded;
 
     public RenderTimeStatistics() {
-        this.layers = new LinkedList<>();
-        this.startRenderingLayersTimes = new HashMap<>();
-        this.endRenderingLayersTimes = new HashMap<>();
+        this.layers = new ArrayList<>();
         this.renderingLayersTimes = new HashMap<>();
         this.renderingLayersIdxs = new ArrayList<>();
     }
 
     @Override
-    public void featureRenderer(SimpleFeature feature) {}
+    public void featureRenderer(SimpleFeature feature) {
+        countFeature(current);
+    }
+
+    /**
+     * Counts a feature painted by the given layer. Used when several layers are painted at the same
+     * time, so that the last started layer is not necessarily the one painting the feature
+     */
+    public void featureRenderer(Layer layer, SimpleFeature feature) {
+        Integer key = layerIndexes.get(layer);
+        countFeature(key != null ? key : current);
+    }
+
+    private void countFeature(int layerIdx) {
+        if (layerIdx >= 0) {
+            if (featureCounts[layerIdx]++ == 0) {
+                firstFeatureTimes[layerIdx] = System.nanoTime();
+            }
+        }
+    }
 
     @Override
     public void errorOccurred(Exception e) {}
 
     @Override
     public void layerStart(Layer layer) {
+        ensureCapacity(index + 1);
         layers.add(index, layer);
-        startRenderingLayersTimes.put(index, System.currentTimeMillis());
+        layerIndexes.putIfAbsent(layer, index);
+        startTimes[index] = System.nanoTime();
         renderingLayersIdxs.add(index);
+        current = index;
         index++;
     }
 
     @Override
     public void layerEnd(Layer layer) {
-        Integer key = layers.indexOf(layer);
-        endRenderingLayersTimes.put(key, System.currentTimeMillis());
+        Integer key = layerIndexes.get(layer);
+        if (key != null) {
+            endTimes[key] = System.nanoTime();
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (startTimes.length < capacity) {
+            int length = Math.max(capacity, startTimes.length * 2);
+            startTimes = Arrays.copyOf(startTimes, length);
+            firstFeatureTimes = Arrays.copyOf(firstFeatureTimes, length);
+            endTimes = Arrays.copyOf(endTimes, length);
+            featureCounts = Arrays.copyOf(featureCounts, length);
+        }
     }
 
     @Override
     public void labellingStart() {
-        startRenderingLabelsTimes = System.currentTimeMillis();
+        startRenderingLabelsTimes = System.nanoTime();
     }
 
     @Override
     public void labellingEnd() {
-        endRenderingLabelsTimes = System.currentTimeMillis();
+        endRenderingLabelsTimes = System.nanoTime();
     }
 
     @Override
     public void renderingComplete() {
         for (Integer idx : renderingLayersIdxs) {
             if (renderingLayersTimes.get(idx) == null) {
-                Long startingTime = startRenderingLayersTimes.get(idx);
-                Long endingTime = endRenderingLayersTimes.get(idx);
-                renderingLayersTimes.put(idx, endingTime != null ? endingTime - startingTime : 0L);
+                renderingLayersTimes.put(idx, toMillis(getRenderingNanos(idx)));
             }
         }
-        renderingLabelsTimes =
-                startRenderingLabelsTimes != null && endRenderingLabelsTimes != null
-                        ? endRenderingLabelsTimes - startRenderingLabelsTimes
-                        : 0L;
+        renderingLabelsTimes = toMillis(getLabellingNanos());
         addSelfAsRequestAttribute();
+        RenderingMetrics metrics = RenderingMetrics.getInstance();
+        if (metrics != null && !recorded) {
+            metrics.record(this);
+            recorded = true;
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /** Returns the rendering time of the layer, in nanoseconds, 0 if it did not end */
+    long getRenderingNanos(int layerIdx) {
+        long end = endTimes[layerIdx];
+        return end != 0 ? end - startTimes[layerIdx] : 0;
+    }
+
+    /**
+     * Returns the time from the layer start to its first feature being painted, in nanoseconds,
+     * mostly spent querying the data. Equals to the rendering time if no feature was painted
+     */
+    long getQueryNanos(int layerIdx) {
+        if (featureCounts[layerIdx] == 0) {
+            return getRenderingNanos(layerIdx);
+        }
+        return firstFeatureTimes[layerIdx] - startTimes[layerIdx];
+    }
+
+    /** Returns the labelling time in nanoseconds, 0 if labelling did not happen */
+    long getLabellingNanos() {
+        if (startRenderingLabelsTimes != 0 && endRenderingLabelsTimes != 0) {
+            return endRenderingLabelsTimes - startRenderingLabelsTimes;
+        }
+        return 0;
+    }
+
+    /** Returns the number of features painted for the layer */
+    public int getFeatureCount(Integer layerId) {
+        return layerId < index ? featureCounts[layerId] : 0;
     }
 
     public Long getRenderingTime(Integer layerId) {
@@ -92,9 +177,12 @@ public long getLabellingTime() {
     }
 
     public List<String> getLayerNames() {
-        return layers.stream()
-                .map(l -> l.getTitle() != null ? l.getTitle() : "Layer" + (layers.indexOf(l) + 1))
-                .collect(Collectors.toList());
+        List<String> names = new ArrayList<>(layers.size());
+        for (int i = 0; i < layers.size(); i++) {
+            String title = layers.get(i).getTitle();
+            names.add(title != null ? title : "Layer" + (i + 1));
+        }
+        return names;
     }
 
     public List<Layer> getLayers() {
@@ -133,6 +221,32 @@ public List<Integer> getRenderingLayersIdxs() {
         return renderingLayersIdxs;
     }
 
+    /** Returns the time spent encoding the map, in milliseconds, or null if not recorded */
+    public Long getEncodingTime() {
+        return encodingTime;
+    }
+
+    public void setEncodingTime(Long encodingTime) {
+        this.encodingTime = encodingTime;
+    }
+
+    /**
+     * Records the time spent encoding the map in the statistics of the current request, if any
+     *
+     * @param encodingTime the encoding time, in milliseconds
+     */
+    public static void recordEncodingTime(long encodingTime) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object statistics =
+                    requestAttributes.getAttribute(
+                            RenderTimeStatistics.ID, RequestAttributes.SCOPE_REQUEST);
+            if (statistics instanceof RenderTimeStatistics) {
+                ((RenderTimeStatistics) statistics).setEncodingTime(encodingTime);
+            }
+        }
+    }
+
     // adding attribute here to avoid code repetition since rendering completed gets called in
     // different places
     // depending on the kind of layer being rendered
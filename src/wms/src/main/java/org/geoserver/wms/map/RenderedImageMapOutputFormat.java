@@ -310,6 +310,28 @@ public RenderedImageMap produceMap(final WMSMapContent mapContent, final boolean
                 ((RenderedImageTimeDecorator) image).setLayer(mapContent.layers().get(0));
                 return buildMap(mapContent, image);
             }
+        } else if (DefaultWebMapService.isDirectRasterPathEnabled()
+                && mapContent.getAngle() == 0.0
+                && (layout == null || layout.isEmpty())
+                && DirectRasterRenderer.isStackable(mapContent)) {
+            // fast path for a stack of coverages, composited without Java2D
+            try {
+                image =
+                        DirectRasterRenderer.renderStack(
+                                wms,
+                                mapContent,
+                                request.getInterpolations(),
+                                transparencySupported);
+            } catch (Exception e) {
+                throw new ServiceException("Error rendering coverages on the fast path", e);
+            }
+
+            if (image != null) {
+                image = new RenderedImageTimeDecorator(image);
+                // setting the layers triggers the layer start events
+                ((RenderedImageTimeDecorator) image).setLayers(mapContent.layers());
+                return buildMap(mapContent, image);
+            }
         }
 
         // we use the alpha channel if the image is transparent or if the meta tiler
@@ -375,7 +397,14 @@ public RenderedImageMap produceMap(final WMSMapContent mapContent, final boolean
         graphic.setRenderingHints(hintsMap);
 
         RenderingHints hints = new RenderingHints(hintsMap);
-        StreamingRenderer renderer = buildRenderer();
+        StreamingRenderer renderer;
+        if (!emptyMap && isParallelLayerRendering(mapContent, paintArea, memory, maxMemory)) {
+            renderer =
+                    new ParallelLayerRenderer(
+                            this::buildRenderer, DefaultWebMapService.getLayerRenderingPool());
+        } else {
+            renderer = buildRenderer();
+        }
         renderer.setThreadPool(DefaultWebMapService.getRenderingPool());
         renderer.setMapContent(mapContent);
         // add the GeoServer MarkFactories provider settings
@@ -630,6 +659,24 @@ private String buildMapLayerNameList(WMSMapContent mapContent) {
                 : layers.stream().map(MapLayerInfo::getName).collect(Collectors.joining(", "));
     }
 
+    /**
+     * Returns true if the layers of the map can be rendered in parallel: the feature must be
+     * enabled, the layers independent, and the memory limits must allow one surface per layer
+     */
+    private boolean isParallelLayerRendering(
+            WMSMapContent mapContent, Rectangle paintArea, long memory, long maxMemory) {
+        GetMapRequest request = mapContent.getRequest();
+        if (DefaultWebMapService.getLayerRenderingPool() == null
+                || labelCache != null
+                || "GETFEATUREINFO".equalsIgnoreCase(request.getRequest())
+                || !ParallelLayerRenderer.canRender(mapContent.layers())) {
+            return false;
+        }
+        // each layer is painted on its own ARGB surface
+        long layersMemory = mapContent.layers().size() * 4L * paintArea.width * paintArea.height;
+        return maxMemory <= 0 || memory + layersMemory <= maxMemory;
+    }
+
     /**
      * Creates a {@link StreamingRenderer} instance (subclasses can provide their own specialized
      * subclasses of {@link StreamingRenderer}
@@ -687,11 +734,16 @@ protected RenderedImageMap buildMap(final WMSMapContent mapContent, RenderedImag
      */
     protected RenderedImage prepareImage(
             int width, int height, IndexColorModel palette, boolean transparent) {
-        return ImageUtils.createImage(
-                width,
-                height,
-                isPaletteSupported() ? palette : null,
-                transparent && isTransparencySupported());
+        IndexColorModel cm = isPaletteSupported() ? palette : null;
+        boolean alpha = transparent && isTransparencySupported();
+        if (cm == null) {
+            // plain GetMap requests can reuse surfaces of previous requests, if enabled
+            BufferedImage pooled = DrawingSurfacePool.checkout(width, height, alpha);
+            if (pooled != null) {
+                return pooled;
+            }
+        }
+        return ImageUtils.createImage(width, height, cm, alpha);
     }
 
     /**
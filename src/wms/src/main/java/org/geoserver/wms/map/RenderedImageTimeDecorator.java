@@ -10,6 +10,8 @@
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 import org.geotools.map.Layer;
 
@@ -27,6 +29,8 @@ public class RenderedImageTimeDecorator implements RenderedImage {
 
     private Layer layer;
 
+    private List<Layer> layers;
+
     public RenderedImageTimeDecorator(RenderedImage delegate) {
         this.delegate = delegate;
         this.statistics = new RenderTimeStatistics();
@@ -140,7 +144,13 @@ public WritableRaster copyData(WritableRaster raster) {
     }
 
     public void updateRenderingTime() {
-        statistics.layerEnd(layer);
+        if (layers != null) {
+            for (Layer l : layers) {
+                statistics.layerEnd(l);
+            }
+        } else {
+            statistics.layerEnd(layer);
+        }
     }
 
     public RenderTimeStatistics getStatistics() {
@@ -164,6 +174,18 @@ public void onSettingLayer(Layer layer) {
         this.statistics.layerStart(layer);
     }
 
+    /**
+     * Sets the layers composited in the image, which are all computed together as the image tiles
+     * are pulled, so they share the same end time
+     */
+    public void setLayers(List<Layer> layers) {
+        this.layers = new ArrayList<>(layers);
+        this.layer = layers.isEmpty() ? null : layers.get(layers.size() - 1);
+        for (Layer l : layers) {
+            onSettingLayer(l);
+        }
+    }
+
     public RenderedImage getDelegate() {
         return delegate;
     }
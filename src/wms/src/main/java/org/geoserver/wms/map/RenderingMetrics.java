@@ -0,0 +1,255 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.geoserver.platform.GeoServerExtensions;
+import org.geotools.map.Layer;
+import org.geotools.map.StyleLayer;
+import org.geotools.styling.Style;
+import org.geotools.util.logging.Logging;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Aggregates the {@link RenderTimeStatistics} of the rendered maps by layer and style: number of
+ * renderings, total and max rendering time, time to the first feature (mostly querying the data)
+ * and painting time, features painted, and a histogram of the rendering times. The labelling phase
+ * is tracked on its own.
+ *
+ * <p>Collection is disabled by default, and can be enabled with the RENDERING_METRICS_ENABLED
+ * system, environment or servlet context variable, or at runtime. The metrics are exposed as a JMX
+ * MXBean named {@value #OBJECT_NAME}, and by the REST API.
+ */
+public class RenderingMetrics
+        implements RenderingMetricsMXBean, InitializingBean, DisposableBean {
+
+    static final Logger LOGGER = Logging.getLogger(RenderingMetrics.class);
+
+    public static final String ENABLED_PROPERTY = "RENDERING_METRICS_ENABLED";
+
+    public static final String OBJECT_NAME = "org.geoserver:type=RenderingMetrics";
+
+    /** Upper bounds of the histogram buckets in milliseconds, the last bucket is unbounded */
+    static final long[] BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    /** Max number of layer and style combinations tracked, the others are aggregated */
+    static final int MAX_KEYS = 10000;
+
+    static final String OTHER = "other";
+
+    private static volatile RenderingMetrics instance;
+
+    private final Map<String, LayerMetrics> layers = new ConcurrentHashMap<>();
+
+    private volatile LayerMetrics labelling = new LayerMetrics("labelling", null);
+
+    private volatile boolean enabled;
+
+    private ObjectName objectName;
+
+    public RenderingMetrics() {
+        this.enabled = Boolean.parseBoolean(GeoServerExtensions.getProperty(ENABLED_PROPERTY));
+    }
+
+    /** Returns the metrics collector, or null if not available or disabled */
+    public static RenderingMetrics getInstance() {
+        RenderingMetrics metrics = instance;
+        return metrics != null && metrics.enabled ? metrics : null;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        instance = this;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to register the rendering metrics in JMX", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (instance == this) {
+            instance = null;
+        }
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    /** Adds the statistics of a rendered map */
+    public void record(RenderTimeStatistics statistics) {
+        List<Layer> mapLayers = statistics.getLayers();
+        List<String> names = statistics.getLayerNames();
+        for (int i = 0; i < statistics.getIndex() && i < mapLayers.size(); i++) {
+            Layer layer = mapLayers.get(i);
+            Style style = layer instanceof StyleLayer ? ((StyleLayer) layer).getStyle() : null;
+            String styleName = style != null ? style.getName() : null;
+            LayerMetrics metrics = getLayerMetrics(names.get(i), styleName);
+            metrics.add(
+                    statistics.getRenderingNanos(i),
+                    statistics.getQueryNanos(i),
+                    statistics.getFeatureCount(i));
+        }
+        long labellingNanos = statistics.getLabellingNanos();
+        if (labellingNanos > 0) {
+            labelling.add(labellingNanos, 0, 0);
+        }
+    }
+
+    private LayerMetrics getLayerMetrics(String layer, String style) {
+        String key = style != null ? layer + "/" + style : layer;
+        LayerMetrics metrics = layers.get(key);
+        if (metrics == null) {
+            if (layers.size() >= MAX_KEYS) {
+                return layers.computeIfAbsent(OTHER, k -> new LayerMetrics(OTHER, null));
+            }
+            metrics = layers.computeIfAbsent(key, k -> new LayerMetrics(layer, style));
+        }
+        return metrics;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long[] getHistogramBounds() {
+        return BOUNDS.clone();
+    }
+
+    @Override
+    public List<LayerMetrics> getLayers() {
+        return new ArrayList<>(layers.values());
+    }
+
+    @Override
+    public LayerMetrics getLabelling() {
+        return labelling;
+    }
+
+    @Override
+    public void reset() {
+        layers.clear();
+        labelling = new LayerMetrics("labelling", null);
+    }
+
+    /** The metrics of a layer rendered with a given style */
+    public static class LayerMetrics {
+
+        private final String layer;
+
+        private final String style;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder renderingNanos = new LongAdder();
+
+        private final LongAdder queryNanos = new LongAdder();
+
+        private final LongAdder features = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private final AtomicLongArray histogram = new AtomicLongArray(BOUNDS.length + 1);
+
+        LayerMetrics(String layer, String style) {
+            this.layer = layer;
+            this.style = style;
+        }
+
+        void add(long renderingNanos, long queryNanos, long features) {
+            this.count.increment();
+            this.renderingNanos.add(renderingNanos);
+            this.queryNanos.add(queryNanos);
+            this.features.add(features);
+            this.maxNanos.accumulateAndGet(renderingNanos, Math::max);
+            long millis = TimeUnit.NANOSECONDS.toMillis(renderingNanos);
+            int bucket = 0;
+            while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+                bucket++;
+            }
+            this.histogram.incrementAndGet(bucket);
+        }
+
+        public String getLayer() {
+            return layer;
+        }
+
+        public String getStyle() {
+            return style;
+        }
+
+        /** Returns the number of times the layer has been rendered */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /** Returns the total rendering time, in milliseconds */
+        public long getRenderingTime() {
+            return TimeUnit.NANOSECONDS.toMillis(renderingNanos.sum());
+        }
+
+        /** Returns the total time to the first feature painted, in milliseconds */
+        public long getQueryTime() {
+            return TimeUnit.NANOSECONDS.toMillis(queryNanos.sum());
+        }
+
+        /** Returns the total time spent painting after the first feature, in milliseconds */
+        public long getPaintTime() {
+            return TimeUnit.NANOSECONDS.toMillis(renderingNanos.sum() - queryNanos.sum());
+        }
+
+        /** Returns the average rendering time, in milliseconds */
+        public double getMeanRenderingTime() {
+            long count = getCount();
+            return count > 0 ? renderingNanos.sum() / 1e6 / count : 0;
+        }
+
+        /** Returns the max rendering time, in milliseconds */
+        public long getMaxRenderingTime() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        /** Returns the total number of features painted */
+        public long getFeatures() {
+            return features.sum();
+        }
+
+        /** Returns the number of renderings in each bucket of {@link #BOUNDS} */
+        public long[] getHistogram() {
+            long[] result = new long[histogram.length()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = histogram.get(i);
+            }
+            return result;
+        }
+    }
+}
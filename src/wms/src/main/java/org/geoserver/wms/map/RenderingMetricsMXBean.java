@@ -0,0 +1,29 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map;
+
+import java.util.List;
+
+/** JMX view of the {@link RenderingMetrics} */
+public interface RenderingMetricsMXBean {
+
+    /** Returns true if the metrics are being collected */
+    boolean isEnabled();
+
+    /** Enables or disables the collection of the metrics */
+    void setEnabled(boolean enabled);
+
+    /** Returns the upper bounds of the histogram buckets, in milliseconds */
+    long[] getHistogramBounds();
+
+    /** Returns the metrics of each layer and style */
+    List<RenderingMetrics.LayerMetrics> getLayers();
+
+    /** Returns the metrics of the labelling phase */
+    RenderingMetrics.LayerMetrics getLabelling();
+
+    /** Clears all the metrics */
+    void reset();
+}
@@ -8,8 +8,11 @@
 import ar.com.hjg.pngj.FilterType;
 import it.geosolutions.imageio.plugins.png.PNGWriter;
 import java.awt.image.RenderedImage;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
 import org.geoserver.platform.ServiceException;
+import org.geoserver.wms.DefaultWebMapService;
 import org.geoserver.wms.WMSMapContent;
 import org.geotools.image.ImageWorker;
 import org.geotools.map.Layer;
@@ -24,10 +27,32 @@
  */
 public class PNGJWriter {
 
+    /** Images with fewer pixels are not worth compressing in parallel */
+    static final long PARALLEL_MIN_PIXELS = 1024 * 1024;
+
     public RenderedImage writePNG(
             RenderedImage image, OutputStream outStream, float quality, WMSMapContent mapContent) {
         // what kind of scaline filtering are we going to use?
         FilterType filterType = getFilterType(mapContent);
+        // large images can be compressed in parallel, if enabled
+        ExecutorService pool = DefaultWebMapService.getPNGEncodingPool();
+        if (pool != null
+                && (long) image.getWidth() * image.getHeight() >= PARALLEL_MIN_PIXELS
+                && ParallelPNGEncoder.isSupported(image)) {
+            int level = Math.round(9 * (1 - quality));
+            ParallelPNGEncoder encoder =
+                    new ParallelPNGEncoder(
+                            pool,
+                            DefaultWebMapService.getPNGEncodingThreads(),
+                            level,
+                            filterType == FilterType.FILTER_SUB);
+            try {
+                encoder.encode(image, outStream);
+            } catch (IOException e) {
+                throw new ServiceException("Failed to encode the PNG", e);
+            }
+            return image;
+        }
         // Creation of a new PNGWriter object
         PNGWriter writer = new PNGWriter();
         // Check if a Scanline is supported by the writer
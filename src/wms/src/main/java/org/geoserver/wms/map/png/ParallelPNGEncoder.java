@@ -0,0 +1,339 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map.png;
+
+import java.awt.Rectangle;
+import java.awt.color.ColorSpace;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes 8 bit images in PNG compressing blocks of rows concurrently, in the same way as pigz
+ * does: each block is compressed by its own raw {@link Deflater}, primed with the last 32KB of the
+ * previous block as a dictionary, and flushed to a byte boundary, so that the blocks can be
+ * concatenated in a single zlib stream. The blocks are written in order as soon as they are ready,
+ * each one in its own IDAT chunk, with at most two blocks per thread held in memory.
+ *
+ * <p>Only gray, RGB, their alpha variants, and 8 bit paletted images are supported, see {@link
+ * #isSupported(RenderedImage)}.
+ */
+public class ParallelPNGEncoder {
+
+    static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+    /** The max distance of a deflate back reference, and thus the size of the dictionary */
+    static final int DICTIONARY_SIZE = 32 * 1024;
+
+    /** The target size of the uncompressed data in each block */
+    static final int BLOCK_SIZE = 256 * 1024;
+
+    static final byte FILTER_NONE = 0;
+
+    static final byte FILTER_SUB = 1;
+
+    private final ExecutorService executor;
+
+    private final int threads;
+
+    private final int level;
+
+    private final boolean subFilter;
+
+    /**
+     * Builds a new encoder
+     *
+     * @param executor the pool compressing the blocks
+     * @param threads the number of threads in the pool
+     * @param level the deflate compression level, 0 to 9
+     * @param subFilter whether to use the SUB scanline filter, or no filter at all
+     */
+    public ParallelPNGEncoder(
+            ExecutorService executor, int threads, int level, boolean subFilter) {
+        this.executor = executor;
+        this.threads = Math.max(1, threads);
+        this.level = Math.max(0, Math.min(9, level));
+        this.subFilter = subFilter;
+    }
+
+    /** Returns true if the image can be encoded by this class */
+    public static boolean isSupported(RenderedImage image) {
+        SampleModel sm = image.getSampleModel();
+        ColorModel cm = image.getColorModel();
+        if (sm.getDataType() != DataBuffer.TYPE_BYTE || cm == null) {
+            return false;
+        }
+        for (int size : sm.getSampleSize()) {
+            if (size != 8) {
+                return false;
+            }
+        }
+        return getColorType(sm, cm) >= 0;
+    }
+
+    /** Returns the PNG color type for the image, or -1 if not supported */
+    static int getColorType(SampleModel sm, ColorModel cm) {
+        int bands = sm.getNumBands();
+        if (cm instanceof IndexColorModel) {
+            return bands == 1 && ((IndexColorModel) cm).getMapSize() <= 256 ? 3 : -1;
+        }
+        if (!(cm instanceof ComponentColorModel) || cm.isAlphaPremultiplied()) {
+            return -1;
+        }
+        int csType = cm.getColorSpace().getType();
+        if (csType == ColorSpace.TYPE_GRAY) {
+            if (bands == 1 && !cm.hasAlpha()) return 0;
+            if (bands == 2 && cm.hasAlpha()) return 4;
+        } else if (csType == ColorSpace.TYPE_RGB) {
+            if (bands == 3 && !cm.hasAlpha()) return 2;
+            if (bands == 4 && cm.hasAlpha()) return 6;
+        }
+        return -1;
+    }
+
+    /** Encodes the image in the output stream, which is not closed */
+    public void encode(RenderedImage image, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        SampleModel sm = image.getSampleModel();
+        ColorModel cm = image.getColorModel();
+        int colorType = getColorType(sm, cm);
+        if (colorType < 0) {
+            throw new IllegalArgumentException("Unsupported image " + image);
+        }
+
+        out.write(SIGNATURE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+        DataOutputStream hos = new DataOutputStream(header);
+        hos.writeInt(image.getWidth());
+        hos.writeInt(image.getHeight());
+        hos.writeByte(8); // bit depth
+        hos.writeByte(colorType);
+        hos.writeByte(0); // compression
+        hos.writeByte(0); // filter
+        hos.writeByte(0); // interlace
+        writeChunk(out, "IHDR", header.toByteArray());
+        if (cm instanceof IndexColorModel) {
+            writePalette(out, (IndexColorModel) cm);
+        }
+
+        writeImageData(out, image);
+
+        writeChunk(out, "IEND", new byte[0]);
+        out.flush();
+    }
+
+    private void writePalette(DataOutputStream out, IndexColorModel icm) throws IOException {
+        int size = icm.getMapSize();
+        byte[] palette = new byte[size * 3];
+        byte[] alphas = new byte[size];
+        int lastTranslucent = -1;
+        for (int i = 0; i < size; i++) {
+            palette[i * 3] = (byte) icm.getRed(i);
+            palette[i * 3 + 1] = (byte) icm.getGreen(i);
+            palette[i * 3 + 2] = (byte) icm.getBlue(i);
+            alphas[i] = (byte) icm.getAlpha(i);
+            if (icm.getAlpha(i) != 255) {
+                lastTranslucent = i;
+            }
+        }
+        writeChunk(out, "PLTE", palette);
+        if (lastTranslucent >= 0) {
+            writeChunk(out, "tRNS", Arrays.copyOf(alphas, lastTranslucent + 1));
+        }
+    }
+
+    private void writeImageData(DataOutputStream out, RenderedImage image) throws IOException {
+        int bands = image.getSampleModel().getNumBands();
+        int rowBytes = image.getWidth() * bands + 1;
+        int rowsPerBlock = Math.max(1, BLOCK_SIZE / rowBytes);
+        int height = image.getHeight();
+        int blocks = (height + rowsPerBlock - 1) / rowsPerBlock;
+
+        // zlib header, the blocks will follow as a single raw deflate stream
+        byte[] zlibHeader = {0x78, (byte) 0x9C};
+        boolean headerWritten = false;
+        long adler = 1;
+        Deque<Future<Block>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            while (submitted < blocks || !pending.isEmpty()) {
+                while (submitted < blocks && pending.size() < threads * 2) {
+                    int startRow = submitted * rowsPerBlock;
+                    int endRow = Math.min(height, startRow + rowsPerBlock);
+                    boolean last = endRow == height;
+                    pending.add(
+                            executor.submit(() -> compress(image, startRow, endRow, last)));
+                    submitted++;
+                }
+                Block block = pending.poll().get();
+                adler = combineAdler32(adler, block.adler, block.length);
+                if (!headerWritten) {
+                    byte[] data = new byte[block.data.length + 2];
+                    System.arraycopy(zlibHeader, 0, data, 0, 2);
+                    System.arraycopy(block.data, 0, data, 2, block.data.length);
+                    writeChunk(out, "IDAT", data);
+                    headerWritten = true;
+                } else {
+                    writeChunk(out, "IDAT", block.data);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while encoding the PNG");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to encode the PNG", e.getCause());
+        } finally {
+            for (Future<Block> future : pending) {
+                future.cancel(true);
+            }
+        }
+
+        // the zlib trailer, the adler32 checksum of the uncompressed data
+        byte[] trailer = {
+            (byte) (adler >>> 24), (byte) (adler >>> 16), (byte) (adler >>> 8), (byte) adler
+        };
+        writeChunk(out, "IDAT", trailer);
+    }
+
+    /** A compressed block of rows */
+    static class Block {
+        byte[] data;
+
+        long adler;
+
+        long length;
+    }
+
+    /** Filters and compresses the specified rows */
+    Block compress(RenderedImage image, int startRow, int endRow, boolean last) {
+        int width = image.getWidth();
+        int bands = image.getSampleModel().getNumBands();
+        int rowBytes = width * bands + 1;
+        Deflater deflater = new Deflater(level, true);
+        try {
+            // prime the compressor with the tail of the previous block, the decompressor
+            // will have it in its window
+            if (startRow > 0) {
+                int dictionaryRows = (DICTIONARY_SIZE + rowBytes - 1) / rowBytes;
+                int dictStart = Math.max(0, startRow - dictionaryRows);
+                byte[] previous = filterRows(image, dictStart, startRow);
+                int offset = Math.max(0, previous.length - DICTIONARY_SIZE);
+                deflater.setDictionary(previous, offset, previous.length - offset);
+            }
+
+            byte[] filtered = filterRows(image, startRow, endRow);
+            Adler32 checksum = new Adler32();
+            checksum.update(filtered, 0, filtered.length);
+
+            deflater.setInput(filtered);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(filtered.length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    bos.write(buffer, 0, count);
+                }
+            } else {
+                // flush to a byte boundary without ending the stream
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    bos.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+
+            Block block = new Block();
+            block.data = bos.toByteArray();
+            block.adler = checksum.getValue();
+            block.length = filtered.length;
+            return block;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Returns the filtered scanlines, each one preceded by its filter type */
+    byte[] filterRows(RenderedImage image, int startRow, int endRow) {
+        int width = image.getWidth();
+        int bands = image.getSampleModel().getNumBands();
+        int rowBytes = width * bands + 1;
+        byte[] result = new byte[rowBytes * (endRow - startRow)];
+        Raster raster =
+                image.getData(
+                        new Rectangle(
+                                image.getMinX(),
+                                image.getMinY() + startRow,
+                                width,
+                                endRow - startRow));
+        int[] samples = new int[width * bands];
+        for (int row = startRow; row < endRow; row++) {
+            raster.getPixels(image.getMinX(), image.getMinY() + row, width, 1, samples);
+            int offset = (row - startRow) * rowBytes;
+            if (subFilter) {
+                result[offset] = FILTER_SUB;
+                for (int i = 0; i < samples.length; i++) {
+                    int left = i >= bands ? samples[i - bands] : 0;
+                    result[offset + 1 + i] = (byte) (samples[i] - left);
+                }
+            } else {
+                result[offset] = FILTER_NONE;
+                for (int i = 0; i < samples.length; i++) {
+                    result[offset + 1 + i] = (byte) samples[i];
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Combines the Adler32 checksums of two consecutive sequences, as zlib adler32_combine */
+    static long combineAdler32(long adler1, long adler2, long length2) {
+        final long base = 65521;
+        long rem = length2 % base;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % base;
+        sum1 += (adler2 & 0xffff) + base - 1;
+        sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff) + base - rem;
+        if (sum1 >= base) sum1 -= base;
+        if (sum1 >= base) sum1 -= base;
+        if (sum2 >= (base << 1)) sum2 -= (base << 1);
+        if (sum2 >= base) sum2 -= base;
+        return sum1 | (sum2 << 16);
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data)
+            throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,165 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+import java.util.TreeSet;
+import org.geoserver.catalog.DimensionInfo;
+import org.geoserver.catalog.DimensionPresentation;
+import org.geoserver.catalog.FeatureTypeInfo;
+import org.geoserver.catalog.ResourceInfo;
+import org.geoserver.security.CatalogMode;
+import org.geoserver.security.VectorAccessLimits;
+import org.geoserver.security.WrapperPolicy;
+import org.geoserver.security.decorators.SecuredFeatureTypeInfo;
+import org.geotools.filter.text.ecql.ECQL;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.w3c.dom.Document;
+
+public class DimensionDomainCacheTest extends WMSDimensionsTestSupport {
+
+    WMS wms;
+
+    DimensionDomainCache cache;
+
+    @Before
+    public void enableCache() {
+        wms = getWMS();
+        cache = wms.getDimensionDomainCache();
+        cache.setTimeToLive(600);
+        setupVectorDimension(
+                ResourceInfo.TIME, "time", DimensionPresentation.LIST, null, null, null);
+        setupVectorDimension(
+                ResourceInfo.ELEVATION,
+                "elevation",
+                DimensionPresentation.LIST,
+                null,
+                UNITS,
+                UNIT_SYMBOL);
+    }
+
+    @After
+    public void disableCache() {
+        // remove the persisted domains too
+        cache.getDirectory().delete();
+        cache.setPersist(false);
+        cache.setTimeToLive(0);
+    }
+
+    private FeatureTypeInfo getTimeElevation() {
+        return getCatalog().getFeatureTypeByName(V_TIME_ELEVATION.getLocalPart());
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        FeatureTypeInfo ft = getTimeElevation();
+        TreeSet<Date> times = wms.getFeatureTypeTimes(ft);
+        assertEquals(4, times.size());
+        assertEquals(1, cache.size());
+        wms.getFeatureTypeElevations(ft);
+        assertEquals(2, cache.size());
+
+        // the cached copy is returned, callers can modify it
+        TreeSet<Date> cached = wms.getFeatureTypeTimes(ft);
+        assertEquals(times, cached);
+        assertNotSame(times, cached);
+        cached.clear();
+        assertEquals(4, wms.getFeatureTypeTimes(ft).size());
+    }
+
+    @Test
+    public void testCatalogInvalidation() throws Exception {
+        FeatureTypeInfo ft = getTimeElevation();
+        wms.getFeatureTypeTimes(ft);
+        assertEquals(1, cache.size());
+
+        ft.setTitle("Changed");
+        getCatalog().save(ft);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testTransactionInvalidation() throws Exception {
+        wms.getFeatureTypeTimes(getTimeElevation());
+        TreeSet<Double> elevations = wms.getFeatureTypeElevations(getTimeElevation());
+        assertEquals(2, cache.size());
+        assertFalse(elevations.contains(10d));
+
+        try {
+            updateElevation("10.0");
+            assertEquals(0, cache.size());
+            assertTrue(wms.getFeatureTypeElevations(getTimeElevation()).contains(10d));
+        } finally {
+            updateElevation("0.0");
+        }
+    }
+
+    private void updateElevation(String elevation) throws Exception {
+        String xml =
+                "<wfs:Transaction service=\"WFS\" version=\"1.0.0\" "
+                        + "xmlns:wfs=\"http://www.opengis.net/wfs\" "
+                        + "xmlns:ogc=\"http://www.opengis.net/ogc\" "
+                        + "xmlns:sf=\"http://cite.opengeospatial.org/gmlsf\">"
+                        + "<wfs:Update typeName=\"sf:TimeElevation\">"
+                        + "<wfs:Property><wfs:Name>elevation</wfs:Name>"
+                        + "<wfs:Value>"
+                        + elevation
+                        + "</wfs:Value></wfs:Property>"
+                        + "<ogc:Filter><ogc:FeatureId fid=\"TimeElevation.0\"/></ogc:Filter>"
+                        + "</wfs:Update></wfs:Transaction>";
+        Document dom = postAsDOM("wfs", xml);
+        assertEquals(1, dom.getElementsByTagName("wfs:SUCCESS").getLength());
+    }
+
+    @Test
+    public void testSecured() throws Exception {
+        // secured, but no limits on what can be read, the domain can be shared
+        FeatureTypeInfo unlimited =
+                new SecuredFeatureTypeInfo(getTimeElevation(), WrapperPolicy.readWrite(null));
+        assertEquals(4, wms.getFeatureTypeTimes(unlimited).size());
+        assertEquals(1, cache.size());
+
+        // a read filter makes the domain user specific
+        cache.clear();
+        Filter filter = ECQL.toFilter("elevation < 2");
+        FeatureTypeInfo limited =
+                new SecuredFeatureTypeInfo(
+                        getTimeElevation(),
+                        WrapperPolicy.readWrite(
+                                new VectorAccessLimits(
+                                        CatalogMode.HIDE, null, filter, null, null)));
+        assertEquals(2, wms.getFeatureTypeTimes(limited).size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPersist() throws Exception {
+        cache.setPersist(true);
+        FeatureTypeInfo ft = getTimeElevation();
+        TreeSet<Date> times = wms.getFeatureTypeTimes(ft);
+
+        // drop the in memory copy, the domain is read back from the data directory
+        cache.domains.clear();
+        TreeSet<Date> persisted =
+                cache.getDomain(
+                        ft,
+                        ResourceInfo.TIME,
+                        ft.getMetadata().get(ResourceInfo.TIME, DimensionInfo.class),
+                        () -> {
+                            fail("Should have used the persisted domain");
+                            return null;
+                        });
+        assertEquals(times, persisted);
+    }
+}
@@ -0,0 +1,104 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.geoserver.ows.Request;
+import org.geoserver.platform.Operation;
+import org.geoserver.wms.GetMapRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DrawingSurfacePoolTest {
+
+    DrawingSurfacePool pool;
+
+    @Before
+    public void setupPool() {
+        pool = new DrawingSurfacePool();
+        DrawingSurfacePool.setMaxMemory(1024 * 1024);
+    }
+
+    @After
+    public void resetPool() {
+        DrawingSurfacePool.setMaxMemory(0);
+        DrawingSurfacePool.clear();
+    }
+
+    private Request getMapRequest(boolean tiled) {
+        GetMapRequest getMap = new GetMapRequest();
+        getMap.setTiled(tiled);
+        Request request = new Request();
+        request.setService("WMS");
+        request.setRequest("GetMap");
+        request.setOperation(new Operation("GetMap", null, null, new Object[] {getMap}));
+        return request;
+    }
+
+    @Test
+    public void testReuse() {
+        Request request = getMapRequest(false);
+        pool.init(request);
+        BufferedImage image = DrawingSurfacePool.checkout(100, 100, true);
+        assertEquals(BufferedImage.TYPE_4BYTE_ABGR, image.getType());
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 100, 100);
+        graphics.dispose();
+        // not returned until the request is finished
+        assertEquals(0, DrawingSurfacePool.getMemory());
+        pool.finished(request);
+        assertEquals(100 * 100 * 4, DrawingSurfacePool.getMemory());
+
+        // reused, and cleared
+        request = getMapRequest(false);
+        pool.init(request);
+        BufferedImage reused = DrawingSurfacePool.checkout(100, 100, true);
+        assertSame(image, reused);
+        assertEquals(0, reused.getRGB(50, 50));
+        assertEquals(0, DrawingSurfacePool.getMemory());
+        // different size or type, new surface
+        assertNotSame(image, DrawingSurfacePool.checkout(100, 100, false));
+        assertNotSame(image, DrawingSurfacePool.checkout(50, 100, true));
+        pool.finished(request);
+    }
+
+    @Test
+    public void testMemoryBound() {
+        Request request = getMapRequest(false);
+        pool.init(request);
+        // 600 * 600 * 4 bytes, does not fit in the pool
+        DrawingSurfacePool.checkout(600, 600, true);
+        pool.finished(request);
+        assertEquals(0, DrawingSurfacePool.getMemory());
+    }
+
+    @Test
+    public void testNotPooled() {
+        // tiled requests
+        Request request = getMapRequest(true);
+        pool.init(request);
+        assertNull(DrawingSurfacePool.checkout(100, 100, true));
+        pool.finished(request);
+
+        // outside of a request
+        assertNull(DrawingSurfacePool.checkout(100, 100, true));
+
+        // disabled
+        DrawingSurfacePool.setMaxMemory(0);
+        request = getMapRequest(false);
+        pool.init(request);
+        assertNull(DrawingSurfacePool.checkout(100, 100, true));
+        pool.finished(request);
+    }
+}
@@ -37,6 +37,7 @@
 import org.geoserver.data.test.MockData;
 import org.geoserver.data.test.SystemTestData;
 import org.geoserver.data.test.SystemTestData.LayerProperty;
+import org.geoserver.wms.DefaultWebMapService;
 import org.geoserver.wms.GetMapRequest;
 import org.geoserver.wms.WMS;
 import org.geoserver.wms.WMSTestSupport;
@@ -519,6 +520,32 @@ public void testRenderTimeStatisticsVectorsIntegrationTest() throws Exception {
         checkImage(response);
     }
 
+    @Test
+    public void testRenderTimeStatisticsParallelLayers() throws Exception {
+        DefaultWebMapService.setParallelLayerRenderingThreads(2);
+        try {
+            String layers =
+                    getLayerId(CiteTestData.STREAMS) + "," + getLayerId(CiteTestData.ROAD_SEGMENTS);
+            MockHttpServletRequest request =
+                    createRequest(
+                            "wms?bbox=-0.005,-0.005,0.005,0.005&layers="
+                                    + layers
+                                    + "&styles=Default,Default&Format=image/png&request=GetMap"
+                                    + "&width=200&height=200&srs=EPSG:4326");
+            request.setMethod("GET");
+            request.setContent(new byte[] {});
+            MockHttpServletResponse response = dispatch(request);
+            checkImage(response);
+            RenderTimeStatistics statistics =
+                    (RenderTimeStatistics) request.getAttribute(RenderTimeStatistics.ID);
+            // the features are credited to the layer painting them, not the last started one
+            assertEquals(2, statistics.getFeatureCount(0));
+            assertEquals(5, statistics.getFeatureCount(1));
+        } finally {
+            DefaultWebMapService.setParallelLayerRenderingThreads(0);
+        }
+    }
+
     @Test
     public void testRenderTimeStatisticsRasterIntegrationTest() throws Exception {
         MockHttpServletRequest request =
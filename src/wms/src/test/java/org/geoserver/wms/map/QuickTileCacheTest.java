@@ -6,9 +6,22 @@
 package org.geoserver.wms.map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.xml.namespace.QName;
+import org.geoserver.wms.map.QuickTileCache.MapKey;
+import org.geoserver.wms.map.QuickTileCache.MetaTileKey;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.crs.DefaultEngineeringCRS;
 import org.junit.Test;
 import org.locationtech.jts.geom.Envelope;
 
@@ -68,4 +81,96 @@ public void testInnerTileOffsets() {
         assertEquals(new Point(0, 2), cache.getTileOffsetsInMeta(box1, meta));
         assertEquals(new Point(1, 2), cache.getTileOffsetsInMeta(box2, meta));
     }
+
+    private MetaTileKey metaTileKey(String layer, int x) {
+        MapKey mapKey = new MapKey("layers=" + layer, 0.01, new Point2D.Double(0, 0));
+        MetaTileKey key =
+                new MetaTileKey(
+                        mapKey,
+                        new Point(x, 0),
+                        new ReferencedEnvelope(0, 10, 0, 10, DefaultEngineeringCRS.GENERIC_2D));
+        key.layers = Collections.singleton(new QName("http://test", layer));
+        return key;
+    }
+
+    private RenderedImage[] tiles() {
+        RenderedImage[] tiles = new RenderedImage[9];
+        BufferedImage tile = new BufferedImage(256, 256, BufferedImage.TYPE_4BYTE_ABGR);
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = tile;
+        }
+        return tiles;
+    }
+
+    @Test
+    public void testMemoryBound() {
+        // room for two meta tiles only
+        long metaTileSize = 9 * 256 * 256 * 4;
+        cache.setMaxMemory(metaTileSize * 2);
+        MetaTileKey k1 = metaTileKey("a", 0);
+        MetaTileKey k2 = metaTileKey("a", 3);
+        MetaTileKey k3 = metaTileKey("a", 6);
+        cache.storeTiles(k1, tiles());
+        cache.storeTiles(k2, tiles());
+        assertEquals(2, cache.getCount());
+        assertEquals(metaTileSize * 2, cache.getMemory());
+
+        // the oldest goes away
+        RenderedImage[] tiles = tiles();
+        cache.storeTiles(k3, tiles);
+        assertEquals(2, cache.getCount());
+        assertEquals(metaTileSize * 2, cache.getMemory());
+        assertEquals(1, cache.getEvictions());
+        assertSame(tiles, getCached(k3));
+        assertNull(getCached(k1));
+
+        cache.setMaxMemory(0);
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getMemory());
+    }
+
+    @Test
+    public void testLayerInvalidation() {
+        MetaTileKey ka = metaTileKey("a", 0);
+        MetaTileKey kb = metaTileKey("b", 0);
+        MetaTileKey unknown = metaTileKey("c", 0);
+        unknown.layers = null;
+        cache.storeTiles(ka, tiles());
+        cache.storeTiles(kb, tiles());
+        cache.storeTiles(unknown, tiles());
+
+        cache.invalidate(new QName("http://test", "a"));
+        assertNull(getCached(ka));
+        assertNull(getCached(unknown));
+        assertEquals(1, cache.getCount());
+        assertEquals(9 * 256 * 256 * 4, cache.getMemory());
+
+        // another namespace, not a match
+        cache.invalidate(new QName("http://other", "b"));
+        assertEquals(1, cache.getCount());
+        cache.invalidate(new QName("b"));
+        assertEquals(0, cache.getCount());
+    }
+
+    @Test
+    public void testJMX() throws Exception {
+        cache.afterPropertiesSet();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(QuickTileCache.OBJECT_NAME);
+            cache.storeTiles(metaTileKey("a", 0), tiles());
+            assertEquals(1, server.getAttribute(name, "Count"));
+            assertEquals(0L, server.getAttribute(name, "Evictions"));
+
+            server.invoke(name, "clear", null, null);
+            assertEquals(0, cache.getCount());
+        } finally {
+            cache.destroy();
+        }
+    }
+
+    private RenderedImage[] getCached(MetaTileKey key) {
+        QuickTileCache.CacheElement ce = cache.tileCache.get(key);
+        return ce == null ? null : ce.tiles;
+    }
 }
@@ -13,6 +13,7 @@
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -67,6 +68,7 @@
 import org.geoserver.platform.ServiceException;
 import org.geoserver.security.decorators.DecoratingFeatureSource;
 import org.geoserver.wms.CachedGridReaderLayer;
+import org.geoserver.wms.DefaultWebMapService;
 import org.geoserver.wms.GetMapRequest;
 import org.geoserver.wms.MapLayerInfo;
 import org.geoserver.wms.WMS;
@@ -88,6 +90,7 @@
 import org.geotools.geometry.GeneralEnvelope;
 import org.geotools.geometry.jts.LiteShape2;
 import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.image.ImageWorker;
 import org.geotools.image.test.ImageAssert;
 import org.geotools.image.util.ImageUtilities;
 import org.geotools.map.FeatureLayer;
@@ -99,6 +102,7 @@
 import org.geotools.renderer.lite.StreamingRenderer;
 import org.geotools.styling.ChannelSelection;
 import org.geotools.styling.ChannelSelectionImpl;
+import org.geotools.styling.FeatureTypeStyle;
 import org.geotools.styling.RasterSymbolizer;
 import org.geotools.styling.SelectedChannelType;
 import org.geotools.styling.SelectedChannelTypeImpl;
@@ -272,6 +276,60 @@ public void testSimpleGetMapQuery() throws Exception {
         assertNotBlank("testSimpleGetMapQuery", image);
     }
 
+    @Test
+    public void testParallelLayerRendering() throws Exception {
+        List<StreamingRenderer> renderers = new ArrayList<>();
+        RenderedImageMapOutputFormat producer =
+                new RenderedImageMapOutputFormat(getWMS()) {
+                    @Override
+                    protected void onBeforeRender(StreamingRenderer renderer) {
+                        renderers.add(renderer);
+                    }
+                };
+
+        RenderedImageMap expected = producer.produceMap(buildMultiLayerMap());
+        assertFalse(renderers.get(0) instanceof ParallelLayerRenderer);
+
+        DefaultWebMapService.setParallelLayerRenderingThreads(2);
+        try {
+            RenderedImageMap actual = producer.produceMap(buildMultiLayerMap());
+            assertTrue(renderers.get(1) instanceof ParallelLayerRenderer);
+            // same result, the layers have been composited in order
+            ImageAssert.assertEquals(expected.getImage(), actual.getImage(), 100);
+            actual.dispose();
+        } finally {
+            DefaultWebMapService.setParallelLayerRenderingThreads(0);
+            expected.dispose();
+        }
+    }
+
+    /** Builds a map with several overlapping layers */
+    private WMSMapContent buildMultiLayerMap() throws Exception {
+        Catalog catalog = getCatalog();
+        StyleBuilder sb = new StyleBuilder();
+        GetMapRequest request = new GetMapRequest();
+        request.setFormat(getMapFormat());
+        WMSMapContent map = new WMSMapContent();
+        map.setRequest(request);
+        map.setMapWidth(300);
+        map.setMapHeight(300);
+        map.setTransparent(false);
+
+        ReferencedEnvelope bounds = new ReferencedEnvelope(DefaultGeographicCRS.WGS84);
+        QName[] names = {MockData.FORESTS, MockData.LAKES, MockData.STREAMS};
+        Color[] colors = {Color.GREEN, Color.BLUE, Color.CYAN};
+        for (int i = 0; i < names.length; i++) {
+            FeatureSource fs =
+                    catalog.getFeatureTypeByName(names[i].getPrefix(), names[i].getLocalPart())
+                            .getFeatureSource(null, null);
+            bounds.expandToInclude(fs.getBounds());
+            Style style = sb.createStyle(sb.createPolygonSymbolizer(colors[i], Color.BLACK, 2));
+            map.addLayer(new FeatureLayer(fs, style));
+        }
+        map.getViewport().setBounds(bounds);
+        return map;
+    }
+
     @Test
     public void testAdvancedProjectionDensification() throws Exception {
         WMS wms = getWMS();
@@ -690,6 +748,138 @@ public void testDirectVsNonDirectRasterRender() throws Exception {
         imageMap.dispose();
     }
 
+    @Test
+    public void testDirectRasterStack() throws Exception {
+        Catalog catalog = getCatalog();
+        CoverageInfo ci =
+                catalog.getCoverageByName(
+                        SystemTestData.MULTIBAND.getPrefix(),
+                        SystemTestData.MULTIBAND.getLocalPart());
+        GridCoverage2DReader reader = (GridCoverage2DReader) ci.getGridCoverageReader(null, null);
+        StyleBuilder builder = new StyleBuilder();
+        ReferencedEnvelope bbox =
+                new ReferencedEnvelope(
+                        new Envelope(-116.9, -114.3, 32.07, 33.89), DefaultGeographicCRS.WGS84);
+
+        // the same opaque coverage twice, the top one hides the bottom one
+        RenderedImage single = null;
+        for (int layers = 1; layers <= 2; layers++) {
+            GetMapRequest request = new GetMapRequest();
+            request.setBbox(bbox);
+            request.setSRS("urn:x-ogc:def:crs:EPSG:4326");
+            request.setFormat("image/png");
+            final WMSMapContent map = new WMSMapContent(request);
+            map.setMapWidth(300);
+            map.setMapHeight(300);
+            map.setBgColor(Color.red);
+            map.setTransparent(false);
+            map.getViewport().setBounds(bbox);
+            for (int i = 0; i < layers; i++) {
+                map.addLayer(
+                        new CachedGridReaderLayer(
+                                reader, builder.createStyle(builder.createRasterSymbolizer())));
+            }
+            assertEquals(layers > 1, DirectRasterRenderer.isStackable(map));
+
+            RenderedImageMap imageMap = this.rasterMapProducer.produceMap(map);
+            RenderedImage image = imageMap.getImage();
+            if (single == null) {
+                single = new ImageWorker(image).getBufferedImage();
+            } else {
+                assertEquals(3, image.getSampleModel().getNumBands());
+                ImageAssert.assertEquals(single, image, 0);
+            }
+            imageMap.dispose();
+        }
+    }
+
+    @Test
+    public void testDirectRasterStackPartialLayers() throws Exception {
+        Catalog catalog = getCatalog();
+        CoverageInfo ci =
+                catalog.getCoverageByName(
+                        SystemTestData.MULTIBAND.getPrefix(),
+                        SystemTestData.MULTIBAND.getLocalPart());
+        GridCoverage2DReader reader = (GridCoverage2DReader) ci.getGridCoverageReader(null, null);
+        StyleBuilder builder = new StyleBuilder();
+        // larger than the coverage, the layers cover only part of the map
+        ReferencedEnvelope bbox =
+                new ReferencedEnvelope(
+                        new Envelope(-118, -113, 31, 35), DefaultGeographicCRS.WGS84);
+
+        RenderedImage single = null;
+        for (int layers = 1; layers <= 2; layers++) {
+            GetMapRequest request = new GetMapRequest();
+            request.setBbox(bbox);
+            request.setSRS("urn:x-ogc:def:crs:EPSG:4326");
+            request.setFormat("image/png");
+            final WMSMapContent map = new WMSMapContent(request);
+            map.setMapWidth(300);
+            map.setMapHeight(300);
+            map.setBgColor(Color.red);
+            map.setTransparent(false);
+            map.getViewport().setBounds(bbox);
+            for (int i = 0; i < layers; i++) {
+                map.addLayer(
+                        new CachedGridReaderLayer(
+                                reader, builder.createStyle(builder.createRasterSymbolizer())));
+            }
+            assertEquals(layers > 1, DirectRasterRenderer.isStackable(map));
+
+            RenderedImageMap imageMap = this.rasterMapProducer.produceMap(map);
+            RenderedImage image = imageMap.getImage();
+            // the rendering time is tracked on the direct paths
+            assertTrue(image instanceof RenderedImageTimeDecorator);
+            RenderTimeStatistics statistics = ((RenderedImageTimeDecorator) image).getStatistics();
+            assertEquals(layers, statistics.getLayers().size());
+            if (single == null) {
+                single = new ImageWorker(image).getBufferedImage();
+            } else {
+                // the areas not covered by the layers show the background color
+                assertEquals(3, image.getSampleModel().getNumBands());
+                ImageAssert.assertEquals(single, image, 0);
+            }
+            imageMap.dispose();
+        }
+    }
+
+    @Test
+    public void testDirectRasterStackNotStackable() throws Exception {
+        Catalog catalog = getCatalog();
+        CoverageInfo ci =
+                catalog.getCoverageByName(
+                        SystemTestData.MULTIBAND.getPrefix(),
+                        SystemTestData.MULTIBAND.getLocalPart());
+        GridCoverage2DReader reader = (GridCoverage2DReader) ci.getGridCoverageReader(null, null);
+        StyleBuilder builder = new StyleBuilder();
+
+        // a semi transparent top layer
+        RasterSymbolizer transparent = builder.createRasterSymbolizer();
+        transparent.setOpacity(builder.literalExpression(0.5));
+        assertFalse(DirectRasterRenderer.isStackable(stack(reader, transparent)));
+
+        // a symbolizer level composite
+        RasterSymbolizer composite = builder.createRasterSymbolizer();
+        composite.getOptions().put(FeatureTypeStyle.COMPOSITE, "multiply");
+        assertFalse(DirectRasterRenderer.isStackable(stack(reader, composite)));
+
+        // plain symbolizers can be stacked
+        assertTrue(
+                DirectRasterRenderer.isStackable(
+                        stack(reader, builder.createRasterSymbolizer())));
+    }
+
+    /** Builds a map with a plain raster layer, and one using the given symbolizer on top */
+    private WMSMapContent stack(GridCoverage2DReader reader, RasterSymbolizer top) {
+        StyleBuilder builder = new StyleBuilder();
+        WMSMapContent map = new WMSMapContent(new GetMapRequest());
+        map.addLayer(
+                new CachedGridReaderLayer(
+                        reader, builder.createStyle(builder.createRasterSymbolizer())));
+        map.addLayer(new CachedGridReaderLayer(reader, builder.createStyle(top)));
+        return map;
+    }
+
     @Test
     public void testTimeoutOption() throws Exception {
         Catalog catalog = getCatalog();
@@ -0,0 +1,107 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.ObjectName;
+import org.geoserver.wms.map.RenderingMetrics.LayerMetrics;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.Layer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RenderingMetricsTest {
+
+    RenderingMetrics metrics;
+
+    @Before
+    public void setup() throws Exception {
+        metrics = new RenderingMetrics();
+        metrics.afterPropertiesSet();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        metrics.destroy();
+    }
+
+    private Layer layer(String title) {
+        Layer layer =
+                new Layer() {
+
+                    @Override
+                    public ReferencedEnvelope getBounds() {
+                        return null;
+                    }
+                };
+        layer.setTitle(title);
+        return layer;
+    }
+
+    private void render(Layer... layers) {
+        RenderTimeStatistics statistics = new RenderTimeStatistics();
+        for (Layer layer : layers) {
+            statistics.layerStart(layer);
+            statistics.featureRenderer(null);
+            statistics.featureRenderer(null);
+            statistics.layerEnd(layer);
+        }
+        statistics.labellingStart();
+        statistics.labellingEnd();
+        statistics.renderingComplete();
+    }
+
+    @Test
+    public void testDisabled() {
+        assertNull(RenderingMetrics.getInstance());
+        render(layer("a"));
+        assertTrue(metrics.getLayers().isEmpty());
+    }
+
+    @Test
+    public void testAggregate() {
+        metrics.setEnabled(true);
+        assertNotNull(RenderingMetrics.getInstance());
+        Layer a = layer("a");
+        Layer b = layer("b");
+        render(a, b);
+        render(a);
+
+        List<LayerMetrics> layers = metrics.getLayers();
+        assertEquals(2, layers.size());
+        for (LayerMetrics lm : layers) {
+            long expected = lm.getLayer().equals("a") ? 2 : 1;
+            assertEquals(expected, lm.getCount());
+            assertEquals(expected * 2, lm.getFeatures());
+            long total = 0;
+            for (long bucket : lm.getHistogram()) {
+                total += bucket;
+            }
+            assertEquals(expected, total);
+        }
+        assertEquals(2, metrics.getLabelling().getCount());
+
+        metrics.reset();
+        assertTrue(metrics.getLayers().isEmpty());
+    }
+
+    @Test
+    public void testJMX() throws Exception {
+        ObjectName name = new ObjectName(RenderingMetrics.OBJECT_NAME);
+        metrics.setEnabled(true);
+        render(layer("a"));
+        assertEquals(
+                Boolean.TRUE,
+                ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Enabled"));
+        assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Layers"));
+    }
+}
@@ -0,0 +1,123 @@
+/* (c) 2022 Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.wms.map.png;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+import javax.imageio.ImageIO;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelPNGEncoderTest {
+
+    static ExecutorService executor;
+
+    @BeforeClass
+    public static void setupExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    private BufferedImage buildImage(int type) {
+        // tall enough to be split in several blocks
+        BufferedImage image = new BufferedImage(700, 900, type);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            graphics.setColor(
+                    new Color(
+                            random.nextInt(256),
+                            random.nextInt(256),
+                            random.nextInt(256),
+                            random.nextInt(256)));
+            graphics.fillOval(
+                    random.nextInt(700), random.nextInt(900), random.nextInt(200), 100);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private void assertRoundTrip(int type, boolean subFilter) throws Exception {
+        BufferedImage image = buildImage(type);
+        assertTrue(ParallelPNGEncoder.isSupported(image));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new ParallelPNGEncoder(executor, 4, 4, subFilter).encode(image, bos);
+
+        BufferedImage read = ImageIO.read(new ByteArrayInputStream(bos.toByteArray()));
+        assertEquals(image.getWidth(), read.getWidth());
+        assertEquals(image.getHeight(), read.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y), read.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testRGBA() throws Exception {
+        assertRoundTrip(BufferedImage.TYPE_4BYTE_ABGR, false);
+        assertRoundTrip(BufferedImage.TYPE_4BYTE_ABGR, true);
+    }
+
+    @Test
+    public void testRGB() throws Exception {
+        assertRoundTrip(BufferedImage.TYPE_3BYTE_BGR, false);
+        assertRoundTrip(BufferedImage.TYPE_3BYTE_BGR, true);
+    }
+
+    @Test
+    public void testGray() throws Exception {
+        assertRoundTrip(BufferedImage.TYPE_BYTE_GRAY, true);
+    }
+
+    @Test
+    public void testPaletted() throws Exception {
+        assertRoundTrip(BufferedImage.TYPE_BYTE_INDEXED, false);
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertFalse(
+                ParallelPNGEncoder.isSupported(
+                        new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB)));
+        assertFalse(
+                ParallelPNGEncoder.isSupported(
+                        new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_BINARY)));
+        assertFalse(
+                ParallelPNGEncoder.isSupported(
+                        new BufferedImage(10, 10, BufferedImage.TYPE_4BYTE_ABGR_PRE)));
+    }
+
+    @Test
+    public void testCombineAdler32() {
+        byte[] data = new byte[100000];
+        new Random(0).nextBytes(data);
+        Adler32 whole = new Adler32();
+        whole.update(data);
+        Adler32 first = new Adler32();
+        first.update(data, 0, 30000);
+        Adler32 second = new Adler32();
+        second.update(data, 30000, 70000);
+        assertEquals(
+                whole.getValue(),
+                ParallelPNGEncoder.combineAdler32(first.getValue(), second.getValue(), 70000));
+    }
+}
@@ -48,6 +48,7 @@
 import org.geoserver.data.test.SystemTestData.LayerProperty;
 import org.geoserver.test.RemoteOWSTestSupport;
 import org.geoserver.wfs.WFSInfo;
+import org.geoserver.wms.DefaultWebMapService;
 import org.geoserver.wms.WMSInfo;
 import org.geoserver.wms.WMSTestSupport;
 import org.geoserver.wms.featureinfo.GML2FeatureInfoOutputFormat;
@@ -722,6 +723,57 @@ public void testTwoLayersFeatureCount() throws Exception {
         XMLAssert.assertXpathEvaluatesTo("1", "count(//cite:Lakes)", dom);
     }
 
+    /** Same as above, but identifying the layers in parallel */
+    @Test
+    public void testTwoLayersFeatureCountParallel() throws Exception {
+        DefaultWebMapService.setParallelFeatureInfoThreads(2);
+        try {
+            testTwoLayersFeatureCount();
+
+            // order is preserved, the forest comes first
+            String layer = getLayerId(MockData.FORESTS) + "," + getLayerId(MockData.LAKES);
+            String request =
+                    "wms?version=1.1.1&bbox=-0.002,-0.002,0.002,0.002&styles=&format=jpeg"
+                            + "&info_format=text/plain&request=GetFeatureInfo&layers="
+                            + layer
+                            + "&query_layers="
+                            + layer
+                            + "&width=20&height=20&x=10&y=10&buffer=10&feature_count=2";
+            String result = getAsString(request);
+            int idxForests = result.indexOf("Forests");
+            int idxLakes = result.indexOf("Lakes");
+            assertTrue(idxForests > 0);
+            assertTrue(idxLakes > idxForests);
+        } finally {
+            DefaultWebMapService.setParallelFeatureInfoThreads(0);
+        }
+    }
+
+    /** Several matches per layer, the feature count is honored across the parallel layers */
+    @Test
+    public void testSeveralMatchesFeatureCountParallel() throws Exception {
+        DefaultWebMapService.setParallelFeatureInfoThreads(2);
+        try {
+            // the buffer covers the whole map, hitting 2 streams and 5 road segments
+            String layer = getLayerId(MockData.STREAMS) + "," + getLayerId(MockData.ROAD_SEGMENTS);
+            String request =
+                    "wms?version=1.1.1&bbox=-0.005,-0.005,0.005,0.005&styles=&format=image/png"
+                            + "&info_format=application/vnd.ogc.gml&request=GetFeatureInfo"
+                            + "&layers="
+                            + layer
+                            + "&query_layers="
+                            + layer
+                            + "&srs=EPSG:4326&width=2&height=2&x=1&y=1&buffer=2"
+                            + "&feature_count=3";
+            Document dom = getAsDOM(request);
+            XMLAssert.assertXpathEvaluatesTo("3", "count(//gml:featureMember)", dom);
+            XMLAssert.assertXpathEvaluatesTo("2", "count(//cite:Streams)", dom);
+            XMLAssert.assertXpathEvaluatesTo("1", "count(//cite:RoadSegments)", dom);
+        } finally {
+            DefaultWebMapService.setParallelFeatureInfoThreads(0);
+        }
+    }
+
     /**
      * Check GetFeatureInfo returns an error if the format is not known, instead of returning the
      * text format as in https://osgeo-org.atlassian.net/browse/GEOS-1924